@@ -46,7 +46,10 @@ tasks.named<Test>("test") {
 
   }
 
-  useJUnitPlatform()
+  // Allocation checks depend on the JIT, they fail under -Xint or coverage agents.
+  useJUnitPlatform {
+    excludeTags("perf")
+  }
 
   addTestListener(object : TestListener {
     override fun beforeSuite(suite: TestDescriptor) {}
@@ -69,6 +72,16 @@ tasks.named<Test>("test") {
   })
 }
 
+tasks.register<Test>("perfTest") {
+  description = "Runs the tests tagged perf, which check that hot paths don't allocate."
+  group = "verification"
+  testClassesDirs = sourceSets["test"].output.classesDirs
+  classpath = sourceSets["test"].runtimeClasspath
+  useJUnitPlatform {
+    includeTags("perf")
+  }
+}
+
 dependencies {
   implementation(group = "org.openjfx", name = "javafx", version = "14-ea+6", ext = "pom")
   implementation("org.jetbrains:annotations:19.0.0")
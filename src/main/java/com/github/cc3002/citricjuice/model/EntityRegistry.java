@@ -0,0 +1,171 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.unit.AbstractUnit;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+
+import java.util.Arrays;
+
+/**
+ * Gives every panel and unit of a match a dense integer ID, so they can be referred to by an
+ * int and found again with an array access.
+ * <p>
+ * Panels and units have separate IDs, both counting from 0 in registration order. The ID is
+ * also stored on the entity, so going from an entity to its ID doesn't need any search or
+ * hashing either. A unit ID is a slot: the current wild unit, for example, keeps the same ID
+ * when a new wild unit takes its place.
+ */
+public class EntityRegistry {
+  private IPanel[] panels = new IPanel[32];
+  private int panelCount = 0;
+  private AbstractUnit[] units = new AbstractUnit[8];
+  private int unitCount = 0;
+  // Panel ID + 1 on each cell of the board, 0 for empty cells.
+  private int[] grid = new int[0];
+  private int gridWidth = 0;
+  private int gridHeight = 0;
+
+  /**
+   * Registers a panel.
+   * @return
+   *  the ID given to the panel
+   */
+  public int addPanel(IPanel panel) {
+    if (panelCount == panels.length) {
+      panels = Arrays.copyOf(panels, panelCount * 2);
+    }
+    int id = panelCount++;
+    panels[id] = panel;
+    panel.setEntityId(id);
+    return id;
+  }
+
+  /**
+   * Registers every panel of a shared board, keeping the IDs the board gave them.
+   * @throws IllegalStateException
+   *  if there are panels registered already.
+   */
+  public void addBoard(BoardTopology board) {
+    if (panelCount != 0) {
+      throw new IllegalStateException("A board can only be added to an empty registry.");
+    }
+    if (panels.length < board.size()) {
+      panels = new IPanel[board.size()];
+    }
+    int width = 0;
+    int height = 0;
+    for (int id = 0; id < board.size(); id++) {
+      panels[id] = board.getPanel(id);
+      width = Math.max(width, board.getX(id) + 1);
+      height = Math.max(height, board.getY(id) + 1);
+    }
+    panelCount = board.size();
+    grid = new int[width * height];
+    gridWidth = width;
+    gridHeight = height;
+    for (int id = 0; id < board.size(); id++) {
+      if (board.getX(id) >= 0) {
+        grid[board.getX(id) * gridHeight + board.getY(id)] = id + 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the panel with a certain ID.
+   */
+  public IPanel getPanel(int id) {
+    return panels[id];
+  }
+
+  public int getPanelCount() {
+    return panelCount;
+  }
+
+  /**
+   * Returns the ID of a panel, -1 if it wasn't registered here.
+   */
+  public int getPanelId(IPanel panel) {
+    int id = panel.getEntityId();
+    return id >= 0 && id < panelCount && panels[id] == panel ? id : -1;
+  }
+
+  /**
+   * Registers the position of a panel on the board.
+   */
+  public void placePanel(int id, int x, int y) {
+    if (x >= gridWidth || y >= gridHeight) {
+      int width = Math.max(gridWidth, x + 1);
+      int height = Math.max(gridHeight, y + 1);
+      int[] resized = new int[width * height];
+      for (int oldX = 0; oldX < gridWidth; oldX++) {
+        System.arraycopy(grid, oldX * gridHeight, resized, oldX * height, gridHeight);
+      }
+      grid = resized;
+      gridWidth = width;
+      gridHeight = height;
+    }
+    grid[x * gridHeight + y] = id + 1;
+  }
+
+  /**
+   * Returns the ID of the panel on a position of the board, -1 if there is none.
+   */
+  public int getPanelAt(int x, int y) {
+    if (x < 0 || y < 0 || x >= gridWidth || y >= gridHeight) {
+      return -1;
+    }
+    return grid[x * gridHeight + y] - 1;
+  }
+
+  /**
+   * Registers a unit on a new slot.
+   * @return
+   *  the ID of the slot
+   */
+  public int addUnit(AbstractUnit unit) {
+    if (unitCount == units.length) {
+      units = Arrays.copyOf(units, unitCount * 2);
+    }
+    int id = unitCount++;
+    setUnit(id, unit);
+    return id;
+  }
+
+  /**
+   * Puts a unit on a slot, in place of the one that was there.
+   * @param unit
+   *  new unit of the slot, null to leave it empty
+   */
+  public void setUnit(int id, AbstractUnit unit) {
+    if (units[id] != null && units[id] != unit) {
+      units[id].setEntityId(-1);
+    }
+    units[id] = unit;
+    if (unit != null) {
+      unit.setEntityId(id);
+    }
+  }
+
+  /**
+   * Returns the unit on a slot, null if it's empty.
+   */
+  public AbstractUnit getUnit(int id) {
+    return units[id];
+  }
+
+  public int getUnitCount() {
+    return unitCount;
+  }
+
+  /**
+   * Returns the slot of a unit, -1 if it isn't on one of this registry.
+   */
+  public int getUnitId(IUnit unit) {
+    if (!(unit instanceof AbstractUnit)) {
+      return -1;
+    }
+    int id = ((AbstractUnit) unit).getEntityId();
+    return id >= 0 && id < unitCount && units[id] == unit ? id : -1;
+  }
+}
@@ -0,0 +1,242 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+
+import java.util.Arrays;
+
+/**
+ * Conditions of a match that depend on every player (highest norma level, winner, who's
+ * leading), kept up to date as players change instead of worked out on each question.
+ * <p>
+ * Players tell their standings whenever their norma level, stars or wins change, and each
+ * update only moves that player on the ranking, so every question is answered in constant
+ * time. Players are found by their seat, so they need one before being added.
+ */
+public class MatchStandings {
+  /**
+   * Norma level a player needs for the boss to show up.
+   */
+  public static final int BOSS_NORMA_LEVEL = 4;
+  /**
+   * Norma level that wins the match.
+   */
+  public static final int WINNING_NORMA_LEVEL = 6;
+
+  // Players from leader to last.
+  private Player[] ranking = new Player[4];
+  // Position on the ranking of each seat, -1 for empty seats.
+  private int[] rankOfSeat = new int[4];
+  // Norma level each seat had on the last update.
+  private int[] levelOfSeat = new int[4];
+  // Amount of players on each norma level.
+  private int[] playersOnLevel = new int[WINNING_NORMA_LEVEL + 1];
+  private int count = 0;
+  private int maxNormaLevel = 0;
+  private Player winner;
+
+  public MatchStandings() {
+    Arrays.fill(rankOfSeat, -1);
+  }
+
+  /**
+   * Adds a seated player, nothing happens if it's already here.
+   */
+  public void add(Player player) {
+    int seat = player.getSeat();
+    if (seat < 0) {
+      throw new IllegalArgumentException("Only seated players can be added to the standings.");
+    }
+    if (seat >= rankOfSeat.length) {
+      int length = Math.max(seat + 1, rankOfSeat.length * 2);
+      rankOfSeat = Arrays.copyOf(rankOfSeat, length);
+      Arrays.fill(rankOfSeat, seat, length, -1);
+      levelOfSeat = Arrays.copyOf(levelOfSeat, length);
+    }
+    if (rankOfSeat[seat] >= 0) {
+      return;
+    }
+    if (count == ranking.length) {
+      ranking = Arrays.copyOf(ranking, count * 2);
+    }
+    ranking[count] = player;
+    rankOfSeat[seat] = count;
+    count++;
+    levelOfSeat[seat] = player.getNormaLevel();
+    addToLevel(levelOfSeat[seat], 1);
+    moveUp(count - 1);
+    updateWinner(player);
+  }
+
+  /**
+   * Removes a player, nothing happens if it isn't here.
+   */
+  public void remove(Player player) {
+    int seat = player.getSeat();
+    if (!contains(player)) {
+      return;
+    }
+    for (int i = rankOfSeat[seat]; i < count - 1; i++) {
+      ranking[i] = ranking[i + 1];
+      rankOfSeat[ranking[i].getSeat()] = i;
+    }
+    ranking[--count] = null;
+    rankOfSeat[seat] = -1;
+    addToLevel(levelOfSeat[seat], -1);
+    if (winner == player) {
+      findWinner();
+    }
+  }
+
+  /**
+   * Takes into account a change on a player's norma level, stars or wins.
+   */
+  public void update(Player player) {
+    if (!contains(player)) {
+      return;
+    }
+    int seat = player.getSeat();
+    int level = player.getNormaLevel();
+    if (level != levelOfSeat[seat]) {
+      addToLevel(levelOfSeat[seat], -1);
+      addToLevel(level, 1);
+      levelOfSeat[seat] = level;
+      updateWinner(player);
+    }
+    moveDown(moveUp(rankOfSeat[seat]));
+  }
+
+  private boolean contains(Player player) {
+    int seat = player.getSeat();
+    return seat >= 0 && seat < rankOfSeat.length && rankOfSeat[seat] >= 0
+        && ranking[rankOfSeat[seat]] == player;
+  }
+
+  private void addToLevel(int level, int amount) {
+    if (level >= playersOnLevel.length) {
+      playersOnLevel = Arrays.copyOf(playersOnLevel, level + 1);
+    }
+    playersOnLevel[Math.max(level, 0)] += amount;
+    if (amount > 0) {
+      maxNormaLevel = Math.max(maxNormaLevel, level);
+    }
+    while (maxNormaLevel > 0 && playersOnLevel[maxNormaLevel] == 0) {
+      maxNormaLevel--;
+    }
+  }
+
+  /**
+   * Keeps the winner as the first seat with the winning norma level. Only a player crossing
+   * that level, or the winner leaving it, makes the players be checked again.
+   */
+  private void updateWinner(Player player) {
+    if (player.getNormaLevel() >= WINNING_NORMA_LEVEL) {
+      if (winner == null || player.getSeat() < winner.getSeat()) {
+        winner = player;
+      }
+    } else if (winner == player) {
+      findWinner();
+    }
+  }
+
+  private void findWinner() {
+    winner = null;
+    for (int i = 0; i < count; i++) {
+      Player player = ranking[i];
+      if (player.getNormaLevel() >= WINNING_NORMA_LEVEL
+          && (winner == null || player.getSeat() < winner.getSeat())) {
+        winner = player;
+      }
+    }
+  }
+
+  /**
+   * Tells whether a player goes before another one: higher norma level, then more stars, then
+   * more wins, then the lower seat.
+   */
+  private static boolean isAhead(Player player, Player other) {
+    if (player.getNormaLevel() != other.getNormaLevel()) {
+      return player.getNormaLevel() > other.getNormaLevel();
+    }
+    if (player.getStars() != other.getStars()) {
+      return player.getStars() > other.getStars();
+    }
+    if (player.getWins() != other.getWins()) {
+      return player.getWins() > other.getWins();
+    }
+    return player.getSeat() < other.getSeat();
+  }
+
+  private int moveUp(int rank) {
+    while (rank > 0 && isAhead(ranking[rank], ranking[rank - 1])) {
+      swap(rank, rank - 1);
+      rank--;
+    }
+    return rank;
+  }
+
+  private void moveDown(int rank) {
+    while (rank < count - 1 && isAhead(ranking[rank + 1], ranking[rank])) {
+      swap(rank, rank + 1);
+      rank++;
+    }
+  }
+
+  private void swap(int i, int j) {
+    Player player = ranking[i];
+    ranking[i] = ranking[j];
+    ranking[j] = player;
+    rankOfSeat[ranking[i].getSeat()] = i;
+    rankOfSeat[ranking[j].getSeat()] = j;
+  }
+
+  /**
+   * Returns the amount of players on the standings.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the highest norma level among the players, 0 if there are none.
+   */
+  public int getMaxNormaLevel() {
+    return maxNormaLevel;
+  }
+
+  /**
+   * Returns the player that won the match (the first seat that reached the winning norma
+   * level), null if nobody has yet.
+   */
+  public Player getWinner() {
+    return winner;
+  }
+
+  /**
+   * Tells whether a player reached the norma level that makes the boss show up.
+   */
+  public boolean isBossEligible() {
+    return maxNormaLevel >= BOSS_NORMA_LEVEL;
+  }
+
+  /**
+   * Returns the player that's leading the match, null if there are no players.
+   */
+  public Player getLeader() {
+    return count == 0 ? null : ranking[0];
+  }
+
+  /**
+   * Returns the player on a certain position of the ranking, 0 being the leader.
+   */
+  public Player getPlayerAt(int rank) {
+    return ranking[rank];
+  }
+
+  /**
+   * Returns the position of a player on the ranking, 0 being the leader, or -1 if it isn't on
+   * the standings.
+   */
+  public int getRank(Player player) {
+    return contains(player) ? rankOfSeat[player.getSeat()] : -1;
+  }
+}
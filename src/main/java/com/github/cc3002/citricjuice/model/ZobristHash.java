@@ -0,0 +1,97 @@
+package com.github.cc3002.citricjuice.model;
+
+/**
+ * 64 bit fingerprint of the state of a match, kept up to date on every change instead of
+ * being computed from the whole state.
+ * <p>
+ * Each value of the state (for example the stars of the second player) is identified by a
+ * slot (the owner of the value) and a field. The hash is the XOR of one key per
+ * (slot, field, value), so changing a value only takes removing the key of the old value and
+ * adding the key of the new one. The keys come from a fixed mixing function instead of a
+ * random table, so two JVMs give the same hash for the same state and can compare them to
+ * detect that they diverged.
+ */
+public class ZobristHash {
+  // Slots of the values that don't belong to a player, players use their index.
+  public static final int WILD_UNIT_SLOT = 100;
+  public static final int BOSS_UNIT_SLOT = 101;
+  public static final int MATCH_SLOT = 200;
+  public static final int PHASE_SLOT = 201;
+
+  // Unit fields
+  public static final int NAME = 0;
+  public static final int MAX_HP = 1;
+  public static final int HP = 2;
+  public static final int STARS = 3;
+  public static final int WINS = 4;
+  public static final int ATK = 5;
+  public static final int DEF = 6;
+  public static final int EVD = 7;
+  public static final int NORMA_LEVEL = 8;
+  public static final int GOAL_TYPE = 9;
+  public static final int GOAL_REQUIREMENT = 10;
+  public static final int RECOVERY_LEFT = 11;
+  public static final int PANEL = 12;
+
+  // Match fields
+  public static final int TURN = 0;
+  public static final int CHAPTER = 1;
+  public static final int GAME_ENDED = 2;
+  public static final int BOSS_DEFEATED = 3;
+
+  // Phase fields
+  public static final int PHASE_KIND = 0;
+  public static final int STEPS = 1;
+  public static final int ATTACK_VALUE = 2;
+
+  private long value = 0;
+
+  /**
+   * Returns the current fingerprint.
+   */
+  public long getValue() {
+    return value;
+  }
+
+  /**
+   * Adds a value to the hash, or removes it if it was already added.
+   */
+  public void toggle(int slot, int field, int fieldValue) {
+    value ^= key(slot, field, fieldValue);
+  }
+
+  /**
+   * Replaces a value of the hash.
+   * @param slot
+   *  owner of the value
+   * @param field
+   *  which value of the owner
+   * @param oldValue
+   *  value that was added before
+   * @param newValue
+   *  value to add instead
+   */
+  public void update(int slot, int field, int oldValue, int newValue) {
+    if (oldValue != newValue) {
+      value ^= key(slot, field, oldValue) ^ key(slot, field, newValue);
+    }
+  }
+
+  /**
+   * XORs a precomputed combination of keys into the hash.
+   */
+  public void xor(long keys) {
+    value ^= keys;
+  }
+
+  /**
+   * Returns the key of a value, a well mixed 64 bit number (SplitMix64 finalizer).
+   */
+  public static long key(int slot, int field, int fieldValue) {
+    long z = ((long) slot << 48) ^ ((long) field << 32) ^ (fieldValue & 0xFFFFFFFFL);
+    z += 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
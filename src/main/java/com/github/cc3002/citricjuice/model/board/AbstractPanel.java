@@ -5,17 +5,26 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 public abstract class AbstractPanel implements IPanel {
     private final List<IPanel> nextPanels = new ArrayList<>();
     private final int panelID;
-    private List<Player> players = new ArrayList<>();
+    private int entityId = -1;
+    // Set once the panel is part of a shared board, after that it can't change.
+    private boolean frozen = false;
+    private List<IPanel> frozenNextPanels;
+    private final PanelOccupancy occupancy = new PanelOccupancy();
     String panelDescriptionText;
     private int X;
     private int Y;
 
+    /**
+     * Places the panel on the board's matrix.
+     * @throws IllegalStateException
+     *  if the panel is part of a shared board.
+     */
     public void setMatrixPos(int x, int y) {
+        requireNotFrozen("moved");
         X = x;
         Y = y;
     }
@@ -37,22 +46,41 @@ public abstract class AbstractPanel implements IPanel {
     }
 
     public void addPlayer(Player player) {
-        players.add(player);
+        ownOccupancy().add(player);
     }
 
     public void removePlayer(Player player) {
-        players.remove(player);
+        ownOccupancy().remove(player);
     }
 
+    @Deprecated
     public List<Player> getPlayers() {
-        return players;
+        return ownOccupancy().toList();
+    }
+
+    @Deprecated
+    public PanelOccupancy getOccupancy() {
+        return ownOccupancy();
+    }
+
+    /**
+     * Returns the players kept on the panel itself.
+     * @throws IllegalStateException
+     *  if the panel is part of a shared board, each match keeps its own players there.
+     */
+    private PanelOccupancy ownOccupancy() {
+        if (frozen) {
+            throw new IllegalStateException("Panels of a shared board don't keep players, "
+                                            + "their matches do.");
+        }
+        return occupancy;
     }
 
     /**
      * Returns a copy of this panel's next ones.
      */
     public List<IPanel> getNextPanels() {
-        return List.copyOf(nextPanels);
+        return frozen ? frozenNextPanels : List.copyOf(nextPanels);
     }
 
     /**
@@ -60,8 +88,11 @@ public abstract class AbstractPanel implements IPanel {
      *
      * @param panel
      *     the panel to be added.
+     * @throws IllegalStateException
+     *     if this panel is part of a shared board.
      */
     public void addNextPanel(final IPanel panel) {
+        requireNotFrozen("given new next panels");
         if (!this.equals(panel) && this.getPanelID()!=panel.getPanelID()) {
             boolean IDRepeated = false;
             for (IPanel contained_panel: nextPanels) {
@@ -93,7 +124,10 @@ public abstract class AbstractPanel implements IPanel {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getPanelID(), getNextPanels().size(), getClass());
+        // Same value as Objects.hash(panelID, nextPanels.size(), getClass()) without the copies.
+        int result = 31 + panelID;
+        result = 31 * result + nextPanels.size();
+        return 31 * result + getClass().hashCode();
     }
 
     @Override
@@ -101,6 +135,38 @@ public abstract class AbstractPanel implements IPanel {
         return this.panelID;
     }
 
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException
+     *  if the panel is part of a shared board, its ID is its place on that board.
+     */
+    @Override
+    public void setEntityId(int id) {
+        requireNotFrozen("given a new ID");
+        entityId = id;
+    }
+
+    /**
+     * @throws IllegalStateException
+     *  if the panel is part of a shared board, which every match sees the same.
+     */
+    private void requireNotFrozen(String change) {
+        if (frozen) {
+            throw new IllegalStateException("Panels of a shared board can't be " + change + ".");
+        }
+    }
+
+    @Override
+    public void freeze() {
+        frozenNextPanels = List.copyOf(nextPanels);
+        frozen = true;
+    }
+
     @Override
     public boolean equals(Object o) {
         boolean typeMatch;
@@ -0,0 +1,228 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Distances between every pair of panels of a board, in steps along the panels' next panels,
+ * and from every panel to the nearest panel of each kind.
+ * <p>
+ * Distances are found by a breadth first search from every panel, in parallel on large boards,
+ * and kept in one array of panels x panels entries: a byte each on boards of up to 255 panels
+ * and a short each on larger ones. That table grows with the square of the panels, so boards of
+ * more than {@link #TABLE_LIMIT} panels don't keep it and search from a panel each time a
+ * distance from it is asked for, remembering the last search. Distances to the nearest panel of
+ * each kind grow with the panels alone and are always kept. Boards don't change once built, so
+ * each {@link BoardTopology} computes its distances once, the first time they're asked for, and
+ * a new board gets new distances.
+ */
+public final class BoardDistances {
+    /**
+     * Largest board that keeps the distance between every pair of panels, a table of 32 MB.
+     */
+    public static final int TABLE_LIMIT = 4096;
+    // Boards from this size on search from each panel in parallel.
+    private static final int PARALLEL_SIZE = 256;
+    private static final int KINDS = BoardGenerator.HOME + 1;
+    // Value stored for panels that can't be reached.
+    private static final int BYTE_UNREACHABLE = 0xFF;
+    private static final int SHORT_UNREACHABLE = 0xFFFF;
+
+    private final BoardTopology board;
+    private final int size;
+    // Distance from panel i to panel j at i * size + j, at most one of the two is used.
+    private final byte[] byteDistances;
+    private final short[] shortDistances;
+    // Distance from panel i to the nearest panel of kind k, and that panel, at k * size + i.
+    private final int[] nearestDistances;
+    private final int[] nearestPanels;
+    // Last search of a board without table, replaced whole so threads can share it.
+    private volatile Search lastSearch;
+
+    private BoardDistances(BoardTopology board, byte[] byteDistances, short[] shortDistances,
+                           int[] nearestDistances, int[] nearestPanels) {
+        this.board = board;
+        this.size = board.size();
+        this.byteDistances = byteDistances;
+        this.shortDistances = shortDistances;
+        this.nearestDistances = nearestDistances;
+        this.nearestPanels = nearestPanels;
+    }
+
+    /**
+     * Computes the distances of a board.
+     */
+    static BoardDistances of(BoardTopology board) {
+        int size = board.size();
+        boolean table = size <= TABLE_LIMIT;
+        boolean small = size <= BYTE_UNREACHABLE;
+        byte[] bytes = table && small ? new byte[size * size] : null;
+        short[] shorts = table && !small ? new short[size * size] : null;
+        IntStream sources = IntStream.range(0, table ? size : 0);
+        if (size >= PARALLEL_SIZE) {
+            sources = sources.parallel();
+        }
+        sources.forEach(source -> {
+            int[] distances = search(board, source);
+            int row = source * size;
+            for (int id = 0; id < size; id++) {
+                if (small) {
+                    bytes[row + id] = (byte) (distances[id] < 0 ? BYTE_UNREACHABLE : distances[id]);
+                } else {
+                    shorts[row + id] = (short) (distances[id] < 0 ? SHORT_UNREACHABLE : distances[id]);
+                }
+            }
+        });
+
+        // Panels leading to each panel, those leading to panel i at previousStart[i] and on.
+        int[] previousStart = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            for (int k = 0; k < board.getNextCount(id); k++) {
+                previousStart[board.getNext(id, k) + 1]++;
+            }
+        }
+        for (int id = 0; id < size; id++) {
+            previousStart[id + 1] += previousStart[id];
+        }
+        int[] previous = new int[previousStart[size]];
+        int[] filled = Arrays.copyOf(previousStart, size);
+        for (int id = 0; id < size; id++) {
+            for (int k = 0; k < board.getNextCount(id); k++) {
+                previous[filled[board.getNext(id, k)]++] = id;
+            }
+        }
+
+        int[] nearestDistances = new int[KINDS * size];
+        int[] nearestPanels = new int[KINDS * size];
+        for (int kind = 0; kind < KINDS; kind++) {
+            searchBackFrom(board, kind, previousStart, previous, nearestDistances, nearestPanels);
+        }
+        return new BoardDistances(board, bytes, shorts, nearestDistances, nearestPanels);
+    }
+
+    /**
+     * Returns the distance from a panel to every panel, -1 for panels it can't reach.
+     */
+    private static int[] search(BoardTopology board, int source) {
+        int[] distances = new int[board.size()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[board.size()];
+        int head = 0;
+        int tail = 0;
+        distances[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int id = queue[head++];
+            for (int k = 0; k < board.getNextCount(id); k++) {
+                int next = board.getNext(id, k);
+                if (distances[next] < 0) {
+                    distances[next] = distances[id] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Fills the distance from every panel to the nearest panel of a kind, searching back from
+     * every panel of that kind at once.
+     */
+    private static void searchBackFrom(BoardTopology board, int kind, int[] previousStart,
+                                       int[] previous, int[] nearestDistances,
+                                       int[] nearestPanels) {
+        int size = board.size();
+        int offset = kind * size;
+        Arrays.fill(nearestDistances, offset, offset + size, -1);
+        Arrays.fill(nearestPanels, offset, offset + size, -1);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int id = 0; id < size; id++) {
+            if (BoardGenerator.kindOf(board.getPanel(id)) == kind) {
+                nearestDistances[offset + id] = 0;
+                nearestPanels[offset + id] = id;
+                queue[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int id = queue[head++];
+            for (int i = previousStart[id]; i < previousStart[id + 1]; i++) {
+                int before = previous[i];
+                if (nearestDistances[offset + before] < 0) {
+                    nearestDistances[offset + before] = nearestDistances[offset + id] + 1;
+                    nearestPanels[offset + before] = nearestPanels[offset + id];
+                    queue[tail++] = before;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of panels of the board.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether the distance between every pair of panels is kept, false on boards of more
+     * than {@link #TABLE_LIMIT} panels.
+     */
+    public boolean hasTable() {
+        return byteDistances != null || shortDistances != null;
+    }
+
+    /**
+     * Returns the least amount of steps from one panel to another, -1 if it can't be reached.
+     * On boards without table it searches from the first panel, unless it was the last one
+     * searched from.
+     */
+    public int getDistance(int from, int to) {
+        if (byteDistances != null) {
+            int distance = byteDistances[from * size + to] & 0xFF;
+            return distance == BYTE_UNREACHABLE ? -1 : distance;
+        }
+        if (shortDistances != null) {
+            int distance = shortDistances[from * size + to] & 0xFFFF;
+            return distance == SHORT_UNREACHABLE ? -1 : distance;
+        }
+        Search last = lastSearch;
+        if (last == null || last.source != from) {
+            last = new Search(from, search(board, from));
+            lastSearch = last;
+        }
+        return last.distances[to];
+    }
+
+    /**
+     * Distances from a panel to every panel.
+     */
+    private static final class Search {
+        private final int source;
+        private final int[] distances;
+
+        private Search(int source, int[] distances) {
+            this.source = source;
+            this.distances = distances;
+        }
+    }
+
+    /**
+     * Returns the least amount of steps from a panel to a panel of a kind, 0 if it's of that
+     * kind itself and -1 if none can be reached.
+     * @param kind
+     *  one of the kinds of {@link BoardGenerator}
+     */
+    public int getDistanceToNearest(int from, int kind) {
+        return nearestDistances[kind * size + from];
+    }
+
+    /**
+     * Returns the ID of the nearest panel of a kind, -1 if none can be reached. When many are
+     * as near, any of them may be returned.
+     */
+    public int getNearest(int from, int kind) {
+        return nearestPanels[kind * size + from];
+    }
+}
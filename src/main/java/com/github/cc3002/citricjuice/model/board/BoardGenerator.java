@@ -0,0 +1,241 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random boards with a given size, mix of panel kinds, amount of path forks and
+ * length of the loops they open.
+ * <p>
+ * A board is a main loop plus detours: a detour leaves the main loop on a fork, goes through
+ * its own panels and joins the main loop again further ahead. Every panel is on the main loop
+ * or leads back to it, and the main loop goes through every home, so every panel reaches
+ * every home. Homes are spread evenly along the main loop so no player starts closer to the
+ * others. Generating a board takes time linear on its amount of panels.
+ * <p>
+ * Boards have no layout on a grid, their panels are only known by their IDs: main loop panels
+ * first, in order, then the panels of each detour.
+ */
+public class BoardGenerator {
+    // Panel kinds of the mix
+    public static final int BONUS = 0;
+    public static final int DROP = 1;
+    public static final int ENCOUNTER = 2;
+    public static final int BOSS = 3;
+    public static final int NEUTRAL = 4;
+    // Kind of the home panels, they're placed apart from the mix.
+    public static final int HOME = 5;
+
+    private int panels = 36;
+    private int homes = 4;
+    private double forkDensity = 0.1;
+    private int minLoop = 3;
+    private int maxLoop = 8;
+    // Weights of each kind on the mix, the practice board's by default.
+    private final double[] mix = {10, 4, 4, 4, 10};
+
+    /**
+     * Sets the amount of panels, homes included.
+     */
+    public void setPanels(int value) {
+        panels = value;
+    }
+
+    /**
+     * Sets the amount of home panels, one per player.
+     */
+    public void setHomes(int value) {
+        homes = value;
+    }
+
+    /**
+     * Sets the amount of forks per panel. Forks are left out if the detours they open don't
+     * fit on the board.
+     */
+    public void setForkDensity(double value) {
+        forkDensity = value;
+    }
+
+    /**
+     * Sets how many panels a detour goes through, and so the length of the loops on the board.
+     */
+    public void setLoopLength(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Loop lengths must be positive and ordered.");
+        }
+        minLoop = min;
+        maxLoop = max;
+    }
+
+    /**
+     * Sets the weight of each kind of panel, homes aside. Each kind gets a share of the panels
+     * proportional to its weight.
+     */
+    public void setPanelMix(double bonus, double drop, double encounter, double boss,
+                            double neutral) {
+        mix[BONUS] = bonus;
+        mix[DROP] = drop;
+        mix[ENCOUNTER] = encounter;
+        mix[BOSS] = boss;
+        mix[NEUTRAL] = neutral;
+    }
+
+    /**
+     * Generates a board.
+     * @param seed
+     *  seed for the layout and the kinds of panels, the same seed and settings give the same
+     *  board
+     * @throws IllegalArgumentException
+     *  if there are more homes than panels or no panel kind has weight.
+     */
+    public BoardTopology generate(long seed) {
+        if (homes < 1 || panels < Math.max(homes, 2)) {
+            throw new IllegalArgumentException("A board needs at least two panels and a home.");
+        }
+        Random random = new Random(seed);
+
+        // Detour lengths, dropping detours until the main loop keeps a panel for each fork.
+        int detours = (int) Math.min(Math.round(forkDensity * panels), panels);
+        int[] lengths = new int[detours];
+        int detourPanels = 0;
+        for (int i = 0; i < detours; i++) {
+            lengths[i] = minLoop + random.nextInt(maxLoop - minLoop + 1);
+            detourPanels += lengths[i];
+        }
+        while (detours > 0 && panels - detourPanels < Math.max(Math.max(homes, detours), 2)) {
+            detourPanels -= lengths[--detours];
+        }
+        int mainLoop = panels - detourPanels;
+
+        int[] kinds = kindsOf(mainLoop, random);
+        IPanel[] board = new IPanel[panels];
+        for (int id = 0; id < panels; id++) {
+            board[id] = createPanel(kinds[id], id);
+        }
+        for (int i = 0; i < mainLoop; i++) {
+            board[i].addNextPanel(board[(i + 1) % mainLoop]);
+        }
+
+        int next = mainLoop;
+        for (int i = 0; i < detours; i++) {
+            // Each fork on its own stretch of the main loop, so no panel forks twice.
+            int stretchStart = (int) ((long) i * mainLoop / detours);
+            int stretchEnd = (int) ((long) (i + 1) * mainLoop / detours);
+            int fork = stretchStart + random.nextInt(stretchEnd - stretchStart);
+            int skip = 1 + random.nextInt(Math.max(1, Math.min(mainLoop - 1, maxLoop)));
+            IPanel previous = board[fork];
+            for (int k = 0; k < lengths[i]; k++) {
+                previous.addNextPanel(board[next]);
+                previous = board[next++];
+            }
+            previous.addNextPanel(board[(fork + skip) % mainLoop]);
+        }
+
+        List<IPanel> list = new ArrayList<>(panels);
+        for (IPanel panel : board) {
+            list.add(panel);
+        }
+        return BoardTopology.of(list, null);
+    }
+
+    /**
+     * Picks the kind of every panel: homes spread along the main loop and the rest shuffled
+     * with each kind's share of the mix.
+     */
+    private int[] kindsOf(int mainLoop, Random random) {
+        double total = 0;
+        for (double weight : mix) {
+            total += Math.max(weight, 0);
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one panel kind needs weight.");
+        }
+        int others = panels - homes;
+        // Largest remainder: each kind gets the floor of its share, the panels left go to the
+        // biggest fractions.
+        int[] counts = new int[mix.length];
+        double[] fractions = new double[mix.length];
+        int assigned = 0;
+        for (int kind = 0; kind < mix.length; kind++) {
+            double share = Math.max(mix[kind], 0) / total * others;
+            counts[kind] = (int) share;
+            fractions[kind] = share - counts[kind];
+            assigned += counts[kind];
+        }
+        for (; assigned < others; assigned++) {
+            int best = 0;
+            for (int kind = 1; kind < mix.length; kind++) {
+                if (fractions[kind] > fractions[best]) {
+                    best = kind;
+                }
+            }
+            counts[best]++;
+            fractions[best] = -1;
+        }
+
+        int[] pool = new int[others];
+        int filled = 0;
+        for (int kind = 0; kind < mix.length; kind++) {
+            for (int i = 0; i < counts[kind]; i++) {
+                pool[filled++] = kind;
+            }
+        }
+        for (int i = others - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int kind = pool[i];
+            pool[i] = pool[j];
+            pool[j] = kind;
+        }
+
+        int[] kinds = new int[panels];
+        boolean[] home = new boolean[panels];
+        for (int i = 0; i < homes; i++) {
+            home[(int) ((long) i * mainLoop / homes)] = true;
+        }
+        int taken = 0;
+        for (int id = 0; id < panels; id++) {
+            kinds[id] = home[id] ? HOME : pool[taken++];
+        }
+        return kinds;
+    }
+
+    /**
+     * Creates a panel of one of the kinds, NEUTRAL for unknown kinds.
+     */
+    public static IPanel createPanel(int kind, int id) {
+        switch (kind) {
+            case BONUS:
+                return new BonusPanel(id);
+            case DROP:
+                return new DropPanel(id);
+            case ENCOUNTER:
+                return new EncounterPanel(id);
+            case BOSS:
+                return new BossPanel(id);
+            case HOME:
+                return new HomePanel(id);
+            default:
+                return new NeutralPanel(id);
+        }
+    }
+
+    /**
+     * Returns the kind of a panel.
+     */
+    public static int kindOf(IPanel panel) {
+        if (panel instanceof BonusPanel) {
+            return BONUS;
+        }
+        if (panel instanceof DropPanel) {
+            return DROP;
+        }
+        if (panel instanceof EncounterPanel) {
+            return ENCOUNTER;
+        }
+        if (panel instanceof BossPanel) {
+            return BOSS;
+        }
+        return panel instanceof HomePanel ? HOME : NEUTRAL;
+    }
+}
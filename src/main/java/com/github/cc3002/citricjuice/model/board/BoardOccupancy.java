@@ -0,0 +1,58 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+
+/**
+ * Players standing on each panel of a board during one match.
+ * <p>
+ * Panels of a {@link BoardTopology} are shared between matches, so who is standing on them is
+ * kept here instead, indexed by panel ID. Panels without players don't take any memory.
+ */
+public class BoardOccupancy {
+    private static final PanelOccupancy EMPTY = new PanelOccupancy();
+    private final PanelOccupancy[] panels;
+
+    /**
+     * Creates the occupancy of an empty board.
+     * @param size
+     *  amount of panels on the board
+     */
+    public BoardOccupancy(int size) {
+        panels = new PanelOccupancy[size];
+    }
+
+    /**
+     * Returns the players on a panel. Panels that aren't on the board have nobody on them.
+     */
+    public PanelOccupancy get(IPanel panel) {
+        int id = panel.getEntityId();
+        if (id < 0 || id >= panels.length || panels[id] == null) {
+            return EMPTY;
+        }
+        return panels[id];
+    }
+
+    /**
+     * Puts a player on a panel, nothing happens if the panel isn't on the board.
+     */
+    public void add(IPanel panel, Player player) {
+        int id = panel.getEntityId();
+        if (id < 0 || id >= panels.length) {
+            return;
+        }
+        if (panels[id] == null) {
+            panels[id] = new PanelOccupancy();
+        }
+        panels[id].add(player);
+    }
+
+    /**
+     * Takes a player out of a panel.
+     */
+    public void remove(IPanel panel, Player player) {
+        int id = panel.getEntityId();
+        if (id >= 0 && id < panels.length && panels[id] != null) {
+            panels[id].remove(player);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Problems a {@link BoardValidator} found on a board, and how its panels split into strongly
+ * connected components.
+ */
+public final class BoardReport {
+    /**
+     * Kinds of problems a board can have.
+     */
+    public enum Problem {
+        /** The board has no home panel, so players have nowhere to start. */
+        NO_HOME(true),
+        /** Two panels share a panel ID, and panels are told apart by it. */
+        DUPLICATE_ID(true),
+        /** The panel doesn't lead anywhere, a player landing on it could never leave. */
+        DEAD_END(true),
+        /** The home panel can't be reached from every panel of the board. */
+        UNREACHABLE_HOME(true),
+        /** The panel can't be reached from any home panel, so no player ever steps on it. */
+        UNREACHABLE_PANEL(false);
+
+        private final boolean error;
+
+        Problem(boolean error) {
+            this.error = error;
+        }
+
+        /**
+         * Tells whether the problem keeps matches from being played on the board, other problems
+         * are only reported.
+         */
+        public boolean isError() {
+            return error;
+        }
+    }
+
+    /**
+     * A problem found on a panel of the board.
+     */
+    public static final class Issue {
+        private final Problem problem;
+        private final int panel;
+
+        Issue(Problem problem, int panel) {
+            this.problem = problem;
+            this.panel = panel;
+        }
+
+        public Problem getProblem() {
+            return problem;
+        }
+
+        /**
+         * Returns the ID of the panel on the board, -1 if the problem is about the whole board.
+         */
+        public int getPanel() {
+            return panel;
+        }
+
+        @Override
+        public String toString() {
+            return panel < 0 ? problem.toString() : problem + " on panel " + panel;
+        }
+    }
+
+    private final List<Issue> issues;
+    private final int[] components;
+    private final int componentCount;
+
+    BoardReport(List<Issue> issues, int[] components, int componentCount) {
+        this.issues = Collections.unmodifiableList(issues);
+        this.components = components;
+        this.componentCount = componentCount;
+    }
+
+    /**
+     * Returns every problem found, as an unmodifiable list.
+     */
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    /**
+     * Tells whether the board has no problem that keeps matches from being played on it.
+     */
+    public boolean isValid() {
+        for (Issue issue : issues) {
+            if (issue.getProblem().isError()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of strongly connected components, 1 if every panel reaches every other.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the strongly connected component of a panel. Components are numbered from 0 in
+     * reverse topological order: no panel leads to a component with a higher number.
+     */
+    public int getComponent(int id) {
+        return components[id];
+    }
+
+    @Override
+    public String toString() {
+        if (issues.isEmpty()) {
+            return "No problems found.";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Issue issue : issues) {
+            text.append(text.length() == 0 ? "" : ", ").append(issue);
+        }
+        return text.append('.').toString();
+    }
+}
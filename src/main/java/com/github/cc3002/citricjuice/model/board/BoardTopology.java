@@ -0,0 +1,186 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout of a board that many matches can share: its panels, the connections between them and
+ * their positions.
+ * <p>
+ * The panels of a topology are frozen, they can't get new next panels nor move, and each one
+ * has its position on the topology as its entity ID. Panels don't keep anything that changes
+ * during a match (players standing on them are tracked by each match on a
+ * {@link BoardOccupancy}), so starting a match on a topology doesn't create any panel.
+ */
+public final class BoardTopology {
+    private final IPanel[] panels;
+    private final List<IPanel> panelList;
+    private final IPanel[][] matrix;
+    // Next panels of panel i are nextPanels[nextStart[i]] to nextPanels[nextStart[i + 1] - 1].
+    private final int[] nextStart;
+    private final int[] nextPanels;
+    private final int[] xs;
+    private final int[] ys;
+    // Computed the first time they're asked for.
+    private volatile BoardDistances distances;
+    private volatile BoardReport report;
+
+    private BoardTopology(IPanel[] panels, IPanel[][] matrix, int[] nextStart, int[] nextPanels,
+                          int[] xs, int[] ys) {
+        this.panels = panels;
+        this.panelList = List.of(panels);
+        this.matrix = matrix;
+        this.nextStart = nextStart;
+        this.nextPanels = nextPanels;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Creates a topology out of already connected panels, freezing them.
+     * @param panels
+     *  every panel of the board, their positions on this list become their IDs
+     * @param matrix
+     *  panels by position as matrix[x][y], with null panels on empty cells, or null if the board
+     *  has no layout
+     * @throws IllegalArgumentException
+     *  if a panel is next to a panel that isn't on the list.
+     */
+    public static BoardTopology of(List<IPanel> panels, IPanel[][] matrix) {
+        IPanel[] array = panels.toArray(new IPanel[0]);
+        for (int i = 0; i < array.length; i++) {
+            array[i].setEntityId(i);
+        }
+        int[] xs = new int[array.length];
+        int[] ys = new int[array.length];
+        Arrays.fill(xs, -1);
+        Arrays.fill(ys, -1);
+        if (matrix != null) {
+            for (int x = 0; x < matrix.length; x++) {
+                for (int y = 0; y < matrix[x].length; y++) {
+                    int id = matrix[x][y].getEntityId();
+                    if (id >= 0 && id < array.length && array[id] == matrix[x][y]) {
+                        xs[id] = x;
+                        ys[id] = y;
+                    }
+                }
+            }
+        }
+        int[] nextStart = new int[array.length + 1];
+        int edges = 0;
+        for (int i = 0; i < array.length; i++) {
+            nextStart[i] = edges;
+            edges += array[i].getNextPanels().size();
+        }
+        nextStart[array.length] = edges;
+        int[] next = new int[edges];
+        for (int i = 0; i < array.length; i++) {
+            int k = nextStart[i];
+            for (IPanel panel : array[i].getNextPanels()) {
+                int id = panel.getEntityId();
+                if (id < 0 || id >= array.length || array[id] != panel) {
+                    throw new IllegalArgumentException("Panel " + i + " leads to a panel out of the board.");
+                }
+                next[k++] = id;
+            }
+        }
+        for (IPanel panel : array) {
+            panel.freeze();
+        }
+        return new BoardTopology(array, matrix, nextStart, next, xs, ys);
+    }
+
+    /**
+     * Returns the amount of panels on the board.
+     */
+    public int size() {
+        return panels.length;
+    }
+
+    /**
+     * Returns the panel with a certain ID.
+     */
+    public IPanel getPanel(int id) {
+        return panels[id];
+    }
+
+    /**
+     * Returns every panel, ordered by ID, as an unmodifiable list.
+     */
+    public List<IPanel> getPanels() {
+        return panelList;
+    }
+
+    /**
+     * Returns the panels by position, as matrix[x][y]. It's shared by every match on the board,
+     * so it must not be modified.
+     */
+    public IPanel[][] getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Returns the amount of panels a panel leads to.
+     */
+    public int getNextCount(int id) {
+        return nextStart[id + 1] - nextStart[id];
+    }
+
+    /**
+     * Returns the ID of one of the panels a panel leads to.
+     * @param k
+     *  which of the next panels, from 0 to getNextCount(id) - 1
+     */
+    public int getNext(int id, int k) {
+        return nextPanels[nextStart[id] + k];
+    }
+
+    /**
+     * Returns the column of a panel on the board, -1 if the board has no layout.
+     */
+    public int getX(int id) {
+        return xs[id];
+    }
+
+    /**
+     * Returns the row of a panel on the board, -1 if the board has no layout.
+     */
+    public int getY(int id) {
+        return ys[id];
+    }
+
+    /**
+     * Returns the distances between the panels of the board, computing them the first time.
+     */
+    public BoardDistances getDistances() {
+        BoardDistances result = distances;
+        if (result == null) {
+            synchronized (this) {
+                result = distances;
+                if (result == null) {
+                    result = BoardDistances.of(this);
+                    distances = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the problems found on the board by a {@link BoardValidator}, checking it the first
+     * time.
+     */
+    public BoardReport getReport() {
+        BoardReport result = report;
+        if (result == null) {
+            synchronized (this) {
+                result = report;
+                if (result == null) {
+                    result = BoardValidator.validate(this);
+                    report = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks a board before matches are played on it: every panel ID is used once, no panel is a
+ * dead end, every home can be reached from every panel and every panel can be reached from a
+ * home.
+ * <p>
+ * Homes are checked with the strongly connected components of the board, found by Tarjan's
+ * algorithm: every component leads to at least one component that leads nowhere else, so every
+ * panel reaches a home only if there's a single such component and the home is on it. Every
+ * check takes time linear on the amount of panels and connections.
+ */
+public final class BoardValidator {
+
+    private BoardValidator() {
+    }
+
+    /**
+     * Checks a board.
+     * @return
+     *  the problems found, with the board's strongly connected components.
+     */
+    public static BoardReport validate(BoardTopology board) {
+        int size = board.size();
+        List<BoardReport.Issue> issues = new ArrayList<>();
+
+        Map<Integer, Integer> firstWithId = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            Integer first = firstWithId.putIfAbsent(board.getPanel(id).getPanelID(), id);
+            if (first != null) {
+                issues.add(new BoardReport.Issue(BoardReport.Problem.DUPLICATE_ID, id));
+            }
+        }
+        for (int id = 0; id < size; id++) {
+            if (board.getNextCount(id) == 0) {
+                issues.add(new BoardReport.Issue(BoardReport.Problem.DEAD_END, id));
+            }
+        }
+
+        int[] components = new int[size];
+        int componentCount = findComponents(board, components);
+        // Components that lead nowhere else.
+        boolean[] closed = new boolean[componentCount];
+        Arrays.fill(closed, true);
+        for (int id = 0; id < size; id++) {
+            for (int k = 0; k < board.getNextCount(id); k++) {
+                if (components[board.getNext(id, k)] != components[id]) {
+                    closed[components[id]] = false;
+                }
+            }
+        }
+        int closedCount = 0;
+        for (boolean value : closed) {
+            closedCount += value ? 1 : 0;
+        }
+
+        boolean[] reached = new boolean[size];
+        int[] queue = new int[size];
+        int tail = 0;
+        for (int id = 0; id < size; id++) {
+            if (board.getPanel(id) instanceof HomePanel) {
+                if (closedCount != 1 || !closed[components[id]]) {
+                    issues.add(new BoardReport.Issue(BoardReport.Problem.UNREACHABLE_HOME, id));
+                }
+                reached[id] = true;
+                queue[tail++] = id;
+            }
+        }
+        if (tail == 0) {
+            issues.add(new BoardReport.Issue(BoardReport.Problem.NO_HOME, -1));
+        } else {
+            for (int head = 0; head < tail; head++) {
+                int id = queue[head];
+                for (int k = 0; k < board.getNextCount(id); k++) {
+                    int next = board.getNext(id, k);
+                    if (!reached[next]) {
+                        reached[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            for (int id = 0; id < size; id++) {
+                if (!reached[id]) {
+                    issues.add(new BoardReport.Issue(BoardReport.Problem.UNREACHABLE_PANEL, id));
+                }
+            }
+        }
+        return new BoardReport(issues, components, componentCount);
+    }
+
+    /**
+     * Fills the strongly connected component of each panel by Tarjan's algorithm, with an
+     * explicit stack so large boards don't overflow the call stack. Components are numbered in
+     * the order they're completed, which is reverse topological order.
+     * @return
+     *  the amount of components.
+     */
+    private static int findComponents(BoardTopology board, int[] components) {
+        int size = board.size();
+        int[] index = new int[size];
+        int[] low = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int stackTop = 0;
+        // Panels being visited and the next connection each one checks.
+        int[] visiting = new int[size];
+        int[] nextEdge = new int[size];
+        int visitingTop = 0;
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int componentCount = 0;
+        for (int start = 0; start < size; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            index[start] = low[start] = counter++;
+            stack[stackTop++] = start;
+            onStack[start] = true;
+            visiting[visitingTop++] = start;
+            while (visitingTop > 0) {
+                int id = visiting[visitingTop - 1];
+                if (nextEdge[id] < board.getNextCount(id)) {
+                    int next = board.getNext(id, nextEdge[id]++);
+                    if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        stack[stackTop++] = next;
+                        onStack[next] = true;
+                        visiting[visitingTop++] = next;
+                    } else if (onStack[next]) {
+                        low[id] = Math.min(low[id], index[next]);
+                    }
+                    continue;
+                }
+                visitingTop--;
+                if (low[id] == index[id]) {
+                    int member;
+                    do {
+                        member = stack[--stackTop];
+                        onStack[member] = false;
+                        components[member] = componentCount;
+                    } while (member != id);
+                    componentCount++;
+                }
+                if (visitingTop > 0) {
+                    int parent = visiting[visitingTop - 1];
+                    low[parent] = Math.min(low[parent], low[id]);
+                }
+            }
+        }
+        return componentCount;
+    }
+}
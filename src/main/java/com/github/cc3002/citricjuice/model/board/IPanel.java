@@ -11,8 +11,22 @@ public interface IPanel {
      */
     List<IPanel> getNextPanels();
 
+    /**
+     * Should return the players on the panel, in seat order.
+     * @deprecated panels of a shared board don't know their players, ask the match instead
+     *  through {@link Player#getPanelOccupancy()} or {@link Player#occupancyOf(IPanel)}.
+     */
+    @Deprecated
     List<Player> getPlayers();
 
+    /**
+     * Should return the occupancy of the panel, to check who's on it without building a list.
+     * @deprecated panels of a shared board don't know their players, ask the match instead
+     *  through {@link Player#getPanelOccupancy()} or {@link Player#occupancyOf(IPanel)}.
+     */
+    @Deprecated
+    PanelOccupancy getOccupancy();
+
     void removePlayer(Player player);
 
     void addPlayer(Player player);
@@ -34,6 +48,23 @@ public interface IPanel {
      */
     int getPanelID();
 
+    /**
+     * Should return the ID of this panel on its match's registry, unlike the panel ID it's
+     * unique on a board. Returns -1 if the panel hasn't been registered.
+     */
+    int getEntityId();
+
+    /**
+     * Sets the ID of this panel on its match's registry.
+     */
+    void setEntityId(int id);
+
+    /**
+     * Should stop the panel from changing its next panels, position and ID, since it's about to
+     * be shared between matches.
+     */
+    void freeze();
+
     /**
      * Should perform the action of each Panel
      */
@@ -7,6 +7,7 @@ import java.util.List;
 
 public class NullPanel implements IPanel {
     static NullPanel nullPanel;
+    private static final PanelOccupancy EMPTY_OCCUPANCY = new PanelOccupancy();
 
     /**
      *   Creates an instance of NeutralPanel.
@@ -29,10 +30,29 @@ public class NullPanel implements IPanel {
     }
 
     @Override
+    @Deprecated
     public List<Player> getPlayers() {
         return List.of();
     }
 
+    @Override
+    public int getEntityId() {
+        return -1;
+    }
+
+    @Override
+    public void setEntityId(int id) { }
+
+    @Override
+    public void freeze() { }
+
+    @Override
+    @Deprecated
+    public PanelOccupancy getOccupancy() {
+        // Players are never added to it, so it stays empty.
+        return EMPTY_OCCUPANCY;
+    }
+
     @Override
     public void removePlayer(Player player) {
         return;
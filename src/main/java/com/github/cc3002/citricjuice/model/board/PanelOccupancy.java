@@ -0,0 +1,192 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Players standing on a panel, kept as a bitset indexed by the players' seats.
+ * <p>
+ * Adding, removing, counting and checking whether somebody else is on the panel are single
+ * bit operations, and players are told apart by identity (their seat) instead of comparing
+ * their stats. Players that haven't been given a seat (seat -1) are kept on a small list
+ * apart, after the seated ones.
+ */
+public class PanelOccupancy implements Iterable<Player> {
+    private long[] words = new long[1];
+    private Player[] seated = new Player[4];
+    private List<Player> unseated = Collections.emptyList();
+    private int count = 0;
+
+    /**
+     * Puts a player on the panel, nothing happens if it's already on it.
+     * @throws IllegalStateException
+     *  if another player with the same seat is on the panel.
+     */
+    public void add(Player player) {
+        int seat = player.getSeat();
+        if (seat < 0) {
+            if (!containsUnseated(player)) {
+                if (unseated.isEmpty()) {
+                    unseated = new ArrayList<>(2);
+                }
+                unseated.add(player);
+                count++;
+            }
+            return;
+        }
+        int word = seat >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, word + 1);
+        }
+        if (seat >= seated.length) {
+            seated = Arrays.copyOf(seated, Math.max(seat + 1, seated.length * 2));
+        }
+        long bit = 1L << seat;
+        if ((words[word] & bit) == 0) {
+            words[word] |= bit;
+            seated[seat] = player;
+            count++;
+        } else if (seated[seat] != player) {
+            throw new IllegalStateException("Seat " + seat + " is already taken on the panel.");
+        }
+    }
+
+    /**
+     * Takes a player out of the panel, nothing happens if it wasn't on it.
+     */
+    public void remove(Player player) {
+        int seat = player.getSeat();
+        if (seat < 0) {
+            for (int i = 0; i < unseated.size(); i++) {
+                if (unseated.get(i) == player) {
+                    unseated.remove(i);
+                    count--;
+                    return;
+                }
+            }
+            return;
+        }
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        if (word < words.length && (words[word] & bit) != 0 && seated[seat] == player) {
+            words[word] &= ~bit;
+            seated[seat] = null;
+            count--;
+        }
+    }
+
+    /**
+     * Tells whether a player is on the panel.
+     */
+    public boolean contains(Player player) {
+        int seat = player.getSeat();
+        if (seat < 0) {
+            return containsUnseated(player);
+        }
+        return seat < seated.length && seated[seat] == player;
+    }
+
+    private boolean containsUnseated(Player player) {
+        for (Player p : unseated) {
+            if (p == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the amount of players on the panel.
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Tells whether there's anybody other than a certain player on the panel.
+     */
+    public boolean hasOthers(Player player) {
+        return count > (contains(player) ? 1 : 0);
+    }
+
+    /**
+     * Returns the position of a player among the ones on the panel, in seat order, or -1 if
+     * it isn't on the panel.
+     */
+    public int indexOf(Player player) {
+        if (!contains(player)) {
+            return -1;
+        }
+        int seat = player.getSeat();
+        if (seat < 0) {
+            return seatedCount() + unseated.indexOf(player);
+        }
+        int word = seat >>> 6;
+        int position = Long.bitCount(words[word] & ((1L << seat) - 1));
+        for (int i = 0; i < word; i++) {
+            position += Long.bitCount(words[i]);
+        }
+        return position;
+    }
+
+    private int seatedCount() {
+        return count - unseated.size();
+    }
+
+    /**
+     * Returns the players on the panel in seat order, as an unmodifiable list.
+     */
+    public List<Player> toList() {
+        if (count == 0) {
+            return List.of();
+        }
+        List<Player> players = new ArrayList<>(count);
+        for (Player p : this) {
+            players.add(p);
+        }
+        return Collections.unmodifiableList(players);
+    }
+
+    /**
+     * Iterates over the players on the panel in seat order.
+     */
+    @Override
+    public Iterator<Player> iterator() {
+        return new Iterator<>() {
+            private int word = 0;
+            private long remaining = words[0];
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (remaining == 0 && word + 1 < words.length) {
+                    remaining = words[++word];
+                }
+                return remaining != 0 || next < unseated.size();
+            }
+
+            @Override
+            public Player next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (remaining != 0) {
+                    int seat = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    return seated[seat];
+                }
+                return unseated.get(next++);
+            }
+        };
+    }
+}
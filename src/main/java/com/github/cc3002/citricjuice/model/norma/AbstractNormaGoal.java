@@ -4,12 +4,34 @@ import com.github.cc3002.citricjuice.model.unit.Player;
 
 public abstract class AbstractNormaGoal implements INormaGoal {
 
-  int requirement;
+  final int requirement;
 
-  public abstract boolean normaCheck(Player player);
+  AbstractNormaGoal(int requirement) {
+    this.requirement = requirement;
+  }
+
+  /**
+   * Returns how far a player got towards this kind of goal.
+   */
+  abstract int progressOf(Player player);
+
+  /**
+   * Clears the player's norma if its progress reached the requirement.
+   */
+  public final boolean normaCheck(Player player) {
+    if (progressOf(player) >= requirement) {
+      player.normaClear();
+      return true;
+    }
+    return false;
+  }
 
   public int getRequirement() {
     return requirement;
   }
-}
 
+  @Override
+  public int hashCode() {
+    return 31 * getClass().hashCode() + requirement;
+  }
+}
@@ -0,0 +1,207 @@
+package com.github.cc3002.citricjuice.model.norma;
+
+import com.github.cc3002.citricjuice.model.MatchStandings;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stars and wins a player needs to clear each norma level.
+ * <p>
+ * A ladder has a goal for every level below {@link MatchStandings#WINNING_NORMA_LEVEL}, clearing
+ * the last one wins the match.
+ * <p>
+ * A ladder is compiled once into one goal instance per level and kind, so handing a goal to a
+ * player is an array lookup. Levels past the top of the ladder, and levels without a wins goal,
+ * get a goal that can't be reached. Ladders can be read from text, one level per line with its
+ * stars and its wins ({@code -} when that level has no wins goal):
+ * <pre>
+ * # level stars wins
+ * 1 10 -
+ * 2 30 2
+ * </pre>
+ */
+public class NormaLadder {
+  /**
+   * Requirement of the goals that can't be reached.
+   */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+  private static final StarsNorma UNREACHABLE_STARS = new StarsNorma(UNREACHABLE);
+  private static final WinsNorma UNREACHABLE_WINS = new WinsNorma(UNREACHABLE);
+
+  /**
+   * Ladder of the practice board.
+   */
+  public static final NormaLadder PRACTICE = new NormaLadder(
+      new int[] {10, 30, 70, 120, 200},
+      new int[] {UNREACHABLE, 2, 5, 9, 14});
+
+  // Goal of each level, index 0 being level 1.
+  private final StarsNorma[] starsGoals;
+  private final WinsNorma[] winsGoals;
+
+  /**
+   * Compiles a ladder.
+   * @param stars
+   *  stars needed to clear each level, starting from level 1
+   * @param wins
+   *  wins needed to clear each level, starting from level 1, UNREACHABLE where there's no wins
+   *  goal
+   * @throws IllegalArgumentException
+   *  if the arrays have different lengths, they don't have a goal for every level below the
+   *  winning one or a requirement isn't positive.
+   */
+  public NormaLadder(int[] stars, int[] wins) {
+    if (stars.length != wins.length) {
+      throw new IllegalArgumentException("Every norma level needs a stars and a wins goal.");
+    }
+    if (stars.length != MatchStandings.WINNING_NORMA_LEVEL - 1) {
+      throw new IllegalArgumentException("A norma ladder needs "
+          + (MatchStandings.WINNING_NORMA_LEVEL - 1) + " levels, not " + stars.length + ".");
+    }
+    starsGoals = new StarsNorma[stars.length];
+    winsGoals = new WinsNorma[wins.length];
+    for (int i = 0; i < stars.length; i++) {
+      if (stars[i] <= 0 || wins[i] <= 0) {
+        throw new IllegalArgumentException("Norma level " + (i + 1) + " has a requirement below 1.");
+      }
+      starsGoals[i] = stars[i] == UNREACHABLE ? UNREACHABLE_STARS
+          : (StarsNorma) intern(starsGoals, i, new StarsNorma(stars[i]));
+      winsGoals[i] = wins[i] == UNREACHABLE ? UNREACHABLE_WINS
+          : (WinsNorma) intern(winsGoals, i, new WinsNorma(wins[i]));
+    }
+  }
+
+  /**
+   * Returns an equal goal among the first ones, or the given goal if there's none.
+   */
+  private static AbstractNormaGoal intern(AbstractNormaGoal[] goals, int count,
+                                          AbstractNormaGoal goal) {
+    for (int i = 0; i < count; i++) {
+      if (goals[i].equals(goal)) {
+        return goals[i];
+      }
+    }
+    return goal;
+  }
+
+  /**
+   * Returns the amount of levels with a goal.
+   */
+  public int getLevels() {
+    return starsGoals.length;
+  }
+
+  /**
+   * Returns the stars goal to clear a level.
+   */
+  public StarsNorma getStarsNorma(int level) {
+    return level < 1 || level > starsGoals.length ? UNREACHABLE_STARS : starsGoals[level - 1];
+  }
+
+  /**
+   * Returns the wins goal to clear a level.
+   */
+  public WinsNorma getWinsNorma(int level) {
+    return level < 1 || level > winsGoals.length ? UNREACHABLE_WINS : winsGoals[level - 1];
+  }
+
+  /**
+   * Returns the goal of this ladder with a certain kind and requirement, a new one if the
+   * ladder doesn't have it.
+   * @param wins
+   *  true for a wins goal, false for a stars goal
+   */
+  public INormaGoal getGoal(boolean wins, int requirement) {
+    AbstractNormaGoal[] goals = wins ? winsGoals : starsGoals;
+    for (AbstractNormaGoal goal : goals) {
+      if (goal.getRequirement() == requirement) {
+        return goal;
+      }
+    }
+    if (requirement == UNREACHABLE) {
+      return wins ? UNREACHABLE_WINS : UNREACHABLE_STARS;
+    }
+    return wins ? new WinsNorma(requirement) : new StarsNorma(requirement);
+  }
+
+  /**
+   * Reads a ladder from text.
+   * @throws IOException
+   *  if the text isn't a ladder: levels out of order, missing values or a wrong amount of
+   *  levels.
+   */
+  public static NormaLadder parse(String text) throws IOException {
+    return read(new BufferedReader(new StringReader(text)));
+  }
+
+  /**
+   * Reads a ladder from a text file.
+   */
+  public static NormaLadder load(Path path) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  private static NormaLadder read(BufferedReader reader) throws IOException {
+    List<int[]> levels = new ArrayList<>();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] parts = line.split("\\s+");
+      if (parts.length != 3) {
+        throw new IOException("Norma level must have its number, stars and wins: " + line);
+      }
+      try {
+        if (Integer.parseInt(parts[0]) != levels.size() + 1) {
+          throw new IOException("Norma level " + (levels.size() + 1) + " expected: " + line);
+        }
+        levels.add(new int[] {requirementOf(parts[1]), requirementOf(parts[2])});
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid norma level: " + line, e);
+      }
+    }
+    int[] stars = new int[levels.size()];
+    int[] wins = new int[levels.size()];
+    for (int i = 0; i < levels.size(); i++) {
+      stars[i] = levels.get(i)[0];
+      wins[i] = levels.get(i)[1];
+    }
+    try {
+      return new NormaLadder(stars, wins);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  private static int requirementOf(String value) {
+    return value.equals("-") ? UNREACHABLE : Integer.parseInt(value);
+  }
+
+  /**
+   * Writes the ladder in the format parse reads.
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder("# level stars wins\n");
+    for (int i = 0; i < starsGoals.length; i++) {
+      text.append(i + 1).append(' ').append(valueOf(starsGoals[i])).append(' ')
+          .append(valueOf(winsGoals[i])).append('\n');
+    }
+    return text.toString();
+  }
+
+  private static String valueOf(INormaGoal goal) {
+    return goal.getRequirement() == UNREACHABLE ? "-" : String.valueOf(goal.getRequirement());
+  }
+}
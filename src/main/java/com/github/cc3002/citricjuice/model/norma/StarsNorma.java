@@ -6,20 +6,12 @@ public class StarsNorma extends AbstractNormaGoal {
 
 
   public StarsNorma(int stars) {
-    requirement = stars;
+    super(stars);
   }
 
   @Override
-  public boolean normaCheck(Player player) {
-    int stars = player.getStars();
-
-    if (stars >= requirement) {
-      player.normaClear();
-      // player.setNormaGoal(NormaFactory.getStarsNorma(player.getNormaLevel()));
-      return true;
-    }
-    return false;
-
+  int progressOf(Player player) {
+    return player.getStars();
   }
 
   @Override
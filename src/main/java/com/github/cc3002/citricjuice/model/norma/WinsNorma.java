@@ -5,19 +5,12 @@ import com.github.cc3002.citricjuice.model.unit.Player;
 public class WinsNorma extends AbstractNormaGoal {
 
   public WinsNorma(int wins) {
-    requirement = wins;
+    super(wins);
   }
 
   @Override
-  public boolean normaCheck(Player player) {
-    int wins = player.getWins();
-
-    if (wins >= requirement) {
-      player.normaClear();
-      // player.setNormaGoal(NormaFactory.getWinsNorma(player.getNormaLevel()));
-      return true;
-    }
-    return false;
+  int progressOf(Player player) {
+    return player.getWins();
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.github.cc3002.citricjuice.model.unit;
 
-import java.util.Random;
+import com.github.cc3002.citricjuice.model.EntityRegistry;
+import com.github.cc3002.citricjuice.model.ZobristHash;
 
 /**
  * This class represents a player in the game 99.7% Citric Liquid.
@@ -11,7 +12,7 @@ import java.util.Random;
  * @since 1.0
  */
 public abstract class AbstractUnit implements IUnit {
-  protected final Random random;
+  protected final RestorableRandom random;
   protected final String name;
   protected final int maxHP;
   protected int atk;
@@ -21,6 +22,10 @@ public abstract class AbstractUnit implements IUnit {
   protected int stars;
   private int currentHP;
   protected int wins;
+  // Hash of the match this unit takes part in, null if it isn't in one.
+  protected ZobristHash hash;
+  protected int hashSlot;
+  private int entityId = -1;
 
   /**
    * Creates a new unit.
@@ -44,7 +49,7 @@ public abstract class AbstractUnit implements IUnit {
     this.def = def;
     this.evd = evd;
 
-    random = new Random();
+    random = new RestorableRandom();
   }
 
 
@@ -52,13 +57,16 @@ public abstract class AbstractUnit implements IUnit {
    * Increases this player's win count by an amount.
    */
   public void increaseWinsBy(final int amount) {
-    wins += amount;
+    setWins(wins + amount);
   }
   /**
    * Increases this player's star count by an amount.
    */
   public void increaseStarsBy(final int amount) {
+    int previous = stars;
     stars += amount;
+    updateHash(ZobristHash.STARS, previous, stars);
+    standingsChanged();
   }
 
   /**
@@ -72,7 +80,110 @@ public abstract class AbstractUnit implements IUnit {
     return wins;
   }
 
+  /**
+   * Sets this unit's star count. (Useful to restore a saved game)
+   */
+  public void setStars(final int amount) {
+    int previous = stars;
+    stars = Math.max(0, amount);
+    updateHash(ZobristHash.STARS, previous, stars);
+    standingsChanged();
+  }
 
+  /**
+   * Sets this unit's win count. (Useful to restore a saved game)
+   */
+  public void setWins(final int amount) {
+    int previous = wins;
+    wins = amount;
+    updateHash(ZobristHash.WINS, previous, wins);
+    standingsChanged();
+  }
+
+  /**
+   * Returns the ID of this unit on its match's {@link EntityRegistry}, -1 if it has none.
+   */
+  public int getEntityId() {
+    return entityId;
+  }
+
+  /**
+   * Sets the ID of this unit, it's meant to be called only by {@link EntityRegistry}.
+   */
+  public void setEntityId(final int id) {
+    entityId = id;
+  }
+
+  /**
+   * Makes this unit's values part of a match's hash.
+   * @param hash
+   *  hash of the match
+   * @param slot
+   *  identifies this unit on the hash
+   */
+  public void attachHash(final ZobristHash hash, final int slot) {
+    detachHash();
+    this.hash = hash;
+    hashSlot = slot;
+    toggleHashedValues();
+  }
+
+  /**
+   * Removes this unit's values from the hash it was attached to, if any.
+   */
+  public void detachHash() {
+    if (hash != null) {
+      toggleHashedValues();
+      hash = null;
+    }
+  }
+
+  /**
+   * Adds or removes every hashed value of this unit from the hash.
+   */
+  protected void toggleHashedValues() {
+    hash.toggle(hashSlot, ZobristHash.NAME, name.hashCode());
+    hash.toggle(hashSlot, ZobristHash.MAX_HP, maxHP);
+    hash.toggle(hashSlot, ZobristHash.HP, currentHP);
+    hash.toggle(hashSlot, ZobristHash.STARS, stars);
+    hash.toggle(hashSlot, ZobristHash.WINS, wins);
+    hash.toggle(hashSlot, ZobristHash.ATK, atk);
+    hash.toggle(hashSlot, ZobristHash.DEF, def);
+    hash.toggle(hashSlot, ZobristHash.EVD, evd);
+  }
+
+  /**
+   * Called after the stars or wins of this unit change.
+   */
+  protected void standingsChanged() {
+  }
+
+  /**
+   * Replaces a value of this unit on the hash, if it's attached to one.
+   */
+  protected void updateHash(final int field, final int oldValue, final int newValue) {
+    if (hash != null) {
+      hash.update(hashSlot, field, oldValue, newValue);
+    }
+  }
+
+
+
+  /**
+   * Puts this unit back as it was when created with some stats, full HP and no stars nor wins,
+   * so it can be reused instead of creating a new one. Its random generator is left as it is.
+   */
+  public void reset(final int atk, final int def, final int evd) {
+    updateHash(ZobristHash.ATK, this.atk, atk);
+    updateHash(ZobristHash.DEF, this.def, def);
+    updateHash(ZobristHash.EVD, this.evd, evd);
+    this.atk = atk;
+    this.def = def;
+    this.evd = evd;
+    setCurrentHP(maxHP);
+    setStars(0);
+    setWins(0);
+  }
 
   /**
    * Set's the seed for this player's random number generator.
@@ -84,6 +195,21 @@ public abstract class AbstractUnit implements IUnit {
     random.setSeed(seed);
   }
 
+  /**
+   * Returns the internal state of this unit's random number generator.
+   */
+  public long getRandomState() {
+    return random.getState();
+  }
+
+  /**
+   * Restores the state of this unit's random number generator, so the next rolls are the same
+   * ones that followed when the state was read.
+   */
+  public void setRandomState(final long state) {
+    random.setState(state);
+  }
+
   /**
    * Returns a uniformly distributed random value in [1, 6]
    */
@@ -139,7 +265,9 @@ public abstract class AbstractUnit implements IUnit {
    * The character's hit points have a constraint to always be between 0 and maxHP, both inclusive.
    */
   public void setCurrentHP(final int newHP) {
+    int previous = currentHP;
     this.currentHP = Math.max(Math.min(newHP, maxHP), 0);
+    updateHash(ZobristHash.HP, previous, currentHP);
   }
 
   /**
@@ -148,7 +276,7 @@ public abstract class AbstractUnit implements IUnit {
    * The star count will must always be greater or equal to 0
    */
   public void reduceStarsBy(final int amount) {
-    stars = Math.max(0, stars - amount);
+    setStars(stars - amount);
   }
 
 
@@ -212,20 +340,8 @@ public abstract class AbstractUnit implements IUnit {
    * @param incomingDamage The value of the incoming damage to defend.
    */
   public void defendAttack(IUnit attacker, int incomingDamage) {
-    int total;
-    int value = getDefenseRoll();
-
-    total = Math.max(1, incomingDamage - (value));
-    if (incomingDamage == 0) {
-      total = 0;
-    }
-    int previousHP = this.getCurrentHP();
-    this.setCurrentHP( previousHP - total );
-
-    if (this.isKOd()) {
-      defeatedBy(attacker);
-    }
-
+    long result = CombatResolver.resolve(attacker, incomingDamage, this, CombatResolver.DEFEND);
+    CombatResolver.apply(result, attacker, this);
   }
 
   /**
@@ -234,20 +350,8 @@ public abstract class AbstractUnit implements IUnit {
    * @param incomingDamage The value of the incoming damage to evade.
    */
   public void evadeAttack(IUnit attacker, int incomingDamage) {
-    int total;
-    int value = getEvasionRoll();
-
-    total = incomingDamage;
-    if (value > total) {
-      return;
-    }
-
-    int previousHP = this.getCurrentHP();
-    this.setCurrentHP( previousHP - total );
-
-    if (this.isKOd()) {
-      defeatedBy(attacker);
-    }
+    long result = CombatResolver.resolve(attacker, incomingDamage, this, CombatResolver.EVADE);
+    CombatResolver.apply(result, attacker, this);
   }
 
   /***
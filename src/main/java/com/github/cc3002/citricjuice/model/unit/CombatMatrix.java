@@ -0,0 +1,134 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+/**
+ * Results of a {@link CombatSimulator} run, with attackers on the rows and defenders on the
+ * columns.
+ */
+public class CombatMatrix {
+  private final String[] attackerNames;
+  private final String[] defenderNames;
+  private final int fights;
+  private final double[] defenderKORate;
+  private final double[] attackerKORate;
+  private final double[] defenderDamage;
+  private final double[] attackerDamage;
+  private final double[] stars;
+  // Stars taken on each KO: by the attacker from the defender, and the other way around.
+  private final int[] starsFromDefender;
+  private final int[] starsFromAttacker;
+
+  CombatMatrix(UnitTable units, int[] attackers, int[] defenders, int fights) {
+    this.fights = fights;
+    attackerNames = new String[attackers.length];
+    defenderNames = new String[defenders.length];
+    int cells = attackers.length * defenders.length;
+    defenderKORate = new double[cells];
+    attackerKORate = new double[cells];
+    defenderDamage = new double[cells];
+    attackerDamage = new double[cells];
+    stars = new double[cells];
+    starsFromDefender = new int[cells];
+    starsFromAttacker = new int[cells];
+    for (int row = 0; row < attackers.length; row++) {
+      attackerNames[row] = units.getName(attackers[row]);
+      for (int col = 0; col < defenders.length; col++) {
+        int a = attackers[row];
+        int b = defenders[col];
+        int cell = row * defenders.length + col;
+        starsFromDefender[cell] = UnitTable.starsTaken(units.getKind(a), units.getKind(b),
+            units.getStars(b));
+        starsFromAttacker[cell] = UnitTable.starsTaken(units.getKind(b), units.getKind(a),
+            units.getStars(a));
+      }
+    }
+    for (int col = 0; col < defenders.length; col++) {
+      defenderNames[col] = units.getName(defenders[col]);
+    }
+  }
+
+  /**
+   * Stores the totals of a pair: defender KOs, attacker KOs, damage taken by the defender and
+   * damage taken by the attacker.
+   */
+  void set(int row, int col, long[] totals) {
+    int cell = row * defenderNames.length + col;
+    defenderKORate[cell] = (double) totals[0] / fights;
+    attackerKORate[cell] = (double) totals[1] / fights;
+    defenderDamage[cell] = (double) totals[2] / fights;
+    attackerDamage[cell] = (double) totals[3] / fights;
+    stars[cell] = (totals[0] * (double) starsFromDefender[cell]
+        - totals[1] * (double) starsFromAttacker[cell]) / fights;
+  }
+
+  public int getRows() {
+    return attackerNames.length;
+  }
+
+  public int getColumns() {
+    return defenderNames.length;
+  }
+
+  public int getFights() {
+    return fights;
+  }
+
+  /**
+   * Returns the rate of fights where the defender is KO'd.
+   */
+  public double getDefenderKORate(int row, int col) {
+    return defenderKORate[row * defenderNames.length + col];
+  }
+
+  /**
+   * Returns the rate of fights where the attacker is KO'd by the counterattack.
+   */
+  public double getAttackerKORate(int row, int col) {
+    return attackerKORate[row * defenderNames.length + col];
+  }
+
+  /**
+   * Returns the expected HP the defender loses on a fight.
+   */
+  public double getDefenderDamage(int row, int col) {
+    return defenderDamage[row * defenderNames.length + col];
+  }
+
+  /**
+   * Returns the expected HP the attacker loses on a fight.
+   */
+  public double getAttackerDamage(int row, int col) {
+    return attackerDamage[row * defenderNames.length + col];
+  }
+
+  /**
+   * Returns the expected stars the attacker gets on a fight, negative if it tends to lose them.
+   */
+  public double getExpectedStars(int row, int col) {
+    return stars[row * defenderNames.length + col];
+  }
+
+  /**
+   * Returns the matrix as text, one cell per pair with the defender KO rate, the attacker KO
+   * rate, the damage dealt and taken by the attacker and the expected stars.
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(String.format("%-14s", "atk \\ def"));
+    for (String name : defenderNames) {
+      builder.append(String.format(" | %-30s", name));
+    }
+    builder.append('\n');
+    for (int row = 0; row < attackerNames.length; row++) {
+      builder.append(String.format("%-14s", attackerNames[row]));
+      for (int col = 0; col < defenderNames.length; col++) {
+        builder.append(String.format(" | KO %3.0f%%/%3.0f%% %4.2f/%4.2f %+5.1f*",
+            100 * getDefenderKORate(row, col), 100 * getAttackerKORate(row, col),
+            getDefenderDamage(row, col), getAttackerDamage(row, col),
+            getExpectedStars(row, col)));
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,152 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+/**
+ * Rules of a single attack, as pure functions over plain values.
+ * <p>
+ * An attack is resolved from the attack value, the target's stats, its response and the die it
+ * rolled for that response, and the outcome is packed on a long: the rolls, the damage, whether
+ * the target is KO'd and the wins and stars the attacker takes for it. Nothing is changed until
+ * the outcome is applied, so the same rules serve the units of a match (through
+ * {@link #apply(long, IUnit, AbstractUnit)}), the columns of a {@link UnitTable} and tools that
+ * only need the numbers.
+ */
+public final class CombatResolver {
+  public static final int DEFEND = 0;
+  public static final int EVADE = 1;
+
+  // Layout of a result, from the lowest bit: response roll (3), evaded (1), KO (1), damage (16,
+  // signed), wins (2), stars (31), attack value (8, signed).
+  private static final int EVADED_BIT = 3;
+  private static final int KO_BIT = 4;
+  private static final int DAMAGE_SHIFT = 5;
+  private static final int WINS_SHIFT = 21;
+  private static final int STARS_SHIFT = 23;
+  private static final int ATTACK_SHIFT = 54;
+
+  private CombatResolver() {
+  }
+
+  /**
+   * Returns the damage an attack deals to a target.
+   * @param attackValue
+   *  attack roll plus attack of the attacker
+   * @param response
+   *  DEFEND or EVADE
+   * @param responseRoll
+   *  die rolled by the target for its response, from 1 to 6
+   * @return
+   *  damage to take from the target's HP, 0 if the attack was evaded
+   */
+  public static int damage(int attackValue, int response, int responseRoll, int def, int evd) {
+    if (response == EVADE) {
+      return responseRoll + evd > attackValue ? 0 : attackValue;
+    }
+    return attackValue == 0 ? 0 : Math.max(1, attackValue - (responseRoll + def));
+  }
+
+  /**
+   * Resolves an attack.
+   * @param attackerKind
+   *  kind of the attacker, as the kinds of {@link UnitTable}
+   * @param targetKind
+   *  kind of the target, as the kinds of {@link UnitTable}
+   * @param targetHp
+   *  HP of the target before the attack
+   * @param targetStars
+   *  stars of the target, to know how many the attacker takes if it wins
+   * @return
+   *  the outcome, to read with the static getters of this class
+   */
+  public static long resolve(int attackerKind, int attackValue, int targetKind, int targetHp,
+                             int targetDef, int targetEvd, int targetStars, int response,
+                             int responseRoll) {
+    boolean evaded = response == EVADE && responseRoll + targetEvd > attackValue;
+    int damage = damage(attackValue, response, responseRoll, targetDef, targetEvd);
+    boolean ko = !evaded && targetHp - damage <= 0;
+    long result = responseRoll & 0x7L;
+    result |= (evaded ? 1L : 0L) << EVADED_BIT;
+    result |= (ko ? 1L : 0L) << KO_BIT;
+    result |= (damage & 0xFFFFL) << DAMAGE_SHIFT;
+    if (ko) {
+      result |= (long) UnitTable.winsFor(targetKind) << WINS_SHIFT;
+      result |= (long) UnitTable.starsTaken(attackerKind, targetKind, targetStars) << STARS_SHIFT;
+    }
+    result |= (attackValue & 0xFFL) << ATTACK_SHIFT;
+    return result;
+  }
+
+  /**
+   * Resolves an attack between two units, rolling the target's die for its response. The units
+   * themselves aren't changed, other than the target's random generator moving forward.
+   */
+  public static long resolve(IUnit attacker, int attackValue, IUnit target, int response) {
+    int responseRoll = target.roll();
+    return resolve(kindOf(attacker), attackValue, kindOf(target), target.getCurrentHP(),
+        target.getDef(), target.getEvd(), target.getStars(), response, responseRoll);
+  }
+
+  /**
+   * Applies the outcome of an attack to the target, with the same effects as
+   * {@link IUnit#defendAttack(IUnit, int)} and {@link IUnit#evadeAttack(IUnit, int)}: the target
+   * loses HP and, if KO'd, the attacker takes its wins and stars.
+   */
+  public static void apply(long result, IUnit attacker, AbstractUnit target) {
+    if (isEvaded(result)) {
+      return;
+    }
+    target.setCurrentHP(target.getCurrentHP() - getDamage(result));
+    if (isKO(result)) {
+      target.defeatedBy(attacker);
+    }
+  }
+
+  /**
+   * Returns the kind of a unit, as the kinds of {@link UnitTable}.
+   */
+  public static int kindOf(IUnit unit) {
+    if (unit instanceof UnitView) {
+      return ((UnitView) unit).getKind();
+    }
+    if (unit instanceof Player) {
+      return UnitTable.PLAYER;
+    }
+    return unit instanceof BossUnit ? UnitTable.BOSS : UnitTable.WILD;
+  }
+
+  public static int getAttackValue(long result) {
+    return (byte) (result >>> ATTACK_SHIFT);
+  }
+
+  public static int getResponseRoll(long result) {
+    return (int) (result & 0x7L);
+  }
+
+  public static boolean isEvaded(long result) {
+    return (result >>> EVADED_BIT & 1L) != 0;
+  }
+
+  public static boolean isKO(long result) {
+    return (result >>> KO_BIT & 1L) != 0;
+  }
+
+  /**
+   * Returns the damage dealt, before the target's HP is kept between 0 and its max HP.
+   */
+  public static int getDamage(long result) {
+    return (short) (result >>> DAMAGE_SHIFT);
+  }
+
+  /**
+   * Returns the wins the attacker gets, 0 if the target wasn't KO'd.
+   */
+  public static int getWins(long result) {
+    return (int) (result >>> WINS_SHIFT & 0x3L);
+  }
+
+  /**
+   * Returns the stars the attacker takes from the target, 0 if the target wasn't KO'd.
+   */
+  public static int getStars(long result) {
+    return (int) (result >>> STARS_SHIFT & 0x7FFFFFFFL);
+  }
+}
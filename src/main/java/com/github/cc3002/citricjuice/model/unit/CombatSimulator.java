@@ -0,0 +1,263 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+import java.util.Arrays;
+
+/**
+ * Simulates many fights between the units of a {@link UnitTable}, to see how stat lines fare
+ * against each other.
+ * <p>
+ * A fight is what happens when a unit lands on another one: the attacker attacks, the defender
+ * defends or evades, and if it isn't KO'd it counterattacks and the attacker responds. Both
+ * start with full HP. Fights are run in blocks: the dice of a whole block are drawn first on
+ * primitive arrays, from {@link #LANES} independent generators, and then the rules are applied
+ * to the block with straight loops of plain arithmetic, which the JIT can turn into SIMD code.
+ * The scalar mode runs the same fights, with the same dice, one at a time through
+ * {@link CombatResolver}, and serves as reference.
+ */
+public class CombatSimulator {
+  /**
+   * Response picked at random for each fight, like computer controlled units do.
+   */
+  public static final int RANDOM = -1;
+  public static final int LANES = 8;
+
+  private static final int BLOCK = 1024;
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final UnitTable units;
+  private final long[] lanes = new long[LANES];
+  private boolean vectorized = true;
+  private int attackerResponse = RANDOM;
+  private int defenderResponse = RANDOM;
+
+  // Dice of the current block.
+  private final int[] attackRolls = new int[BLOCK];
+  private final int[] responseRolls = new int[BLOCK];
+  private final int[] defenderChoices = new int[BLOCK];
+  private final int[] counterRolls = new int[BLOCK];
+  private final int[] counterResponseRolls = new int[BLOCK];
+  private final int[] attackerChoices = new int[BLOCK];
+
+  /**
+   * Creates a simulator for the units of a table.
+   * @param seed
+   *  seed of the dice, the same seed gives the same results
+   */
+  public CombatSimulator(UnitTable units, long seed) {
+    this.units = units;
+    for (int lane = 0; lane < LANES; lane++) {
+      lanes[lane] = mix(seed + lane * GOLDEN_GAMMA);
+    }
+  }
+
+  /**
+   * Sets whether fights are run in blocks of arrays (the default) or one by one.
+   */
+  public void setVectorized(boolean value) {
+    vectorized = value;
+  }
+
+  /**
+   * Sets how the units respond to attacks.
+   * @param attacker
+   *  response of the attacker to the counterattack: DEFEND, EVADE or RANDOM
+   * @param defender
+   *  response of the defender to the attack: DEFEND, EVADE or RANDOM
+   */
+  public void setResponses(int attacker, int defender) {
+    attackerResponse = attacker;
+    defenderResponse = defender;
+  }
+
+  /**
+   * Simulates fights between every pair of units of the table, attackers on the rows.
+   * @param fights
+   *  fights to simulate for each pair
+   */
+  public CombatMatrix run(int fights) {
+    int[] all = new int[units.size()];
+    Arrays.setAll(all, i -> i);
+    return run(all, all, fights);
+  }
+
+  /**
+   * Simulates fights between some units of the table.
+   * @param attackers
+   *  indexes of the attacking units, one row each
+   * @param defenders
+   *  indexes of the defending units, one column each
+   * @param fights
+   *  fights to simulate for each pair
+   */
+  public CombatMatrix run(int[] attackers, int[] defenders, int fights) {
+    CombatMatrix matrix = new CombatMatrix(units, attackers, defenders, fights);
+    for (int row = 0; row < attackers.length; row++) {
+      for (int col = 0; col < defenders.length; col++) {
+        long[] totals = new long[4];
+        for (int done = 0; done < fights; done += BLOCK) {
+          int n = Math.min(BLOCK, fights - done);
+          drawDice(n);
+          if (vectorized) {
+            runBlock(attackers[row], defenders[col], n, totals);
+          } else {
+            runScalar(attackers[row], defenders[col], n, totals);
+          }
+        }
+        matrix.set(row, col, totals);
+      }
+    }
+    return matrix;
+  }
+
+  /**
+   * Draws the dice and the random responses of the next n fights.
+   */
+  private void drawDice(int n) {
+    fillRolls(attackRolls, n);
+    fillRolls(responseRolls, n);
+    fillRolls(counterRolls, n);
+    fillRolls(counterResponseRolls, n);
+    fillChoices(defenderChoices, n, defenderResponse);
+    fillChoices(attackerChoices, n, attackerResponse);
+  }
+
+  private void fillRolls(int[] rolls, int n) {
+    for (int i = 0; i < n; i += LANES) {
+      int width = Math.min(LANES, n - i);
+      for (int lane = 0; lane < width; lane++) {
+        long z = mix(lanes[lane] += GOLDEN_GAMMA);
+        // Top 32 bits scaled to [0, 6).
+        rolls[i + lane] = 1 + (int) (((z >>> 32) * 6) >>> 32);
+      }
+    }
+  }
+
+  private void fillChoices(int[] choices, int n, int response) {
+    if (response != RANDOM) {
+      Arrays.fill(choices, 0, n, response);
+      return;
+    }
+    for (int i = 0; i < n; i += LANES) {
+      int width = Math.min(LANES, n - i);
+      for (int lane = 0; lane < width; lane++) {
+        choices[i + lane] = (int) (mix(lanes[lane] += GOLDEN_GAMMA) >>> 63);
+      }
+    }
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Runs a block of fights with loops over the dice arrays, adding the defender KOs, attacker
+   * KOs, damage taken by the defender and damage taken by the attacker to totals.
+   */
+  private void runBlock(int a, int b, int n, long[] totals) {
+    int atkA = units.getAtk(a);
+    int defA = units.getDef(a);
+    int evdA = units.getEvd(a);
+    int hpA = units.getMaxHp(a);
+    int atkB = units.getAtk(b);
+    int defB = units.getDef(b);
+    int evdB = units.getEvd(b);
+    int hpB = units.getMaxHp(b);
+    int defenderKOs = 0;
+    int attackerKOs = 0;
+    long damageToB = 0;
+    long damageToA = 0;
+    for (int i = 0; i < n; i++) {
+      int attack = attackRolls[i] + atkA;
+      int roll = responseRolls[i];
+      int defended = attack == 0 ? 0 : Math.max(1, attack - (roll + defB));
+      int evaded = roll + evdB > attack ? 0 : attack;
+      int damage = defenderChoices[i] == CombatResolver.EVADE ? evaded : defended;
+      int lostB = Math.min(hpB, Math.max(0, damage));
+      int koB = lostB == hpB ? 1 : 0;
+
+      int counter = counterRolls[i] + atkB;
+      int counterRoll = counterResponseRolls[i];
+      int counterDefended = counter == 0 ? 0 : Math.max(1, counter - (counterRoll + defA));
+      int counterEvaded = counterRoll + evdA > counter ? 0 : counter;
+      int counterDamage = attackerChoices[i] == CombatResolver.EVADE ? counterEvaded : counterDefended;
+      // A KO'd defender doesn't counterattack.
+      int lostA = (1 - koB) * Math.min(hpA, Math.max(0, counterDamage));
+      int koA = lostA == hpA ? 1 : 0;
+
+      defenderKOs += koB;
+      attackerKOs += koA;
+      damageToB += lostB;
+      damageToA += lostA;
+    }
+    totals[0] += defenderKOs;
+    totals[1] += attackerKOs;
+    totals[2] += damageToB;
+    totals[3] += damageToA;
+  }
+
+  /**
+   * Runs a block of fights one by one through {@link CombatResolver}.
+   */
+  private void runScalar(int a, int b, int n, long[] totals) {
+    int kindA = units.getKind(a);
+    int kindB = units.getKind(b);
+    int hpA = units.getMaxHp(a);
+    int hpB = units.getMaxHp(b);
+    for (int i = 0; i < n; i++) {
+      long attack = CombatResolver.resolve(kindA, attackRolls[i] + units.getAtk(a), kindB, hpB,
+          units.getDef(b), units.getEvd(b), units.getStars(b), defenderChoices[i], responseRolls[i]);
+      int lostB = hpB - clamp(hpB - CombatResolver.getDamage(attack), hpB);
+      if (CombatResolver.isKO(attack)) {
+        totals[0]++;
+        totals[2] += lostB;
+        continue;
+      }
+      totals[2] += lostB;
+      long counter = CombatResolver.resolve(kindB, counterRolls[i] + units.getAtk(b), kindA, hpA,
+          units.getDef(a), units.getEvd(a), units.getStars(a), attackerChoices[i],
+          counterResponseRolls[i]);
+      if (CombatResolver.isKO(counter)) {
+        totals[1]++;
+      }
+      totals[3] += hpA - clamp(hpA - CombatResolver.getDamage(counter), hpA);
+    }
+  }
+
+  private static int clamp(int hp, int maxHp) {
+    return Math.max(Math.min(hp, maxHp), 0);
+  }
+
+  /**
+   * Runs the game's stat lines against each other and prints the matrix.
+   * @param args
+   *  fights per pair, 100000 if not given, and stars carried by every unit, 10 if not given
+   */
+  public static void main(String[] args) {
+    int fights = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    int stars = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    UnitTable table = new UnitTable(10);
+    // Players of the practice board, then the units of generateWildUnit and generateBossUnit.
+    table.add(UnitTable.PLAYER, "Pikachu", 4, 1, -1, 2);
+    table.add(UnitTable.PLAYER, "Jamin", 5, 1, 0, 0);
+    table.add(UnitTable.PLAYER, "Pusheen", 5, 2, -1, -1);
+    table.add(UnitTable.PLAYER, "La Rosalia", 3, 1, 1, 1);
+    table.add(UnitTable.WILD, "Chicken", 3, -1, -1, 1);
+    table.add(UnitTable.WILD, "Robo Ball", 3, -1, 1, -1);
+    table.add(UnitTable.WILD, "Seagull", 3, 1, -1, -1);
+    table.add(UnitTable.BOSS, "Store Manager", 8, 3, 2, -1);
+    table.add(UnitTable.BOSS, "Shifu Robot", 7, 2, 3, -2);
+    table.add(UnitTable.BOSS, "Flying Castle", 10, 2, 1, -3);
+    for (int unit = 0; unit < table.size(); unit++) {
+      table.increaseStarsBy(unit, stars);
+    }
+    CombatSimulator simulator = new CombatSimulator(table, System.nanoTime());
+    long start = System.nanoTime();
+    CombatMatrix matrix = simulator.run(fights);
+    long elapsed = System.nanoTime() - start;
+    System.out.println(matrix);
+    System.out.printf("%d fights in %d ms%n", (long) fights * table.size() * table.size(),
+        elapsed / 1000000);
+  }
+}
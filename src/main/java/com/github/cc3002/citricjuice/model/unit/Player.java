@@ -1,9 +1,14 @@
 package com.github.cc3002.citricjuice.model.unit;
 
+import com.github.cc3002.citricjuice.model.MatchStandings;
+import com.github.cc3002.citricjuice.model.ZobristHash;
+import com.github.cc3002.citricjuice.model.board.BoardOccupancy;
 import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.board.PanelOccupancy;
 import com.github.cc3002.citricjuice.model.board.NullPanel;
 import com.github.cc3002.citricjuice.model.norma.INormaGoal;
 import com.github.cc3002.citricjuice.model.norma.NormaFactory;
+import com.github.cc3002.citricjuice.model.norma.WinsNorma;
 import com.github.cc3002.citricliquid.controller.GameController;
 
 import java.beans.PropertyChangeEvent;
@@ -24,8 +29,27 @@ public class Player extends AbstractUnit {
   protected IPanel homePanel = NullPanel.getNullPanel();
   protected INormaGoal goal;
   protected int recoveryLeft;
+  // Stable index of the player on its match, -1 if it isn't seated on one.
+  private int seat = -1;
+  // Where the match keeps who's on each panel, null to keep it on the panels themselves.
+  private BoardOccupancy board;
+  // Standings of the match this player is seated on, null if it isn't on one.
+  private MatchStandings standings;
   // Observable
   private PropertyChangeSupport changes;
+  // Changes the controller hears about. Each one has a single event without values, fired every
+  // time instead of creating a new one: the new values are read from the player.
+  private final PropertyChangeEvent panelChanged = changeOf("currentPanel");
+  private final PropertyChangeEvent goalChanged = changeOf("normaGoal");
+  private final PropertyChangeEvent normaLevelChanged = changeOf("normaLevel");
+  private final PropertyChangeEvent stumbledUponPlayer = changeOf("stumbledUponPlayer");
+  private final PropertyChangeEvent reachedHome = changeOf("reachedHome");
+  private final PropertyChangeEvent reachedPathFork = changeOf("reachedPathFork");
+  private final PropertyChangeEvent winsChanged = changeOf("wins");
+  private final PropertyChangeEvent starsChanged = changeOf("stars");
+  private final PropertyChangeEvent hpChanged = changeOf("HP");
+  private final PropertyChangeEvent landedOnEncounter = changeOf("landedOnEncounter");
+  private final PropertyChangeEvent landedOnBossEncounter = changeOf("landedOnBossEncounter");
 
   /**
    * Adds an instance of GameController as an observer.
@@ -61,6 +85,10 @@ public class Player extends AbstractUnit {
 
 
 
+  private PropertyChangeEvent changeOf(String property) {
+    return new PropertyChangeEvent(this, property, null, null);
+  }
+
   /**
    * Returns the Norma Goal of this player.
    */
@@ -68,8 +96,114 @@ public class Player extends AbstractUnit {
 
   public void setNormaGoal(INormaGoal goal) {
     INormaGoal preGoal = this.goal;
+    if (hash != null) {
+      updateHash(ZobristHash.GOAL_TYPE, goalType(preGoal), goalType(goal));
+      updateHash(ZobristHash.GOAL_REQUIREMENT, preGoal.getRequirement(), goal.getRequirement());
+    }
     this.goal = goal;
-    changes.firePropertyChange(new PropertyChangeEvent(this, "normaGoal",preGoal,this.goal));
+    if (preGoal == null || !preGoal.equals(goal)) {
+      changes.firePropertyChange(goalChanged);
+    }
+  }
+
+  private static int goalType(INormaGoal goal) {
+    return goal instanceof WinsNorma ? 1 : 0;
+  }
+
+  @Override
+  protected void toggleHashedValues() {
+    super.toggleHashedValues();
+    hash.toggle(hashSlot, ZobristHash.NORMA_LEVEL, normaLevel);
+    hash.toggle(hashSlot, ZobristHash.GOAL_TYPE, goalType(goal));
+    hash.toggle(hashSlot, ZobristHash.GOAL_REQUIREMENT, goal.getRequirement());
+    hash.toggle(hashSlot, ZobristHash.RECOVERY_LEFT, recoveryLeft);
+    hash.toggle(hashSlot, ZobristHash.PANEL, currentPanel.getEntityId());
+  }
+
+  /**
+   * Returns the index of this player on its match, -1 if it isn't seated on one.
+   */
+  public int getSeat() {
+    return seat;
+  }
+
+  /**
+   * Sets the index of this player on its match. Panels tell their players apart by it, so no
+   * two players of a match should share a seat.
+   */
+  public void setSeat(int value) {
+    leavePanel(currentPanel);
+    if (standings != null) {
+      standings.remove(this);
+    }
+    seat = value;
+    enterPanel(currentPanel);
+    if (standings != null && seat >= 0) {
+      standings.add(this);
+    }
+  }
+
+  /**
+   * Keeps a match's standings up to date with this player's norma level, stars and wins.
+   * @param value
+   *  standings of the match, null to stop updating them
+   */
+  public void setStandings(MatchStandings value) {
+    if (standings != null) {
+      standings.remove(this);
+    }
+    standings = value;
+    if (standings != null) {
+      standings.add(this);
+    }
+  }
+
+  @Override
+  protected void standingsChanged() {
+    if (standings != null) {
+      standings.update(this);
+    }
+  }
+
+  /**
+   * Keeps this player's position on a match's occupancy instead of on the panels, needed when
+   * the panels are shared with other matches.
+   */
+  public void setBoardOccupancy(BoardOccupancy occupancy) {
+    leavePanel(currentPanel);
+    board = occupancy;
+    enterPanel(currentPanel);
+  }
+
+  /**
+   * Returns the players standing on this player's panel, this one included.
+   */
+  public PanelOccupancy getPanelOccupancy() {
+    return occupancyOf(currentPanel);
+  }
+
+  /**
+   * Returns the players standing on a panel, as seen from this player's match.
+   */
+  @SuppressWarnings("deprecation")
+  public PanelOccupancy occupancyOf(IPanel panel) {
+    return board == null ? panel.getOccupancy() : board.get(panel);
+  }
+
+  private void leavePanel(IPanel panel) {
+    if (board == null) {
+      panel.removePlayer(this);
+    } else {
+      board.remove(panel, this);
+    }
+  }
+
+  private void enterPanel(IPanel panel) {
+    if (board == null) {
+      panel.addPlayer(this);
+    } else {
+      board.add(panel, this);
+    }
   }
 
   public boolean normaCheck() {
@@ -81,29 +215,51 @@ public class Player extends AbstractUnit {
   public void setCurrentPanel(IPanel panel) {
     IPanel prePanel = currentPanel;
 
-    currentPanel.removePlayer(this);
+    leavePanel(currentPanel);
     this.currentPanel = panel;
-    currentPanel.addPlayer(this);
+    enterPanel(currentPanel);
+    updateHash(ZobristHash.PANEL, prePanel.getEntityId(), panel.getEntityId());
+
+    // Staying on the same panel isn't a change, panels of different boards may share an ID.
+    if (prePanel == panel) {
+      return;
+    }
 
     // When assigned to a panel has to check for different cases to
     // notify the observers if something happens
 
     // Stumbles upon players and might want to fight
-    if (panel.getPlayers().size() > 1) {
-      changes.firePropertyChange(new PropertyChangeEvent(this, "stumbledUponPlayer",prePanel,panel));
+    if (getPanelOccupancy().hasOthers(this)) {
+      changes.firePropertyChange(stumbledUponPlayer);
     }
 
     // Reaches its house
     if (panel.equals(this.getHomePanel())) {
-      changes.firePropertyChange(new PropertyChangeEvent(this, "reachedHome",prePanel,panel));
+      changes.firePropertyChange(reachedHome);
     }
 
     // Reaches a panel with more than one next panel
     if (panel.getNextPanels().size() > 1) {
-      changes.firePropertyChange(new PropertyChangeEvent(this, "reachedPathFork",prePanel,panel));
+      changes.firePropertyChange(reachedPathFork);
     }
 
-    changes.firePropertyChange(new PropertyChangeEvent(this, "currentPanel",prePanel,panel));
+    changes.firePropertyChange(panelChanged);
+  }
+
+  /**
+   * Moves this unit to a panel without checking what's on it, for movements that have already
+   * been resolved. Only the change of panel is notified.
+   */
+  public void moveTo(IPanel panel) {
+    IPanel prePanel = currentPanel;
+    if (panel == prePanel) {
+      return;
+    }
+    leavePanel(currentPanel);
+    this.currentPanel = panel;
+    enterPanel(currentPanel);
+    updateHash(ZobristHash.PANEL, prePanel.getEntityId(), panel.getEntityId());
+    changes.firePropertyChange(panelChanged);
   }
 
   /**
@@ -134,15 +290,17 @@ public class Player extends AbstractUnit {
    * Sets a certain norma level
    */
   public void setNormaLevel(int level) {
+    updateHash(ZobristHash.NORMA_LEVEL, normaLevel, level);
     normaLevel = level;
+    standingsChanged();
   }
 
   /**
    * Performs a norma clear action; the {@code norma} counter increases in 1.
    */
   public void normaClear() {
-    normaLevel++;
-    changes.firePropertyChange(new PropertyChangeEvent(this, "normaLevel", this.normaLevel-1, this.normaLevel));
+    setNormaLevel(normaLevel + 1);
+    changes.firePropertyChange(normaLevelChanged);
   }
 
 
@@ -176,6 +334,7 @@ public class Player extends AbstractUnit {
    * @param value to replace atk with
    */
   public void setAtk(int value) {
+    updateHash(ZobristHash.ATK, atk, value);
     this.atk = value;
   }
 
@@ -184,6 +343,7 @@ public class Player extends AbstractUnit {
    * @param value to replace def with
    */
   public void setDef(int value) {
+    updateHash(ZobristHash.DEF, def, value);
     this.def = value;
   }
   /**
@@ -191,6 +351,7 @@ public class Player extends AbstractUnit {
    * @param value to replace evd with
    */
   public void setEvd(int value) {
+    updateHash(ZobristHash.EVD, evd, value);
     this.evd = value;
   }
 
@@ -227,6 +388,7 @@ public class Player extends AbstractUnit {
    *    new recovery left value
    */
   public void setRecoveryLeft(int value) {
+    updateHash(ZobristHash.RECOVERY_LEFT, recoveryLeft, value);
     recoveryLeft = value;
   }
 
@@ -258,8 +420,7 @@ public class Player extends AbstractUnit {
     int getStars = Math.floorDiv(player.getStars(),2);
     this.increaseStarsBy(getStars);
     player.reduceStarsBy(getStars);
-    changes.firePropertyChange(new PropertyChangeEvent(this, "wins",this.getWins()-2,this.getWins()));
-    changes.firePropertyChange(new PropertyChangeEvent(this, "stars",this.getStars()-getStars,this.getStars()));
+    notifyWinsAndStars(getStars);
   }
 
   @Override
@@ -268,8 +429,7 @@ public class Player extends AbstractUnit {
     int getStars = wildunit.getStars();
     this.increaseStarsBy(getStars);
     wildunit.reduceStarsBy(getStars);
-    changes.firePropertyChange(new PropertyChangeEvent(this, "wins",this.getWins()-1,this.getWins()));
-    changes.firePropertyChange(new PropertyChangeEvent(this, "stars",this.getStars()-getStars,this.getStars()));
+    notifyWinsAndStars(getStars);
   }
 
   @Override
@@ -278,8 +438,14 @@ public class Player extends AbstractUnit {
     int getStars = bossunit.getStars();
     this.increaseStarsBy(getStars);
     bossunit.reduceStarsBy(getStars);
-    changes.firePropertyChange(new PropertyChangeEvent(this, "wins",this.getWins()-3,this.getWins()));
-    changes.firePropertyChange(new PropertyChangeEvent(this, "stars",this.getStars()-getStars,this.getStars()));
+    notifyWinsAndStars(getStars);
+  }
+
+  private void notifyWinsAndStars(int stars) {
+    changes.firePropertyChange(winsChanged);
+    if (stars != 0) {
+      changes.firePropertyChange(starsChanged);
+    }
   }
 
   /**
@@ -290,15 +456,17 @@ public class Player extends AbstractUnit {
   public void setCurrentHP(int newHP) {
     int preHP = getCurrentHP();
     super.setCurrentHP(newHP);
-    changes.firePropertyChange(new PropertyChangeEvent(this, "HP",preHP,this.getCurrentHP()));
+    if (preHP != getCurrentHP()) {
+      changes.firePropertyChange(hpChanged);
+    }
   }
 
   public void forceEncounter() {
-    changes.firePropertyChange(new PropertyChangeEvent(this, "landedOnEncounter",null, null));
+    changes.firePropertyChange(landedOnEncounter);
   }
 
   public void forceBossEncounter() {
-    changes.firePropertyChange(new PropertyChangeEvent(this, "landedOnBossEncounter",null, null));
+    changes.firePropertyChange(landedOnBossEncounter);
   }
 
 }
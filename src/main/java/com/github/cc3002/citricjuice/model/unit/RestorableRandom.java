@@ -0,0 +1,61 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+import java.util.Random;
+
+/**
+ * Random number generator that produces exactly the same sequence as {@link Random} but whose
+ * internal state can be read and restored.
+ * <p>
+ * This makes possible to save a game at any point and resume it later with the same rolls,
+ * which is needed to replay recorded matches.
+ */
+public class RestorableRandom extends Random {
+  private static final long serialVersionUID = 1L;
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  // Not initialized on purpose: Random's constructor calls setSeed before the field
+  // initializers of this class run.
+  private long state;
+
+  /**
+   * Creates a generator with a non-deterministic seed.
+   */
+  public RestorableRandom() {
+    super();
+  }
+
+  /**
+   * Creates a generator with a given seed.
+   */
+  public RestorableRandom(long seed) {
+    super(seed);
+  }
+
+  @Override
+  public synchronized void setSeed(long seed) {
+    super.setSeed(seed);
+    state = (seed ^ MULTIPLIER) & MASK;
+  }
+
+  @Override
+  protected int next(int bits) {
+    state = (state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (state >>> (48 - bits));
+  }
+
+  /**
+   * Returns the internal state of the generator.
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Restores a state previously returned by getState.
+   */
+  public void setState(long value) {
+    state = value & MASK;
+  }
+}
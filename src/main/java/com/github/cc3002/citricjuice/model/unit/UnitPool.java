@@ -0,0 +1,69 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+import java.util.Arrays;
+
+/**
+ * Wild and boss units of a match, kept to be reused when a unit of the same kind spawns again.
+ * <p>
+ * A match only has one wild unit and one boss unit at a time, and a defeated unit is never used
+ * again, so instead of creating a new unit (with its own random generator) on every spawn the
+ * pool keeps one unit per stat line and resets it. Units are told apart by name and max HP,
+ * which can't change after they are created.
+ * <p>
+ * A respawn hands back the same instance as the defeated unit of its kind, so a reference held
+ * to a defeated unit sees the new one: back to full HP, without stars nor wins. Whatever has
+ * to be known about a defeated unit must be read before the next unit of its kind is obtained.
+ */
+public class UnitPool {
+  private WildUnit[] wildUnits = new WildUnit[3];
+  private int wildCount = 0;
+  private BossUnit[] bossUnits = new BossUnit[1];
+  private int bossCount = 0;
+
+  /**
+   * Returns a wild unit with the given stats, with full HP and no stars nor wins.
+   */
+  public WildUnit obtainWildUnit(String name, int hitPoints, int attack, int defense,
+                                 int evasion) {
+    for (int i = 0; i < wildCount; i++) {
+      WildUnit unit = wildUnits[i];
+      if (unit.getMaxHP() == hitPoints && unit.getName().equals(name)) {
+        unit.reset(attack, defense, evasion);
+        return unit;
+      }
+    }
+    if (wildCount == wildUnits.length) {
+      wildUnits = Arrays.copyOf(wildUnits, wildCount * 2);
+    }
+    WildUnit unit = new WildUnit(name, hitPoints, attack, defense, evasion);
+    wildUnits[wildCount++] = unit;
+    return unit;
+  }
+
+  /**
+   * Returns a boss unit with the given stats, with full HP and no stars nor wins.
+   */
+  public BossUnit obtainBossUnit(String name, int hitPoints, int attack, int defense,
+                                 int evasion) {
+    for (int i = 0; i < bossCount; i++) {
+      BossUnit unit = bossUnits[i];
+      if (unit.getMaxHP() == hitPoints && unit.getName().equals(name)) {
+        unit.reset(attack, defense, evasion);
+        return unit;
+      }
+    }
+    if (bossCount == bossUnits.length) {
+      bossUnits = Arrays.copyOf(bossUnits, bossCount * 2);
+    }
+    BossUnit unit = new BossUnit(name, hitPoints, attack, defense, evasion);
+    bossUnits[bossCount++] = unit;
+    return unit;
+  }
+
+  /**
+   * Returns the amount of units the pool has created.
+   */
+  public int size() {
+    return wildCount + bossCount;
+  }
+}
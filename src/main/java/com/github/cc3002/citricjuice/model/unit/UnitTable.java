@@ -0,0 +1,349 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+import java.util.Arrays;
+
+/**
+ * Primitive store of units for batched simulations.
+ * <p>
+ * Each unit is an index and each of its values lives on a column (a plain array), so running
+ * the rules over many units only walks arrays instead of following references to objects with
+ * their own random generator and observers. The rules applied here give exactly the same
+ * results as the ones of {@link Player}, {@link WildUnit} and {@link BossUnit}, rolls included,
+ * as long as the units start with the same values and random states.
+ * <p>
+ * Code written against {@link IUnit} can use the units through {@link #view(int)}.
+ */
+public class UnitTable {
+  public static final int PLAYER = 0;
+  public static final int WILD = 1;
+  public static final int BOSS = 2;
+
+  // Wins given by defeating a unit of each kind.
+  private static final int[] WINS_FOR_KIND = {2, 1, 3};
+
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  private int size = 0;
+  private int[] kind;
+  private int[] maxHp;
+  private int[] hp;
+  private int[] atk;
+  private int[] def;
+  private int[] evd;
+  private int[] stars;
+  private int[] wins;
+  private int[] normaLevel;
+  private int[] recoveryLeft;
+  private int[] panel;
+  private long[] randomState;
+  private String[] name;
+  private UnitView[] views;
+
+  /**
+   * Creates an empty table.
+   * @param capacity
+   *  amount of units it can hold before growing
+   */
+  public UnitTable(int capacity) {
+    resize(Math.max(1, capacity));
+  }
+
+  private void resize(int capacity) {
+    kind = grow(kind, capacity);
+    maxHp = grow(maxHp, capacity);
+    hp = grow(hp, capacity);
+    atk = grow(atk, capacity);
+    def = grow(def, capacity);
+    evd = grow(evd, capacity);
+    stars = grow(stars, capacity);
+    wins = grow(wins, capacity);
+    normaLevel = grow(normaLevel, capacity);
+    recoveryLeft = grow(recoveryLeft, capacity);
+    panel = grow(panel, capacity);
+    randomState = randomState == null ? new long[capacity] : Arrays.copyOf(randomState, capacity);
+    name = name == null ? new String[capacity] : Arrays.copyOf(name, capacity);
+    views = views == null ? new UnitView[capacity] : Arrays.copyOf(views, capacity);
+  }
+
+  private static int[] grow(int[] column, int capacity) {
+    return column == null ? new int[capacity] : Arrays.copyOf(column, capacity);
+  }
+
+  /**
+   * Returns the amount of units on the table.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every unit, keeping the allocated columns.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Adds a unit with full hit points and no stars nor wins.
+   * @param unitKind
+   *  {@link #PLAYER}, {@link #WILD} or {@link #BOSS}
+   * @return
+   *  index of the new unit
+   */
+  public int add(int unitKind, String unitName, int hitPoints, int attack, int defense,
+                 int evasion) {
+    if (size == kind.length) {
+      resize(size * 2);
+    }
+    int unit = size++;
+    kind[unit] = unitKind;
+    name[unit] = unitName;
+    maxHp[unit] = hitPoints;
+    hp[unit] = hitPoints;
+    atk[unit] = attack;
+    def[unit] = defense;
+    evd[unit] = evasion;
+    stars[unit] = 0;
+    wins[unit] = 0;
+    normaLevel[unit] = unitKind == PLAYER ? 1 : 0;
+    recoveryLeft[unit] = 0;
+    panel[unit] = -1;
+    randomState[unit] = 0;
+    return unit;
+  }
+
+  /**
+   * Adds a copy of the current values of a unit, random state included.
+   * @param unit
+   *  unit to copy
+   * @param panelIndex
+   *  index of the unit's panel on the board, -1 if it isn't on one
+   * @return
+   *  index of the new unit
+   */
+  public int add(AbstractUnit unit, int panelIndex) {
+    int unitKind = unit instanceof Player ? PLAYER : unit instanceof BossUnit ? BOSS : WILD;
+    int index = add(unitKind, unit.getName(), unit.getMaxHP(), unit.getAtk(), unit.getDef(),
+                    unit.getEvd());
+    hp[index] = unit.getCurrentHP();
+    stars[index] = unit.getStars();
+    wins[index] = unit.getWins();
+    randomState[index] = unit.getRandomState();
+    panel[index] = panelIndex;
+    if (unit instanceof Player) {
+      normaLevel[index] = ((Player) unit).getNormaLevel();
+      recoveryLeft[index] = ((Player) unit).getRecoveryLeft();
+    }
+    return index;
+  }
+
+  /**
+   * Returns an {@link IUnit} backed by a unit of this table. The same view is returned on
+   * every call for the same index.
+   */
+  public UnitView view(int unit) {
+    UnitView view = views[unit];
+    if (view == null) {
+      view = new UnitView(this, unit);
+      views[unit] = view;
+    }
+    return view;
+  }
+
+  //region Columns
+
+  public int getKind(int unit) { return kind[unit]; }
+
+  public String getName(int unit) { return name[unit]; }
+
+  public int getMaxHp(int unit) { return maxHp[unit]; }
+
+  public int getHp(int unit) { return hp[unit]; }
+
+  /**
+   * Sets the hit points of a unit, clamped between 0 and its max hit points.
+   */
+  public void setHp(int unit, int value) {
+    hp[unit] = Math.max(Math.min(value, maxHp[unit]), 0);
+  }
+
+  public boolean isKOd(int unit) { return hp[unit] == 0; }
+
+  public int getAtk(int unit) { return atk[unit]; }
+
+  public void setAtk(int unit, int value) { atk[unit] = value; }
+
+  public int getDef(int unit) { return def[unit]; }
+
+  public void setDef(int unit, int value) { def[unit] = value; }
+
+  public int getEvd(int unit) { return evd[unit]; }
+
+  public void setEvd(int unit, int value) { evd[unit] = value; }
+
+  public int getStars(int unit) { return stars[unit]; }
+
+  public void setStars(int unit, int value) { stars[unit] = Math.max(0, value); }
+
+  public void increaseStarsBy(int unit, int amount) { stars[unit] += amount; }
+
+  public void reduceStarsBy(int unit, int amount) { setStars(unit, stars[unit] - amount); }
+
+  public int getWins(int unit) { return wins[unit]; }
+
+  public void setWins(int unit, int value) { wins[unit] = value; }
+
+  public int getNormaLevel(int unit) { return normaLevel[unit]; }
+
+  public void setNormaLevel(int unit, int value) { normaLevel[unit] = value; }
+
+  public int getRecoveryLeft(int unit) { return recoveryLeft[unit]; }
+
+  public void setRecoveryLeft(int unit, int value) { recoveryLeft[unit] = value; }
+
+  /**
+   * Returns the index of the unit's panel on the board, -1 if it isn't on one.
+   */
+  public int getPanel(int unit) { return panel[unit]; }
+
+  public void setPanel(int unit, int panelIndex) { panel[unit] = panelIndex; }
+
+  public long getRandomState(int unit) { return randomState[unit]; }
+
+  public void setRandomState(int unit, long state) { randomState[unit] = state & MASK; }
+
+  /**
+   * Seeds the unit's random generator the same way {@link AbstractUnit#setSeed} does.
+   */
+  public void setSeed(int unit, long seed) {
+    randomState[unit] = (seed ^ MULTIPLIER) & MASK;
+  }
+
+  //endregion
+
+  //region Rules
+
+  /**
+   * Returns a uniformly distributed random value in [1, 6], the same one the unit's
+   * {@link RestorableRandom} would give.
+   */
+  public int roll(int unit) {
+    // Random.nextInt(6): draws of 31 bits, rejecting the ones that would bias the modulo.
+    int bits = next31(unit);
+    int value = bits % 6;
+    while (bits - value + 5 < 0) {
+      bits = next31(unit);
+      value = bits % 6;
+    }
+    return value + 1;
+  }
+
+  private int next31(int unit) {
+    long state = (randomState[unit] * MULTIPLIER + ADDEND) & MASK;
+    randomState[unit] = state;
+    return (int) (state >>> 17);
+  }
+
+  public int getAttackRoll(int unit) { return roll(unit) + atk[unit]; }
+
+  public int getDefenseRoll(int unit) { return roll(unit) + def[unit]; }
+
+  public int getEvasionRoll(int unit) { return roll(unit) + evd[unit]; }
+
+  /**
+   * Applies a defended attack to a unit.
+   * @return
+   *  whether the target is KO'd afterwards
+   */
+  public boolean defend(int target, int incomingDamage) {
+    int damage = CombatResolver.damage(incomingDamage, CombatResolver.DEFEND, roll(target),
+        def[target], evd[target]);
+    setHp(target, hp[target] - damage);
+    return isKOd(target);
+  }
+
+  /**
+   * Applies an evaded attack to a unit, the damage is taken in full unless the evasion roll
+   * beats it.
+   * @return
+   *  whether the attack wasn't evaded and the target is KO'd afterwards
+   */
+  public boolean evade(int target, int incomingDamage) {
+    if (roll(target) + evd[target] > incomingDamage) {
+      return false;
+    }
+    setHp(target, hp[target] - incomingDamage);
+    return isKOd(target);
+  }
+
+  /**
+   * Processes the defense of a unit against another unit of the table.
+   */
+  public void defendAttack(int target, int attacker, int incomingDamage) {
+    if (defend(target, incomingDamage)) {
+      defeat(target, attacker);
+    }
+  }
+
+  /**
+   * Processes the evasion of a unit against another unit of the table.
+   */
+  public void evadeAttack(int target, int attacker, int incomingDamage) {
+    if (evade(target, incomingDamage)) {
+      defeat(target, attacker);
+    }
+  }
+
+  /**
+   * Gives the winner the wins and stars for defeating the loser.
+   */
+  public void defeat(int loser, int winner) {
+    if (kind[loser] == PLAYER) {
+      recoveryLeft[loser] = 6;
+    }
+    int taken = starsTaken(kind[winner], kind[loser], stars[loser]);
+    wins[winner] += winsFor(kind[loser]);
+    stars[winner] += taken;
+    reduceStarsBy(loser, taken);
+  }
+
+  /**
+   * Returns the wins given by defeating a unit of a certain kind.
+   */
+  public static int winsFor(int loserKind) {
+    return WINS_FOR_KIND[loserKind];
+  }
+
+  /**
+   * Returns the stars a unit takes from the unit it defeats: players take every star of wild
+   * and boss units, every other case takes half of them.
+   */
+  public static int starsTaken(int winnerKind, int loserKind, int loserStars) {
+    if (winnerKind == PLAYER && loserKind != PLAYER) {
+      return loserStars;
+    }
+    return Math.floorDiv(loserStars, 2);
+  }
+
+  /**
+   * Does a recovery roll for a KO'd player, reviving it once the counter reaches 0.
+   * @return
+   *  the recovery counter after the roll
+   */
+  public int recoveryTrial(int unit) {
+    int value = roll(unit);
+    int counter = recoveryLeft[unit];
+    if (isKOd(unit)) {
+      counter = Math.max(0, counter - value);
+      recoveryLeft[unit] = counter;
+      if (counter == 0) {
+        hp[unit] = maxHp[unit];
+      }
+    }
+    return counter;
+  }
+
+  //endregion
+}
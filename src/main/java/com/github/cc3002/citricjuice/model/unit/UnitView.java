@@ -0,0 +1,178 @@
+package com.github.cc3002.citricjuice.model.unit;
+
+/**
+ * {@link IUnit} backed by a row of a {@link UnitTable}. It holds no values of its own, so it can
+ * be handed to code written for unit objects without copying the unit out of the table.
+ */
+public class UnitView implements IUnit {
+  private final UnitTable table;
+  private final int index;
+
+  UnitView(UnitTable table, int index) {
+    this.table = table;
+    this.index = index;
+  }
+
+  /**
+   * Returns the table holding this unit.
+   */
+  public UnitTable getTable() {
+    return table;
+  }
+
+  /**
+   * Returns the index of this unit on its table.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the kind of this unit, one of the kinds declared on {@link UnitTable}.
+   */
+  public int getKind() {
+    return table.getKind(index);
+  }
+
+  public int getWins() {
+    return table.getWins(index);
+  }
+
+  @Override
+  public void increaseStarsBy(int amount) {
+    table.increaseStarsBy(index, amount);
+  }
+
+  @Override
+  public void reduceStarsBy(int amount) {
+    table.reduceStarsBy(index, amount);
+  }
+
+  @Override
+  public int getStars() {
+    return table.getStars(index);
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    table.setSeed(index, seed);
+  }
+
+  @Override
+  public int roll() {
+    return table.roll(index);
+  }
+
+  @Override
+  public int getAttackRoll() {
+    return table.getAttackRoll(index);
+  }
+
+  @Override
+  public String getName() {
+    return table.getName(index);
+  }
+
+  @Override
+  public int getMaxHP() {
+    return table.getMaxHp(index);
+  }
+
+  @Override
+  public int getAtk() {
+    return table.getAtk(index);
+  }
+
+  @Override
+  public int getDef() {
+    return table.getDef(index);
+  }
+
+  @Override
+  public int getEvd() {
+    return table.getEvd(index);
+  }
+
+  @Override
+  public int getCurrentHP() {
+    return table.getHp(index);
+  }
+
+  @Override
+  public void setCurrentHP(int newHP) {
+    table.setHp(index, newHP);
+  }
+
+  @Override
+  public boolean isKOd() {
+    return table.isKOd(index);
+  }
+
+  @Override
+  public void defendAttack(IUnit attacker, int incomingDamage) {
+    if (table.defend(index, incomingDamage)) {
+      defeatedBy(attacker);
+    }
+  }
+
+  @Override
+  public void evadeAttack(IUnit attacker, int incomingDamage) {
+    if (table.evade(index, incomingDamage)) {
+      defeatedBy(attacker);
+    }
+  }
+
+  private void defeatedBy(IUnit attacker) {
+    if (isSameTable(attacker)) {
+      table.defeat(index, ((UnitView) attacker).index);
+      return;
+    }
+    if (getKind() == UnitTable.PLAYER) {
+      table.setRecoveryLeft(index, 6);
+    }
+    switch (getKind()) {
+      case UnitTable.PLAYER:
+        attacker.winAgainstPlayer(this);
+        break;
+      case UnitTable.WILD:
+        attacker.winAgainstWildUnit(this);
+        break;
+      default:
+        attacker.winAgainstBossUnit(this);
+    }
+  }
+
+  private boolean isSameTable(IUnit unit) {
+    return unit instanceof UnitView && ((UnitView) unit).table == table;
+  }
+
+  private void winAgainst(IUnit loser, int loserKind) {
+    int taken = UnitTable.starsTaken(getKind(), loserKind, loser.getStars());
+    table.setWins(index, table.getWins(index) + UnitTable.winsFor(loserKind));
+    table.increaseStarsBy(index, taken);
+    loser.reduceStarsBy(taken);
+  }
+
+  @Override
+  public void winAgainstPlayer(IUnit unit) {
+    winAgainst(unit, UnitTable.PLAYER);
+  }
+
+  @Override
+  public void winAgainstWildUnit(IUnit unit) {
+    winAgainst(unit, UnitTable.WILD);
+  }
+
+  @Override
+  public void winAgainstBossUnit(IUnit unit) {
+    winAgainst(unit, UnitTable.BOSS);
+  }
+
+  /**
+   * Adds a new unit to the table with this unit's base values, like copying a unit object.
+   */
+  @Override
+  public UnitView copy() {
+    return table.view(table.add(getKind(), getName(), getMaxHP(), getAtk(), getDef(), getEvd()));
+  }
+}
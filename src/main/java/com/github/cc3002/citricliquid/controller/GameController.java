@@ -1,14 +1,25 @@
 package com.github.cc3002.citricliquid.controller;
 
+import com.github.cc3002.citricjuice.model.EntityRegistry;
+import com.github.cc3002.citricjuice.model.MatchStandings;
+import com.github.cc3002.citricjuice.model.ZobristHash;
 import com.github.cc3002.citricjuice.model.board.*;
 import com.github.cc3002.citricjuice.model.norma.INormaGoal;
-import com.github.cc3002.citricjuice.model.norma.NormaFactory;
+import com.github.cc3002.citricjuice.model.norma.NormaLadder;
 import com.github.cc3002.citricjuice.model.norma.StarsNorma;
 import com.github.cc3002.citricjuice.model.norma.WinsNorma;
+import com.github.cc3002.citricjuice.model.unit.AbstractUnit;
 import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.CombatResolver;
 import com.github.cc3002.citricjuice.model.unit.IUnit;
 import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricjuice.model.unit.RestorableRandom;
+import com.github.cc3002.citricjuice.model.unit.UnitPool;
 import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import com.github.cc3002.citricliquid.controller.bots.IBotPolicy;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+import com.github.cc3002.citricliquid.controller.replay.MatchLog;
+import com.github.cc3002.citricliquid.controller.store.MatchStore;
 import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
 import com.github.cc3002.citricliquid.gui.CitricLiquid;
 
@@ -16,15 +27,17 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 public class GameController implements PropertyChangeListener {
-  private List<Player> players = new ArrayList<>();
-  private List<IPanel> panels = new ArrayList<>();
-  private int chapter = 1;
-  private int turn = 0;
-  private boolean gameEnded = false;
+  // State of the current match, set by resetMatch().
+  private List<Player> players;
+  private List<IPanel> panels;
+  private int chapter;
+  private int turn;
+  private boolean gameEnded;
   private TurnState turnState;
 
   private WildUnit currentWildUnit;
@@ -32,13 +45,82 @@ public class GameController implements PropertyChangeListener {
   private BossUnit currentBossUnit;
   private boolean bossDefeated;
 
+  private final Map<Player, IBotPolicy> botPolicies = new IdentityHashMap<>();
+  private boolean headless = false;
+  private final RestorableRandom random = new RestorableRandom();
+  private MatchLog matchLog;
+  private MatchStore matchStore;
+  private ZobristHash hash;
+  private EntityRegistry registry;
+  // Occupancy of the panels when they are shared with other matches, null otherwise.
+  private BoardOccupancy boardOccupancy;
+  // Shared board the match plays on, null when the controller created its own panels.
+  private BoardTopology board;
+  // Registry slots of the current wild and boss units, -1 until they're first used.
+  private int wildUnitId;
+  private int bossUnitId;
+  // Wild and boss units reused on every spawn.
+  private UnitPool unitPool;
+  private MatchStandings standings;
+  // Stars given at the start of each turn, they depend on the chapter.
+  private int beginTurnStars;
+  // Result every movement of the turn owner is resolved on.
+  private final MoveResult move = new MoveResult();
+  private NormaLadder normaLadder = NormaLadder.PRACTICE;
 
   private PropertyChangeSupport changes = new PropertyChangeSupport(this);
   private IPanel[][] boardMatrix;
 
   public GameController() {
-    turnState = new TurnState();
+    resetMatch();
+  }
+
+  /**
+   * Leaves the controller as a new one, without board, players or units. The observers, the
+   * random number generator and the settings (headless, norma ladder) are kept, the match log
+   * and store stop recording and the bot policies are dropped, since they belong to the old
+   * players.
+   */
+  private void resetMatch() {
+    players = new ArrayList<>();
+    panels = new ArrayList<>();
+    chapter = 1;
+    turn = 0;
+    gameEnded = false;
+    currentWildUnit = null;
+    bossUnitCharacter = null;
+    currentBossUnit = null;
     bossDefeated = false;
+    botPolicies.clear();
+    matchLog = null;
+    matchStore = null;
+    hash = new ZobristHash();
+    registry = new EntityRegistry();
+    boardOccupancy = null;
+    board = null;
+    boardMatrix = null;
+    wildUnitId = -1;
+    bossUnitId = -1;
+    unitPool = new UnitPool();
+    standings = new MatchStandings();
+    beginTurnStars = 1;
+    turnState = new TurnState();
+    turnState.attachHash(hash);
+    hash.toggle(ZobristHash.MATCH_SLOT, ZobristHash.TURN, turn);
+    hash.toggle(ZobristHash.MATCH_SLOT, ZobristHash.CHAPTER, chapter);
+    hash.toggle(ZobristHash.MATCH_SLOT, ZobristHash.GAME_ENDED, 0);
+    hash.toggle(ZobristHash.MATCH_SLOT, ZobristHash.BOSS_DEFEATED, 0);
+  }
+
+  /**
+   * Returns a 64 bit fingerprint of the state of the match.
+   * <p>
+   * It's kept up to date on every change, so it costs nothing to read it. Two controllers on the
+   * same state have the same hash, even on different machines, so it can be used to tell whether
+   * a replay or a remote copy of the match diverged.
+   */
+  public long getStateHash() {
+    return hash.getValue();
   }
 
   /**
@@ -50,13 +132,173 @@ public class GameController implements PropertyChangeListener {
     changes.addPropertyChangeListener(gui);
   }
 
+  /**
+   * Sets whether the controller runs without notifying its observers.
+   * (Useful to resolve several turns at full speed and redraw the GUI only once)
+   * @param value
+   *    true to stop sending notifications
+   */
+  public void setHeadless(boolean value) {
+    headless = value;
+  }
+
+  /**
+   * Tells whether the controller is currently running without notifying its observers.
+   */
+  public boolean isHeadless() {
+    return headless;
+  }
+
+  /**
+   * Sets the seed of the controller's random number generator and, from it, the ones of
+   * every player. Should be called after the players are created.
+   * Two games with the same board, players and seed play the same when given the same commands.
+   * @param seed
+   *    seed for the match
+   */
+  public void setSeed(long seed) {
+    random.setSeed(seed);
+    for (Player p : players) {
+      p.setSeed(random.nextLong());
+    }
+  }
+
+  /**
+   * Starts recording every command performed through perform() on a match log.
+   * @param log
+   *    log to append the commands to, null stops recording
+   */
+  public void startRecording(MatchLog log) {
+    matchLog = log;
+  }
+
+  /**
+   * Returns the log the commands are being recorded on, null if not recording.
+   */
+  public MatchLog getMatchLog() {
+    return matchLog;
+  }
+
+  /**
+   * Starts storing every command performed through perform(), with the values it changes, on a
+   * match store.
+   * @param store
+   *    store that didn't begin yet, null stops storing
+   */
+  public void startStoring(MatchStore store) {
+    if (store != null) {
+      store.begin(this);
+    }
+    matchStore = store;
+  }
+
+  /**
+   * Returns the store the match is being stored on, null if not storing.
+   */
+  public MatchStore getMatchStore() {
+    return matchStore;
+  }
+
+  /**
+   * Performs a user decision, recording it if there's a match log attached.
+   * @param command
+   *    decision to take
+   * @param argument
+   *    index of the panel or player the command refers to, 0 if it doesn't need one
+   */
+  public void perform(GameCommand command, int argument) {
+    if (matchLog != null) {
+      matchLog.add(command, argument);
+    }
+    command.applyTo(this, argument);
+    if (matchStore != null) {
+      matchStore.record(this, command, argument);
+    }
+    if (matchLog != null && command == GameCommand.FINISH_TURN) {
+      matchLog.addStateHash(matchLog.size(), getStateHash());
+    }
+  }
+
+  /**
+   * Performs a user decision that doesn't need an argument.
+   */
+  public void perform(GameCommand command) {
+    perform(command, 0);
+  }
+
+  /**
+   * Returns the registry giving an integer ID to every panel and unit of the match.
+   */
+  public EntityRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Returns the position of a panel on the panels list (its registry ID), -1 if it isn't there.
+   * Panel IDs can't be used for this since boards can reuse them.
+   */
+  public int getPanelIndex(IPanel panel) {
+    return registry.getPanelId(panel);
+  }
+
+  /**
+   * Returns the position of a player on the players list (its seat), -1 if it isn't there.
+   */
+  public int getPlayerIndex(Player player) {
+    int seat = player.getSeat();
+    return seat >= 0 && seat < players.size() && players.get(seat) == player ? seat : -1;
+  }
+
+  /**
+   * Makes a player's seat computer controlled.
+   * @param player
+   *    player to be controlled
+   * @param policy
+   *    policy that takes the player's decisions, null makes the seat human controlled again
+   */
+  public void setBotPolicy(Player player, IBotPolicy policy) {
+    if (policy == null) {
+      botPolicies.remove(player);
+    } else {
+      botPolicies.put(player, policy);
+    }
+  }
+
+  /**
+   * Returns the policy controlling a player, null if the player is human controlled.
+   */
+  public IBotPolicy getBotPolicy(Player player) {
+    return botPolicies.get(player);
+  }
+
+  /**
+   * Tells whether a player's seat is computer controlled.
+   */
+  public boolean isBotControlled(Player player) {
+    return botPolicies.containsKey(player);
+  }
+
+  /**
+   * Returns the unit that has to take the decision of the current phase.
+   * That's the target when answering an attack, the counterattacker when it's time
+   * to counterattack and the turn owner otherwise.
+   */
+  public IUnit getCurrentDecider() {
+    if (turnState.isCombatResponseChoosePhase()) {
+      return turnState.getTarget();
+    }
+    if (turnState.isCounterattackPhase()) {
+      return turnState.getAttacker();
+    }
+    return getTurnOwner();
+  }
+
   /**
    * Returns the current Boss Unit, creating one if there is none.
    */
   public BossUnit getCurrentBossUnit() {
     if (!isCurrentBossUnitValid()) {
-      clearCurrentBossUnit();
-      currentBossUnit = generateBossUnit();
+      setCurrentBossUnit(generateBossUnit());
     }
     return currentBossUnit;
   }
@@ -65,7 +307,7 @@ public class GameController implements PropertyChangeListener {
    * Sets the currentBossUnit slot as null. (Useful to remove the KO'd enemies)
    */
   protected void clearCurrentBossUnit() {
-    currentBossUnit = null;
+    setCurrentBossUnit(null);
   }
 
   /**
@@ -82,14 +324,7 @@ public class GameController implements PropertyChangeListener {
    * @return
    */
   private boolean bossCondition() {
-    if (bossDefeated) { return false; };
-    for(Player p : getPlayers()) {
-      if (p.getNormaLevel() >= 4) {
-        return true;
-      }
-    }
-    return false;
-
+    return !bossDefeated && standings.isBossEligible();
   }
 
   /**
@@ -97,9 +332,8 @@ public class GameController implements PropertyChangeListener {
    */
   public BossUnit generateBossUnit() {
     if (bossUnitCharacter == null) {
-      Random random = new Random();
       int rInt = random.nextInt(3);
-      BossUnit newBossUnit = createBossUnit("Store Manager", 8, 3, 2, -1);
+      BossUnit newBossUnit;
       switch (rInt) {
         case 1:
           newBossUnit = createBossUnit("Shifu Robot", 7, 2, 3, -2);
@@ -107,11 +341,19 @@ public class GameController implements PropertyChangeListener {
         case 2:
           newBossUnit = createBossUnit("Flying Castle", 10, 2, 1, -3);
           break;
+        default:
+          newBossUnit = createBossUnit("Store Manager", 8, 3, 2, -1);
+          break;
       }
+      newBossUnit.setSeed(random.nextLong());
       bossUnitCharacter = newBossUnit;
     }
 
-    return bossUnitCharacter.copy();
+    BossUnit newBossUnit = unitPool.obtainBossUnit(bossUnitCharacter.getName(),
+        bossUnitCharacter.getMaxHP(), bossUnitCharacter.getAtk(), bossUnitCharacter.getDef(),
+        bossUnitCharacter.getEvd());
+    newBossUnit.setSeed(random.nextLong());
+    return newBossUnit;
   }
 
   /**
@@ -119,7 +361,7 @@ public class GameController implements PropertyChangeListener {
    */
   public WildUnit getCurrentWildUnit() {
     if (!isCurrentWildUnitValid()) {
-      currentWildUnit = generateWildUnit();
+      setCurrentWildUnit(generateWildUnit());
     }
     return currentWildUnit;
   }
@@ -128,7 +370,7 @@ public class GameController implements PropertyChangeListener {
    * Sets the currentWildUnit slot as null. (Useful to remove the KO'd enemies)
    */
   private void clearCurrentWildUnit() {
-    currentWildUnit = null;
+    setCurrentWildUnit(null);
   }
 
   /**
@@ -144,17 +386,20 @@ public class GameController implements PropertyChangeListener {
    * Generates a random Wild Unit
    */
   public WildUnit generateWildUnit() {
-    Random random = new Random();
     int rInt = random.nextInt(3);
-    WildUnit newWildUnit = createWildUnit("Chicken", 3, -1, -1, 1);
+    WildUnit newWildUnit;
     switch (rInt) {
       case 1:
-        newWildUnit = createWildUnit("Robo Ball", 3, -1, 1, -1);
+        newWildUnit = unitPool.obtainWildUnit("Robo Ball", 3, -1, 1, -1);
         break;
       case 2:
-        newWildUnit = createWildUnit("Seagull", 3, 1, -1, -1);
+        newWildUnit = unitPool.obtainWildUnit("Seagull", 3, 1, -1, -1);
+        break;
+      default:
+        newWildUnit = unitPool.obtainWildUnit("Chicken", 3, -1, -1, 1);
         break;
     }
+    newWildUnit.setSeed(random.nextLong());
     return newWildUnit;
   }
 
@@ -169,6 +414,20 @@ public class GameController implements PropertyChangeListener {
     return List.copyOf(players);
   }
 
+  /**
+   * Returns the amount of players, without copying the list.
+   */
+  public int getPlayerCount() {
+    return players.size();
+  }
+
+  /**
+   * Returns the player on a seat, without copying the list.
+   */
+  public Player getPlayer(int seat) {
+    return players.get(seat);
+  }
+
   /**
    * Returns the current state.
    * @return
@@ -183,8 +442,7 @@ public class GameController implements PropertyChangeListener {
    */
   public void giveBeginTurnStars() {
     Player player = getTurnOwner();
-    int extraStars = (getChapter()/5)+1;
-    player.increaseStarsBy(extraStars);
+    player.increaseStarsBy(beginTurnStars);
   }
 
   //region Interface interaction methods
@@ -218,43 +476,7 @@ public class GameController implements PropertyChangeListener {
    * Should be called when the player decides to move, assumes steps as the dice roll result.
    */
   public int doMove(int steps) {
-    int preSteps = steps;
-    steps=movePlayer(steps);
-    int movement = preSteps-steps;
-    notifyPlayerMoved();
-    Player player = getTurnOwner();
-
-    if (getTurnState().isMovingPhase()) {
-      // if there's a player:
-      if ((player.getCurrentPanel().getPlayers().size() > 1) && (movement > 0)) {
-        turnState.combatChoosePhase(steps);
-        notifyStateChanged();
-        return steps;
-      }
-
-      if (steps > 0) {
-        // if i'm at home panel:
-        if (player.getCurrentPanel().equals(player.getHomePanel()) && (movement > 0)) {
-          turnState.homeStopChoosePhase(steps);
-          notifyStateChanged();
-          return steps;
-        }
-        if (player.getCurrentPanel().getNextPanels().size() > 1) {
-          turnState.pathChoosePhase(steps);
-          notifyStateChanged();
-          return steps;
-        }
-
-      } else {
-        activatePanel();
-        if (turnState.isMovingPhase()) {
-          turnState.endPhase();
-          notifyStateChanged();
-        }
-        return steps;
-      }
-    }
-    return steps;
+    return applyMove(MovementResolver.resolve(getTurnOwner(), steps, move));
   }
 
   /**
@@ -346,26 +568,20 @@ public class GameController implements PropertyChangeListener {
    *  panel to continue moving from.
    */
   public int continueMovingThrough(IPanel panel) {
+    Player player = getTurnOwner();
     int steps = turnState.getSteps();
-    steps--;
-    placePlayer(panel);
-    turnState.movingPhase(steps);
-    return doMove();
+    turnState.movingPhase(steps - 1);
+    return applyMove(MovementResolver.resolveThrough(player, player.getCurrentPanel(), panel, steps,
+        move));
   }
 
   /**
    * Continues moving instead of stopping at home or starting a combat.
    */
   public void continueMoving() {
-    int preSteps = turnState.getSteps();
-    turnState.movingPhase(preSteps);
-    int res = movePlayer(preSteps);
-    if (res == 0) {
-      turnState.endPhase();
-    }
-    notifyStateChanged();
-
-
+    int steps = turnState.getSteps();
+    turnState.movingPhase(steps);
+    applyMove(MovementResolver.resolve(getTurnOwner(), steps, move));
   }
 
   /**
@@ -374,12 +590,13 @@ public class GameController implements PropertyChangeListener {
    */
   public void startCombat() {
     Player player = getTurnOwner();
-    IPanel panel = player.getCurrentPanel();
-    List<Player> players = panel.getPlayers();
-    if (players.size() != 2) { throw new RuntimeException("startCombat() with no arguments is only valid for single possible targets in panel."); }
-    Player target;
-    if (!players.get(0).equals(player)) { startCombat(players.get(0)); } else {
-      startCombat(players.get(1));
+    PanelOccupancy occupancy = player.getPanelOccupancy();
+    if (occupancy.size() != 2 || !occupancy.contains(player)) { throw new RuntimeException("startCombat() with no arguments is only valid for single possible targets in panel."); }
+    for (Player target : occupancy) {
+      if (target != player) {
+        startCombat(target);
+        return;
+      }
     }
   }
 
@@ -501,42 +718,47 @@ public class GameController implements PropertyChangeListener {
    *  Pending steps after finishing the movement.
    */
   protected int movePlayer(int steps) {
-    Player player = getTurnOwner();
-
-    while(steps>0) {
-      IPanel stepPanel = getPlayerPanel(player);
-      List<IPanel> nextPanels = stepPanel.getNextPanels();
+    return applyMove(MovementResolver.resolve(getTurnOwner(), steps, move));
+  }
 
-      // more than one next panel: (should stop to decide which path to take)
-      if (nextPanels.size() > 1) {
-        return steps;
-      }
-      // passed this line it means there's only 1 next panel available therefore we must advance
-      IPanel nextPanel = nextPanels.get(0);
-      steps--;
-      if (turnState.isMovingPhase()) {
-        turnState.setSteps(steps);
+  /**
+   * Carries out a resolved movement of the turn owner: puts it on the final panel once and moves
+   * the turn to wherever the movement stopped.
+   * <p>
+   * While moving, a landing activates the panel and ends the phase, and the other stops ask the
+   * player what to do next. Outside the moving phase the panel is activated only if the player
+   * ran out of steps.
+   * @return
+   *  Pending steps after the movement.
+   */
+  public int applyMove(MoveResult move) {
+    Player player = getTurnOwner();
+    int steps = move.getRemainingSteps();
+    player.moveTo(move.getFinalPanel());
+    if (!turnState.isMovingPhase()) {
+      if (steps <= 0) {
+        activatePanel();
       }
-      player.setCurrentPanel(nextPanel);
-      notifyPlayerMoved();
-
-      if (steps > 0) {
-        // has to stop to ask if wants to stay at home panel or keep walking
-        if (nextPanel.equals(player.getHomePanel())) {
-          return steps;
-        }
-
-        // has to stop to ask if wants to engage in combat
-        if (nextPanel.getPlayers().size() > 1) {
-          return steps;
+      return steps;
+    }
+    turnState.setSteps(steps);
+    switch (move.getStop()) {
+      case PLAYERS:
+        turnState.combatChoosePhase(steps);
+        break;
+      case HOME:
+        turnState.homeStopChoosePhase(steps);
+        break;
+      case FORK:
+        turnState.pathChoosePhase(steps);
+        break;
+      default:
+        activatePanel();
+        if (turnState.isMovingPhase()) {
+          turnState.endPhase();
         }
-
-      }
-
-
     }
-
-    player.getCurrentPanel().activatedBy(player);
+    notifyStateChanged();
     return steps;
   }
 
@@ -545,10 +767,11 @@ public class GameController implements PropertyChangeListener {
    * Ends the turn increasing the counter by one.
    */
   public void endTurn() {
-    turn++;
-    if (turn >= getPlayers().size()) {
-      chapter++;
-      turn = 0;
+    if (turn + 1 >= players.size()) {
+      setChapter(chapter + 1);
+      setTurn(0);
+    } else {
+      setTurn(turn + 1);
     }
   }
 
@@ -560,10 +783,14 @@ public class GameController implements PropertyChangeListener {
    *      desired panel ID.
    * @return
    *      returns the instance reference.
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public BonusPanel createBonusPanel(int id) {
+    requireOwnPanels();
     BonusPanel newPanel = new BonusPanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
@@ -573,10 +800,14 @@ public class GameController implements PropertyChangeListener {
    *  desired Panel ID
    * @return
    *  generated panel
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public BossPanel createBossPanel(int id) {
+    requireOwnPanels();
     BossPanel newPanel = new BossPanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
@@ -586,10 +817,14 @@ public class GameController implements PropertyChangeListener {
    *  desired Panel ID
    * @return
    *  generated panel
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public DropPanel createDropPanel(int id) {
+    requireOwnPanels();
     DropPanel newPanel = new DropPanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
@@ -599,10 +834,14 @@ public class GameController implements PropertyChangeListener {
    *  desired Panel ID
    * @return
    *  generated panel
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public EncounterPanel createEncounterPanel(int id) {
+    requireOwnPanels();
     EncounterPanel newPanel = new EncounterPanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
@@ -612,10 +851,14 @@ public class GameController implements PropertyChangeListener {
    *  desired Panel ID
    * @return
    *  generated panel
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public HomePanel createHomePanel(int id) {
+    requireOwnPanels();
     HomePanel newPanel = new HomePanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
@@ -625,13 +868,26 @@ public class GameController implements PropertyChangeListener {
    *  desired Panel ID
    * @return
    *  generated panel
+   * @throws IllegalStateException
+   *  if the match plays on a shared board.
    */
   public NeutralPanel createNeutralPanel(int id) {
+    requireOwnPanels();
     NeutralPanel newPanel = new NeutralPanel(id);
     panels.add(newPanel);
+    registry.addPanel(newPanel);
     return newPanel;
   }
 
+  /**
+   * Checks that the match has its own panels, the ones of a shared board can't be added to.
+   */
+  private void requireOwnPanels() {
+    if (board != null) {
+      throw new IllegalStateException("Panels can't be created on a match that plays on a shared board.");
+    }
+  }
+
   //endregion Panel creation methods
 
   //region Unit creation methods.
@@ -654,9 +910,16 @@ public class GameController implements PropertyChangeListener {
    */
   public Player createPlayer(String name, int hitPoints, int attack, int defense, int evasion, IPanel panel) {
     Player newPlayer = new Player(name, hitPoints, attack, defense, evasion);
+    newPlayer.setSeat(players.size());
+    if (boardOccupancy != null) {
+      newPlayer.setBoardOccupancy(boardOccupancy);
+    }
     newPlayer.setCurrentPanel(panel);
-    setNormaGoal(newPlayer, new StarsNorma(10));
+    setNormaGoal(newPlayer, normaLadder.getStarsNorma(1));
     players.add(newPlayer);
+    newPlayer.setStandings(standings);
+    newPlayer.attachHash(hash, players.size() - 1);
+    registry.addUnit(newPlayer);
     newPlayer.addObserver(this);
     return newPlayer;
   }
@@ -722,13 +985,14 @@ public class GameController implements PropertyChangeListener {
    *  winner player
    */
   public Player getWinner() {
-    for( Player player : players) {
-      int norma = player.getNormaLevel();
-      if (norma == 6) {
-        return player;
-      }
-    }
-    return null;
+    return standings.getWinner();
+  }
+
+  /**
+   * Returns the standings of the match: highest norma level, winner and ranking of the players.
+   */
+  public MatchStandings getStandings() {
+    return standings;
   }
 
   /**
@@ -742,6 +1006,21 @@ public class GameController implements PropertyChangeListener {
     player.setNormaGoal(normaGoal);
   }
 
+  /**
+   * Sets the goals players need to clear each norma level, from then on. Players keep the goal
+   * they already have.
+   */
+  public void setNormaLadder(NormaLadder ladder) {
+    normaLadder = ladder;
+  }
+
+  /**
+   * Returns the goals players need to clear each norma level.
+   */
+  public NormaLadder getNormaLadder() {
+    return normaLadder;
+  }
+
   /**
    * Assigns the player their next norma goal as a Stars norma.
    * @param player
@@ -749,7 +1028,7 @@ public class GameController implements PropertyChangeListener {
    */
   public void setStarsNorma(Player player) {
     int lv = player.getNormaLevel();
-    StarsNorma goal = NormaFactory.getStarsNorma(lv);
+    StarsNorma goal = normaLadder.getStarsNorma(lv);
 
     setNormaGoal(player,goal);
   }
@@ -761,7 +1040,7 @@ public class GameController implements PropertyChangeListener {
    */
   public void setWinsNorma(Player player) {
     int lv = player.getNormaLevel();
-    WinsNorma goal = NormaFactory.getWinsNorma(lv);
+    WinsNorma goal = normaLadder.getWinsNorma(lv);
 
     setNormaGoal(player,goal);
   }
@@ -840,10 +1119,120 @@ public class GameController implements PropertyChangeListener {
    * @param value
    *  true if the game has ended
    */
-  private void setGameEnded(boolean value) {
+  void setGameEnded(boolean value) {
+    hash.update(ZobristHash.MATCH_SLOT, ZobristHash.GAME_ENDED, gameEnded ? 1 : 0, value ? 1 : 0);
     gameEnded = value;
   }
 
+  //region Saved state accessors (used by GameSnapshot)
+
+  /**
+   * Returns the index of the turn owner on the players list.
+   */
+  public int getTurn() {
+    return turn;
+  }
+
+  void setTurn(int value) {
+    hash.update(ZobristHash.MATCH_SLOT, ZobristHash.TURN, turn, value);
+    turn = value;
+  }
+
+  void setChapter(int value) {
+    hash.update(ZobristHash.MATCH_SLOT, ZobristHash.CHAPTER, chapter, value);
+    chapter = value;
+    beginTurnStars = chapter / 5 + 1;
+  }
+
+  boolean isBossDefeated() {
+    return bossDefeated;
+  }
+
+  void setBossDefeated(boolean value) {
+    hash.update(ZobristHash.MATCH_SLOT, ZobristHash.BOSS_DEFEATED, bossDefeated ? 1 : 0, value ? 1 : 0);
+    bossDefeated = value;
+  }
+
+  /**
+   * Returns the current wild unit slot without generating a new one.
+   */
+  WildUnit peekCurrentWildUnit() {
+    return currentWildUnit;
+  }
+
+  void setCurrentWildUnit(WildUnit unit) {
+    if (currentWildUnit != null) {
+      currentWildUnit.detachHash();
+    }
+    currentWildUnit = unit;
+    if (unit != null) {
+      unit.attachHash(hash, ZobristHash.WILD_UNIT_SLOT);
+    }
+    wildUnitId = placeUnit(wildUnitId, unit);
+  }
+
+  /**
+   * Returns the current boss unit slot without generating a new one.
+   */
+  BossUnit peekCurrentBossUnit() {
+    return currentBossUnit;
+  }
+
+  void setCurrentBossUnit(BossUnit unit) {
+    if (currentBossUnit != null) {
+      currentBossUnit.detachHash();
+    }
+    currentBossUnit = unit;
+    if (unit != null) {
+      unit.attachHash(hash, ZobristHash.BOSS_UNIT_SLOT);
+    }
+    bossUnitId = placeUnit(bossUnitId, unit);
+  }
+
+  /**
+   * Puts a unit on a registry slot, taking a new slot if it didn't have one yet.
+   * @return
+   *  the slot's ID
+   */
+  private int placeUnit(int id, AbstractUnit unit) {
+    if (id >= 0) {
+      registry.setUnit(id, unit);
+      return id;
+    }
+    return unit == null ? -1 : registry.addUnit(unit);
+  }
+
+  /**
+   * Returns the pool the wild and boss units of the match are taken from.
+   */
+  UnitPool getUnitPool() {
+    return unitPool;
+  }
+
+  BossUnit getBossUnitCharacter() {
+    return bossUnitCharacter;
+  }
+
+  void setBossUnitCharacter(BossUnit unit) {
+    bossUnitCharacter = unit;
+  }
+
+  long getRandomState() {
+    return random.getState();
+  }
+
+  void setRandomState(long state) {
+    random.setState(state);
+  }
+
+  void setTurnState(TurnState state) {
+    turnState.detachHash();
+    turnState = state;
+    turnState.attachHash(hash);
+  }
+
+  //endregion
+
   /**
    * Observer pattern structure, listens to property changes on norma level.
    * @param propertyChangeEvent
@@ -856,8 +1245,8 @@ public class GameController implements PropertyChangeListener {
     // In case of adding more listener this could be changed to a switch case.
     switch (propertyName) {
       case "normaLevel":
-        int newValue = (int) propertyChangeEvent.getNewValue();
-        if (newValue == 6) {
+        Player player = (Player) propertyChangeEvent.getSource();
+        if (player.getNormaLevel() == MatchStandings.WINNING_NORMA_LEVEL) {
           setGameEnded(true);
           notifyPlayerWon();
         } else {
@@ -915,7 +1304,7 @@ public class GameController implements PropertyChangeListener {
    * Goes to CombatChoosePhase so player can pick if to fight or continue.
    */
   public void stumbledUponPlayerHandler() {
-    if (turnState.isMovingPhase() || turnState.isPathChoosePhase()) {
+    if (turnState.isMovingPhase()) {
       turnState.combatChoosePhase(turnState.getSteps());
       notifyStateChanged();
     }
@@ -925,7 +1314,7 @@ public class GameController implements PropertyChangeListener {
    * Goes to CombatChoosePhase so player can pick if to fight or continue.
    */
   public void reachedPathForkHandler() {
-    if (turnState.isMovingPhase() || turnState.isPathChoosePhase()) {
+    if (turnState.isMovingPhase()) {
       if (turnState.getSteps() > 0) {
         // Only ask for path if they still have pending steps.
         turnState.pathChoosePhase(turnState.getSteps());
@@ -938,35 +1327,10 @@ public class GameController implements PropertyChangeListener {
    * Manages the encounter automatically for the computer controlled enemies.
    */
   public void landedOnEncounterHandler() {
-    WildUnit wildEnemy = getCurrentWildUnit();
-    // Player landed on an encounter panel, therefore we expect this to be the MovingPhase
-    // as so we can jump to combatChoosePhase
-    turnState.combatChoosePhase(0); // 0 because it LANDED
-    startCombat(wildEnemy);
-
-    //enemy decides randomly if to defend or evade
-    Random random = new Random();
-    boolean defend = random.nextBoolean();
-    if (defend) {
-      defendAgainstCombat();
-    } else {
-      evadeAgainstCombat();
-    }
-
-    if (turnState.isCounterattackPhase()) {
-      // If it is counterattackPhase right now enemy should pick randomly again, this is still
-      // computer controlled so user doesn't have to do nothing yet.
-      // This should lead to the CounterAttackResponseChoose Phase and therefore the game
-      // is ready to continue
-      startCounterAttack();
-    } else {
-      // If it is not counterattackPhase, it's because the enemy was defeated, therefore we must
-      // clean the spot so a new Wild Unit arrives.
+    if (resolveEncounter(getCurrentWildUnit())) {
+      // The enemy was defeated, so the spot is cleared for a new Wild Unit to arrive.
       clearCurrentWildUnit();
     }
-
-    notifyAttributeChanged();
-
   }
 
   /**
@@ -974,40 +1338,39 @@ public class GameController implements PropertyChangeListener {
    */
   public void landedOnBossEncounterHandler() {
     if (bossCondition()) {
-      BossUnit bossEnemy = getCurrentBossUnit();
-      // Player landed on an encounter panel, therefore we expect this to be the MovingPhase
-      // as so we can jump to combatChoosePhase
-      turnState.combatChoosePhase(0); // 0 because it LANDED
-      startCombat(bossEnemy);
-
-      //enemy decides randomly if to defend or evade
-      Random random = new Random();
-      boolean defend = random.nextBoolean();
-      if (defend) {
-        defendAgainstCombat();
-      } else {
-        evadeAgainstCombat();
-      }
-
-      if (turnState.isCounterattackPhase()) {
-        // If it is counterattackPhase right now enemy should pick randomly again, this is still
-        // computer controlled so user doesn't have to do nothing yet.
-        // This should lead to the CounterAttackResponseChoose Phase and therefore the game
-        // is ready to continue
-        startCounterAttack();
-      } else {
-        // If it is not counterattackPhase, it's because the enemy was defeated, therefore we must
-        // clean the spot so a new Wild Unit arrives.
+      if (resolveEncounter(getCurrentBossUnit())) {
         clearCurrentBossUnit();
       }
-
-      notifyAttributeChanged();
     } else {
       landedOnEncounterHandler();
     }
 
   }
 
+  /**
+   * Fights a computer controlled enemy the turn owner landed on. The player's attack and the
+   * enemy's random response are resolved at once, then the enemy counterattacks and the player
+   * is asked how to respond, unless the enemy was defeated.
+   * @return
+   *  whether the enemy was defeated.
+   */
+  private boolean resolveEncounter(AbstractUnit enemy) {
+    Player player = getTurnOwner();
+    int attackValue = player.getAttackRoll();
+    // Enemy decides randomly if to defend or evade.
+    int response = random.nextBoolean() ? CombatResolver.DEFEND : CombatResolver.EVADE;
+    long result = CombatResolver.resolve(player, attackValue, enemy, response);
+    CombatResolver.apply(result, player, enemy);
+    if (enemy.isKOd()) {
+      turnState.endPhase();
+    } else {
+      turnState.counterattackResponseChoosePhase(enemy, enemy.getAttackRoll(), player);
+    }
+    notifyAttributeChanged();
+    notifyStateChanged();
+    return enemy.isKOd();
+  }
+
 
   // Methods to generate a game
 
@@ -1043,8 +1406,8 @@ public class GameController implements PropertyChangeListener {
     matrix[8][4] = createBossPanel(9);
     matrix[8][5] = createDropPanel(10);
     matrix[7][5] = createBonusPanel(11);
-    matrix[6][5] = createNeutralPanel(10);
-    matrix[6][6] = createHomePanel(11);
+    matrix[6][5] = createNeutralPanel(34);
+    matrix[6][6] = createHomePanel(35);
     matrix[5][6] = createEncounterPanel(12);
     matrix[5][7] = createNeutralPanel(13);
     matrix[5][8] = createBonusPanel(14);
@@ -1114,26 +1477,148 @@ public class GameController implements PropertyChangeListener {
 
     // Asigning each panel their MatrixPos
     for(int x = 0; x<=8; x++) {
-      for(int y=0; y<=8; y++) matrix[x][y].setMatrixPos(x,y);
+      for(int y=0; y<=8; y++) {
+        matrix[x][y].setMatrixPos(x,y);
+        int id = registry.getPanelId(matrix[x][y]);
+        if (id >= 0) {
+          registry.placePanel(id, x, y);
+        }
+      }
     }
     return matrix;
   }
 
   /**
-   * Starts a new preset game on the controller.
+   * Returns the practice board, built once and shared by every match that uses it.
+   */
+  public static BoardTopology getPracticeBoard() {
+    return PracticeBoardHolder.BOARD;
+  }
+
+  private static class PracticeBoardHolder {
+    static final BoardTopology BOARD = buildPracticeBoard();
+
+    private static BoardTopology buildPracticeBoard() {
+      GameController builder = new GameController();
+      IPanel[][] matrix = builder.generatePracticeBoard();
+      return BoardTopology.of(builder.getPanels(), matrix);
+    }
+  }
+
+  /**
+   * Uses a shared board for this match. No panel is created: the players' positions are kept
+   * on per match arrays and the panels are only read.
+   * @param board
+   *  board to play on
+   * @throws IllegalStateException
+   *  if the controller already has panels.
+   * @throws IllegalArgumentException
+   *  if the board has problems that keep a match from being played on it, as found by a
+   *  {@link BoardValidator}.
+   */
+  public void loadBoard(BoardTopology board) {
+    if (!panels.isEmpty()) {
+      throw new IllegalStateException("A board can only be loaded on a controller without panels.");
+    }
+    BoardReport report = board.getReport();
+    if (!report.isValid()) {
+      throw new IllegalArgumentException("The board can't be played on: " + report);
+    }
+    this.board = board;
+    panels = board.getPanels();
+    registry.addBoard(board);
+    boardMatrix = board.getMatrix();
+    boardOccupancy = new BoardOccupancy(board.size());
+  }
+
+  /**
+   * Starts a new preset game on the controller, dropping the match it had before.
    */
   public void newGame() {
-    boardMatrix = generatePracticeBoard();
-    Player player1 = createPlayer("Pikachu", 4,1,-1,2,boardMatrix[2][2]);
-    Player player2 = createPlayer("Jamin", 5,1,0,0,boardMatrix[6][2]);
-    Player player3 = createPlayer("Pusheen", 5,2,-1,-1,boardMatrix[6][6]);
-    Player player4 = createPlayer("La Rosalia", 3,1,1,1,boardMatrix[2][6]);
+    resetIfStarted();
+    loadBoard(getPracticeBoard());
+    createPresetPlayers(boardMatrix[2][2], boardMatrix[6][2], boardMatrix[6][6], boardMatrix[2][6]);
+  }
+
+  /**
+   * Starts a new game with the preset players on another board, like a generated one, dropping
+   * the match the controller had before. The players start on the first four home panels, by ID.
+   * @param board
+   *  board to play on
+   * @throws IllegalArgumentException
+   *  if the board has less than four home panels.
+   */
+  public void newGame(BoardTopology board) {
+    IPanel[] homes = new IPanel[4];
+    int found = 0;
+    for (int id = 0; id < board.size() && found < homes.length; id++) {
+      if (board.getPanel(id) instanceof HomePanel) {
+        homes[found++] = board.getPanel(id);
+      }
+    }
+    if (found < homes.length) {
+      throw new IllegalArgumentException("The board needs a home panel for each player.");
+    }
+    resetIfStarted();
+    loadBoard(board);
+    createPresetPlayers(homes[0], homes[1], homes[2], homes[3]);
+  }
+
+  private void resetIfStarted() {
+    if (!panels.isEmpty() || !players.isEmpty()) {
+      resetMatch();
+    }
+  }
+
+  private void createPresetPlayers(IPanel home1, IPanel home2, IPanel home3, IPanel home4) {
+    Player player1 = createPlayer("Pikachu", 4,1,-1,2,home1);
+    Player player2 = createPlayer("Jamin", 5,1,0,0,home2);
+    Player player3 = createPlayer("Pusheen", 5,2,-1,-1,home3);
+    Player player4 = createPlayer("La Rosalia", 3,1,1,1,home4);
 
     setPlayerHome(player1,(HomePanel) player1.getCurrentPanel());
     setPlayerHome(player2,(HomePanel) player2.getCurrentPanel());
     setPlayerHome(player3,(HomePanel) player3.getCurrentPanel());
     setPlayerHome(player4,(HomePanel) player4.getCurrentPanel());
+  }
+
+  /**
+   * Returns the shared board the match plays on, null if the controller created its own
+   * panels.
+   */
+  public BoardTopology getBoard() {
+    return board;
+  }
+
+  /**
+   * Returns the least amount of steps from a panel to a player's home panel.
+   * @return
+   *  the distance, or -1 if the home can't be reached from the panel.
+   * @throws IllegalStateException
+   *  if the match doesn't play on a shared board.
+   */
+  public int getDistanceToHome(IPanel from, Player player) {
+    return getDistances().getDistance(from.getEntityId(), player.getHomePanel().getEntityId());
+  }
 
+  /**
+   * Returns the least amount of steps from a panel to a panel of a kind.
+   * @param kind
+   *  one of the kinds of {@link BoardGenerator}
+   * @return
+   *  the distance, 0 if the panel is of that kind, or -1 if no panel of the kind can be reached.
+   * @throws IllegalStateException
+   *  if the match doesn't play on a shared board.
+   */
+  public int getDistanceToNearest(IPanel from, int kind) {
+    return getDistances().getDistanceToNearest(from.getEntityId(), kind);
+  }
+
+  private BoardDistances getDistances() {
+    if (board == null) {
+      throw new IllegalStateException("Distances are only known on a shared board.");
+    }
+    return board.getDistances();
   }
 
   /**
@@ -1150,6 +1635,7 @@ public class GameController implements PropertyChangeListener {
    * the turn states have changed.
    */
   void notifyStateChanged() {
+    if (headless) { return; }
     changes.firePropertyChange(new PropertyChangeEvent(this, "stateChanged",null, null));
   }
 
@@ -1159,6 +1645,7 @@ public class GameController implements PropertyChangeListener {
    * (Helps GUI to redraw players on screen)
    */
   void notifyPlayerMoved() {
+    if (headless) { return; }
     changes.firePropertyChange(new PropertyChangeEvent(this, "playerMoved",null, null));
   }
 
@@ -1167,6 +1654,7 @@ public class GameController implements PropertyChangeListener {
    * a player has won the match.
    */
   void notifyPlayerWon() {
+    if (headless) { return; }
     changes.firePropertyChange(new PropertyChangeEvent(this, "playerWon",null, null));
   }
 
@@ -1176,6 +1664,7 @@ public class GameController implements PropertyChangeListener {
    * stars, HP and Wins)
    */
   void notifyAttributeChanged() {
+    if (headless) { return; }
     changes.firePropertyChange(new PropertyChangeEvent(this, "playerAttributeChanged",null,null));
   }
 
@@ -0,0 +1,653 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.board.NullPanel;
+import com.github.cc3002.citricjuice.model.norma.NormaLadder;
+import com.github.cc3002.citricjuice.model.norma.WinsNorma;
+import com.github.cc3002.citricjuice.model.unit.AbstractUnit;
+import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricjuice.model.unit.UnitPool;
+import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copy of every mutable value of a match at a certain point: players, wild and boss units,
+ * turn counters, turn phase and the state of every random number generator.
+ * <p>
+ * Restoring a snapshot on a controller with the same board and players puts the match back
+ * at the point it was captured, so it continues with exactly the same rolls.
+ */
+public class GameSnapshot {
+  // Turn phase kinds
+  static final byte START = 0;
+  static final byte RECOVERY = 1;
+  static final byte CARD_PICK = 2;
+  static final byte MOVING = 3;
+  static final byte PATH_CHOOSE = 4;
+  static final byte HOME_STOP_CHOOSE = 5;
+  static final byte COMBAT_CHOOSE = 6;
+  static final byte COMBAT_RESPONSE_CHOOSE = 7;
+  static final byte COUNTERATTACK = 8;
+  static final byte COUNTERATTACK_RESPONSE_CHOOSE = 9;
+  static final byte NORMA_PICK = 10;
+  static final byte END = 11;
+
+  // Unit references used by the turn phase, players are referenced by their index.
+  static final int NO_UNIT = -1;
+  static final int WILD_UNIT = -2;
+  static final int BOSS_UNIT = -3;
+
+  // Layout of toFields: the match values, then each player, then the wild, boss and boss
+  // character units.
+  public static final int MATCH_FIELDS = 10;
+  public static final int PLAYER_FIELDS = 11;
+  public static final int UNIT_FIELDS = 8;
+  // Offset of the panel index on the fields of a player.
+  public static final int PLAYER_PANEL = 0;
+
+  private int turn;
+  private int chapter;
+  private boolean gameEnded;
+  private boolean bossDefeated;
+  private long randomState;
+
+  private byte phase;
+  private int steps;
+  private int attackValue;
+  private int attacker = NO_UNIT;
+  private int target = NO_UNIT;
+
+  private PlayerState[] players;
+  private UnitState wildUnit;
+  private UnitState bossUnit;
+  private UnitState bossUnitCharacter;
+
+  private GameSnapshot() {
+  }
+
+  /**
+   * Captures the current state of a match.
+   * @param controller
+   *  controller running the match
+   * @return
+   *  the snapshot
+   */
+  public static GameSnapshot capture(GameController controller) {
+    GameSnapshot snapshot = new GameSnapshot();
+    snapshot.turn = controller.getTurn();
+    snapshot.chapter = controller.getChapter();
+    snapshot.gameEnded = controller.getGameEnded();
+    snapshot.bossDefeated = controller.isBossDefeated();
+    snapshot.randomState = controller.getRandomState();
+
+    List<Player> playerList = controller.getPlayers();
+    snapshot.players = new PlayerState[playerList.size()];
+    for (int i = 0; i < playerList.size(); i++) {
+      snapshot.players[i] = PlayerState.of(controller, playerList.get(i));
+    }
+    snapshot.wildUnit = UnitState.of(controller.peekCurrentWildUnit());
+    snapshot.bossUnit = UnitState.of(controller.peekCurrentBossUnit());
+    snapshot.bossUnitCharacter = UnitState.of(controller.getBossUnitCharacter());
+
+    TurnState state = controller.getTurnState();
+    snapshot.phase = phaseOf(state);
+    if (state.isMovingPhase() || state.isPathChoosePhase() || state.isHomeStopChoosePhase()
+        || state.isCombatChoosePhase()) {
+      snapshot.steps = state.getSteps();
+    }
+    if (state.isCombatResponseChoosePhase() || state.isCounterattackResponseChoosePhase()) {
+      snapshot.attackValue = state.getAttackValue();
+      snapshot.attacker = referenceOf(controller, state.getAttacker());
+      snapshot.target = referenceOf(controller, state.getTarget());
+    }
+    if (state.isCounterattackPhase()) {
+      snapshot.attacker = referenceOf(controller, state.getAttacker());
+    }
+    return snapshot;
+  }
+
+  /**
+   * Puts a match back at the point this snapshot was captured.
+   * The controller must have the same board and players the snapshot was taken from.
+   * @param controller
+   *  controller running the match
+   */
+  public void restore(GameController controller) {
+    // Placing players fires panel notifications, on start phase the controller ignores them.
+    controller.setTurnState(new TurnState());
+
+    List<Player> playerList = controller.getPlayers();
+    List<IPanel> panels = controller.getPanels();
+    for (int i = 0; i < players.length; i++) {
+      players[i].restore(playerList.get(i), panels, controller.getNormaLadder());
+    }
+    UnitPool pool = controller.getUnitPool();
+    controller.setCurrentWildUnit(wildUnit == null ? null : wildUnit.toWildUnit(pool));
+    controller.setCurrentBossUnit(bossUnit == null ? null : bossUnit.toBossUnit(pool));
+    controller.setBossUnitCharacter(bossUnitCharacter == null ? null : bossUnitCharacter.toBossUnit());
+
+    controller.setTurn(turn);
+    controller.setChapter(chapter);
+    controller.setGameEnded(gameEnded);
+    controller.setBossDefeated(bossDefeated);
+    controller.setRandomState(randomState);
+    controller.setTurnState(rebuildTurnState(controller));
+  }
+
+  /**
+   * Returns the chapter the snapshot was captured on.
+   */
+  public int getChapter() {
+    return chapter;
+  }
+
+  /**
+   * Returns the turn (index of the turn owner) the snapshot was captured on.
+   */
+  public int getTurn() {
+    return turn;
+  }
+
+  /**
+   * Writes the snapshot in a compact binary format.
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeInt(turn);
+    out.writeInt(chapter);
+    out.writeBoolean(gameEnded);
+    out.writeBoolean(bossDefeated);
+    out.writeLong(randomState);
+    out.writeByte(phase);
+    out.writeInt(steps);
+    out.writeInt(attackValue);
+    out.writeInt(attacker);
+    out.writeInt(target);
+    out.writeInt(players.length);
+    for (PlayerState p : players) {
+      p.writeTo(out);
+    }
+    UnitState.write(out, wildUnit);
+    UnitState.write(out, bossUnit);
+    UnitState.write(out, bossUnitCharacter);
+  }
+
+  /**
+   * Reads a snapshot written with writeTo.
+   */
+  public static GameSnapshot readFrom(DataInput in) throws IOException {
+    GameSnapshot snapshot = new GameSnapshot();
+    snapshot.turn = in.readInt();
+    snapshot.chapter = in.readInt();
+    snapshot.gameEnded = in.readBoolean();
+    snapshot.bossDefeated = in.readBoolean();
+    snapshot.randomState = in.readLong();
+    snapshot.phase = in.readByte();
+    snapshot.steps = in.readInt();
+    snapshot.attackValue = in.readInt();
+    snapshot.attacker = in.readInt();
+    snapshot.target = in.readInt();
+    snapshot.players = new PlayerState[in.readInt()];
+    for (int i = 0; i < snapshot.players.length; i++) {
+      snapshot.players[i] = PlayerState.readFrom(in);
+    }
+    snapshot.wildUnit = UnitState.read(in);
+    snapshot.bossUnit = UnitState.read(in);
+    snapshot.bossUnitCharacter = UnitState.read(in);
+    return snapshot;
+  }
+
+  /**
+   * Flattens the values every client may see into an array of integers, leaving out the
+   * states of the random number generators so the rolls can't be predicted from it.
+   * The layout is described by {@link #MATCH_FIELDS}, {@link #PLAYER_FIELDS} and
+   * {@link #UNIT_FIELDS}, the unit names are returned by {@link #getUnitNames()}.
+   */
+  public int[] toFields() {
+    int[] fields = new int[MATCH_FIELDS + players.length * PLAYER_FIELDS + 3 * UNIT_FIELDS];
+    int i = 0;
+    fields[i++] = turn;
+    fields[i++] = chapter;
+    fields[i++] = gameEnded ? 1 : 0;
+    fields[i++] = bossDefeated ? 1 : 0;
+    fields[i++] = phase;
+    fields[i++] = steps;
+    fields[i++] = attackValue;
+    fields[i++] = attacker;
+    fields[i++] = target;
+    fields[i++] = players.length;
+    for (PlayerState p : players) {
+      fields[i++] = p.panel;
+      fields[i++] = p.atk;
+      fields[i++] = p.def;
+      fields[i++] = p.evd;
+      fields[i++] = p.currentHP;
+      fields[i++] = p.stars;
+      fields[i++] = p.wins;
+      fields[i++] = p.normaLevel;
+      fields[i++] = p.winsGoal ? 1 : 0;
+      fields[i++] = p.goalRequirement;
+      fields[i++] = p.recoveryLeft;
+    }
+    for (UnitState u : new UnitState[] {wildUnit, bossUnit, bossUnitCharacter}) {
+      if (u != null) {
+        fields[i] = 1;
+        fields[i + 1] = u.maxHP;
+        fields[i + 2] = u.atk;
+        fields[i + 3] = u.def;
+        fields[i + 4] = u.evd;
+        fields[i + 5] = u.currentHP;
+        fields[i + 6] = u.stars;
+        fields[i + 7] = u.wins;
+      }
+      i += UNIT_FIELDS;
+    }
+    return fields;
+  }
+
+  /**
+   * Returns the amount of values toFields gives for a match.
+   */
+  public static int fieldCount(GameController controller) {
+    return MATCH_FIELDS + controller.getPlayerCount() * PLAYER_FIELDS + 3 * UNIT_FIELDS;
+  }
+
+  /**
+   * Writes the values {@link #toFields()} gives for a snapshot of a match straight from the
+   * controller, without capturing the snapshot, so it can run on every command without
+   * allocating.
+   * @param fields
+   *  array of at least {@link #fieldCount(GameController)} values, overwritten
+   */
+  public static void captureFields(GameController controller, int[] fields) {
+    TurnState state = controller.getTurnState();
+    byte phase = phaseOf(state);
+    int i = 0;
+    fields[i++] = controller.getTurn();
+    fields[i++] = controller.getChapter();
+    fields[i++] = controller.getGameEnded() ? 1 : 0;
+    fields[i++] = controller.isBossDefeated() ? 1 : 0;
+    fields[i++] = phase;
+    fields[i++] = state.isMovingPhase() || state.isPathChoosePhase()
+        || state.isHomeStopChoosePhase() || state.isCombatChoosePhase() ? state.getSteps() : 0;
+    boolean response = state.isCombatResponseChoosePhase()
+        || state.isCounterattackResponseChoosePhase();
+    fields[i++] = response ? state.getAttackValue() : 0;
+    fields[i++] = response || state.isCounterattackPhase()
+        ? referenceOf(controller, state.getAttacker()) : NO_UNIT;
+    fields[i++] = response ? referenceOf(controller, state.getTarget()) : NO_UNIT;
+    int count = controller.getPlayerCount();
+    fields[i++] = count;
+    for (int p = 0; p < count; p++) {
+      Player player = controller.getPlayer(p);
+      fields[i++] = controller.getPanelIndex(player.getCurrentPanel());
+      fields[i++] = player.getAtk();
+      fields[i++] = player.getDef();
+      fields[i++] = player.getEvd();
+      fields[i++] = player.getCurrentHP();
+      fields[i++] = player.getStars();
+      fields[i++] = player.getWins();
+      fields[i++] = player.getNormaLevel();
+      fields[i++] = player.getNormaGoal() instanceof WinsNorma ? 1 : 0;
+      fields[i++] = player.getNormaGoal().getRequirement();
+      fields[i++] = player.getRecoveryLeft();
+    }
+    i = unitFields(controller.peekCurrentWildUnit(), fields, i);
+    i = unitFields(controller.peekCurrentBossUnit(), fields, i);
+    unitFields(controller.getBossUnitCharacter(), fields, i);
+  }
+
+  private static int unitFields(AbstractUnit unit, int[] fields, int i) {
+    if (unit == null) {
+      Arrays.fill(fields, i, i + UNIT_FIELDS, 0);
+    } else {
+      fields[i] = 1;
+      fields[i + 1] = unit.getMaxHP();
+      fields[i + 2] = unit.getAtk();
+      fields[i + 3] = unit.getDef();
+      fields[i + 4] = unit.getEvd();
+      fields[i + 5] = unit.getCurrentHP();
+      fields[i + 6] = unit.getStars();
+      fields[i + 7] = unit.getWins();
+    }
+    return i + UNIT_FIELDS;
+  }
+
+  /**
+   * Returns the names of the wild, boss and boss character units, empty if there is none.
+   */
+  public String[] getUnitNames() {
+    return new String[] {
+      wildUnit == null ? "" : wildUnit.name,
+      bossUnit == null ? "" : bossUnit.name,
+      bossUnitCharacter == null ? "" : bossUnitCharacter.name
+    };
+  }
+
+  /**
+   * Rebuilds a snapshot from the values returned by toFields and getUnitNames.
+   * The random number generator states are zero, so it's meant for showing a match
+   * and not for continuing it.
+   */
+  public static GameSnapshot fromFields(int[] fields, String[] unitNames) {
+    GameSnapshot snapshot = new GameSnapshot();
+    int i = 0;
+    snapshot.turn = fields[i++];
+    snapshot.chapter = fields[i++];
+    snapshot.gameEnded = fields[i++] != 0;
+    snapshot.bossDefeated = fields[i++] != 0;
+    snapshot.phase = (byte) fields[i++];
+    snapshot.steps = fields[i++];
+    snapshot.attackValue = fields[i++];
+    snapshot.attacker = fields[i++];
+    snapshot.target = fields[i++];
+    snapshot.players = new PlayerState[fields[i++]];
+    for (int p = 0; p < snapshot.players.length; p++) {
+      PlayerState state = new PlayerState();
+      state.panel = fields[i++];
+      state.atk = fields[i++];
+      state.def = fields[i++];
+      state.evd = fields[i++];
+      state.currentHP = fields[i++];
+      state.stars = fields[i++];
+      state.wins = fields[i++];
+      state.normaLevel = fields[i++];
+      state.winsGoal = fields[i++] != 0;
+      state.goalRequirement = fields[i++];
+      state.recoveryLeft = fields[i++];
+      snapshot.players[p] = state;
+    }
+    UnitState[] units = new UnitState[3];
+    for (int u = 0; u < units.length; u++, i += UNIT_FIELDS) {
+      if (fields[i] != 0) {
+        UnitState state = new UnitState();
+        state.name = unitNames[u];
+        state.maxHP = fields[i + 1];
+        state.atk = fields[i + 2];
+        state.def = fields[i + 3];
+        state.evd = fields[i + 4];
+        state.currentHP = fields[i + 5];
+        state.stars = fields[i + 6];
+        state.wins = fields[i + 7];
+        units[u] = state;
+      }
+    }
+    snapshot.wildUnit = units[0];
+    snapshot.bossUnit = units[1];
+    snapshot.bossUnitCharacter = units[2];
+    return snapshot;
+  }
+
+  /**
+   * Returns the kind of the current phase of a turn state.
+   */
+  static byte phaseOf(TurnState state) {
+    if (state.isRecoveryPhase()) { return RECOVERY; }
+    if (state.isCardPickPhase()) { return CARD_PICK; }
+    if (state.isMovingPhase()) { return MOVING; }
+    if (state.isPathChoosePhase()) { return PATH_CHOOSE; }
+    if (state.isHomeStopChoosePhase()) { return HOME_STOP_CHOOSE; }
+    if (state.isCombatChoosePhase()) { return COMBAT_CHOOSE; }
+    if (state.isCombatResponseChoosePhase()) { return COMBAT_RESPONSE_CHOOSE; }
+    if (state.isCounterattackPhase()) { return COUNTERATTACK; }
+    if (state.isCounterattackResponseChoosePhase()) { return COUNTERATTACK_RESPONSE_CHOOSE; }
+    if (state.isNormaPickPhase()) { return NORMA_PICK; }
+    if (state.isEndPhase()) { return END; }
+    return START;
+  }
+
+  /**
+   * Rebuilds the captured phase by walking the legal transitions from start phase.
+   */
+  private TurnState rebuildTurnState(GameController controller) {
+    TurnState state = new TurnState();
+    if (phase == START) {
+      return state;
+    }
+    if (phase == RECOVERY) {
+      state.recoveryPhase();
+      return state;
+    }
+    state.cardPickPhase();
+    if (phase == CARD_PICK) {
+      return state;
+    }
+    state.movingPhase(phase == MOVING ? steps : -1);
+    switch (phase) {
+      case PATH_CHOOSE:
+        state.pathChoosePhase(steps);
+        break;
+      case HOME_STOP_CHOOSE:
+        state.homeStopChoosePhase(steps);
+        break;
+      case COMBAT_CHOOSE:
+        state.combatChoosePhase(steps);
+        break;
+      case COMBAT_RESPONSE_CHOOSE:
+        state.combatChoosePhase(0);
+        state.combatResponseChoosePhase(unitOf(controller, attacker), attackValue, unitOf(controller, target));
+        break;
+      case COUNTERATTACK:
+        state.combatChoosePhase(0);
+        state.combatResponseChoosePhase(unitOf(controller, attacker), 0, controller.getTurnOwner());
+        state.counterattackPhase(unitOf(controller, attacker));
+        break;
+      case COUNTERATTACK_RESPONSE_CHOOSE:
+        state.combatChoosePhase(0);
+        state.combatResponseChoosePhase(unitOf(controller, target), 0, unitOf(controller, attacker));
+        state.counterattackPhase(unitOf(controller, attacker));
+        state.counterattackResponseChoosePhase(unitOf(controller, attacker), attackValue, unitOf(controller, target));
+        break;
+      case NORMA_PICK:
+        state.normaPickPhase();
+        break;
+      case END:
+        state.endPhase();
+        break;
+      default:
+        break;
+    }
+    return state;
+  }
+
+  private static int referenceOf(GameController controller, IUnit unit) {
+    if (unit == null) {
+      return NO_UNIT;
+    }
+    if (unit == controller.peekCurrentWildUnit()) {
+      return WILD_UNIT;
+    }
+    if (unit == controller.peekCurrentBossUnit()) {
+      return BOSS_UNIT;
+    }
+    return unit instanceof Player ? controller.getPlayerIndex((Player) unit) : NO_UNIT;
+  }
+
+  private static IUnit unitOf(GameController controller, int reference) {
+    switch (reference) {
+      case WILD_UNIT:
+        return controller.peekCurrentWildUnit();
+      case BOSS_UNIT:
+        return controller.peekCurrentBossUnit();
+      case NO_UNIT:
+        return null;
+      default:
+        return controller.getPlayers().get(reference);
+    }
+  }
+
+  /**
+   * Saved values of a wild or boss unit.
+   */
+  static class UnitState {
+    String name;
+    int maxHP;
+    int atk;
+    int def;
+    int evd;
+    int currentHP;
+    int stars;
+    int wins;
+    long randomState;
+
+    static UnitState of(AbstractUnit unit) {
+      if (unit == null) {
+        return null;
+      }
+      UnitState state = new UnitState();
+      state.name = unit.getName();
+      state.maxHP = unit.getMaxHP();
+      state.atk = unit.getAtk();
+      state.def = unit.getDef();
+      state.evd = unit.getEvd();
+      state.currentHP = unit.getCurrentHP();
+      state.stars = unit.getStars();
+      state.wins = unit.getWins();
+      state.randomState = unit.getRandomState();
+      return state;
+    }
+
+    WildUnit toWildUnit(UnitPool pool) {
+      return apply(pool.obtainWildUnit(name, maxHP, atk, def, evd));
+    }
+
+    BossUnit toBossUnit(UnitPool pool) {
+      return apply(pool.obtainBossUnit(name, maxHP, atk, def, evd));
+    }
+
+    BossUnit toBossUnit() {
+      return apply(new BossUnit(name, maxHP, atk, def, evd));
+    }
+
+    <T extends AbstractUnit> T apply(T unit) {
+      unit.setCurrentHP(currentHP);
+      unit.setStars(stars);
+      unit.setWins(wins);
+      unit.setRandomState(randomState);
+      return unit;
+    }
+
+    static void write(DataOutput out, UnitState state) throws IOException {
+      out.writeBoolean(state != null);
+      if (state != null) {
+        out.writeUTF(state.name);
+        out.writeInt(state.maxHP);
+        out.writeInt(state.atk);
+        out.writeInt(state.def);
+        out.writeInt(state.evd);
+        out.writeInt(state.currentHP);
+        out.writeInt(state.stars);
+        out.writeInt(state.wins);
+        out.writeLong(state.randomState);
+      }
+    }
+
+    static UnitState read(DataInput in) throws IOException {
+      if (!in.readBoolean()) {
+        return null;
+      }
+      UnitState state = new UnitState();
+      state.name = in.readUTF();
+      state.maxHP = in.readInt();
+      state.atk = in.readInt();
+      state.def = in.readInt();
+      state.evd = in.readInt();
+      state.currentHP = in.readInt();
+      state.stars = in.readInt();
+      state.wins = in.readInt();
+      state.randomState = in.readLong();
+      return state;
+    }
+  }
+
+  /**
+   * Saved values of a player.
+   */
+  static class PlayerState {
+    int panel;
+    int atk;
+    int def;
+    int evd;
+    int currentHP;
+    int stars;
+    int wins;
+    int normaLevel;
+    boolean winsGoal;
+    int goalRequirement;
+    int recoveryLeft;
+    long randomState;
+
+    static PlayerState of(GameController controller, Player player) {
+      PlayerState state = new PlayerState();
+      state.panel = controller.getPanelIndex(player.getCurrentPanel());
+      state.atk = player.getAtk();
+      state.def = player.getDef();
+      state.evd = player.getEvd();
+      state.currentHP = player.getCurrentHP();
+      state.stars = player.getStars();
+      state.wins = player.getWins();
+      state.normaLevel = player.getNormaLevel();
+      state.winsGoal = player.getNormaGoal() instanceof WinsNorma;
+      state.goalRequirement = player.getNormaGoal().getRequirement();
+      state.recoveryLeft = player.getRecoveryLeft();
+      state.randomState = player.getRandomState();
+      return state;
+    }
+
+    void restore(Player player, List<IPanel> panels, NormaLadder ladder) {
+      IPanel destination = panel < 0 ? NullPanel.getNullPanel() : panels.get(panel);
+      if (player.getCurrentPanel() != destination) {
+        player.moveTo(destination);
+      }
+      player.setAtk(atk);
+      player.setDef(def);
+      player.setEvd(evd);
+      player.setCurrentHP(currentHP);
+      player.setStars(stars);
+      player.setWins(wins);
+      player.setNormaLevel(normaLevel);
+      player.setNormaGoal(ladder.getGoal(winsGoal, goalRequirement));
+      player.setRecoveryLeft(recoveryLeft);
+      player.setRandomState(randomState);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+      out.writeInt(panel);
+      out.writeInt(atk);
+      out.writeInt(def);
+      out.writeInt(evd);
+      out.writeInt(currentHP);
+      out.writeInt(stars);
+      out.writeInt(wins);
+      out.writeInt(normaLevel);
+      out.writeBoolean(winsGoal);
+      out.writeInt(goalRequirement);
+      out.writeInt(recoveryLeft);
+      out.writeLong(randomState);
+    }
+
+    static PlayerState readFrom(DataInput in) throws IOException {
+      PlayerState state = new PlayerState();
+      state.panel = in.readInt();
+      state.atk = in.readInt();
+      state.def = in.readInt();
+      state.evd = in.readInt();
+      state.currentHP = in.readInt();
+      state.stars = in.readInt();
+      state.wins = in.readInt();
+      state.normaLevel = in.readInt();
+      state.winsGoal = in.readBoolean();
+      state.goalRequirement = in.readInt();
+      state.recoveryLeft = in.readInt();
+      state.randomState = in.readLong();
+      return state;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a movement worked out by the {@link MovementResolver}: the panels stepped on, the
+ * steps left and why the movement stopped.
+ */
+public final class MoveResult {
+  /**
+   * Reasons a movement stops.
+   */
+  public enum Stop {
+    /** The player ran out of steps, or of panels to step on, and lands on the final panel. */
+    LANDED,
+    /** The player reached a panel with more than one next panel and has to pick one. */
+    FORK,
+    /** The player walked by its home panel and may stop there. */
+    HOME,
+    /** The player reached a panel with other players and may fight them. */
+    PLAYERS
+  }
+
+  private IPanel start;
+  private IPanel[] path = new IPanel[8];
+  private int length;
+  private int remainingSteps;
+  private Stop stop;
+
+  /**
+   * Creates an empty result, for the resolver to fill. A result can be filled again by each new
+   * movement, so resolving doesn't need to create one every time.
+   */
+  MoveResult() {
+  }
+
+  /**
+   * Empties the result, leaving it on the panel a new movement starts from.
+   */
+  void reset(IPanel start) {
+    this.start = start;
+    Arrays.fill(path, 0, length, null);
+    length = 0;
+  }
+
+  /**
+   * Adds a panel stepped on.
+   */
+  void step(IPanel panel) {
+    if (length == path.length) {
+      path = Arrays.copyOf(path, length * 2);
+    }
+    path[length++] = panel;
+  }
+
+  /**
+   * Sets how the movement ended.
+   */
+  MoveResult finish(int remainingSteps, Stop stop) {
+    this.remainingSteps = remainingSteps;
+    this.stop = stop;
+    return this;
+  }
+
+  /**
+   * Returns the panel the movement started from.
+   */
+  public IPanel getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the panels stepped on, in order, as an unmodifiable list. It's empty if the player
+   * didn't leave the starting panel.
+   */
+  public List<IPanel> getPath() {
+    return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(path, length)));
+  }
+
+  /**
+   * Returns the amount of panels stepped on.
+   */
+  public int getPathLength() {
+    return length;
+  }
+
+  /**
+   * Returns the panel the movement ends on.
+   */
+  public IPanel getFinalPanel() {
+    return length == 0 ? start : path[length - 1];
+  }
+
+  public int getRemainingSteps() {
+    return remainingSteps;
+  }
+
+  public Stop getStop() {
+    return stop;
+  }
+
+  @Override
+  public String toString() {
+    return stop + " after " + length + " panels, " + remainingSteps + " steps left";
+  }
+}
@@ -0,0 +1,129 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.unit.Player;
+
+import java.util.List;
+
+/**
+ * Works out where a movement goes without changing anything: it walks the board from a panel,
+ * checking each panel once, and tells where and why the player has to stop.
+ * <p>
+ * On each panel reached the checks go in this order: other players on it stop the player
+ * whatever the steps left, then, only with steps left, its home panel and a path fork. A
+ * player that starts on a fork with steps left stops right away, without stepping.
+ */
+public final class MovementResolver {
+
+  private MovementResolver() {
+  }
+
+  /**
+   * Resolves a movement from the player's current panel.
+   * @param player
+   *  player that moves, used for its home panel and to tell it apart from the other players.
+   * @param steps
+   *  amount of steps to move.
+   */
+  public static MoveResult resolve(Player player, int steps) {
+    return resolve(player, player.getCurrentPanel(), steps, new MoveResult());
+  }
+
+  /**
+   * Resolves a movement from the player's current panel on a result that's reused, so nothing
+   * is created. Whatever the result held before is replaced.
+   */
+  public static MoveResult resolve(Player player, int steps, MoveResult into) {
+    return resolve(player, player.getCurrentPanel(), steps, into);
+  }
+
+  /**
+   * Resolves a movement from a panel.
+   * @param player
+   *  player that moves, used for its home panel and to tell it apart from the other players.
+   * @param start
+   *  panel the movement starts from.
+   * @param steps
+   *  amount of steps to move.
+   */
+  public static MoveResult resolve(Player player, IPanel start, int steps) {
+    return resolve(player, start, steps, new MoveResult());
+  }
+
+  /**
+   * Resolves a movement from a panel on a result that's reused.
+   */
+  public static MoveResult resolve(Player player, IPanel start, int steps, MoveResult into) {
+    into.reset(start);
+    if (steps <= 0) {
+      return into.finish(steps, MoveResult.Stop.LANDED);
+    }
+    if (start.getNextPanels().size() > 1) {
+      return into.finish(steps, MoveResult.Stop.FORK);
+    }
+    return walk(player, start, into, steps);
+  }
+
+  /**
+   * Resolves a movement that goes through a chosen panel first, as after picking a path at a
+   * fork.
+   * @param next
+   *  panel to step on first, one of the next panels of the start panel.
+   * @param steps
+   *  amount of steps to move, the step onto the chosen panel included.
+   */
+  public static MoveResult resolveThrough(Player player, IPanel start, IPanel next, int steps) {
+    return resolveThrough(player, start, next, steps, new MoveResult());
+  }
+
+  /**
+   * Resolves a movement that goes through a chosen panel first on a result that's reused.
+   */
+  public static MoveResult resolveThrough(Player player, IPanel start, IPanel next, int steps,
+                                          MoveResult into) {
+    into.reset(start);
+    into.step(next);
+    steps--;
+    MoveResult.Stop stop = stopAt(player, next, steps);
+    if (stop != null) {
+      return into.finish(steps, stop);
+    }
+    return walk(player, next, into, steps);
+  }
+
+  private static MoveResult walk(Player player, IPanel panel, MoveResult into, int steps) {
+    while (true) {
+      List<IPanel> nextPanels = panel.getNextPanels();
+      if (nextPanels.isEmpty()) {
+        // Dead end, there's nowhere else to go.
+        return into.finish(steps, MoveResult.Stop.LANDED);
+      }
+      panel = nextPanels.get(0);
+      into.step(panel);
+      steps--;
+      MoveResult.Stop stop = stopAt(player, panel, steps);
+      if (stop != null) {
+        return into.finish(steps, stop);
+      }
+    }
+  }
+
+  /**
+   * Returns why the player stops on a panel it just stepped on, null if it keeps going.
+   */
+  private static MoveResult.Stop stopAt(Player player, IPanel panel, int steps) {
+    if (player.occupancyOf(panel).hasOthers(player)) {
+      return MoveResult.Stop.PLAYERS;
+    }
+    if (steps <= 0) {
+      return MoveResult.Stop.LANDED;
+    }
+    if (panel.equals(player.getHomePanel())) {
+      return MoveResult.Stop.HOME;
+    }
+    if (panel.getNextPanels().size() > 1) {
+      return MoveResult.Stop.FORK;
+    }
+    return null;
+  }
+}
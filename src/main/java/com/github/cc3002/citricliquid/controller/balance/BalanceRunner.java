@@ -0,0 +1,250 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.IBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Plays bot matches on several configurations of the practice board until their statistics
+ * are precise enough.
+ * <p>
+ * A configuration is a change made to a new game before it starts, like other stats for a
+ * character. Instead of a fixed amount of matches, each configuration plays until the
+ * confidence interval of every metric is as narrow as asked (after a minimum, and up to a
+ * maximum, of matches). The workers always take a match of the unfinished configuration with
+ * the fewest matches, so once a configuration is done its workers move to the ones that still
+ * need samples. Match n of a configuration always plays with the same seed.
+ */
+public class BalanceRunner {
+  public static final int DEFAULT_MIN_MATCHES = 100;
+  public static final int DEFAULT_MAX_MATCHES = 100000;
+  public static final int DEFAULT_MAX_CHAPTERS = 200;
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final long seed;
+  private final List<ConfigurationStats> stats = new ArrayList<>();
+  private final List<Consumer<GameController>> setups = new ArrayList<>();
+  private LongFunction<IBotPolicy> policy = RandomBotPolicy::new;
+  private double winRatePrecision = 0.02;
+  private double chaptersPrecision = 1;
+  private double normaLevelPrecision = 0.05;
+  private double z = RunningStat.Z_95;
+  private int minMatches = DEFAULT_MIN_MATCHES;
+  private int maxMatches = DEFAULT_MAX_MATCHES;
+  private int maxChapters = DEFAULT_MAX_CHAPTERS;
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  // Matches handed to workers of each configuration, finished or not.
+  private int[] claimed;
+  private boolean[] finished;
+
+  /**
+   * Creates a runner without configurations.
+   * @param seed
+   *  seed every match seed is drawn from
+   */
+  public BalanceRunner(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Adds a configuration.
+   * @param name
+   *  name shown on the results
+   * @param setup
+   *  change made to every new game of the configuration, before the seed is set
+   * @return
+   *  the statistics the configuration's matches will be gathered on.
+   */
+  public ConfigurationStats addConfiguration(String name, Consumer<GameController> setup) {
+    ConfigurationStats configuration = new ConfigurationStats(name);
+    stats.add(configuration);
+    setups.add(setup);
+    return configuration;
+  }
+
+  /**
+   * Sets the policy that plays every seat, created for each seat of each match with a seed.
+   */
+  public void setPolicy(LongFunction<IBotPolicy> value) {
+    policy = value;
+  }
+
+  /**
+   * Sets the half widths of confidence interval a configuration stops at.
+   * @param winRate
+   *  for the win rate of every seat
+   * @param chapters
+   *  for the chapters the won matches took
+   * @param normaLevel
+   *  for the mean final norma level of the players of a match
+   */
+  public void setPrecision(double winRate, double chapters, double normaLevel) {
+    winRatePrecision = winRate;
+    chaptersPrecision = chapters;
+    normaLevelPrecision = normaLevel;
+  }
+
+  /**
+   * Sets the normal quantile of the confidence level, {@link RunningStat#Z_95} by default.
+   */
+  public void setZ(double value) {
+    z = value;
+  }
+
+  public void setMinMatches(int value) {
+    minMatches = value;
+  }
+
+  public void setMaxMatches(int value) {
+    maxMatches = value;
+  }
+
+  /**
+   * Sets the amount of chapters after which a match that didn't end is cut.
+   */
+  public void setMaxChapters(int value) {
+    maxChapters = value;
+  }
+
+  public void setThreads(int value) {
+    threads = value;
+  }
+
+  /**
+   * Plays until every configuration is precise enough or reached the maximum of matches.
+   * @return
+   *  the statistics of every configuration, in the order they were added.
+   */
+  public List<ConfigurationStats> run() {
+    claimed = new int[stats.size()];
+    finished = new boolean[stats.size()];
+    int workers = Math.max(1, threads);
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      List<Future<?>> running = new ArrayList<>();
+      for (int i = 0; i < workers; i++) {
+        running.add(executor.submit(this::work));
+      }
+      for (Future<?> worker : running) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A match failed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return List.copyOf(stats);
+  }
+
+  private void work() {
+    int[] levels = new int[ConfigurationStats.SEATS];
+    long[] match = new long[2];
+    while (claim(match)) {
+      int configuration = (int) match[0];
+      play(configuration, match[1], levels);
+    }
+  }
+
+  /**
+   * Picks the next match to play: the unfinished configuration with the fewest matches.
+   * @param match
+   *  where the configuration and the match number are written
+   * @return
+   *  false if every configuration is finished.
+   */
+  private synchronized boolean claim(long[] match) {
+    int best = -1;
+    for (int i = 0; i < stats.size(); i++) {
+      if (!finished[i]) {
+        ConfigurationStats configuration = stats.get(i);
+        finished[i] = claimed[i] >= maxMatches
+            || configuration.getMatches() >= minMatches
+            && configuration.isPrecise(winRatePrecision, chaptersPrecision, normaLevelPrecision, z);
+      }
+      if (!finished[i] && (best < 0 || claimed[i] < claimed[best])) {
+        best = i;
+      }
+    }
+    if (best < 0) {
+      return false;
+    }
+    match[0] = best;
+    match[1] = claimed[best]++;
+    return true;
+  }
+
+  /**
+   * Plays a match of a configuration and records it.
+   */
+  private void play(int configuration, long number, int[] levels) {
+    long matchSeed = mix(mix(seed + (configuration + 1) * GOLDEN_GAMMA) + number * GOLDEN_GAMMA);
+    GameController controller = new GameController();
+    controller.setHeadless(true);
+    controller.newGame();
+    setups.get(configuration).accept(controller);
+    controller.setSeed(matchSeed);
+    for (int seat = 0; seat < controller.getPlayerCount(); seat++) {
+      controller.setBotPolicy(controller.getPlayer(seat),
+                              policy.apply(mix(matchSeed + (seat + 1) * GOLDEN_GAMMA)));
+    }
+    BotDriver driver = new BotDriver(controller);
+    while (!controller.getGameEnded() && controller.getChapter() <= maxChapters) {
+      if (driver.runUntil(TurboBoundary.CHAPTER) == 0) {
+        break;
+      }
+    }
+    for (int seat = 0; seat < levels.length; seat++) {
+      levels[seat] = controller.getPlayer(seat).getNormaLevel();
+    }
+    Player winner = controller.getWinner();
+    stats.get(configuration).record(winner == null ? -1 : controller.getPlayerIndex(winner),
+                                    controller.getChapter(), levels);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Compares the practice board against versions with one more attack point for a character
+   * and prints the results.
+   * @param args
+   *  win rate precision, 0.03 if not given
+   */
+  public static void main(String[] args) {
+    double precision = args.length > 0 ? Double.parseDouble(args[0]) : 0.03;
+    BalanceRunner runner = new BalanceRunner(System.nanoTime());
+    runner.setPrecision(precision, 2, 0.1);
+    runner.addConfiguration("Practice board", controller -> { });
+    for (int seat = 0; seat < ConfigurationStats.SEATS; seat++) {
+      int buffed = seat;
+      runner.addConfiguration("Seat " + (seat + 1) + " +1 ATK", controller -> {
+        Player player = controller.getPlayer(buffed);
+        player.setAtk(player.getAtk() + 1);
+      });
+    }
+    long start = System.nanoTime();
+    for (ConfigurationStats configuration : runner.run()) {
+      System.out.println(configuration);
+    }
+    System.out.printf("Done in %d ms%n", (System.nanoTime() - start) / 1000000);
+  }
+}
@@ -0,0 +1,203 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardGenerator;
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricjuice.model.board.IPanel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable description of a board for the {@link BoardOptimizer}: the kind of each panel and
+ * the panels each one leads to, by ID. Changes give a new design, and two designs with the same
+ * kinds and connections are equal, so evaluations can be cached by design.
+ */
+public final class BoardDesign {
+  private final int[] kinds;
+  // Next panels of panel i are next[nextStart[i]] to next[nextStart[i + 1] - 1].
+  private final int[] nextStart;
+  private final int[] next;
+  private final int hash;
+
+  private BoardDesign(int[] kinds, int[] nextStart, int[] next) {
+    this.kinds = kinds;
+    this.nextStart = nextStart;
+    this.next = next;
+    hash = 31 * (31 * Arrays.hashCode(kinds) + Arrays.hashCode(nextStart)) + Arrays.hashCode(next);
+  }
+
+  /**
+   * Describes an existing board.
+   */
+  public static BoardDesign of(BoardTopology board) {
+    int[] kinds = new int[board.size()];
+    int[] nextStart = new int[board.size() + 1];
+    for (int id = 0; id < board.size(); id++) {
+      kinds[id] = BoardGenerator.kindOf(board.getPanel(id));
+      nextStart[id + 1] = nextStart[id] + board.getNextCount(id);
+    }
+    int[] next = new int[nextStart[board.size()]];
+    for (int id = 0; id < board.size(); id++) {
+      for (int k = 0; k < board.getNextCount(id); k++) {
+        next[nextStart[id] + k] = board.getNext(id, k);
+      }
+    }
+    return new BoardDesign(kinds, nextStart, next);
+  }
+
+  /**
+   * Builds the board, with new panels.
+   */
+  public BoardTopology toTopology() {
+    IPanel[] panels = new IPanel[kinds.length];
+    for (int id = 0; id < kinds.length; id++) {
+      panels[id] = BoardGenerator.createPanel(kinds[id], id);
+    }
+    for (int id = 0; id < kinds.length; id++) {
+      for (int i = nextStart[id]; i < nextStart[id + 1]; i++) {
+        panels[id].addNextPanel(panels[next[i]]);
+      }
+    }
+    List<IPanel> list = new ArrayList<>(kinds.length);
+    for (IPanel panel : panels) {
+      list.add(panel);
+    }
+    return BoardTopology.of(list, null);
+  }
+
+  public int size() {
+    return kinds.length;
+  }
+
+  /**
+   * Returns the kind of a panel, one of the kinds of {@link BoardGenerator}.
+   */
+  public int getKind(int id) {
+    return kinds[id];
+  }
+
+  public int getNextCount(int id) {
+    return nextStart[id + 1] - nextStart[id];
+  }
+
+  public int getNext(int id, int k) {
+    return next[nextStart[id] + k];
+  }
+
+  /**
+   * Returns the amount of panels of a kind.
+   */
+  public int count(int kind) {
+    int count = 0;
+    for (int value : kinds) {
+      count += value == kind ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Returns a design with another kind on a panel.
+   */
+  public BoardDesign withKind(int id, int kind) {
+    int[] changed = kinds.clone();
+    changed[id] = kind;
+    return new BoardDesign(changed, nextStart, next);
+  }
+
+  /**
+   * Returns a design with the kinds of two panels swapped.
+   */
+  public BoardDesign withSwappedKinds(int id, int other) {
+    int[] changed = kinds.clone();
+    changed[id] = kinds[other];
+    changed[other] = kinds[id];
+    return new BoardDesign(changed, nextStart, next);
+  }
+
+  /**
+   * Returns a design where one of the connections of a panel leads somewhere else.
+   * @param k
+   *  which of the panel's next panels changes
+   * @return
+   *  the new design, or null if the panel would lead to itself or twice to the same panel.
+   */
+  public BoardDesign withNext(int id, int k, int target) {
+    if (target == id) {
+      return null;
+    }
+    for (int i = nextStart[id]; i < nextStart[id + 1]; i++) {
+      if (next[i] == target) {
+        return null;
+      }
+    }
+    int[] changed = next.clone();
+    changed[nextStart[id] + k] = target;
+    return new BoardDesign(kinds, nextStart, changed);
+  }
+
+  /**
+   * Tells whether every panel reaches every other panel.
+   */
+  public boolean isStronglyConnected() {
+    if (kinds.length == 0) {
+      return false;
+    }
+    int[] previousStart = new int[kinds.length + 1];
+    for (int target : next) {
+      previousStart[target + 1]++;
+    }
+    for (int id = 0; id < kinds.length; id++) {
+      previousStart[id + 1] += previousStart[id];
+    }
+    int[] previous = new int[next.length];
+    int[] filled = previousStart.clone();
+    for (int id = 0; id < kinds.length; id++) {
+      for (int i = nextStart[id]; i < nextStart[id + 1]; i++) {
+        previous[filled[next[i]]++] = id;
+      }
+    }
+    return reachesAll(nextStart, next) && reachesAll(previousStart, previous);
+  }
+
+  /**
+   * Tells whether panel 0 reaches every panel following the given connections.
+   */
+  private boolean reachesAll(int[] start, int[] edges) {
+    boolean[] seen = new boolean[kinds.length];
+    int[] stack = new int[kinds.length];
+    int top = 0;
+    stack[top++] = 0;
+    seen[0] = true;
+    int reached = 1;
+    while (top > 0) {
+      int id = stack[--top];
+      for (int i = start[id]; i < start[id + 1]; i++) {
+        if (!seen[edges[i]]) {
+          seen[edges[i]] = true;
+          reached++;
+          stack[top++] = edges[i];
+        }
+      }
+    }
+    return reached == kinds.length;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BoardDesign)) {
+      return false;
+    }
+    BoardDesign that = (BoardDesign) o;
+    return hash == that.hash && Arrays.equals(kinds, that.kinds)
+        && Arrays.equals(nextStart, that.nextStart) && Arrays.equals(next, that.next);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
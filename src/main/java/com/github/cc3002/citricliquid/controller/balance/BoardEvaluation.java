@@ -0,0 +1,80 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+/**
+ * Outcome of a batch of matches on a board, as measured by a {@link BoardOptimizer}.
+ */
+public class BoardEvaluation {
+  private final int matches;
+  private final double[] winShares;
+  private final double meanChapters;
+  private final double comebackRate;
+  private final double score;
+
+  /**
+   * Creates an evaluation.
+   * @param winShares
+   *  share of the won matches won by each seat
+   * @param meanChapters
+   *  chapters matches took on average, cut ones included
+   * @param comebackRate
+   *  share of the won matches whose winner wasn't leading halfway
+   * @param score
+   *  score given by the optimizer, higher is better
+   */
+  public BoardEvaluation(int matches, double[] winShares, double meanChapters,
+                         double comebackRate, double score) {
+    this.matches = matches;
+    this.winShares = winShares.clone();
+    this.meanChapters = meanChapters;
+    this.comebackRate = comebackRate;
+    this.score = score;
+  }
+
+  public int getMatches() {
+    return matches;
+  }
+
+  /**
+   * Returns the share of the won matches a seat won.
+   */
+  public double getWinShare(int seat) {
+    return winShares[seat];
+  }
+
+  /**
+   * Returns the difference between the seats that won the most and the least, 0 on a fair
+   * board.
+   */
+  public double getImbalance() {
+    double max = 0;
+    double min = 1;
+    for (double share : winShares) {
+      max = Math.max(max, share);
+      min = Math.min(min, share);
+    }
+    return max - min;
+  }
+
+  public double getMeanChapters() {
+    return meanChapters;
+  }
+
+  public double getComebackRate() {
+    return comebackRate;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder(String.format("score %.4f, %d matches, win shares",
+                                                         score, matches));
+    for (double share : winShares) {
+      text.append(String.format(" %.3f", share));
+    }
+    return text.append(String.format(", %.1f chapters, %.3f comebacks", meanChapters,
+                                     comebackRate)).toString();
+  }
+}
@@ -0,0 +1,337 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardGenerator;
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.IBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Improves a board by simulated annealing, judging each candidate by a batch of bot matches.
+ * <p>
+ * A candidate differs from the current board in one change: another kind for a panel, two
+ * panels swapping kinds (homes included) or a connection leading somewhere else, as long as
+ * every panel still reaches every other one. A board is scored on how evenly the seats win,
+ * how close the matches are to the wanted length and how often the winner wasn't leading
+ * halfway through. Every board plays the same seeds, so scores are compared on the same dice,
+ * and boards already evaluated are looked up instead of played again. Changing how boards are
+ * played or scored forgets those evaluations.
+ */
+public class BoardOptimizer {
+  public static final int DEFAULT_MATCHES = 64;
+  public static final int DEFAULT_MAX_CHAPTERS = 100;
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private static final int SEATS = 4;
+
+  private final long seed;
+  private final Map<BoardDesign, BoardEvaluation> evaluations = new HashMap<>();
+  private LongFunction<IBotPolicy> policy = RandomBotPolicy::new;
+  private int matches = DEFAULT_MATCHES;
+  private int maxChapters = DEFAULT_MAX_CHAPTERS;
+  private double targetChapters = 30;
+  private double fairnessWeight = 1;
+  private double lengthWeight = 1;
+  private double comebackWeight = 0.5;
+  private double temperature = 0.05;
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int cacheHits;
+  private ExecutorService executor;
+
+  /**
+   * Creates an optimizer.
+   * @param seed
+   *  seed of the changes tried and of the matches played
+   */
+  public BoardOptimizer(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Sets the amount of matches played on each board.
+   */
+  public void setMatches(int value) {
+    matches = value;
+    evaluations.clear();
+  }
+
+  /**
+   * Sets the amount of chapters after which a match that didn't end is cut.
+   */
+  public void setMaxChapters(int value) {
+    maxChapters = value;
+    evaluations.clear();
+  }
+
+  /**
+   * Sets the amount of chapters matches should take.
+   */
+  public void setTargetChapters(double value) {
+    targetChapters = value;
+    evaluations.clear();
+  }
+
+  /**
+   * Sets how much each part of the score weighs.
+   * @param fairness
+   *  for the seats winning evenly
+   * @param length
+   *  for the matches taking the target chapters
+   * @param comeback
+   *  for winners that weren't leading halfway
+   */
+  public void setWeights(double fairness, double length, double comeback) {
+    fairnessWeight = fairness;
+    lengthWeight = length;
+    comebackWeight = comeback;
+    evaluations.clear();
+  }
+
+  /**
+   * Sets how likely a worse candidate is accepted at first, it decreases to nothing by the
+   * last iteration.
+   */
+  public void setTemperature(double value) {
+    temperature = value;
+  }
+
+  /**
+   * Sets the policy that plays every seat, created for each seat of each match with a seed.
+   */
+  public void setPolicy(LongFunction<IBotPolicy> value) {
+    policy = value;
+    evaluations.clear();
+  }
+
+  public void setThreads(int value) {
+    threads = value;
+  }
+
+  /**
+   * Returns how many evaluations were found already done.
+   */
+  public int getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Returns the amount of different boards evaluated.
+   */
+  public int getEvaluatedBoards() {
+    return evaluations.size();
+  }
+
+  /**
+   * Tries changes on a board and returns the best board found.
+   * @param start
+   *  board to start from, it must have a home for each player and every panel must reach every
+   *  other one
+   * @param iterations
+   *  amount of changes tried
+   * @throws IllegalArgumentException
+   *  if the starting board isn't valid.
+   */
+  public BoardDesign optimize(BoardDesign start, int iterations) {
+    if (start.count(BoardGenerator.HOME) < SEATS || !start.isStronglyConnected()) {
+      throw new IllegalArgumentException("Every player needs a home and every panel must reach every other.");
+    }
+    Random random = new Random(seed);
+    executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    try {
+      BoardDesign current = start;
+      double currentScore = evaluate(start).getScore();
+      BoardDesign best = current;
+      double bestScore = currentScore;
+      for (int iteration = 0; iteration < iterations; iteration++) {
+        BoardDesign candidate = mutate(current, random);
+        if (candidate == null) {
+          continue;
+        }
+        double score = evaluate(candidate).getScore();
+        double heat = temperature * (1 - (double) iteration / iterations);
+        if (score >= currentScore
+            || heat > 0 && random.nextDouble() < Math.exp((score - currentScore) / heat)) {
+          current = candidate;
+          currentScore = score;
+          if (score > bestScore) {
+            best = candidate;
+            bestScore = score;
+          }
+        }
+      }
+      return best;
+    } finally {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Returns a board with one random change, or null if the change broke the board.
+   */
+  BoardDesign mutate(BoardDesign design, Random random) {
+    int id = random.nextInt(design.size());
+    switch (random.nextInt(3)) {
+      case 0: {
+        if (design.getKind(id) == BoardGenerator.HOME) {
+          return null;
+        }
+        int kind = random.nextInt(BoardGenerator.HOME);
+        return kind == design.getKind(id) ? null : design.withKind(id, kind);
+      }
+      case 1: {
+        int other = random.nextInt(design.size());
+        return design.getKind(id) == design.getKind(other) ? null
+            : design.withSwappedKinds(id, other);
+      }
+      default: {
+        if (design.getNextCount(id) == 0) {
+          return null;
+        }
+        BoardDesign changed = design.withNext(id, random.nextInt(design.getNextCount(id)),
+                                              random.nextInt(design.size()));
+        return changed != null && changed.isStronglyConnected() ? changed : null;
+      }
+    }
+  }
+
+  /**
+   * Plays the batch of matches on a board, or returns its evaluation if it was already played.
+   */
+  public BoardEvaluation evaluate(BoardDesign design) {
+    BoardEvaluation cached = evaluations.get(design);
+    if (cached != null) {
+      cacheHits++;
+      return cached;
+    }
+    boolean ownExecutor = executor == null;
+    if (ownExecutor) {
+      executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    }
+    try {
+      BoardTopology board = design.toTopology();
+      List<Future<int[]>> results = new ArrayList<>();
+      for (int i = 0; i < matches; i++) {
+        long matchSeed = mix(seed + (i + 1) * GOLDEN_GAMMA);
+        results.add(executor.submit(() -> play(board, matchSeed)));
+      }
+      int[] wins = new int[SEATS];
+      int decided = 0;
+      int comebacks = 0;
+      long chapters = 0;
+      for (Future<int[]> future : results) {
+        int[] result = future.get();
+        if (result[0] >= 0) {
+          wins[result[0]]++;
+          decided++;
+          comebacks += result[2];
+        }
+        chapters += result[1];
+      }
+      BoardEvaluation evaluation = score(wins, decided, comebacks, chapters);
+      evaluations.put(design, evaluation);
+      return evaluation;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while evaluating a board.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A match failed.", e.getCause());
+    } finally {
+      if (ownExecutor) {
+        executor.shutdownNow();
+        executor = null;
+      }
+    }
+  }
+
+  private BoardEvaluation score(int[] wins, int decided, int comebacks, long chapters) {
+    double[] shares = new double[SEATS];
+    double most = 0;
+    double least = 1;
+    for (int seat = 0; seat < SEATS; seat++) {
+      shares[seat] = decided == 0 ? 0 : (double) wins[seat] / decided;
+      most = Math.max(most, shares[seat]);
+      least = Math.min(least, shares[seat]);
+    }
+    double meanChapters = (double) chapters / matches;
+    double comebackRate = decided == 0 ? 0 : (double) comebacks / decided;
+    double fairness = decided == 0 ? 0 : 1 - (most - least);
+    double length = Math.max(0, 1 - Math.abs(meanChapters - targetChapters) / targetChapters);
+    double score = fairnessWeight * fairness + lengthWeight * length + comebackWeight * comebackRate;
+    return new BoardEvaluation(matches, shares, meanChapters, comebackRate, score);
+  }
+
+  /**
+   * Plays a match on a board.
+   * @return
+   *  the winner's seat (-1 if the match was cut), the chapters played and 1 if the winner
+   *  wasn't leading halfway through, 0 otherwise.
+   */
+  private int[] play(BoardTopology board, long matchSeed) {
+    GameController controller = new GameController();
+    controller.setHeadless(true);
+    controller.newGame(board);
+    controller.setSeed(matchSeed);
+    for (int seat = 0; seat < SEATS; seat++) {
+      controller.setBotPolicy(controller.getPlayer(seat),
+                              policy.apply(mix(matchSeed + (seat + 1) * GOLDEN_GAMMA)));
+    }
+    BotDriver driver = new BotDriver(controller);
+    // Leader at the end of each chapter.
+    int[] leaders = new int[maxChapters + 1];
+    int recorded = 0;
+    while (!controller.getGameEnded() && controller.getChapter() <= maxChapters) {
+      if (driver.runUntil(TurboBoundary.CHAPTER) == 0) {
+        break;
+      }
+      if (recorded < leaders.length) {
+        leaders[recorded++] = controller.getPlayerIndex(controller.getStandings().getLeader());
+      }
+    }
+    Player winner = controller.getWinner();
+    if (winner == null) {
+      return new int[] {-1, controller.getChapter(), 0};
+    }
+    int seat = controller.getPlayerIndex(winner);
+    boolean comeback = recorded > 1 && leaders[(recorded - 1) / 2] != seat;
+    return new int[] {seat, controller.getChapter(), comeback ? 1 : 0};
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Optimizes the practice board and prints how it compares before and after.
+   * @param args
+   *  iterations, 200 if not given, and matches per board, 64 if not given
+   */
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    BoardOptimizer optimizer = new BoardOptimizer(System.nanoTime());
+    optimizer.setMatches(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATCHES);
+    BoardDesign start = BoardDesign.of(GameController.getPracticeBoard());
+    long begin = System.nanoTime();
+    BoardDesign best = optimizer.optimize(start, iterations);
+    System.out.println("Practice board: " + optimizer.evaluate(start));
+    System.out.println("Best board:     " + optimizer.evaluate(best));
+    System.out.printf("%d boards played, %d cache hits, %d ms%n", optimizer.getEvaluatedBoards(),
+        optimizer.getCacheHits(), (System.nanoTime() - begin) / 1000000);
+  }
+}
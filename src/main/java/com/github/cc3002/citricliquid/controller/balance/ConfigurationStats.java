@@ -0,0 +1,155 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.MatchStandings;
+
+/**
+ * Statistics gathered from the matches of one configuration of a {@link BalanceRunner}: win
+ * rate by seat, chapters the won matches took and final norma levels.
+ * <p>
+ * Matches are recorded from many threads, so the stats are handed out as copies taken while
+ * holding the lock.
+ */
+public class ConfigurationStats {
+  public static final int SEATS = 4;
+
+  private final String name;
+  private final RunningStat[] seatWins = new RunningStat[SEATS];
+  private final RunningStat chaptersToVictory = new RunningStat();
+  // 1 for every match cut before anybody won, 0 for the others.
+  private final RunningStat cutRate = new RunningStat();
+  // Mean final norma level of the seats of each match. Seats of a match aren't independent, so
+  // each match is one sample.
+  private final RunningStat normaLevel = new RunningStat();
+  // Players that finished on each norma level, index 0 unused.
+  private final long[] normaLevels = new long[MatchStandings.WINNING_NORMA_LEVEL + 1];
+  private long matches;
+  private long cutMatches;
+
+  public ConfigurationStats(String name) {
+    this.name = name;
+    for (int seat = 0; seat < SEATS; seat++) {
+      seatWins[seat] = new RunningStat();
+    }
+  }
+
+  /**
+   * Adds the outcome of a match.
+   * @param winner
+   *  seat of the winner, -1 if the match was cut before anybody won
+   * @param chapter
+   *  chapter the match finished on
+   * @param levels
+   *  final norma level of each seat
+   */
+  synchronized void record(int winner, int chapter, int[] levels) {
+    matches++;
+    for (int seat = 0; seat < SEATS; seat++) {
+      seatWins[seat].add(seat == winner ? 1 : 0);
+    }
+    if (winner < 0) {
+      cutMatches++;
+    } else {
+      chaptersToVictory.add(chapter);
+    }
+    cutRate.add(winner < 0 ? 1 : 0);
+    int levelSum = 0;
+    for (int level : levels) {
+      normaLevels[Math.min(Math.max(level, 1), normaLevels.length - 1)]++;
+      levelSum += level;
+    }
+    normaLevel.add((double) levelSum / levels.length);
+  }
+
+  /**
+   * Tells whether every metric is known within the given precision. Win rates use the Wilson
+   * interval, so a seat that never won still needs enough matches. When almost every match is
+   * cut there may never be two won ones to time, so the chapters to victory are taken as known
+   * without them once the rate of cut matches is.
+   * @param winRate
+   *  half width wanted for the win rate of every seat and the rate of cut matches
+   * @param chapters
+   *  half width wanted for the chapters to victory
+   * @param level
+   *  half width wanted for the mean final norma level of a match
+   * @param z
+   *  normal quantile of the confidence level
+   */
+  synchronized boolean isPrecise(double winRate, double chapters, double level, double z) {
+    for (RunningStat wins : seatWins) {
+      if (wins.getProportionHalfWidth(z) > winRate) {
+        return false;
+      }
+    }
+    boolean chaptersKnown = chaptersToVictory.getCount() < 2
+        ? cutRate.getProportionHalfWidth(z) <= winRate
+        : chaptersToVictory.getHalfWidth(z) <= chapters;
+    return chaptersKnown && normaLevel.getHalfWidth(z) <= level;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized long getMatches() {
+    return matches;
+  }
+
+  /**
+   * Returns the amount of matches cut before anybody won, those don't count towards the
+   * chapters to victory.
+   */
+  public synchronized long getCutMatches() {
+    return cutMatches;
+  }
+
+  /**
+   * Returns a copy of the rate of matches cut before anybody won.
+   */
+  public synchronized RunningStat getCutRate() {
+    return new RunningStat(cutRate);
+  }
+
+  /**
+   * Returns a copy of the win rate of a seat.
+   */
+  public synchronized RunningStat getWinRate(int seat) {
+    return new RunningStat(seatWins[seat]);
+  }
+
+  /**
+   * Returns a copy of the chapters the won matches took.
+   */
+  public synchronized RunningStat getChaptersToVictory() {
+    return new RunningStat(chaptersToVictory);
+  }
+
+  /**
+   * Returns a copy of the mean final norma level of the players of a match, one sample per
+   * match.
+   */
+  public synchronized RunningStat getNormaLevel() {
+    return new RunningStat(normaLevel);
+  }
+
+  /**
+   * Returns how many players finished on a norma level.
+   */
+  public synchronized long getPlayersOnLevel(int level) {
+    return normaLevels[level];
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder text = new StringBuilder(name + ": " + matches + " matches (" + cutMatches
+        + " cut, rate " + cutRate.toProportionString() + ")\n  win rate by seat:");
+    for (RunningStat wins : seatWins) {
+      text.append(' ').append(wins.toProportionString());
+    }
+    text.append("\n  chapters to victory: ").append(chaptersToVictory);
+    text.append("\n  norma level: ").append(normaLevel).append(", players by level:");
+    for (int level = 1; level < normaLevels.length; level++) {
+      text.append(' ').append(normaLevels[level]);
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,286 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricjuice.model.board.BonusPanel;
+import com.github.cc3002.citricjuice.model.board.DropPanel;
+import com.github.cc3002.citricjuice.model.board.HomePanel;
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricliquid.controller.GameController;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Works out how often a player lands on each panel of a board without playing matches.
+ * <p>
+ * A player's movement is a Markov chain on the panels: from the panel a turn starts on, a d6
+ * roll and the picks on the way give the chances of ending the turn on each panel. Forks are
+ * picked with weights given by a {@link PathWeights}, uniform by default, and passing by its
+ * home the player stops there with a fixed chance, as a {@link
+ * com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy} does. Other players, fights
+ * and knock outs are left out. The chain is built once per home as a sparse matrix, and the
+ * share of the turns ended on each panel in the long run, its stationary distribution, is
+ * found by power iteration, each iteration spread over panel chunks in parallel.
+ */
+public class LandingAnalyzer {
+  public static final int DICE_FACES = 6;
+  // Stars a d6 roll gives on average.
+  public static final double MEAN_ROLL = (DICE_FACES + 1) / 2.0;
+  public static final double DEFAULT_TOLERANCE = 1e-12;
+  public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+  // Panels each parallel task updates on an iteration.
+  private static final int CHUNK = 1024;
+
+  /**
+   * Weights of the paths a player picks from at a fork.
+   */
+  @FunctionalInterface
+  public interface PathWeights {
+
+    /**
+     * Should return how likely the player is to go from a fork to one of its next panels,
+     * relative to the other next panels. Negative weights count as 0.
+     * @param panel
+     *  ID of the fork
+     * @param next
+     *  ID of the next panel
+     */
+    double weight(int panel, int next);
+  }
+
+  private final BoardTopology board;
+  private PathWeights pathWeights = (panel, next) -> 1;
+  private double homeStopChance = 0.5;
+  private double tolerance = DEFAULT_TOLERANCE;
+  private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+  /**
+   * Creates an analyzer for a board.
+   */
+  public LandingAnalyzer(BoardTopology board) {
+    this.board = board;
+  }
+
+  public void setPathWeights(PathWeights value) {
+    pathWeights = value;
+  }
+
+  /**
+   * Sets the chance of a player stopping at their home when passing by.
+   */
+  public void setHomeStopChance(double value) {
+    homeStopChance = value;
+  }
+
+  /**
+   * Sets the change between two iterations, summed over every panel, under which the
+   * distribution is taken as found.
+   */
+  public void setTolerance(double value) {
+    tolerance = value;
+  }
+
+  public void setMaxIterations(int value) {
+    maxIterations = value;
+  }
+
+  /**
+   * Finds how often a player with a certain home lands on each panel.
+   * @param home
+   *  ID of the player's home panel
+   * @throws IllegalArgumentException
+   *  if the ID isn't on the board.
+   */
+  public LandingDistribution analyze(int home) {
+    int size = board.size();
+    if (home < 0 || home >= size) {
+      throw new IllegalArgumentException("Panel " + home + " isn't on the board.");
+    }
+    // Rows are built one by one and then stored by column, the panels that lead to each panel,
+    // so each panel's new value only reads the previous iteration.
+    Row[] rows = new Row[size];
+    IntStream.range(0, size).parallel().forEach(id -> rows[id] = transitionsFrom(id, home));
+    int[] fromStart = new int[size + 1];
+    for (Row row : rows) {
+      for (int i = 0; i < row.length; i++) {
+        fromStart[row.ids[i] + 1]++;
+      }
+    }
+    for (int to = 0; to < size; to++) {
+      fromStart[to + 1] += fromStart[to];
+    }
+    int[] from = new int[fromStart[size]];
+    double[] chances = new double[from.length];
+    int[] filled = Arrays.copyOf(fromStart, size);
+    for (int id = 0; id < size; id++) {
+      Row row = rows[id];
+      for (int i = 0; i < row.length; i++) {
+        from[filled[row.ids[i]]] = id;
+        chances[filled[row.ids[i]]++] = row.chances[i];
+      }
+    }
+    return iterate(home, fromStart, from, chances);
+  }
+
+  /**
+   * Runs the power iteration from a uniform distribution. Each iteration averages the
+   * distribution with its next step, which keeps the same stationary distribution but
+   * converges even on boards where the chain is periodic.
+   */
+  private LandingDistribution iterate(int home, int[] fromStart, int[] from, double[] chances) {
+    int size = fromStart.length - 1;
+    double[] current = new double[size];
+    double[] next = new double[size];
+    Arrays.fill(current, 1.0 / size);
+    int chunks = (size + CHUNK - 1) / CHUNK;
+    double[] changes = new double[chunks];
+    int iterations = 0;
+    double change = Double.MAX_VALUE;
+    while (change > tolerance && iterations < maxIterations) {
+      double[] read = current;
+      double[] write = next;
+      IntStream.range(0, chunks).parallel().forEach(chunk -> {
+        int end = Math.min(size, (chunk + 1) * CHUNK);
+        double chunkChange = 0;
+        for (int to = chunk * CHUNK; to < end; to++) {
+          double value = 0;
+          for (int i = fromStart[to]; i < fromStart[to + 1]; i++) {
+            value += read[from[i]] * chances[i];
+          }
+          write[to] = (read[to] + value) / 2;
+          chunkChange += Math.abs(write[to] - read[to]);
+        }
+        changes[chunk] = chunkChange;
+      });
+      change = 0;
+      for (double value : changes) {
+        change += value;
+      }
+      next = current;
+      current = write;
+      iterations++;
+    }
+    double total = 0;
+    for (double value : current) {
+      total += value;
+    }
+    for (int id = 0; id < size; id++) {
+      current[id] /= total;
+    }
+    return new LandingDistribution(board, home, current, iterations);
+  }
+
+  /**
+   * Returns the chances of ending a turn started on a panel on each panel of the board.
+   */
+  private Row transitionsFrom(int start, int home) {
+    Row row = new Row();
+    for (int roll = 1; roll <= DICE_FACES; roll++) {
+      walk(start, roll, 1.0 / DICE_FACES, home, row);
+    }
+    return row;
+  }
+
+  /**
+   * Adds to the row the chances of landing on each panel when moving from a panel.
+   * @param chance
+   *  chance of the movement getting this far
+   */
+  private void walk(int panel, int steps, double chance, int home, Row row) {
+    int count = board.getNextCount(panel);
+    if (count == 0) {
+      // Dead end, the player lands where they are.
+      row.add(panel, chance);
+      return;
+    }
+    double total = 0;
+    for (int k = 0; k < count; k++) {
+      total += Math.max(0, pathWeights.weight(panel, board.getNext(panel, k)));
+    }
+    for (int k = 0; k < count; k++) {
+      int next = board.getNext(panel, k);
+      double share;
+      if (count == 1) {
+        share = 1;
+      } else if (total > 0) {
+        share = Math.max(0, pathWeights.weight(panel, next)) / total;
+      } else {
+        share = 1.0 / count;
+      }
+      double reached = chance * share;
+      if (reached == 0) {
+        continue;
+      }
+      if (steps == 1) {
+        row.add(next, reached);
+      } else if (next == home) {
+        row.add(next, reached * homeStopChance);
+        walk(next, steps - 1, reached * (1 - homeStopChance), home, row);
+      } else {
+        walk(next, steps - 1, reached, home, row);
+      }
+    }
+  }
+
+  /**
+   * Chances of landing on each panel from one panel. A roll only reaches a few panels, so they
+   * are kept as a short list instead of a value for every panel of the board.
+   */
+  private static final class Row {
+    private int[] ids = new int[8];
+    private double[] chances = new double[8];
+    private int length;
+
+    void add(int id, double chance) {
+      for (int i = 0; i < length; i++) {
+        if (ids[i] == id) {
+          chances[i] += chance;
+          return;
+        }
+      }
+      if (length == ids.length) {
+        ids = Arrays.copyOf(ids, length * 2);
+        chances = Arrays.copyOf(chances, length * 2);
+      }
+      ids[length] = id;
+      chances[length++] = chance;
+    }
+  }
+
+  /**
+   * Returns the stars a player gets on average by landing on a panel: a d6 roll times the norma
+   * level, up to 3, on bonus panels and minus a d6 roll times the norma level on drop panels.
+   * Players can't go under 0 stars, which is left out.
+   * @param normaLevel
+   *  norma level of the player
+   */
+  public static double expectedStars(IPanel panel, int normaLevel) {
+    if (panel instanceof BonusPanel) {
+      return MEAN_ROLL * Math.min(normaLevel, 3);
+    }
+    if (panel instanceof DropPanel) {
+      return -MEAN_ROLL * normaLevel;
+    }
+    return 0;
+  }
+
+  /**
+   * Prints the landing chances on the practice board for each home, with the stars they give
+   * at norma level 1.
+   */
+  public static void main(String[] args) {
+    BoardTopology board = GameController.getPracticeBoard();
+    LandingAnalyzer analyzer = new LandingAnalyzer(board);
+    for (int id = 0; id < board.size(); id++) {
+      if (board.getPanel(id) instanceof HomePanel) {
+        long begin = System.nanoTime();
+        LandingDistribution distribution = analyzer.analyze(id);
+        System.out.printf("Home %d: %.3f stars per turn, %d iterations, %d us%n", id,
+            distribution.getExpectedStarIncome(1), distribution.getIterations(),
+            (System.nanoTime() - begin) / 1000);
+        System.out.println(distribution);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+
+/**
+ * Share of the turns a player ends on each panel of a board in the long run, as found by a
+ * {@link LandingAnalyzer}.
+ */
+public class LandingDistribution {
+  private final BoardTopology board;
+  private final int home;
+  private final double[] landing;
+  private final int iterations;
+
+  /**
+   * Creates a distribution.
+   * @param home
+   *  ID of the home panel of the player
+   * @param landing
+   *  share of the turns ended on each panel, by ID, adding up to 1
+   * @param iterations
+   *  iterations it took to find
+   */
+  public LandingDistribution(BoardTopology board, int home, double[] landing, int iterations) {
+    this.board = board;
+    this.home = home;
+    this.landing = landing.clone();
+    this.iterations = iterations;
+  }
+
+  public int getHome() {
+    return home;
+  }
+
+  public int size() {
+    return landing.length;
+  }
+
+  /**
+   * Returns the share of the turns ended on a panel.
+   */
+  public double getLanding(int id) {
+    return landing[id];
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Returns the ID of the panel landed on the most.
+   */
+  public int getMostLanded() {
+    int most = 0;
+    for (int id = 1; id < landing.length; id++) {
+      if (landing[id] > landing[most]) {
+        most = id;
+      }
+    }
+    return most;
+  }
+
+  /**
+   * Returns the stars a panel gives the player per turn on average, its landing share times the
+   * stars it gives on each landing.
+   * @param normaLevel
+   *  norma level of the player
+   */
+  public double getStarIncome(int id, int normaLevel) {
+    return landing[id] * LandingAnalyzer.expectedStars(board.getPanel(id), normaLevel);
+  }
+
+  /**
+   * Returns the stars the panels give the player per turn on average.
+   */
+  public double getExpectedStarIncome(int normaLevel) {
+    double income = 0;
+    for (int id = 0; id < landing.length; id++) {
+      income += getStarIncome(id, normaLevel);
+    }
+    return income;
+  }
+
+  /**
+   * Lists the landing share and star income, at norma level 1, of each panel.
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    for (int id = 0; id < landing.length; id++) {
+      text.append(String.format("%4d %-9s %7.4f %+8.4f%n", id,
+                                board.getPanel(id).getSpriteString(), landing[id],
+                                getStarIncome(id, 1)));
+    }
+    return text.toString();
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+/**
+ * Mean and variance of a stream of samples, kept up to date one sample at a time with
+ * Welford's method so no sample needs to be stored.
+ */
+public class RunningStat {
+  /**
+   * Normal quantile of a two-sided 95% confidence interval.
+   */
+  public static final double Z_95 = 1.959964;
+
+  private long count;
+  private double mean;
+  // Sum of squared differences from the current mean.
+  private double squares;
+
+  public RunningStat() {
+  }
+
+  /**
+   * Creates a stat with the samples of another one, later samples of either don't reach the
+   * other.
+   */
+  public RunningStat(RunningStat other) {
+    count = other.count;
+    mean = other.mean;
+    squares = other.squares;
+  }
+
+  public void add(double sample) {
+    count++;
+    double delta = sample - mean;
+    mean += delta / count;
+    squares += delta * (sample - mean);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the mean of the samples, 0 if there are none.
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the sample variance, 0 with less than two samples.
+   */
+  public double getVariance() {
+    return count < 2 ? 0 : squares / (count - 1);
+  }
+
+  /**
+   * Returns the half width of the confidence interval of the mean, infinite with less than two
+   * samples.
+   * @param z
+   *  normal quantile of the confidence level, like {@link #Z_95}
+   */
+  public double getHalfWidth(double z) {
+    return count < 2 ? Double.POSITIVE_INFINITY : z * Math.sqrt(getVariance() / count);
+  }
+
+  /**
+   * Returns the half width of the Wilson score interval of the mean, for samples that are either
+   * 0 or 1 (a proportion, like a win rate). Unlike {@link #getHalfWidth(double)} it doesn't
+   * shrink to 0 when every sample is the same, infinite with no samples.
+   * @param z
+   *  normal quantile of the confidence level, like {@link #Z_95}
+   */
+  public double getProportionHalfWidth(double z) {
+    if (count == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double spread = z * z / count;
+    return z / (1 + spread) * Math.sqrt(mean * (1 - mean) / count + spread / (4 * count));
+  }
+
+  /**
+   * Writes the mean and the 95% Wilson half width, for samples that are either 0 or 1.
+   */
+  public String toProportionString() {
+    return String.format("%.3f +/- %.3f", mean, getProportionHalfWidth(Z_95));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.3f +/- %.3f", mean, getHalfWidth(Z_95));
+  }
+}
@@ -0,0 +1,201 @@
+package com.github.cc3002.citricliquid.controller.bots;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.board.PanelOccupancy;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays the decisions of computer controlled seats on a {@link GameController}.
+ * <p>
+ * The driver looks at the current turn phase, asks the {@link IBotPolicy} of whoever has to
+ * decide and performs the same commands the GUI buttons perform, so bot decisions are
+ * recorded on the match log too.
+ */
+public class BotDriver {
+  /**
+   * Upper bound of decisions taken on a single turbo run, so a match that never ends can't
+   * freeze the caller.
+   */
+  public static final int MAX_DECISIONS_PER_RUN = 10000;
+
+  private final GameController controller;
+  private final IBotPolicy fallbackPolicy = new RandomBotPolicy();
+  // Players the turn owner can fight, filled again on every combat choice.
+  private final List<Player> targets = new ArrayList<>(4);
+
+  /**
+   * Creates a driver for a controller.
+   * @param controller
+   *  controller whose bot seats will be played
+   */
+  public BotDriver(GameController controller) {
+    this.controller = controller;
+  }
+
+  /**
+   * Tells whether the unit that has to take the next decision is computer controlled.
+   * @return
+   *  false if the game has ended or a human has to decide.
+   */
+  public boolean isBotTurn() {
+    if (controller.getGameEnded()) {
+      return false;
+    }
+    IUnit decider = controller.getCurrentDecider();
+    return !(decider instanceof Player) || controller.isBotControlled((Player) decider);
+  }
+
+  /**
+   * Takes the decision of the current phase.
+   * @return
+   *  false if there was nothing to do because a human has to decide or the game has ended.
+   */
+  public boolean step() {
+    if (!isBotTurn()) {
+      return false;
+    }
+    TurnState state = controller.getTurnState();
+    Player owner = controller.getTurnOwner();
+
+    if (state.isStartPhase()) {
+      controller.perform(GameCommand.BEGIN_TURN);
+    } else if (state.isRecoveryPhase()) {
+      controller.perform(GameCommand.RECOVERY_TRIAL);
+    } else if (state.isCardPickPhase()) {
+      controller.perform(GameCommand.USE_CARD);
+    } else if (state.isMovingPhase()) {
+      controller.perform(GameCommand.DO_MOVE);
+    } else if (state.isPathChoosePhase()) {
+      IPanel path = policyOf(owner).choosePath(controller, owner, owner.getCurrentPanel().getNextPanels());
+      controller.perform(GameCommand.CONTINUE_MOVING_THROUGH, controller.getPanelIndex(path));
+    } else if (state.isHomeStopChoosePhase()) {
+      if (policyOf(owner).stopAtHome(controller, owner)) {
+        controller.perform(GameCommand.STOP_AT_HOME);
+      } else {
+        controller.perform(GameCommand.CONTINUE_MOVING);
+      }
+    } else if (state.isCombatChoosePhase()) {
+      targets.clear();
+      PanelOccupancy occupancy = owner.getPanelOccupancy();
+      for (int seat = 0; seat < controller.getPlayerCount(); seat++) {
+        Player p = controller.getPlayer(seat);
+        if (p != owner && !p.isKOd() && occupancy.contains(p)) {
+          targets.add(p);
+        }
+      }
+      Player target = targets.isEmpty() ? null : policyOf(owner).chooseCombatTarget(controller, owner, targets);
+      if (target == null) {
+        controller.perform(GameCommand.CONTINUE_MOVING);
+      } else {
+        controller.perform(GameCommand.START_COMBAT, controller.getPlayerIndex(target));
+      }
+    } else if (state.isCombatResponseChoosePhase()) {
+      if (decidesToDefend(state)) {
+        controller.perform(GameCommand.DEFEND_AGAINST_COMBAT);
+      } else {
+        controller.perform(GameCommand.EVADE_AGAINST_COMBAT);
+      }
+    } else if (state.isCounterattackPhase()) {
+      controller.perform(GameCommand.START_COUNTERATTACK);
+    } else if (state.isCounterattackResponseChoosePhase()) {
+      if (decidesToDefend(state)) {
+        controller.perform(GameCommand.DEFEND_AGAINST_COUNTERATTACK);
+      } else {
+        controller.perform(GameCommand.EVADE_AGAINST_COUNTERATTACK);
+      }
+    } else if (state.isNormaPickPhase()) {
+      if (policyOf(owner).pickWinsNorma(controller, owner)) {
+        controller.perform(GameCommand.SELECT_WINS_NORMA);
+      } else {
+        controller.perform(GameCommand.SELECT_STARS_NORMA);
+      }
+    } else if (state.isEndPhase()) {
+      controller.perform(GameCommand.FINISH_TURN);
+    }
+    return true;
+  }
+
+  /**
+   * Keeps taking bot decisions headlessly until the boundary is crossed, a human has to decide
+   * or the game ends. The controller doesn't notify its observers while this runs, so they
+   * should redraw everything after it returns.
+   * @param boundary
+   *  point at which the run stops
+   * @return
+   *  amount of decisions taken.
+   */
+  public int runUntil(TurboBoundary boundary) {
+    boolean wasHeadless = controller.isHeadless();
+    controller.setHeadless(true);
+    int decisions = 0;
+    try {
+      int startChapter = controller.getChapter();
+      while (decisions < MAX_DECISIONS_PER_RUN && isBotTurn()) {
+        boolean endingTurn = controller.getTurnState().isEndPhase();
+        int normaBefore = normaLevelSum();
+        int knockedOutBefore = knockedOutCount();
+        step();
+        decisions++;
+
+        if (boundary == TurboBoundary.TURN && endingTurn) {
+          break;
+        }
+        if (boundary == TurboBoundary.CHAPTER && controller.getChapter() != startChapter) {
+          break;
+        }
+        if (boundary == TurboBoundary.NORMA_OR_KO
+            && (normaLevelSum() != normaBefore || knockedOutCount() > knockedOutBefore)) {
+          break;
+        }
+      }
+    } finally {
+      controller.setHeadless(wasHeadless);
+    }
+    return decisions;
+  }
+
+  /**
+   * Asks the target of the pending attack whether to defend or evade.
+   */
+  private boolean decidesToDefend(TurnState state) {
+    IUnit target = state.getTarget();
+    if (target instanceof Player) {
+      return policyOf((Player) target).defend(controller, (Player) target, state.getAttacker(),
+                                              state.getAttackValue());
+    }
+    return fallbackPolicy.defend(controller, null, state.getAttacker(), state.getAttackValue());
+  }
+
+  /**
+   * Returns the policy of a player, or a random one if the seat has none.
+   */
+  private IBotPolicy policyOf(Player player) {
+    IBotPolicy policy = controller.getBotPolicy(player);
+    return policy == null ? fallbackPolicy : policy;
+  }
+
+  private int normaLevelSum() {
+    int sum = 0;
+    for (int seat = 0; seat < controller.getPlayerCount(); seat++) {
+      sum += controller.getPlayer(seat).getNormaLevel();
+    }
+    return sum;
+  }
+
+  private int knockedOutCount() {
+    int count = 0;
+    for (int seat = 0; seat < controller.getPlayerCount(); seat++) {
+      if (controller.getPlayer(seat).isKOd()) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,55 @@
+package com.github.cc3002.citricliquid.controller.bots;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+
+import java.util.List;
+
+/**
+ * Decision maker for a computer controlled seat.
+ * <p>
+ * Each method answers one of the questions the GUI would otherwise ask the user, the
+ * {@link BotDriver} calls them according to the current turn phase.
+ */
+public interface IBotPolicy {
+
+  /**
+   * Should pick which one of the next panels to continue moving through.
+   * @param controller
+   *  controller running the match
+   * @param player
+   *  player standing on the path fork
+   * @param options
+   *  panels that can be picked
+   */
+  IPanel choosePath(GameController controller, Player player, List<IPanel> options);
+
+  /**
+   * Should return true if the player wants to stop at their home panel.
+   */
+  boolean stopAtHome(GameController controller, Player player);
+
+  /**
+   * Should pick a player to fight against, or null to keep moving without fighting.
+   * @param options
+   *  players on the same panel that can be attacked, only valid during the call since the
+   *  list is reused
+   */
+  Player chooseCombatTarget(GameController controller, Player player, List<Player> options);
+
+  /**
+   * Should return true to defend against an incoming attack, false to evade it.
+   * @param attacker
+   *  unit that's attacking
+   * @param attackValue
+   *  incoming damage value
+   */
+  boolean defend(GameController controller, Player player, IUnit attacker, int attackValue);
+
+  /**
+   * Should return true to pick a wins norma as the next goal, false to pick a stars norma.
+   */
+  boolean pickWinsNorma(GameController controller, Player player);
+}
@@ -0,0 +1,66 @@
+package com.github.cc3002.citricliquid.controller.bots;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bot policy that takes every decision uniformly at random.
+ */
+public class RandomBotPolicy implements IBotPolicy {
+  private final Random random;
+
+  /**
+   * Creates a random policy with a non-deterministic seed.
+   */
+  public RandomBotPolicy() {
+    random = new Random();
+  }
+
+  /**
+   * Creates a random policy with a fixed seed.
+   * @param seed
+   *  seed for the policy's random number generator
+   */
+  public RandomBotPolicy(long seed) {
+    random = new Random(seed);
+  }
+
+  /**
+   * Sets the seed of the policy's random number generator, so it takes the same decisions as a
+   * new policy created with that seed.
+   */
+  public void setSeed(long seed) {
+    random.setSeed(seed);
+  }
+
+  @Override
+  public IPanel choosePath(GameController controller, Player player, List<IPanel> options) {
+    return options.get(random.nextInt(options.size()));
+  }
+
+  @Override
+  public boolean stopAtHome(GameController controller, Player player) {
+    return random.nextBoolean();
+  }
+
+  @Override
+  public Player chooseCombatTarget(GameController controller, Player player, List<Player> options) {
+    int pick = random.nextInt(options.size() + 1);
+    return pick == options.size() ? null : options.get(pick);
+  }
+
+  @Override
+  public boolean defend(GameController controller, Player player, IUnit attacker, int attackValue) {
+    return random.nextBoolean();
+  }
+
+  @Override
+  public boolean pickWinsNorma(GameController controller, Player player) {
+    return random.nextBoolean();
+  }
+}
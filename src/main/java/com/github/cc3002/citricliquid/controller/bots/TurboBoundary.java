@@ -0,0 +1,19 @@
+package com.github.cc3002.citricliquid.controller.bots;
+
+/**
+ * Points at which a turbo run hands control back so the board can be redrawn.
+ */
+public enum TurboBoundary {
+  /**
+   * Stops after every finished turn.
+   */
+  TURN,
+  /**
+   * Stops when a new chapter begins.
+   */
+  CHAPTER,
+  /**
+   * Stops when any player clears a norma or gets knocked out.
+   */
+  NORMA_OR_KO
+}
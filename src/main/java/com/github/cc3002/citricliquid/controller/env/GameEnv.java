@@ -0,0 +1,459 @@
+package com.github.cc3002.citricliquid.controller.env;
+
+import com.github.cc3002.citricjuice.model.board.BonusPanel;
+import com.github.cc3002.citricjuice.model.board.BossPanel;
+import com.github.cc3002.citricjuice.model.board.DropPanel;
+import com.github.cc3002.citricjuice.model.board.EncounterPanel;
+import com.github.cc3002.citricjuice.model.board.HomePanel;
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.norma.WinsNorma;
+import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.IBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Gym-style environment over a match on the practice board, to train policies outside the GUI.
+ * <p>
+ * One seat, the learner, is played through {@link #step(int)}, and the other seats are played
+ * by bot policies. A step takes one decision of the learner (a path, whether to stop at home,
+ * whom to fight, how to answer an attack or which norma to pick) and then plays everything
+ * else, the learner's phases without a choice included, until the learner has to decide again
+ * or the match is over.
+ * <p>
+ * Observations are vectors of {@link #OBSERVATION_SIZE} floats and the legal actions are given
+ * as a mask of {@link #ACTIONS} booleans, worked out with {@link GameCommand#isLegalOn}. Both
+ * are written in place on arrays that are reused every step, which can be shared by many
+ * environments (see {@link VectorGameEnv}).
+ */
+public class GameEnv {
+  //region Actions
+
+  /**
+   * Keeps moving instead of stopping at home or fighting.
+   */
+  public static final int CONTINUE = 0;
+  public static final int STOP_AT_HOME = 1;
+  /**
+   * Defends against the pending attack or counterattack.
+   */
+  public static final int DEFEND = 2;
+  /**
+   * Evades the pending attack or counterattack.
+   */
+  public static final int EVADE = 3;
+  public static final int STARS_NORMA = 4;
+  public static final int WINS_NORMA = 5;
+  /**
+   * Options told apart on a path fork, forks with more of them can't take the extra ones.
+   */
+  public static final int MAX_PATHS = 4;
+  /**
+   * First of the path actions: PATH + i goes through the i-th next panel.
+   */
+  public static final int PATH = 6;
+  public static final int SEATS = 4;
+  /**
+   * First of the combat actions: ATTACK + seat fights the player on that seat.
+   */
+  public static final int ATTACK = PATH + MAX_PATHS;
+  public static final int ACTIONS = ATTACK + SEATS;
+
+  //endregion
+
+  //region Observation layout
+
+  /**
+   * One-hot of the decision to take: path, home stop, combat, combat response, counterattack
+   * response and norma pick.
+   */
+  public static final int OBS_DECISION = 0;
+  /**
+   * Steps left and incoming attack value.
+   */
+  public static final int OBS_STEPS = 6;
+  public static final int OBS_ATTACK_VALUE = 7;
+  /**
+   * One-hot of the kind of attacker: player, wild unit or boss unit.
+   */
+  public static final int OBS_ATTACKER = 8;
+  public static final int OBS_CHAPTER = 11;
+  /**
+   * Features of each player, the learner first and then the following seats: HP ratio, stars,
+   * wins, norma level, whether the goal is wins, progress towards the goal, recovery left, x,
+   * y, attack, defense and evasion.
+   */
+  public static final int OBS_PLAYERS = 12;
+  public static final int PLAYER_FEATURES = 12;
+  /**
+   * One-hot of the kind of each next panel of a fork: bonus, boss, drop, encounter, home and
+   * neutral.
+   */
+  public static final int OBS_PATHS = OBS_PLAYERS + SEATS * PLAYER_FEATURES;
+  public static final int PANEL_KINDS = 6;
+  public static final int OBSERVATION_SIZE = OBS_PATHS + MAX_PATHS * PANEL_KINDS;
+
+  //endregion
+
+  /**
+   * Reward for winning the match, losing it gives the opposite.
+   */
+  public static final float WIN_REWARD = 1f;
+  /**
+   * Reward for each norma level the learner clears.
+   */
+  public static final float NORMA_REWARD = 0.1f;
+  /**
+   * Chapters played before a match that doesn't end is cut.
+   */
+  public static final int DEFAULT_MAX_CHAPTERS = 100;
+
+  private final GameController controller = new GameController();
+  private final BotDriver driver = new BotDriver(controller);
+  private final IBotPolicy[] policies = new IBotPolicy[SEATS];
+  private final GameSnapshot start;
+  private final Player learner;
+  private final int learnerSeat;
+  private int maxChapters = DEFAULT_MAX_CHAPTERS;
+  private boolean done = true;
+  private int normaLevel;
+
+  private final float[] observations;
+  private final int observationOffset;
+  private final boolean[] masks;
+  private final int maskOffset;
+
+  /**
+   * Creates an environment where the learner plays the first seat.
+   */
+  public GameEnv() {
+    this(0);
+  }
+
+  /**
+   * Creates an environment.
+   * @param learnerSeat
+   *  seat played through step(), the rest are played by random policies
+   */
+  public GameEnv(int learnerSeat) {
+    this(learnerSeat, new float[OBSERVATION_SIZE], new boolean[ACTIONS], 0);
+  }
+
+  /**
+   * Creates an environment that writes its observation and action mask on shared arrays.
+   * @param index
+   *  position of this environment on the arrays
+   */
+  GameEnv(int learnerSeat, float[] observations, boolean[] masks, int index) {
+    this.observations = observations;
+    this.masks = masks;
+    observationOffset = index * OBSERVATION_SIZE;
+    maskOffset = index * ACTIONS;
+    this.learnerSeat = learnerSeat;
+    controller.setHeadless(true);
+    controller.newGame();
+    learner = controller.getPlayer(learnerSeat);
+    for (int seat = 0; seat < SEATS; seat++) {
+      if (seat != learnerSeat) {
+        setOpponentPolicy(seat, new RandomBotPolicy());
+      }
+    }
+    start = GameSnapshot.capture(controller);
+  }
+
+  /**
+   * Sets the policy that plays one of the other seats. Random policies get a new seed on every
+   * reset.
+   */
+  public void setOpponentPolicy(int seat, IBotPolicy policy) {
+    if (seat == learnerSeat) {
+      throw new IllegalArgumentException("The learner's seat is played through step().");
+    }
+    policies[seat] = policy;
+    controller.setBotPolicy(controller.getPlayer(seat), policy);
+  }
+
+  /**
+   * Sets the amount of chapters after which a match that didn't end is over.
+   */
+  public void setMaxChapters(int value) {
+    maxChapters = value;
+  }
+
+  /**
+   * Starts a new match and plays it until the learner's first decision.
+   * @param seed
+   *  seed of the dice and the random opponents, the same seed and actions play the same match
+   * @return
+   *  the observation, on an array that's reused every step
+   */
+  public float[] reset(long seed) {
+    start.restore(controller);
+    controller.setSeed(seed);
+    for (int seat = 0; seat < SEATS; seat++) {
+      if (policies[seat] instanceof RandomBotPolicy) {
+        ((RandomBotPolicy) policies[seat]).setSeed(seed ^ (seat + 1) * 0x9E3779B97F4A7C15L);
+      }
+    }
+    done = false;
+    normaLevel = learner.getNormaLevel();
+    advance();
+    observe();
+    return observations;
+  }
+
+  /**
+   * Takes a decision of the learner and plays until the next one. The new observation and
+   * action mask are left on their arrays.
+   * @param action
+   *  one of the legal actions of the mask
+   * @return
+   *  the reward for the action: the norma levels cleared since the last decision and, if the
+   *  match ended, whether the learner won it.
+   * @throws IllegalStateException
+   *  if the match is over.
+   * @throws IllegalArgumentException
+   *  if the action isn't legal.
+   */
+  public float step(int action) {
+    if (done) {
+      throw new IllegalStateException("The match is over, it has to be reset.");
+    }
+    if (!isLegal(action)) {
+      throw new IllegalArgumentException("Action " + action + " isn't legal now.");
+    }
+    controller.perform(commandOf(action), argumentOf(action));
+    advance();
+    float reward = NORMA_REWARD * (learner.getNormaLevel() - normaLevel);
+    normaLevel = learner.getNormaLevel();
+    if (controller.getGameEnded()) {
+      reward += controller.getWinner() == learner ? WIN_REWARD : -WIN_REWARD;
+    }
+    observe();
+    return reward;
+  }
+
+  /**
+   * Tells whether the match is over, because somebody won or it was cut.
+   */
+  public boolean isDone() {
+    return done;
+  }
+
+  /**
+   * Returns the array the observations are written on. Shared environments write on a part of
+   * it, from {@link #getObservationOffset()}.
+   */
+  public float[] getObservation() {
+    return observations;
+  }
+
+  public int getObservationOffset() {
+    return observationOffset;
+  }
+
+  /**
+   * Returns the array the legal actions are written on, true for the legal ones. Shared
+   * environments write on a part of it, from {@link #getMaskOffset()}.
+   */
+  public boolean[] getActionMask() {
+    return masks;
+  }
+
+  public int getMaskOffset() {
+    return maskOffset;
+  }
+
+  /**
+   * Returns the controller running the match, to look at it.
+   */
+  public GameController getController() {
+    return controller;
+  }
+
+  /**
+   * Tells whether an action can be taken now.
+   */
+  public boolean isLegal(int action) {
+    if (done || action < 0 || action >= ACTIONS) {
+      return false;
+    }
+    GameCommand command = commandOf(action);
+    return command != null && command.isLegalOn(controller, argumentOf(action));
+  }
+
+  /**
+   * Plays the bots and the learner's phases without a choice until the learner has to decide
+   * or the match is over.
+   */
+  private void advance() {
+    while (true) {
+      if (controller.getGameEnded() || controller.getChapter() > maxChapters) {
+        done = true;
+        return;
+      }
+      IUnit decider = controller.getCurrentDecider();
+      if (decider == learner) {
+        GameCommand command = automaticCommand(controller.getTurnState());
+        if (command == null) {
+          return;
+        }
+        controller.perform(command);
+      } else if (!driver.step()) {
+        throw new IllegalStateException("Seat " + controller.getPlayerIndex((Player) decider)
+            + " has no policy.");
+      }
+    }
+  }
+
+  /**
+   * Returns the command the learner performs on a phase without a choice, null if it has to
+   * decide.
+   */
+  private static GameCommand automaticCommand(TurnState state) {
+    if (state.isStartPhase()) {
+      return GameCommand.BEGIN_TURN;
+    }
+    if (state.isRecoveryPhase()) {
+      return GameCommand.RECOVERY_TRIAL;
+    }
+    if (state.isCardPickPhase()) {
+      return GameCommand.USE_CARD;
+    }
+    if (state.isMovingPhase()) {
+      return GameCommand.DO_MOVE;
+    }
+    if (state.isCounterattackPhase()) {
+      return GameCommand.START_COUNTERATTACK;
+    }
+    if (state.isEndPhase()) {
+      return GameCommand.FINISH_TURN;
+    }
+    return null;
+  }
+
+  private GameCommand commandOf(int action) {
+    TurnState state = controller.getTurnState();
+    switch (action) {
+      case CONTINUE:
+        return GameCommand.CONTINUE_MOVING;
+      case STOP_AT_HOME:
+        return GameCommand.STOP_AT_HOME;
+      case DEFEND:
+        return state.isCounterattackResponseChoosePhase()
+            ? GameCommand.DEFEND_AGAINST_COUNTERATTACK : GameCommand.DEFEND_AGAINST_COMBAT;
+      case EVADE:
+        return state.isCounterattackResponseChoosePhase()
+            ? GameCommand.EVADE_AGAINST_COUNTERATTACK : GameCommand.EVADE_AGAINST_COMBAT;
+      case STARS_NORMA:
+        return GameCommand.SELECT_STARS_NORMA;
+      case WINS_NORMA:
+        return GameCommand.SELECT_WINS_NORMA;
+      default:
+        return action < ATTACK ? GameCommand.CONTINUE_MOVING_THROUGH : GameCommand.START_COMBAT;
+    }
+  }
+
+  private int argumentOf(int action) {
+    if (action >= ATTACK) {
+      return action - ATTACK;
+    }
+    if (action >= PATH) {
+      List<IPanel> options = learner.getCurrentPanel().getNextPanels();
+      int option = action - PATH;
+      return option < options.size() ? controller.getPanelIndex(options.get(option)) : -1;
+    }
+    return 0;
+  }
+
+  /**
+   * Writes the observation and the action mask of the current state.
+   */
+  private void observe() {
+    Arrays.fill(observations, observationOffset, observationOffset + OBSERVATION_SIZE, 0f);
+    for (int action = 0; action < ACTIONS; action++) {
+      masks[maskOffset + action] = isLegal(action);
+    }
+    if (done) {
+      return;
+    }
+    int o = observationOffset;
+    TurnState state = controller.getTurnState();
+    if (state.isPathChoosePhase()) {
+      observations[o + OBS_DECISION] = 1f;
+    } else if (state.isHomeStopChoosePhase()) {
+      observations[o + OBS_DECISION + 1] = 1f;
+    } else if (state.isCombatChoosePhase()) {
+      observations[o + OBS_DECISION + 2] = 1f;
+    } else if (state.isCombatResponseChoosePhase()) {
+      observations[o + OBS_DECISION + 3] = 1f;
+    } else if (state.isCounterattackResponseChoosePhase()) {
+      observations[o + OBS_DECISION + 4] = 1f;
+    } else if (state.isNormaPickPhase()) {
+      observations[o + OBS_DECISION + 5] = 1f;
+    }
+    if (state.isPathChoosePhase() || state.isHomeStopChoosePhase() || state.isCombatChoosePhase()) {
+      observations[o + OBS_STEPS] = state.getSteps() / 6f;
+    }
+    if (state.isCombatResponseChoosePhase() || state.isCounterattackResponseChoosePhase()) {
+      observations[o + OBS_ATTACK_VALUE] = state.getAttackValue() / 10f;
+      IUnit attacker = state.getAttacker();
+      int kind = attacker instanceof Player ? 0 : attacker instanceof BossUnit ? 2 : 1;
+      observations[o + OBS_ATTACKER + kind] = 1f;
+    }
+    observations[o + OBS_CHAPTER] = controller.getChapter() / (float) maxChapters;
+    for (int i = 0; i < SEATS; i++) {
+      writePlayer(controller.getPlayer((learnerSeat + i) % SEATS), o + OBS_PLAYERS + i * PLAYER_FEATURES);
+    }
+    if (state.isPathChoosePhase()) {
+      List<IPanel> options = learner.getCurrentPanel().getNextPanels();
+      for (int i = 0; i < Math.min(options.size(), MAX_PATHS); i++) {
+        observations[o + OBS_PATHS + i * PANEL_KINDS + kindOf(options.get(i))] = 1f;
+      }
+    }
+  }
+
+  private void writePlayer(Player player, int o) {
+    int requirement = player.getNormaGoal().getRequirement();
+    boolean winsGoal = player.getNormaGoal() instanceof WinsNorma;
+    int progress = winsGoal ? player.getWins() : player.getStars();
+    IPanel panel = player.getCurrentPanel();
+    observations[o] = player.getCurrentHP() / (float) player.getMaxHP();
+    observations[o + 1] = player.getStars() / 100f;
+    observations[o + 2] = player.getWins() / 10f;
+    observations[o + 3] = player.getNormaLevel() / 6f;
+    observations[o + 4] = winsGoal ? 1f : 0f;
+    observations[o + 5] = Math.min(1f, progress / (float) requirement);
+    observations[o + 6] = player.getRecoveryLeft() / 6f;
+    observations[o + 7] = panel.getX() / 8f;
+    observations[o + 8] = panel.getY() / 8f;
+    observations[o + 9] = player.getAtk() / 3f;
+    observations[o + 10] = player.getDef() / 3f;
+    observations[o + 11] = player.getEvd() / 3f;
+  }
+
+  private static int kindOf(IPanel panel) {
+    if (panel instanceof BonusPanel) {
+      return 0;
+    }
+    if (panel instanceof BossPanel) {
+      return 1;
+    }
+    if (panel instanceof DropPanel) {
+      return 2;
+    }
+    if (panel instanceof EncounterPanel) {
+      return 3;
+    }
+    return panel instanceof HomePanel ? 4 : 5;
+  }
+}
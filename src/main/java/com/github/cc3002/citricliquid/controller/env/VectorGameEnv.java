@@ -0,0 +1,185 @@
+package com.github.cc3002.citricliquid.controller.env;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Many {@link GameEnv}s stepped together, for training on batches of matches.
+ * <p>
+ * Observations, action masks, rewards and whether each match ended are kept on primitive arrays
+ * shared by every environment, environment i using the part starting at i times the size of
+ * one entry. A step takes one action per environment and runs the environments in parallel on
+ * chunks. A match that ends is reset right away with a new seed, so its observation is already
+ * the one of the next match and only its reward and done flag tell about the one that ended.
+ */
+public class VectorGameEnv {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private static final int CHUNK = 64;
+
+  private final GameEnv[] envs;
+  private final long[] seeds;
+  private final float[] observations;
+  private final boolean[] actionMasks;
+  private final float[] rewards;
+  private final boolean[] dones;
+
+  /**
+   * Creates the environments, with the learner on the first seat.
+   * @param count
+   *  amount of environments
+   */
+  public VectorGameEnv(int count) {
+    envs = new GameEnv[count];
+    seeds = new long[count];
+    observations = new float[count * GameEnv.OBSERVATION_SIZE];
+    actionMasks = new boolean[count * GameEnv.ACTIONS];
+    rewards = new float[count];
+    dones = new boolean[count];
+    for (int i = 0; i < count; i++) {
+      envs[i] = new GameEnv(0, observations, actionMasks, i);
+    }
+  }
+
+  public int size() {
+    return envs.length;
+  }
+
+  /**
+   * Returns one of the environments, to set it up or look at its match.
+   */
+  public GameEnv get(int index) {
+    return envs[index];
+  }
+
+  /**
+   * Starts a new match on every environment.
+   * @param seed
+   *  seed from which the seeds of every match are drawn, the same seed and actions play the
+   *  same matches
+   * @return
+   *  the observations, on an array that's reused every step
+   */
+  public float[] reset(long seed) {
+    for (int i = 0; i < envs.length; i++) {
+      seeds[i] = mix(seed + (i + 1) * GOLDEN_GAMMA);
+    }
+    forEachChunk(i -> {
+      envs[i].reset(nextSeed(i));
+      rewards[i] = 0;
+      dones[i] = false;
+    });
+    return observations;
+  }
+
+  /**
+   * Takes an action on every environment and plays until each one has a decision again,
+   * resetting the ones whose match ended.
+   * @param actions
+   *  one legal action for each environment
+   * @throws IllegalArgumentException
+   *  if an action isn't legal.
+   */
+  public void step(int[] actions) {
+    if (actions.length != envs.length) {
+      throw new IllegalArgumentException("Expected " + envs.length + " actions.");
+    }
+    forEachChunk(i -> {
+      GameEnv env = envs[i];
+      rewards[i] = env.step(actions[i]);
+      dones[i] = env.isDone();
+      if (dones[i]) {
+        env.reset(nextSeed(i));
+      }
+    });
+  }
+
+  private long nextSeed(int index) {
+    return mix(seeds[index] += GOLDEN_GAMMA);
+  }
+
+  private void forEachChunk(IntConsumer action) {
+    int chunks = (envs.length + CHUNK - 1) / CHUNK;
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      int end = Math.min(envs.length, (chunk + 1) * CHUNK);
+      for (int i = chunk * CHUNK; i < end; i++) {
+        action.accept(i);
+      }
+    });
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns the observations of every environment, {@link GameEnv#OBSERVATION_SIZE} floats
+   * each.
+   */
+  public float[] getObservations() {
+    return observations;
+  }
+
+  /**
+   * Returns the legal actions of every environment, {@link GameEnv#ACTIONS} booleans each.
+   */
+  public boolean[] getActionMasks() {
+    return actionMasks;
+  }
+
+  /**
+   * Returns the rewards of the last step.
+   */
+  public float[] getRewards() {
+    return rewards;
+  }
+
+  /**
+   * Returns which environments finished a match on the last step.
+   */
+  public boolean[] getDones() {
+    return dones;
+  }
+
+  /**
+   * Plays random legal actions on a batch of environments and prints the steps per second.
+   * @param args
+   *  amount of environments, 1024 if not given, and steps of each, 1000 if not given
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+    int steps = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    VectorGameEnv env = new VectorGameEnv(count);
+    env.reset(System.nanoTime());
+    int[] actions = new int[count];
+    long[] picks = new long[count];
+    long start = System.nanoTime();
+    long matches = 0;
+    for (int step = 0; step < steps; step++) {
+      for (int i = 0; i < count; i++) {
+        actions[i] = randomLegal(env.actionMasks, i * GameEnv.ACTIONS, mix(++picks[i] + i));
+      }
+      env.step(actions);
+      for (boolean done : env.dones) {
+        matches += done ? 1 : 0;
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%d steps and %d matches in %d ms, %.0f steps/s%n", (long) count * steps,
+        matches, elapsed / 1000000, count * (double) steps * 1e9 / elapsed);
+  }
+
+  private static int randomLegal(boolean[] masks, int offset, long random) {
+    int legal = 0;
+    for (int action = 0; action < GameEnv.ACTIONS; action++) {
+      legal += masks[offset + action] ? 1 : 0;
+    }
+    int pick = (int) Long.remainderUnsigned(random, legal);
+    for (int action = 0; ; action++) {
+      if (masks[offset + action] && pick-- == 0) {
+        return action;
+      }
+    }
+  }
+}
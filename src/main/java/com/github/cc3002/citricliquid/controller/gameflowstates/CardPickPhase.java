@@ -4,7 +4,7 @@ public class CardPickPhase extends TurnPhase {
 
   @Override
   public void movingPhase(int steps) {
-    changeTurnPhase(new MovingPhase(steps));
+    changeTurnPhase(state().moving(steps));
   }
 
   @Override
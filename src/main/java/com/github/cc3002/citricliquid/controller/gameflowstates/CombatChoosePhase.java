@@ -16,12 +16,12 @@ public class CombatChoosePhase extends TurnPhase {
 
   @Override
   public void movingPhase(int steps) {
-    changeTurnPhase(new MovingPhase(steps));
+    changeTurnPhase(state().moving(steps));
   }
 
   @Override
   public void combatResponseChoosePhase(IUnit attacker, int attackValue, IUnit target) {
-    changeTurnPhase(new CombatResponseChoosePhase(attacker, attackValue, target));
+    changeTurnPhase(state().combatResponseChoose(attacker, attackValue, target));
   }
 
   @Override
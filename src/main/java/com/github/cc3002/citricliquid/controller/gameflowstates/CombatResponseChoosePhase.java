@@ -16,12 +16,12 @@ public class CombatResponseChoosePhase extends TurnPhase {
 
   @Override
   public void endPhase() {
-    changeTurnPhase(new EndPhase());
+    changeTurnPhase(state().end());
   }
 
   @Override
   public void counterattackPhase(IUnit attacker) {
-    changeTurnPhase(new CounterattackPhase(attacker));
+    changeTurnPhase(state().counterattack(attacker));
   }
 
   @Override
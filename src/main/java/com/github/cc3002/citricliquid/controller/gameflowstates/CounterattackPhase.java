@@ -16,7 +16,7 @@ public class CounterattackPhase extends TurnPhase {
 
   @Override
   public void counterattackResponseChoosePhase(IUnit attacker, int attackValue, IUnit target) {
-    changeTurnPhase(new CounterattackResponseChoosePhase(attacker, attackValue, target));
+    changeTurnPhase(state().counterattackResponseChoose(attacker, attackValue, target));
   }
 
   @Override
@@ -16,7 +16,7 @@ public class CounterattackResponseChoosePhase extends TurnPhase {
 
   @Override
   public void endPhase() {
-    changeTurnPhase(new EndPhase());
+    changeTurnPhase(state().end());
   }
 
   public IUnit getAttacker() {
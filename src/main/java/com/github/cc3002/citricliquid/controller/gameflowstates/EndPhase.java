@@ -4,7 +4,7 @@ public class EndPhase extends TurnPhase {
 
   @Override
   public void startPhase() {
-    changeTurnPhase(new StartPhase());
+    changeTurnPhase(state().start());
   }
 
   @Override
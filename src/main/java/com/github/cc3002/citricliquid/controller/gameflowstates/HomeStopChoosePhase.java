@@ -12,14 +12,14 @@ public class HomeStopChoosePhase extends TurnPhase {
   }
   @Override
   public void movingPhase(int steps) {
-    changeTurnPhase(new MovingPhase(steps));
+    changeTurnPhase(state().moving(steps));
   }
 
   @Override
-  public void endPhase() { changeTurnPhase(new EndPhase()); }
+  public void endPhase() { changeTurnPhase(state().end()); }
 
   @Override
-  public void normaPickPhase() { changeTurnPhase(new NormaPickPhase()); }
+  public void normaPickPhase() { changeTurnPhase(state().normaPick()); }
 
   @Override
   public boolean isHomeStopChoosePhase() {
@@ -1,5 +1,7 @@
 package com.github.cc3002.citricliquid.controller.gameflowstates;
 
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+
 public class MovingPhase extends TurnPhase {
   int steps;
 
@@ -19,27 +21,34 @@ public class MovingPhase extends TurnPhase {
 
   @Override
   public void homeStopChoosePhase(int steps) {
-    changeTurnPhase(new HomeStopChoosePhase(steps));
+    changeTurnPhase(state().homeStopChoose(steps));
   }
 
   @Override
   public void normaPickPhase() {
-    changeTurnPhase(new NormaPickPhase());
+    changeTurnPhase(state().normaPick());
   }
 
   @Override
   public void pathChoosePhase(int steps) {
-    changeTurnPhase(new PathChoosePhase(steps));
+    changeTurnPhase(state().pathChoose(steps));
   }
 
   @Override
   public void combatChoosePhase(int steps) {
-    changeTurnPhase(new CombatChoosePhase(steps));
+    changeTurnPhase(state().combatChoose(steps));
+  }
+
+  // Encounters with computer controlled units resolve the first attack on their own, so the
+  // turn goes straight to the player's response to the counterattack.
+  @Override
+  public void counterattackResponseChoosePhase(IUnit attacker, int attackValue, IUnit target) {
+    changeTurnPhase(state().counterattackResponseChoose(attacker, attackValue, target));
   }
 
   @Override
   public void endPhase() {
-    changeTurnPhase(new EndPhase());
+    changeTurnPhase(state().end());
   }
 
   @Override
@@ -4,7 +4,7 @@ public class NormaPickPhase extends TurnPhase {
 
   @Override
   public void endPhase() {
-    changeTurnPhase(new EndPhase());
+    changeTurnPhase(state().end());
   }
 
   @Override
@@ -15,7 +15,7 @@ public class PathChoosePhase extends TurnPhase {
 
   @Override
   public void movingPhase(int steps) {
-    changeTurnPhase(new MovingPhase(steps));
+    changeTurnPhase(state().moving(steps));
   }
 
   @Override
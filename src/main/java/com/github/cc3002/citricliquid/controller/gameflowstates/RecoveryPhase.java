@@ -3,11 +3,11 @@ package com.github.cc3002.citricliquid.controller.gameflowstates;
 public class RecoveryPhase extends TurnPhase {
 
   public void cardPickPhase() {
-    changeTurnPhase(new CardPickPhase());
+    changeTurnPhase(state().cardPick());
   }
 
   public void endPhase() {
-    changeTurnPhase(new EndPhase());
+    changeTurnPhase(state().end());
   }
 
   @Override
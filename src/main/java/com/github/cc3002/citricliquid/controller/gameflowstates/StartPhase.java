@@ -4,11 +4,11 @@ public class StartPhase extends TurnPhase {
 
   @Override
   public void cardPickPhase() {
-    changeTurnPhase(new CardPickPhase());
+    changeTurnPhase(state().cardPick());
   }
 
   @Override
-  public void recoveryPhase() { changeTurnPhase(new RecoveryPhase()); }
+  public void recoveryPhase() { changeTurnPhase(state().recovery()); }
 
   @Override
   public boolean isStartPhase() {
@@ -16,6 +16,13 @@ public class TurnPhase {
     this.state = state;
   }
 
+  /**
+   * Returns the TurnState object linked to this phase.
+   */
+  TurnState state() {
+    return state;
+  }
+
   /**
    * Changes the phase by calling the state's manager method.
    * @param phase
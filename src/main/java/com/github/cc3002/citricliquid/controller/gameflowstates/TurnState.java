@@ -1,12 +1,33 @@
 package com.github.cc3002.citricliquid.controller.gameflowstates;
 
+import com.github.cc3002.citricjuice.model.ZobristHash;
 import com.github.cc3002.citricjuice.model.unit.IUnit;
 
 public class TurnState {
   TurnPhase phase;
+  // Hash of the match, and the keys of the current phase that are on it.
+  private ZobristHash hash;
+  private long hashedKeys;
+
+  // One instance of each phase, reused every time the turn goes through it so transitions
+  // don't create objects.
+  private final StartPhase start = new StartPhase();
+  private final RecoveryPhase recovery = new RecoveryPhase();
+  private final CardPickPhase cardPick = new CardPickPhase();
+  private final MovingPhase moving = new MovingPhase(-1);
+  private final PathChoosePhase pathChoose = new PathChoosePhase(0);
+  private final HomeStopChoosePhase homeStopChoose = new HomeStopChoosePhase(0);
+  private final CombatChoosePhase combatChoose = new CombatChoosePhase(0);
+  private final CombatResponseChoosePhase combatResponseChoose =
+      new CombatResponseChoosePhase(null, 0, null);
+  private final CounterattackPhase counterattack = new CounterattackPhase(null);
+  private final CounterattackResponseChoosePhase counterattackResponseChoose =
+      new CounterattackResponseChoosePhase(null, 0, null);
+  private final NormaPickPhase normaPick = new NormaPickPhase();
+  private final EndPhase end = new EndPhase();
 
   public TurnState() {
-    this.setTurnPhase(new StartPhase());
+    this.setTurnPhase(start);
   }
 
   /**
@@ -17,6 +38,112 @@ public class TurnState {
   public void setTurnPhase(TurnPhase phase) {
     this.phase = phase;
     phase.setTurnState(this);
+    refreshHash();
+  }
+
+  //region Phases of this state, set up with the values they carry
+
+  StartPhase start() {
+    return start;
+  }
+
+  RecoveryPhase recovery() {
+    return recovery;
+  }
+
+  CardPickPhase cardPick() {
+    return cardPick;
+  }
+
+  MovingPhase moving(int steps) {
+    moving.steps = steps;
+    return moving;
+  }
+
+  PathChoosePhase pathChoose(int steps) {
+    pathChoose.steps = steps;
+    return pathChoose;
+  }
+
+  HomeStopChoosePhase homeStopChoose(int steps) {
+    homeStopChoose.steps = steps;
+    return homeStopChoose;
+  }
+
+  CombatChoosePhase combatChoose(int steps) {
+    combatChoose.steps = steps;
+    return combatChoose;
+  }
+
+  CombatResponseChoosePhase combatResponseChoose(IUnit attacker, int attackValue, IUnit target) {
+    combatResponseChoose.attacker = attacker;
+    combatResponseChoose.attackValue = attackValue;
+    combatResponseChoose.target = target;
+    return combatResponseChoose;
+  }
+
+  CounterattackPhase counterattack(IUnit attacker) {
+    counterattack.counterattacker = attacker;
+    return counterattack;
+  }
+
+  CounterattackResponseChoosePhase counterattackResponseChoose(IUnit attacker, int attackValue,
+                                                               IUnit target) {
+    counterattackResponseChoose.attacker = attacker;
+    counterattackResponseChoose.attackValue = attackValue;
+    counterattackResponseChoose.target = target;
+    return counterattackResponseChoose;
+  }
+
+  NormaPickPhase normaPick() {
+    return normaPick;
+  }
+
+  EndPhase end() {
+    return end;
+  }
+
+  //endregion
+
+  /**
+   * Makes the current phase part of a match's hash, following every transition after this.
+   * @param hash
+   *  hash of the match
+   */
+  public void attachHash(ZobristHash hash) {
+    detachHash();
+    this.hash = hash;
+    refreshHash();
+  }
+
+  /**
+   * Removes the current phase from the hash it was attached to, if any.
+   */
+  public void detachHash() {
+    if (hash != null) {
+      hash.xor(hashedKeys);
+      hashedKeys = 0;
+      hash = null;
+    }
+  }
+
+  /**
+   * Replaces the keys of the previous phase on the hash with the ones of the current phase.
+   */
+  private void refreshHash() {
+    if (hash == null) {
+      return;
+    }
+    long keys = ZobristHash.key(ZobristHash.PHASE_SLOT, ZobristHash.PHASE_KIND,
+        phase.getClass().getSimpleName().hashCode());
+    if (isMovingPhase() || isPathChoosePhase() || isCombatChoosePhase() || isHomeStopChoosePhase()) {
+      keys ^= ZobristHash.key(ZobristHash.PHASE_SLOT, ZobristHash.STEPS, phase.getSteps());
+    }
+    if (isCombatResponseChoosePhase() || isCounterattackResponseChoosePhase()) {
+      keys ^= ZobristHash.key(ZobristHash.PHASE_SLOT, ZobristHash.ATTACK_VALUE, phase.getAttackValue());
+    }
+    hash.xor(hashedKeys ^ keys);
+    hashedKeys = keys;
   }
 
   /**
@@ -108,7 +235,10 @@ public class TurnState {
    * @return
    *    amount of pending steps.
    */
-  public void setSteps(int steps) { phase.setSteps(steps); }
+  public void setSteps(int steps) {
+    phase.setSteps(steps);
+    refreshHash();
+  }
 
   /**
    * Getter method to access the target reference
@@ -0,0 +1,155 @@
+package com.github.cc3002.citricliquid.controller.replay;
+
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
+
+/**
+ * Enumeration of the decisions a user (or a bot) can take on a match.
+ * <p>
+ * Each command is applied by calling the corresponding controller method, the commands that
+ * need a reference receive it as an integer argument: the index of the panel on the
+ * controller's panel list or the index of the player on the player list.
+ */
+public enum GameCommand {
+  BEGIN_TURN {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.beginTurn(); }
+  },
+  RECOVERY_TRIAL {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.recoveryTrial(); }
+  },
+  USE_CARD {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.useCard(); }
+  },
+  DO_MOVE {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.doMove(); }
+  },
+  CONTINUE_MOVING_THROUGH {
+    @Override
+    public void applyTo(GameController controller, int argument) {
+      controller.continueMovingThrough(controller.getRegistry().getPanel(argument));
+    }
+  },
+  STOP_AT_HOME {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.stopAtHome(); }
+  },
+  CONTINUE_MOVING {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.continueMoving(); }
+  },
+  START_COMBAT {
+    @Override
+    public void applyTo(GameController controller, int argument) {
+      controller.startCombat(controller.getPlayer(argument));
+    }
+  },
+  DEFEND_AGAINST_COMBAT {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.defendAgainstCombat(); }
+  },
+  EVADE_AGAINST_COMBAT {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.evadeAgainstCombat(); }
+  },
+  START_COUNTERATTACK {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.startCounterAttack(); }
+  },
+  DEFEND_AGAINST_COUNTERATTACK {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.defendAgainstCounterattack(); }
+  },
+  EVADE_AGAINST_COUNTERATTACK {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.evadeAgainstCounterattack(); }
+  },
+  SELECT_WINS_NORMA {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.selectWinsNorma(); }
+  },
+  SELECT_STARS_NORMA {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.selectStarsNorma(); }
+  },
+  FINISH_TURN {
+    @Override
+    public void applyTo(GameController controller, int argument) { controller.finishTurn(); }
+  };
+
+  /**
+   * Calls the controller method corresponding to this command.
+   * @param controller
+   *  controller to apply the command to
+   * @param argument
+   *  panel or player index for the commands that need one, ignored by the rest
+   */
+  public abstract void applyTo(GameController controller, int argument);
+
+  /**
+   * Tells whether this command can be applied on the current state of a match, so it can be
+   * checked before applying commands that come from outside (a client or a file).
+   * @param controller
+   *  controller running the match
+   * @param argument
+   *  panel or player index for the commands that need one, ignored by the rest
+   */
+  public boolean isLegalOn(GameController controller, int argument) {
+    if (controller.getGameEnded()) {
+      return false;
+    }
+    TurnState state = controller.getTurnState();
+    Player owner = controller.getTurnOwner();
+    switch (this) {
+      case BEGIN_TURN:
+        return state.isStartPhase();
+      case RECOVERY_TRIAL:
+        return state.isRecoveryPhase();
+      case USE_CARD:
+        return state.isCardPickPhase();
+      case DO_MOVE:
+        return state.isMovingPhase();
+      case CONTINUE_MOVING_THROUGH:
+        if (!state.isPathChoosePhase() || argument < 0 || argument >= controller.getRegistry().getPanelCount()) {
+          return false;
+        }
+        IPanel panel = controller.getRegistry().getPanel(argument);
+        for (IPanel next : owner.getCurrentPanel().getNextPanels()) {
+          if (next == panel) {
+            return true;
+          }
+        }
+        return false;
+      case STOP_AT_HOME:
+        return state.isHomeStopChoosePhase();
+      case CONTINUE_MOVING:
+        return state.isHomeStopChoosePhase() || state.isCombatChoosePhase();
+      case START_COMBAT:
+        if (!state.isCombatChoosePhase() || argument < 0 || argument >= controller.getPlayerCount()) {
+          return false;
+        }
+        Player target = controller.getPlayer(argument);
+        return target != owner && !target.isKOd() && target.getCurrentPanel() == owner.getCurrentPanel();
+      case DEFEND_AGAINST_COMBAT:
+      case EVADE_AGAINST_COMBAT:
+        return state.isCombatResponseChoosePhase();
+      case START_COUNTERATTACK:
+        return state.isCounterattackPhase();
+      case DEFEND_AGAINST_COUNTERATTACK:
+      case EVADE_AGAINST_COUNTERATTACK:
+        return state.isCounterattackResponseChoosePhase();
+      case SELECT_WINS_NORMA:
+      case SELECT_STARS_NORMA:
+        return state.isNormaPickPhase();
+      case FINISH_TURN:
+        return state.isEndPhase();
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.github.cc3002.citricliquid.controller.replay;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record of a match: the seed its random number generators started with and every command
+ * taken, in order. Applying the same commands to a new game with the same seed reproduces
+ * the match exactly.
+ * <p>
+ * The log may also hold the state hash the match had at some points (after every finished turn
+ * when recorded by a controller), so a replay can tell where it stopped matching the original.
+ */
+public class MatchLog {
+  private static final String HEADER = "# 99.7% Citric Liquid match log";
+  private final long seed;
+  private final List<GameCommand> commands = new ArrayList<>();
+  private final List<Integer> arguments = new ArrayList<>();
+  private final Map<Integer, Long> stateHashes = new HashMap<>();
+
+  /**
+   * Creates an empty log.
+   * @param seed
+   *  seed the match's random number generators were started with
+   */
+  public MatchLog(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Returns the seed of the recorded match.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Appends a command at the end of the log.
+   * @param command
+   *  command taken
+   * @param argument
+   *  command argument, 0 if the command doesn't use one
+   */
+  public void add(GameCommand command, int argument) {
+    commands.add(command);
+    arguments.add(argument);
+  }
+
+  /**
+   * Returns the amount of commands recorded.
+   */
+  public int size() {
+    return commands.size();
+  }
+
+  /**
+   * Returns the command at a certain position.
+   */
+  public GameCommand getCommand(int index) {
+    return commands.get(index);
+  }
+
+  /**
+   * Returns the argument of the command at a certain position.
+   */
+  public int getArgument(int index) {
+    return arguments.get(index);
+  }
+
+  /**
+   * Stores the state hash the match had at a certain point.
+   * @param commandCount
+   *  amount of commands applied when the hash was taken
+   * @param stateHash
+   *  value of the state hash
+   */
+  public void addStateHash(int commandCount, long stateHash) {
+    stateHashes.put(commandCount, stateHash);
+  }
+
+  /**
+   * Returns the state hash stored for a certain point, or null if there is none.
+   * @param commandCount
+   *  amount of commands applied when the hash was taken
+   */
+  public Long getStateHash(int commandCount) {
+    return stateHashes.get(commandCount);
+  }
+
+  /**
+   * Returns the amount of state hashes stored.
+   */
+  public int getStateHashCount() {
+    return stateHashes.size();
+  }
+
+  /**
+   * Writes the log as a text file, one command per line.
+   * @param path
+   *  destination file
+   */
+  public void save(Path path) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      writer.write("seed " + seed);
+      writer.newLine();
+      for (int i = 0; i < size(); i++) {
+        writer.write(commands.get(i).name() + " " + arguments.get(i));
+        writer.newLine();
+        Long stateHash = stateHashes.get(i + 1);
+        if (stateHash != null) {
+          writer.write("hash " + (i + 1) + " " + Long.toHexString(stateHash));
+          writer.newLine();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a log previously written with save.
+   * @param path
+   *  file to read
+   * @return
+   *  the log read
+   */
+  public static MatchLog load(Path path) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      MatchLog log = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] parts = line.split(" ");
+        if (log == null) {
+          if (!parts[0].equals("seed")) {
+            throw new IOException("Match log must start with its seed.");
+          }
+          log = new MatchLog(Long.parseLong(parts[1]));
+        } else if (parts[0].equals("hash")) {
+          log.addStateHash(Integer.parseInt(parts[1]), Long.parseUnsignedLong(parts[2], 16));
+        } else {
+          int argument = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+          log.add(GameCommand.valueOf(parts[0]), argument);
+        }
+      }
+      if (log == null) {
+        throw new IOException("Empty match log.");
+      }
+      return log;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.github.cc3002.citricliquid.controller.replay;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plays a recorded match on a headless {@link GameController}.
+ * <p>
+ * On creation the whole log is simulated once, capturing a keyframe snapshot every few turns.
+ * Seeking restores the closest keyframe before the target and simulates only the commands
+ * after it, so jumping to any turn costs at most a few turns of simulation.
+ */
+public class ReplayPlayer {
+  /**
+   * Default amount of turns between two keyframes.
+   */
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 8;
+
+  private final GameController controller;
+  private final MatchLog log;
+  private final int[] turnStarts;
+  private final TreeMap<Integer, GameSnapshot> keyframes = new TreeMap<>();
+  private int position = 0;
+
+  /**
+   * Creates a replay with the default keyframe interval.
+   * @param log
+   *  recorded match
+   */
+  public ReplayPlayer(MatchLog log) {
+    this(log, DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * Creates a replay.
+   * @param log
+   *  recorded match
+   * @param keyframeInterval
+   *  amount of turns between two keyframes
+   */
+  public ReplayPlayer(MatchLog log, int keyframeInterval) {
+    this.log = log;
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(log.getSeed());
+    controller.setHeadless(true);
+
+    // A turn starts on the first command and after every finished turn.
+    int turns = 1;
+    for (int i = 0; i < log.size(); i++) {
+      if (log.getCommand(i) == GameCommand.FINISH_TURN) {
+        turns++;
+      }
+    }
+    turnStarts = new int[turns];
+    int turn = 1;
+    for (int i = 0; i < log.size(); i++) {
+      if (log.getCommand(i) == GameCommand.FINISH_TURN) {
+        turnStarts[turn++] = i + 1;
+      }
+    }
+
+    keyframes.put(0, GameSnapshot.capture(controller));
+    for (int t = keyframeInterval; t < turnStarts.length; t += keyframeInterval) {
+      forwardTo(turnStarts[t]);
+      keyframes.put(position, GameSnapshot.capture(controller));
+    }
+    seekCommand(0);
+  }
+
+  /**
+   * Returns the controller the replay is played on.
+   */
+  public GameController getController() {
+    return controller;
+  }
+
+  /**
+   * Returns the amount of commands on the replay.
+   */
+  public int size() {
+    return log.size();
+  }
+
+  /**
+   * Returns the index of the next command to be applied.
+   */
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Tells whether every command has been applied.
+   */
+  public boolean isFinished() {
+    return position >= log.size();
+  }
+
+  /**
+   * Returns the amount of turns on the replay.
+   */
+  public int getTurnCount() {
+    return turnStarts.length;
+  }
+
+  /**
+   * Returns the amount of keyframes captured.
+   */
+  public int getKeyframeCount() {
+    return keyframes.size();
+  }
+
+  /**
+   * Returns the number of the turn being played, counting from 0 on the first turn
+   * of the first chapter.
+   */
+  public int getTurnIndex() {
+    int low = 0;
+    int high = turnStarts.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) / 2;
+      if (turnStarts[middle] <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Applies the next command.
+   * @return
+   *  false if the replay had already finished.
+   * @throws IllegalStateException
+   *  if the state reached doesn't match the state hash recorded for that point.
+   */
+  public boolean step() {
+    if (isFinished()) {
+      return false;
+    }
+    controller.perform(log.getCommand(position), log.getArgument(position));
+    position++;
+    Long expected = log.getStateHash(position);
+    if (expected != null && expected != controller.getStateHash()) {
+      throw new IllegalStateException("Replay diverged from the recorded match after command "
+          + position + ".");
+    }
+    return true;
+  }
+
+  /**
+   * Applies up to a certain amount of commands.
+   * @return
+   *  amount of commands applied.
+   */
+  public int advance(int commands) {
+    int applied = 0;
+    while (applied < commands && step()) {
+      applied++;
+    }
+    return applied;
+  }
+
+  /**
+   * Moves the replay to the point right before a certain command.
+   * @param index
+   *  index of the command, it's clamped to the replay's bounds
+   */
+  public void seekCommand(int index) {
+    index = Math.max(0, Math.min(index, log.size()));
+    Map.Entry<Integer, GameSnapshot> keyframe = keyframes.floorEntry(index);
+    // Going on from the current position is cheaper if it's already past the keyframe.
+    if (position > index || position < keyframe.getKey()) {
+      keyframe.getValue().restore(controller);
+      position = keyframe.getKey();
+    }
+    forwardTo(index);
+  }
+
+  /**
+   * Moves the replay to the start of a turn.
+   * @param turnIndex
+   *  number of the turn counting from 0, it's clamped to the replay's bounds
+   */
+  public void seekTurn(int turnIndex) {
+    turnIndex = Math.max(0, Math.min(turnIndex, turnStarts.length - 1));
+    seekCommand(turnStarts[turnIndex]);
+  }
+
+  /**
+   * Moves the replay to the start of a certain turn of a chapter.
+   * @param chapter
+   *  chapter number, starting from 1
+   * @param turn
+   *  index of the turn owner on the players list
+   */
+  public void seek(int chapter, int turn) {
+    seekTurn((chapter - 1) * controller.getPlayers().size() + turn);
+  }
+
+  private void forwardTo(int index) {
+    while (position < index && step()) {
+      // just applying commands
+    }
+  }
+}
@@ -0,0 +1,347 @@
+package com.github.cc3002.citricliquid.controller.server;
+
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+import com.github.cc3002.citricliquid.controller.sync.StateDeltaEncoder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.ref.Reference;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authoritative server that hosts many matches on one JVM.
+ * <p>
+ * Clients talk to the server with a line based text protocol, one request per line and one
+ * reply per request:
+ * <ul>
+ *   <li>{@code NEW [seed]} creates a match and replies {@code OK <match>}.</li>
+ *   <li>{@code JOIN <match> <seat>} sits the client on a seat (0 to 3).</li>
+ *   <li>{@code CMD <match> <command> [argument]} applies a {@link GameCommand} for the seat
+ *   that has to decide and replies with the new state.</li>
+ *   <li>{@code STATE <match>} replies with the state and the legal commands.</li>
+ *   <li>{@code SYNC <match> [FULL]} replies {@code OK <frame>} with a base64
+ *   {@link StateDeltaEncoder} frame holding what changed since the last SYNC of the
+ *   connection, FULL asks for every value again.</li>
+ *   <li>{@code CLOSE <match>} removes a match.</li>
+ *   <li>{@code STATS} replies with the amount of matches, command latency percentiles and
+ *   the estimated memory footprint of a match.</li>
+ *   <li>{@code QUIT} closes the connection.</li>
+ * </ul>
+ * Errors are replied as {@code ERR <reason>}.
+ * <p>
+ * Each connection is served on its own thread and each match is a {@link MatchActor}, both
+ * on an executor of virtual threads when the JVM has them (Java 21+) or on a pool of
+ * platform threads otherwise.
+ */
+public class GameServer {
+  /**
+   * Port used when none is given to {@link #main(String[])}.
+   */
+  public static final int DEFAULT_PORT = 7997;
+  // Amount of matches created by main() to estimate the footprint of one.
+  private static final int FOOTPRINT_SAMPLE = 1000;
+
+  private final ExecutorService executor;
+  private final boolean virtualThreads;
+  private final Map<Integer, MatchActor> matches = new ConcurrentHashMap<>();
+  private final AtomicInteger nextMatchId = new AtomicInteger(1);
+  private final LatencyRecorder latencies = new LatencyRecorder();
+  private final Random seeds = new Random();
+  private ServerSocket serverSocket;
+  private final long matchFootprint;
+
+  /**
+   * Creates a server that doesn't know the footprint of a match, it doesn't listen for
+   * connections until {@link #start(int)} is called.
+   */
+  public GameServer() {
+    this(0);
+  }
+
+  /**
+   * Creates a server, it doesn't listen for connections until {@link #start(int)} is called.
+   * @param matchFootprint
+   *  heap bytes a hosted match takes, as estimated by {@link #measureMatchFootprint(int)} before
+   *  starting the server, 0 if unknown
+   */
+  public GameServer(long matchFootprint) {
+    this.matchFootprint = matchFootprint;
+    ExecutorService virtual = newVirtualThreadExecutor();
+    virtualThreads = virtual != null;
+    executor = virtualThreads ? virtual : Executors.newCachedThreadPool();
+  }
+
+  /**
+   * Starts listening on the loopback interface.
+   * @param port
+   *  port to listen on, 0 picks a free one
+   * @return
+   *  the port the server listens on.
+   */
+  public int start(int port) throws IOException {
+    serverSocket = new ServerSocket(port, 256, InetAddress.getLoopbackAddress());
+    executor.execute(this::acceptConnections);
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and shuts the executor down.
+   */
+  public void stop() throws IOException {
+    serverSocket.close();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Tells whether connections and matches run on virtual threads.
+   */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Returns the amount of matches being hosted.
+   */
+  public int getMatchCount() {
+    return matches.size();
+  }
+
+  /**
+   * Returns the latencies of the commands applied, measured from the moment the request is
+   * read until the reply is ready.
+   */
+  public LatencyRecorder getLatencies() {
+    return latencies;
+  }
+
+  /**
+   * Returns the estimated amount of heap bytes a hosted match takes, given when the server was
+   * created, 0 if unknown.
+   */
+  public long getMatchFootprint() {
+    return matchFootprint;
+  }
+
+  /**
+   * Estimates the heap bytes a hosted match takes by creating several and comparing the used
+   * heap before and after. It's an estimation: the garbage collector may not run fully.
+   * <p>
+   * It requests garbage collections and takes a while, so it's meant to run once before the
+   * server starts, never while serving.
+   * @param count
+   *  amount of matches to create
+   */
+  public static long measureMatchFootprint(int count) {
+    Runtime runtime = Runtime.getRuntime();
+    long before = usedHeap(runtime);
+    List<MatchActor> sample = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      sample.add(new MatchActor(i, i, Runnable::run));
+    }
+    long after = usedHeap(runtime);
+    Reference.reachabilityFence(sample);
+    return Math.max(0, after - before) / count;
+  }
+
+  private static long usedHeap(Runtime runtime) {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Creates a match without going through a socket, used to host many idle matches.
+   * @return
+   *  the identifier of the match.
+   */
+  public int createMatch(long seed) {
+    int id = nextMatchId.getAndIncrement();
+    matches.put(id, new MatchActor(id, seed, executor));
+    return id;
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        executor.execute(() -> serve(socket));
+      } catch (IOException | RejectedExecutionException e) {
+        // The server was stopped.
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    Session session = new Session();
+    try (socket;
+         BufferedReader in = new BufferedReader(
+           new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         BufferedWriter out = new BufferedWriter(
+           new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      socket.setTcpNoDelay(true);
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.trim().equals("QUIT")) {
+          break;
+        }
+        out.write(respond(line, session));
+        out.newLine();
+        out.flush();
+      }
+    } catch (SocketException e) {
+      // The client went away.
+    } catch (IOException e) {
+      System.err.println("[Server] Connection error: " + e.getMessage());
+    } finally {
+      if (!executor.isShutdown()) {
+        for (MatchActor match : session.joined) {
+          match.ask(m -> m.leave(session));
+        }
+      }
+    }
+  }
+
+  /**
+   * Handles a request line of a client.
+   * @param line
+   *  request
+   * @param session
+   *  connection of the client, it's also the client's identity on the seats
+   * @return
+   *  the reply.
+   */
+  String respond(String line, Session session) {
+    long start = System.nanoTime();
+    String[] words = line.trim().split("\\s+");
+    try {
+      switch (words[0]) {
+        case "NEW":
+          long seed = words.length > 1 ? Long.parseLong(words[1]) : seeds.nextLong();
+          return "OK " + createMatch(seed);
+        case "JOIN":
+          MatchActor match = matchOf(words);
+          String reply = match.ask(m -> m.join(session, Integer.parseInt(words[2]))).join();
+          if (reply.startsWith("OK") && !session.joined.contains(match)) {
+            session.joined.add(match);
+          }
+          return reply;
+        case "CMD":
+          GameCommand command = GameCommand.valueOf(words[2]);
+          int argument = words.length > 3 ? Integer.parseInt(words[3]) : 0;
+          String result = matchOf(words).ask(m -> m.command(session, command, argument)).join();
+          latencies.record(System.nanoTime() - start);
+          return result;
+        case "STATE":
+          return matchOf(words).ask(MatchActor::describe).join();
+        case "SYNC":
+          MatchActor synced = matchOf(words);
+          // Forgets the matches closed by other clients.
+          session.encoders.keySet().removeIf(m -> matches.get(m.getId()) != m);
+          StateDeltaEncoder encoder = session.encoders.computeIfAbsent(synced, m -> new StateDeltaEncoder());
+          if (words.length > 2 && words[2].equals("FULL")) {
+            encoder.requestFullFrame();
+          }
+          byte[] frame = synced.ask(m -> encoder.encode(m.getController())).join();
+          if (synced.ask(m -> m.getController().getGameEnded()).join()) {
+            // The final state was sent, a later SYNC gets it whole again.
+            session.encoders.remove(synced);
+          }
+          return "OK " + Base64.getEncoder().encodeToString(frame);
+        case "CLOSE":
+          MatchActor closed = matches.remove(Integer.parseInt(words[1]));
+          if (closed == null) {
+            return "ERR no match";
+          }
+          session.encoders.remove(closed);
+          session.joined.remove(closed);
+          return "OK";
+        case "STATS":
+          return "OK matches=" + matches.size()
+            + " commands=" + latencies.getCount()
+            + " p50=" + latencies.percentile(50) / 1000 + "us"
+            + " p90=" + latencies.percentile(90) / 1000 + "us"
+            + " p99=" + latencies.percentile(99) / 1000 + "us"
+            + " matchBytes=" + getMatchFootprint()
+            + " virtualThreads=" + virtualThreads;
+        default:
+          return "ERR unknown request " + words[0];
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      return "ERR missing arguments";
+    } catch (IllegalArgumentException e) {
+      return "ERR bad argument: " + e.getMessage();
+    } catch (CompletionException e) {
+      return "ERR " + e.getCause();
+    }
+  }
+
+  /**
+   * What the server keeps about a connection.
+   */
+  static class Session {
+    // Matches the client sat on, so its seats are freed when it leaves.
+    final List<MatchActor> joined = new ArrayList<>();
+    // State sent to the client on each match it synchronizes, until the match ends or closes.
+    final Map<MatchActor, StateDeltaEncoder> encoders = new HashMap<>();
+  }
+
+  private MatchActor matchOf(String[] words) {
+    MatchActor match = matches.get(Integer.parseInt(words[1]));
+    if (match == null) {
+      throw new IllegalArgumentException("no match " + words[1]);
+    }
+    return match;
+  }
+
+  /**
+   * Creates an executor that starts a virtual thread per task, if the JVM has them.
+   * It's looked up by reflection so the project still builds for Java 11.
+   * @return
+   *  the executor, or null if virtual threads aren't available.
+   */
+  static ExecutorService newVirtualThreadExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Runs a server until the process is killed.
+   * @param args
+   *  optionally, the port to listen on
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    GameServer server = new GameServer(measureMatchFootprint(FOOTPRINT_SAMPLE));
+    int port = server.start(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+    System.out.println("[Server] Listening on port " + port
+                       + (server.usesVirtualThreads() ? " (virtual threads)" : ""));
+    // Virtual threads don't keep the JVM alive by themselves.
+    server.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.cc3002.citricliquid.controller.server;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latency samples of a server and computes their percentiles.
+ * <p>
+ * Samples are kept on a fixed size ring, so memory doesn't grow with the amount of commands
+ * and the percentiles describe the recent behaviour of the server.
+ */
+public class LatencyRecorder {
+  /**
+   * Default amount of samples kept.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private final long[] samples;
+  private long count = 0;
+
+  /**
+   * Creates a recorder that keeps the default amount of samples.
+   */
+  public LatencyRecorder() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a recorder.
+   * @param capacity
+   *  amount of samples kept, older ones are overwritten
+   */
+  public LatencyRecorder(int capacity) {
+    samples = new long[capacity];
+  }
+
+  /**
+   * Adds a sample.
+   * @param nanos
+   *  measured latency in nanoseconds
+   */
+  public synchronized void record(long nanos) {
+    samples[(int) (count % samples.length)] = nanos;
+    count++;
+  }
+
+  /**
+   * Returns the amount of samples recorded since the recorder was created.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns a percentile of the kept samples, using the nearest rank.
+   * @param percentile
+   *  percentile to compute, between 0 and 100
+   * @return
+   *  latency in nanoseconds, 0 if there are no samples.
+   */
+  public long percentile(double percentile) {
+    long[] sorted;
+    synchronized (this) {
+      sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+    }
+    if (sorted.length == 0) {
+      return 0;
+    }
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+    return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+  }
+}
@@ -0,0 +1,204 @@
+package com.github.cc3002.citricliquid.controller.server;
+
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+import com.github.cc3002.citricliquid.controller.replay.MatchLog;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A match hosted by the {@link GameServer}.
+ * <p>
+ * The controller isn't thread safe, so every access goes through the actor's mailbox and
+ * the messages are handled one at a time. The actor doesn't own a thread: when a message
+ * arrives a task that empties the mailbox is scheduled on the server's executor, so an idle
+ * match only costs the memory of its controller.
+ */
+class MatchActor {
+  private final int id;
+  private final GameController controller;
+  private final MatchLog log;
+  private final Object[] seats;
+  private final Executor executor;
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+  /**
+   * Creates a match with a new game.
+   * @param id
+   *  match identifier on the server
+   * @param seed
+   *  seed of the match's random number generators
+   * @param executor
+   *  executor the messages are handled on
+   */
+  MatchActor(int id, long seed, Executor executor) {
+    this.id = id;
+    this.executor = executor;
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(seed);
+    controller.setHeadless(true);
+    log = new MatchLog(seed);
+    controller.startRecording(log);
+    seats = new Object[controller.getPlayers().size()];
+  }
+
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Returns the controller of the match.
+   * Only safe to use from the actor's thread.
+   */
+  GameController getController() {
+    return controller;
+  }
+
+  /**
+   * Returns the log of the commands applied on this match.
+   * Only safe to read from the actor's thread.
+   */
+  MatchLog getLog() {
+    return log;
+  }
+
+  /**
+   * Sends a message to the match.
+   * @param message
+   *  function to apply on the actor's thread
+   * @return
+   *  future completed with the result of the message.
+   */
+  <T> CompletableFuture<T> ask(Function<MatchActor, T> message) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    mailbox.add(() -> {
+      try {
+        result.complete(message.apply(this));
+      } catch (Throwable e) {
+        // Every failure is handed to the asker, who would wait forever otherwise, and the
+        // mailbox keeps being drained.
+        result.completeExceptionally(e);
+      }
+    });
+    schedule();
+    return result;
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    Runnable message;
+    while ((message = mailbox.poll()) != null) {
+      message.run();
+    }
+    scheduled.set(false);
+    // A message may have arrived after the last poll but before the flag was cleared.
+    if (!mailbox.isEmpty()) {
+      schedule();
+    }
+  }
+
+  //region Messages, only called from the actor's thread
+
+  /**
+   * Gives a seat to a client.
+   * @return
+   *  reply to send to the client.
+   */
+  String join(Object client, int seat) {
+    if (seat < 0 || seat >= seats.length) {
+      return "ERR no seat " + seat;
+    }
+    if (seats[seat] != null && seats[seat] != client) {
+      return "ERR seat " + seat + " is taken";
+    }
+    seats[seat] = client;
+    return "OK " + controller.getPlayers().get(seat).getName();
+  }
+
+  /**
+   * Frees the seats of a client.
+   */
+  String leave(Object client) {
+    for (int i = 0; i < seats.length; i++) {
+      if (seats[i] == client) {
+        seats[i] = null;
+      }
+    }
+    return "OK";
+  }
+
+  /**
+   * Applies a command sent by a client, if the client sits on the seat that has to decide
+   * and the command is legal on the current phase.
+   * @return
+   *  reply to send to the client.
+   */
+  String command(Object client, GameCommand command, int argument) {
+    int seat = deciderSeat();
+    // Wild and boss units answer through the seat of the turn owner.
+    if (seat == -1) {
+      seat = controller.getPlayerIndex(controller.getTurnOwner());
+    }
+    if (seats[seat] != client) {
+      return "ERR seat " + seat + " has to decide";
+    }
+    if (!command.isLegalOn(controller, argument)) {
+      return "ERR illegal command";
+    }
+    controller.perform(command, argument);
+    return describe();
+  }
+
+  /**
+   * Describes the state of the match: phase, deciding seat (-1 for wild and boss units),
+   * chapter, whether it ended, state hash and the legal commands.
+   */
+  String describe() {
+    StringBuilder builder = new StringBuilder("OK")
+      .append(" phase=").append(controller.getTurnState().getTurnPhase().getClass().getSimpleName())
+      .append(" decider=").append(deciderSeat())
+      .append(" chapter=").append(controller.getChapter())
+      .append(" ended=").append(controller.getGameEnded())
+      .append(" hash=").append(Long.toHexString(controller.getStateHash()))
+      .append(" legal=");
+    int legal = 0;
+    for (GameCommand command : GameCommand.values()) {
+      int arguments = 1;
+      if (command == GameCommand.CONTINUE_MOVING_THROUGH) {
+        arguments = controller.getPanels().size();
+      } else if (command == GameCommand.START_COMBAT) {
+        arguments = controller.getPlayers().size();
+      }
+      for (int argument = 0; argument < arguments; argument++) {
+        if (command.isLegalOn(controller, argument)) {
+          builder.append(legal++ == 0 ? "" : ",").append(command).append(':').append(argument);
+        }
+      }
+    }
+    if (controller.getGameEnded()) {
+      builder.append(" winner=").append(controller.getPlayerIndex(controller.getWinner()));
+    }
+    return builder.toString();
+  }
+
+  //endregion
+
+  private int deciderSeat() {
+    IUnit decider = controller.getCurrentDecider();
+    return decider instanceof Player ? controller.getPlayerIndex((Player) decider) : -1;
+  }
+}
@@ -0,0 +1,156 @@
+package com.github.cc3002.citricliquid.controller.store;
+
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+
+/**
+ * Event of a stored match: a command taken, or one value of the match that changed because of
+ * it.
+ * <p>
+ * Changed values are fields of {@link GameSnapshot#toFields()}, so moves, damage, stars, wins,
+ * norma clears and phase transitions are all changes of some field. Commands are what
+ * reconstructs a match, changes are kept so a match can be looked through without replaying
+ * it.
+ */
+public final class MatchEvent {
+  /**
+   * Kinds of events.
+   */
+  public enum Kind {
+    /** A command was taken. */
+    COMMAND,
+    /** A value of the match changed. */
+    CHANGE
+  }
+
+  private static final String[] MATCH_FIELD_NAMES = {
+    "turn", "chapter", "gameEnded", "bossDefeated", "phase", "steps", "attackValue", "attacker",
+    "target", "players"
+  };
+  private static final String[] PLAYER_FIELD_NAMES = {
+    "panel", "atk", "def", "evd", "hp", "stars", "wins", "normaLevel", "winsGoal",
+    "goalRequirement", "recoveryLeft"
+  };
+  private static final String[] UNIT_FIELD_NAMES = {
+    "present", "maxHP", "atk", "def", "evd", "hp", "stars", "wins"
+  };
+  private static final String[] UNIT_NAMES = {"wildUnit", "bossUnit", "bossUnitCharacter"};
+
+  private final Kind kind;
+  private final int commandIndex;
+  private final GameCommand command;
+  private final int argument;
+  private final int field;
+  private final int oldValue;
+  private final int newValue;
+
+  private MatchEvent(Kind kind, int commandIndex, GameCommand command, int argument, int field,
+                     int oldValue, int newValue) {
+    this.kind = kind;
+    this.commandIndex = commandIndex;
+    this.command = command;
+    this.argument = argument;
+    this.field = field;
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  /**
+   * Creates the event of a command taken.
+   * @param commandIndex
+   *  amount of commands taken before it
+   */
+  public static MatchEvent command(int commandIndex, GameCommand command, int argument) {
+    return new MatchEvent(Kind.COMMAND, commandIndex, command, argument, -1, 0, 0);
+  }
+
+  /**
+   * Creates the event of a value that changed.
+   * @param commandIndex
+   *  index of the command that changed it
+   * @param field
+   *  position of the value on {@link GameSnapshot#toFields()}
+   */
+  public static MatchEvent change(int commandIndex, int field, int oldValue, int newValue) {
+    return new MatchEvent(Kind.CHANGE, commandIndex, null, 0, field, oldValue, newValue);
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the index of the command taken, or of the command that changed the value.
+   */
+  public int getCommandIndex() {
+    return commandIndex;
+  }
+
+  /**
+   * Returns the command taken, null on changes.
+   */
+  public GameCommand getCommand() {
+    return command;
+  }
+
+  public int getArgument() {
+    return argument;
+  }
+
+  /**
+   * Returns the position of the changed value on {@link GameSnapshot#toFields()}, -1 on
+   * commands.
+   */
+  public int getField() {
+    return field;
+  }
+
+  public int getOldValue() {
+    return oldValue;
+  }
+
+  public int getNewValue() {
+    return newValue;
+  }
+
+  /**
+   * Returns the index of the player whose value changed, -1 if it isn't a player's value.
+   * @param players
+   *  amount of players of the match
+   */
+  public int getPlayer(int players) {
+    int offset = field - GameSnapshot.MATCH_FIELDS;
+    if (offset < 0 || offset >= players * GameSnapshot.PLAYER_FIELDS) {
+      return -1;
+    }
+    return offset / GameSnapshot.PLAYER_FIELDS;
+  }
+
+  /**
+   * Returns a readable name for a position of {@link GameSnapshot#toFields()}, like
+   * "player2.stars".
+   * @param players
+   *  amount of players of the match
+   */
+  public static String fieldName(int field, int players) {
+    if (field < GameSnapshot.MATCH_FIELDS) {
+      return MATCH_FIELD_NAMES[field];
+    }
+    int offset = field - GameSnapshot.MATCH_FIELDS;
+    if (offset < players * GameSnapshot.PLAYER_FIELDS) {
+      return "player" + (offset / GameSnapshot.PLAYER_FIELDS + 1) + "."
+          + PLAYER_FIELD_NAMES[offset % GameSnapshot.PLAYER_FIELDS];
+    }
+    offset -= players * GameSnapshot.PLAYER_FIELDS;
+    return UNIT_NAMES[offset / GameSnapshot.UNIT_FIELDS] + "."
+        + UNIT_FIELD_NAMES[offset % GameSnapshot.UNIT_FIELDS];
+  }
+
+  @Override
+  public String toString() {
+    if (kind == Kind.COMMAND) {
+      return "#" + commandIndex + " " + command + " " + argument;
+    }
+    return "#" + commandIndex + " field " + field + ": " + oldValue + " -> " + newValue;
+  }
+}
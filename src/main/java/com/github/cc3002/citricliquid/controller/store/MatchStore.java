@@ -0,0 +1,381 @@
+package com.github.cc3002.citricliquid.controller.store;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of a match: every command taken and every value it changed, as
+ * {@link MatchEvent}s, with a snapshot of the whole match every few events. A
+ * {@link StoredMatch} reads it back and rebuilds the match at any point from the nearest
+ * snapshot.
+ * <p>
+ * Records are written one after the other on segment files of a directory, a new segment
+ * starting once the current one is large enough. The controller only encodes the records, on
+ * reused buffers and reading the changed values straight from the match, and hands them over: a writer thread takes whatever was handed over in the last few
+ * milliseconds and writes and syncs it to disk at once (group commit), so the match never waits
+ * for the disk. {@link #flush()} waits until everything handed over is on disk.
+ * <p>
+ * Records are meant to be handed over from the thread that runs the controller, through
+ * {@link GameController#startStoring(MatchStore)}.
+ */
+public class MatchStore implements AutoCloseable {
+  /**
+   * Default amount of events between two snapshots.
+   */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+  /**
+   * Default size from which a segment is closed and the next one started.
+   */
+  public static final int DEFAULT_SEGMENT_BYTES = 1 << 20;
+  /**
+   * Default milliseconds the writer waits for more records before writing them together.
+   */
+  public static final long DEFAULT_COMMIT_MILLIS = 5;
+  // Pending bytes from which the writer doesn't wait for more.
+  private static final int GROUP_BYTES = 64 * 1024;
+
+  private final Path directory;
+  private final int snapshotInterval;
+  private final int segmentBytes;
+  private final long commitMillis;
+
+  // Used only by the thread that runs the controller, reused so storing a command doesn't
+  // allocate.
+  private int[] lastFields;
+  private int[] fields;
+  private int commands;
+  private long events;
+  private long lastSnapshot;
+  private int snapshots;
+  private final StoreRecords.Buffer payload = new StoreRecords.Buffer();
+  private final DataOutputStream payloadOut = new DataOutputStream(payload);
+  private final StoreRecords.Buffer records = new StoreRecords.Buffer();
+  private final DataOutputStream recordsOut = new DataOutputStream(records);
+  private final CRC32 crc = new CRC32();
+
+  // Shared with the writer thread, guarded by lock.
+  private final Object lock = new Object();
+  private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private ByteArrayOutputStream spare = new ByteArrayOutputStream();
+  private long appendedBytes;
+  private long durableBytes;
+  private boolean flushRequested;
+  private boolean closed;
+  private IOException failure;
+  private final Thread writer;
+
+  // Used only by the writer thread.
+  private FileChannel channel;
+  private int segment = -1;
+  private long segmentSize;
+
+  /**
+   * Creates a store with the default settings.
+   * @param directory
+   *  directory for the segments, created if missing
+   * @throws IOException
+   *  if the directory can't be created or already holds segments.
+   */
+  public MatchStore(Path directory) throws IOException {
+    this(directory, DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_SEGMENT_BYTES, DEFAULT_COMMIT_MILLIS);
+  }
+
+  /**
+   * Creates a store.
+   * @param directory
+   *  directory for the segments, created if missing
+   * @param snapshotInterval
+   *  amount of events between two snapshots
+   * @param segmentBytes
+   *  size from which a segment is closed and the next one started
+   * @param commitMillis
+   *  milliseconds the writer waits for more records before writing them together
+   * @throws IOException
+   *  if the directory can't be created or already holds segments.
+   */
+  public MatchStore(Path directory, int snapshotInterval, int segmentBytes, long commitMillis)
+      throws IOException {
+    this.directory = directory;
+    this.snapshotInterval = snapshotInterval;
+    this.segmentBytes = segmentBytes;
+    this.commitMillis = commitMillis;
+    Files.createDirectories(directory);
+    try (Stream<Path> files = Files.list(directory)) {
+      if (files.anyMatch(StoreRecords::isSegment)) {
+        throw new IOException(directory + " already holds a stored match.");
+      }
+    }
+    writer = new Thread(this::writeLoop, "match-store-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Returns the amount of commands stored.
+   */
+  public int getCommandCount() {
+    return commands;
+  }
+
+  /**
+   * Returns the amount of events stored, commands and changes.
+   */
+  public long getEventCount() {
+    return events;
+  }
+
+  /**
+   * Returns the amount of snapshots stored, the one taken when storing began included.
+   */
+  public int getSnapshotCount() {
+    return snapshots;
+  }
+
+  /**
+   * Starts storing a match, with a snapshot of its current state.
+   * @throws IllegalStateException
+   *  if the store already began.
+   */
+  public void begin(GameController controller) {
+    if (lastFields != null) {
+      throw new IllegalStateException("The store already holds a match.");
+    }
+    lastFields = new int[GameSnapshot.fieldCount(controller)];
+    fields = new int[lastFields.length];
+    GameSnapshot.captureFields(controller, lastFields);
+    try {
+      writeSnapshot(GameSnapshot.capture(controller));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    append();
+  }
+
+  /**
+   * Stores a command just applied on a match, with the values it changed.
+   * @throws IllegalStateException
+   *  if the store didn't begin.
+   * @throws UncheckedIOException
+   *  if writing to disk failed before.
+   */
+  public void record(GameController controller, GameCommand command, int argument) {
+    if (lastFields == null) {
+      throw new IllegalStateException("The store didn't begin.");
+    }
+    try {
+      payload.reset();
+      payloadOut.writeByte(StoreRecords.COMMAND);
+      payloadOut.writeInt(commands);
+      payloadOut.writeByte(command.ordinal());
+      payloadOut.writeInt(argument);
+      StoreRecords.frame(payload, crc, recordsOut);
+      events++;
+
+      GameSnapshot.captureFields(controller, fields);
+      for (int field = 0; field < fields.length; field++) {
+        if (fields[field] != lastFields[field]) {
+          payload.reset();
+          payloadOut.writeByte(StoreRecords.CHANGE);
+          payloadOut.writeInt(commands);
+          payloadOut.writeInt(field);
+          payloadOut.writeInt(lastFields[field]);
+          payloadOut.writeInt(fields[field]);
+          StoreRecords.frame(payload, crc, recordsOut);
+          events++;
+        }
+      }
+      int[] previous = lastFields;
+      lastFields = fields;
+      fields = previous;
+      commands++;
+      // Only every few events, the whole snapshot is worth its allocations there.
+      if (events - lastSnapshot >= snapshotInterval) {
+        writeSnapshot(GameSnapshot.capture(controller));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    append();
+  }
+
+  private void writeSnapshot(GameSnapshot snapshot) throws IOException {
+    payload.reset();
+    payloadOut.writeByte(StoreRecords.SNAPSHOT);
+    payloadOut.writeInt(commands);
+    payloadOut.writeLong(events);
+    snapshot.writeTo(payloadOut);
+    StoreRecords.frame(payload, crc, recordsOut);
+    lastSnapshot = events;
+    snapshots++;
+  }
+
+  /**
+   * Hands the encoded records over to the writer.
+   */
+  private void append() {
+    synchronized (lock) {
+      if (failure != null) {
+        throw new UncheckedIOException("The match store can't write anymore.", failure);
+      }
+      if (closed) {
+        throw new IllegalStateException("The match store is closed.");
+      }
+      boolean wasEmpty = pending.size() == 0;
+      pending.write(records.bytes(), 0, records.size());
+      appendedBytes += records.size();
+      if (wasEmpty || pending.size() >= GROUP_BYTES) {
+        lock.notifyAll();
+      }
+    }
+    records.reset();
+  }
+
+  /**
+   * Waits until everything handed over is on disk.
+   * @throws IOException
+   *  if writing failed.
+   */
+  public void flush() throws IOException {
+    synchronized (lock) {
+      long target = appendedBytes;
+      flushRequested = true;
+      lock.notifyAll();
+      try {
+        while (durableBytes < target && failure == null) {
+          lock.wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while flushing the match store.");
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Writes whatever is pending and closes the current segment.
+   * @throws IOException
+   *  if writing failed.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing the match store.");
+    }
+    synchronized (lock) {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private void writeLoop() {
+    try {
+      while (true) {
+        ByteArrayOutputStream batch;
+        long target;
+        synchronized (lock) {
+          while (pending.size() == 0 && !closed) {
+            lock.wait();
+          }
+          if (pending.size() == 0) {
+            break;
+          }
+          // Gives the match a moment to hand over more records, to write them all at once.
+          long deadline = System.nanoTime() + commitMillis * 1_000_000;
+          long left = commitMillis;
+          while (!closed && !flushRequested && pending.size() < GROUP_BYTES && left > 0) {
+            lock.wait(left);
+            left = (deadline - System.nanoTime()) / 1_000_000;
+          }
+          batch = pending;
+          pending = spare;
+          target = appendedBytes;
+          flushRequested = false;
+        }
+        write(batch);
+        synchronized (lock) {
+          batch.reset();
+          spare = batch;
+          durableBytes = target;
+          lock.notifyAll();
+        }
+      }
+      if (channel != null) {
+        channel.close();
+      }
+    } catch (IOException e) {
+      synchronized (lock) {
+        failure = e;
+        lock.notifyAll();
+      }
+    } catch (InterruptedException e) {
+      synchronized (lock) {
+        failure = new InterruptedIOException("The match store writer was interrupted.");
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Writes whole records to the current segment and syncs it, starting a new segment on the
+   * first record boundary past the size of a segment.
+   */
+  private void write(ByteArrayOutputStream batch) throws IOException {
+    ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+    while (bytes.hasRemaining()) {
+      if (channel == null || segmentSize >= segmentBytes) {
+        if (channel != null) {
+          channel.force(false);
+          channel.close();
+        }
+        segment++;
+        channel = FileChannel.open(StoreRecords.segmentPath(directory, segment),
+                                   StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0;
+      }
+      // Takes records until the segment is full, each one its length, payload and checksum.
+      int end = bytes.position();
+      long size = segmentSize;
+      while (end < bytes.limit() && size < segmentBytes) {
+        int record = Integer.BYTES + bytes.getInt(end) + Integer.BYTES;
+        end += record;
+        size += record;
+      }
+      ByteBuffer part = bytes.duplicate();
+      part.limit(end);
+      while (part.hasRemaining()) {
+        segmentSize += channel.write(part);
+      }
+      bytes.position(end);
+    }
+    channel.force(false);
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.cc3002.citricliquid.controller.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Format of the segment files of a {@link MatchStore}.
+ * <p>
+ * A segment is a sequence of records, each one its payload length as an int, the payload and
+ * the CRC32 of the payload as an int, so a record cut short by a crash is told apart from a
+ * whole one. A payload starts with its kind: a snapshot with the amount of commands and events
+ * before it and the {@link com.github.cc3002.citricliquid.controller.GameSnapshot} bytes, a
+ * command with its index, ordinal and argument, or a change with the index of its command, the
+ * field, and the old and new values.
+ */
+final class StoreRecords {
+  static final byte SNAPSHOT = 0;
+  static final byte COMMAND = 1;
+  static final byte CHANGE = 2;
+
+  static final String SEGMENT_PREFIX = "segment-";
+  static final String SEGMENT_SUFFIX = ".log";
+
+  private StoreRecords() {
+  }
+
+  /**
+   * Returns the path of a segment of a store.
+   */
+  static Path segmentPath(Path directory, int segment) {
+    return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Tells whether a file name is a segment's.
+   */
+  static boolean isSegment(Path path) {
+    String name = path.getFileName().toString();
+    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Frames a payload as a record, appending it to a buffer. Nothing is allocated, so it can run
+   * on every command.
+   * @param crc
+   *  checksum reused for every record, reset here
+   */
+  static void frame(Buffer payload, CRC32 crc, DataOutputStream record) throws IOException {
+    crc.reset();
+    crc.update(payload.bytes(), 0, payload.size());
+    record.writeInt(payload.size());
+    record.write(payload.bytes(), 0, payload.size());
+    record.writeInt((int) crc.getValue());
+  }
+
+  /**
+   * Byte buffer whose bytes can be read without being copied.
+   */
+  static final class Buffer extends ByteArrayOutputStream {
+    /**
+     * Returns the array holding the bytes, only the first {@link #size()} are written.
+     */
+    byte[] bytes() {
+      return buf;
+    }
+  }
+
+  /**
+   * Tells whether a payload matches the checksum it was stored with.
+   */
+  static boolean matches(byte[] payload, int checksum) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue() == checksum;
+  }
+}
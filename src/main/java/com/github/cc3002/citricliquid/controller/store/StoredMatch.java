@@ -0,0 +1,188 @@
+package com.github.cc3002.citricliquid.controller.store;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Match read back from the segments of a {@link MatchStore}.
+ * <p>
+ * A match at any point is rebuilt from the nearest snapshot before it, replaying only the
+ * commands after that snapshot. A record cut short at the end of the last segment, as left by a
+ * crash while writing, is dropped and everything before it is kept, so a crashed match can be
+ * rebuilt up to its last whole command.
+ */
+public class StoredMatch {
+  private final List<MatchEvent> events = new ArrayList<>();
+  private final List<GameCommand> commands = new ArrayList<>();
+  private final List<Integer> arguments = new ArrayList<>();
+  // Snapshots by the amount of commands taken before them.
+  private final TreeMap<Integer, GameSnapshot> snapshots = new TreeMap<>();
+  private int segments;
+  private boolean truncated;
+
+  private StoredMatch() {
+  }
+
+  /**
+   * Reads the match stored on a directory.
+   * @throws IOException
+   *  if the directory holds no match, or a record before the last one is damaged.
+   */
+  public static StoredMatch load(Path directory) throws IOException {
+    List<Path> paths;
+    try (Stream<Path> files = Files.list(directory)) {
+      paths = files.filter(StoreRecords::isSegment).sorted().collect(Collectors.toList());
+    }
+    StoredMatch match = new StoredMatch();
+    match.segments = paths.size();
+    for (int i = 0; i < paths.size() && !match.truncated; i++) {
+      match.readSegment(paths.get(i), i == paths.size() - 1);
+    }
+    if (match.snapshots.isEmpty()) {
+      throw new IOException(directory + " holds no stored match.");
+    }
+    return match;
+  }
+
+  private void readSegment(Path path, boolean last) throws IOException {
+    long size = Files.size(path);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      int first;
+      // A segment ends cleanly right before a record.
+      while ((first = in.read()) >= 0) {
+        byte[] payload = null;
+        try {
+          int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8
+              | in.readUnsignedByte();
+          if (length > 0 && length <= size) {
+            payload = new byte[length];
+            in.readFully(payload);
+            if (!StoreRecords.matches(payload, in.readInt())) {
+              payload = null;
+            }
+          }
+        } catch (EOFException e) {
+          payload = null;
+        }
+        if (payload == null) {
+          if (!last) {
+            throw new IOException(path + " has a damaged record.");
+          }
+          truncated = true;
+          return;
+        }
+        readRecord(payload);
+      }
+    }
+  }
+
+  private void readRecord(byte[] payload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    switch (in.readByte()) {
+      case StoreRecords.SNAPSHOT: {
+        int commandCount = in.readInt();
+        in.readLong();
+        snapshots.put(commandCount, GameSnapshot.readFrom(in));
+        break;
+      }
+      case StoreRecords.COMMAND: {
+        int index = in.readInt();
+        GameCommand command = GameCommand.values()[in.readUnsignedByte()];
+        int argument = in.readInt();
+        commands.add(command);
+        arguments.add(argument);
+        events.add(MatchEvent.command(index, command, argument));
+        break;
+      }
+      case StoreRecords.CHANGE:
+        events.add(MatchEvent.change(in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        break;
+      default:
+        throw new IOException("Unknown record kind.");
+    }
+  }
+
+  /**
+   * Returns the amount of segment files the match was read from.
+   */
+  public int getSegmentCount() {
+    return segments;
+  }
+
+  /**
+   * Tells whether the last record was cut short, and so dropped.
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * Returns every event, in order, as an unmodifiable list.
+   */
+  public List<MatchEvent> getEvents() {
+    return Collections.unmodifiableList(events);
+  }
+
+  /**
+   * Returns the amount of commands stored.
+   */
+  public int getCommandCount() {
+    return commands.size();
+  }
+
+  public int getSnapshotCount() {
+    return snapshots.size();
+  }
+
+  /**
+   * Returns the amount of commands a rebuild up to a point replays after its snapshot.
+   * @param commandCount
+   *  amount of commands taken at that point
+   */
+  public int getTailLength(int commandCount) {
+    return commandCount - snapshots.floorKey(commandCount);
+  }
+
+  /**
+   * Rebuilds the match as it was after a certain amount of commands, on a new headless
+   * controller with the practice board and the preset players. The match can be continued from
+   * there with the same rolls it had.
+   * @param commandCount
+   *  amount of commands taken, from 0 to the amount of commands stored
+   * @throws IllegalArgumentException
+   *  if there aren't that many commands stored.
+   */
+  public GameController reconstruct(int commandCount) {
+    if (commandCount < 0 || commandCount > commands.size()) {
+      throw new IllegalArgumentException("There are " + commands.size() + " commands stored.");
+    }
+    Map.Entry<Integer, GameSnapshot> nearest = snapshots.floorEntry(commandCount);
+    if (nearest == null) {
+      throw new IllegalArgumentException("There's no snapshot before command " + commandCount + ".");
+    }
+    GameController controller = new GameController();
+    controller.newGame();
+    controller.setHeadless(true);
+    nearest.getValue().restore(controller);
+    for (int i = nearest.getKey(); i < commandCount; i++) {
+      commands.get(i).applyTo(controller, arguments.get(i));
+    }
+    return controller;
+  }
+}
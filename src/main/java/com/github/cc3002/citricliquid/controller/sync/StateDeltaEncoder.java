@@ -0,0 +1,133 @@
+package com.github.cc3002.citricliquid.controller.sync;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Server side of the state synchronization: turns the state of a match into frames for a
+ * {@link StateMirror}, sending only what changed since the previous frame.
+ * <p>
+ * A full frame is sent first, every few frames after that so a client that lost a frame
+ * gets back in sync, and whenever {@link #requestFullFrame()} is called.
+ * An encoder keeps the last state it sent, so each client needs its own.
+ */
+public class StateDeltaEncoder {
+  /**
+   * Default amount of frames between two full frames.
+   */
+  public static final int DEFAULT_FULL_FRAME_INTERVAL = 64;
+
+  private final int fullFrameInterval;
+  private int[] lastFields;
+  private String[] lastNames;
+  private int sequence = 0;
+  private boolean fullFrameRequested = true;
+
+  /**
+   * Creates an encoder with the default full frame interval.
+   */
+  public StateDeltaEncoder() {
+    this(DEFAULT_FULL_FRAME_INTERVAL);
+  }
+
+  /**
+   * Creates an encoder.
+   * @param fullFrameInterval
+   *  amount of frames between two full frames
+   */
+  public StateDeltaEncoder(int fullFrameInterval) {
+    this.fullFrameInterval = fullFrameInterval;
+  }
+
+  /**
+   * Makes the next frame a full one, used when a client reports it's out of sync.
+   */
+  public void requestFullFrame() {
+    fullFrameRequested = true;
+  }
+
+  /**
+   * Encodes the current state of a match.
+   * Must be called from the thread that runs the controller.
+   */
+  public byte[] encode(GameController controller) {
+    return encode(GameSnapshot.capture(controller));
+  }
+
+  /**
+   * Encodes the state of a match.
+   * @param snapshot
+   *  state to send
+   * @return
+   *  the frame.
+   */
+  public byte[] encode(GameSnapshot snapshot) {
+    int[] fields = snapshot.toFields();
+    String[] names = snapshot.getUnitNames();
+    boolean full = fullFrameRequested || sequence % fullFrameInterval == 0
+                   || lastFields.length != fields.length;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(full ? SyncFrames.FULL : SyncFrames.DELTA);
+      SyncFrames.writeVarInt(out, sequence);
+      if (full) {
+        writeFull(out, fields, names);
+      } else {
+        writeDelta(out, fields, names);
+      }
+    } catch (IOException e) {
+      // Writing to memory doesn't fail.
+      throw new UncheckedIOException(e);
+    }
+    sequence++;
+    fullFrameRequested = false;
+    lastFields = fields;
+    lastNames = names;
+    return bytes.toByteArray();
+  }
+
+  private static void writeFull(DataOutputStream out, int[] fields, String[] names) throws IOException {
+    SyncFrames.writeVarInt(out, fields.length);
+    for (int field : fields) {
+      SyncFrames.writeVarInt(out, field);
+    }
+    for (String name : names) {
+      out.writeUTF(name);
+    }
+  }
+
+  private void writeDelta(DataOutputStream out, int[] fields, String[] names) throws IOException {
+    int changes = 0;
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] != lastFields[i]) {
+        changes++;
+      }
+    }
+    SyncFrames.writeVarInt(out, changes);
+    int previous = -1;
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] != lastFields[i]) {
+        SyncFrames.writeVarInt(out, i - previous);
+        SyncFrames.writeVarInt(out, fields[i] - lastFields[i]);
+        previous = i;
+      }
+    }
+    int changedNames = 0;
+    for (int i = 0; i < names.length; i++) {
+      if (!names[i].equals(lastNames[i])) {
+        changedNames |= 1 << i;
+      }
+    }
+    out.writeByte(changedNames);
+    for (int i = 0; i < names.length; i++) {
+      if ((changedNames & (1 << i)) != 0) {
+        out.writeUTF(names[i]);
+      }
+    }
+  }
+}
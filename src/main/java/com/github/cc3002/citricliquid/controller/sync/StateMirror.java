@@ -0,0 +1,147 @@
+package com.github.cc3002.citricliquid.controller.sync;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Client side of the state synchronization: applies the frames of a {@link StateDeltaEncoder}
+ * to a local copy of the match.
+ * <p>
+ * The copy is a regular {@link GameController} with the same board, so the window can draw it
+ * as it draws a local match. After each frame the mirror notifies its observers with the same
+ * events the controller uses (stateChanged, playerMoved, playerAttributeChanged and
+ * playerWon), only for the parts that changed.
+ */
+public class StateMirror {
+  private final GameController controller;
+  private final PropertyChangeSupport observers = new PropertyChangeSupport(this);
+  private int[] fields;
+  private String[] names;
+  private int lastSequence = -1;
+  private volatile boolean outOfSync = true;
+
+  /**
+   * Creates a mirror, it's out of sync until it receives a full frame.
+   */
+  public StateMirror() {
+    controller = new GameController();
+    controller.newGame();
+    controller.setHeadless(true);
+  }
+
+  /**
+   * Returns the local copy of the match.
+   */
+  public GameController getController() {
+    return controller;
+  }
+
+  /**
+   * Adds an observer of the changes applied.
+   */
+  public void addObserver(PropertyChangeListener listener) {
+    observers.addPropertyChangeListener(listener);
+  }
+
+  /**
+   * Tells whether a frame was lost, so the server should be asked for a full frame.
+   */
+  public boolean needsResync() {
+    return outOfSync;
+  }
+
+  /**
+   * Applies a frame.
+   * A delta frame that doesn't follow the last applied frame is dropped and the mirror stays
+   * out of sync until a full frame arrives.
+   * @param frame
+   *  frame made by a StateDeltaEncoder
+   * @return
+   *  true if the frame was applied.
+   */
+  public boolean apply(byte[] frame) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+    byte kind = in.readByte();
+    int sequence = SyncFrames.readVarInt(in);
+    int[] newFields;
+    String[] newNames;
+    if (kind == SyncFrames.FULL) {
+      newFields = new int[SyncFrames.readVarInt(in)];
+      for (int i = 0; i < newFields.length; i++) {
+        newFields[i] = SyncFrames.readVarInt(in);
+      }
+      newNames = new String[3];
+      for (int i = 0; i < newNames.length; i++) {
+        newNames[i] = in.readUTF();
+      }
+    } else {
+      if (outOfSync || sequence != lastSequence + 1) {
+        outOfSync = true;
+        return false;
+      }
+      newFields = fields.clone();
+      int changes = SyncFrames.readVarInt(in);
+      int index = -1;
+      for (int i = 0; i < changes; i++) {
+        index += SyncFrames.readVarInt(in);
+        newFields[index] += SyncFrames.readVarInt(in);
+      }
+      newNames = names.clone();
+      int changedNames = in.readByte();
+      for (int i = 0; i < newNames.length; i++) {
+        if ((changedNames & (1 << i)) != 0) {
+          newNames[i] = in.readUTF();
+        }
+      }
+    }
+    int[] oldFields = fields;
+    fields = newFields;
+    names = newNames;
+    lastSequence = sequence;
+    outOfSync = false;
+    GameSnapshot.fromFields(fields, names).restore(controller);
+    notifyChanges(oldFields);
+    return true;
+  }
+
+  private void notifyChanges(int[] oldFields) {
+    boolean stateChanged = oldFields == null || oldFields.length != fields.length;
+    boolean moved = stateChanged;
+    boolean attributesChanged = stateChanged;
+    if (!stateChanged) {
+      int playersEnd = GameSnapshot.MATCH_FIELDS + controller.getPlayers().size() * GameSnapshot.PLAYER_FIELDS;
+      for (int i = 0; i < fields.length; i++) {
+        if (fields[i] == oldFields[i]) {
+          continue;
+        }
+        if (i < GameSnapshot.MATCH_FIELDS) {
+          stateChanged = true;
+        } else if (i < playersEnd
+                   && (i - GameSnapshot.MATCH_FIELDS) % GameSnapshot.PLAYER_FIELDS == GameSnapshot.PLAYER_PANEL) {
+          moved = true;
+        } else {
+          attributesChanged = true;
+        }
+      }
+    }
+    if (moved) {
+      observers.firePropertyChange(new PropertyChangeEvent(this, "playerMoved", null, null));
+    }
+    if (attributesChanged) {
+      observers.firePropertyChange(new PropertyChangeEvent(this, "playerAttributeChanged", null, null));
+    }
+    if (stateChanged) {
+      observers.firePropertyChange(new PropertyChangeEvent(this, "stateChanged", null, null));
+      if (controller.getGameEnded()) {
+        observers.firePropertyChange(new PropertyChangeEvent(this, "playerWon", null, null));
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.cc3002.citricliquid.controller.sync;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Connection to a {@link com.github.cc3002.citricliquid.controller.server.GameServer} that
+ * asks for the state frames of one match.
+ */
+public class SyncClient implements Closeable {
+  private final Socket socket;
+  private final BufferedReader in;
+  private final BufferedWriter out;
+  private final int match;
+
+  /**
+   * Connects to a server.
+   * @param host
+   *  server address
+   * @param port
+   *  server port
+   * @param match
+   *  identifier of the match to follow
+   */
+  public SyncClient(String host, int port, int match) throws IOException {
+    this.match = match;
+    socket = new Socket(host, port);
+    socket.setTcpNoDelay(true);
+    in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Asks the server for the changes since the previous call.
+   * @param full
+   *  true to ask for every value, used when the mirror is out of sync
+   * @return
+   *  the frame, to be applied on a {@link StateMirror}.
+   */
+  public byte[] nextFrame(boolean full) throws IOException {
+    out.write("SYNC " + match + (full ? " FULL" : ""));
+    out.newLine();
+    out.flush();
+    String reply = in.readLine();
+    if (reply == null) {
+      throw new IOException("the server closed the connection");
+    }
+    if (!reply.startsWith("OK ")) {
+      throw new IOException(reply);
+    }
+    return Base64.getDecoder().decode(reply.substring(3));
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
@@ -0,0 +1,44 @@
+package com.github.cc3002.citricliquid.controller.sync;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Format of the frames sent from a {@link StateDeltaEncoder} to a {@link StateMirror}.
+ * <p>
+ * Every frame starts with its kind and its sequence number. A full frame carries every field
+ * of {@link com.github.cc3002.citricliquid.controller.GameSnapshot#toFields()} and the unit
+ * names. A delta frame carries only the fields that changed since the previous frame, as
+ * pairs of (distance to the previous changed field, difference with the old value), and
+ * the unit names that changed. Integers are written as zig-zag variable length numbers, so
+ * the usual small values and differences take a single byte.
+ */
+final class SyncFrames {
+  static final byte FULL = 0;
+  static final byte DELTA = 1;
+
+  private SyncFrames() {
+  }
+
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    int zigZag = (value << 1) ^ (value >> 31);
+    while ((zigZag & ~0x7F) != 0) {
+      out.writeByte((zigZag & 0x7F) | 0x80);
+      zigZag >>>= 7;
+    }
+    out.writeByte(zigZag);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int zigZag = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      zigZag |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+}
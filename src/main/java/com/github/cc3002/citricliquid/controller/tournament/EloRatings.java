@@ -0,0 +1,118 @@
+package com.github.cc3002.citricliquid.controller.tournament;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Elo ratings of the entrants of a tournament, updated one match at a time.
+ * <p>
+ * A match of four is taken as the six duels between its players: each player won against the
+ * ones that finished below it. Every duel moves both ratings by K times how unexpected the
+ * result was, and the K of a match is split among the duels of each player so a match counts
+ * as much as a single game between two.
+ */
+public class EloRatings {
+  public static final double INITIAL_RATING = 1500;
+  public static final double DEFAULT_K = 32;
+
+  private final double[] ratings;
+  private final int[] matches;
+  private final double k;
+  private final double[] deltas;
+
+  /**
+   * Creates ratings for some entrants, all with the initial rating.
+   * @param entrants
+   *  amount of entrants
+   */
+  public EloRatings(int entrants) {
+    this(entrants, DEFAULT_K);
+  }
+
+  /**
+   * Creates ratings for some entrants, all with the initial rating.
+   * @param entrants
+   *  amount of entrants
+   * @param k
+   *  most a rating can move on a single match
+   */
+  public EloRatings(int entrants, double k) {
+    ratings = new double[entrants];
+    matches = new int[entrants];
+    deltas = new double[entrants];
+    this.k = k;
+    Arrays.fill(ratings, INITIAL_RATING);
+  }
+
+  /**
+   * Returns the probability the first entrant finishes above the second one.
+   */
+  public double expectedScore(int entrant, int other) {
+    return 1 / (1 + Math.pow(10, (ratings[other] - ratings[entrant]) / 400));
+  }
+
+  /**
+   * Updates the ratings with the result of a match.
+   * @param order
+   *  entrants from the first place to the last, an entrant that played more than one seat
+   *  doesn't duel itself
+   */
+  public void update(int[] order) {
+    double scale = k / Math.max(1, order.length - 1);
+    for (int i = 0; i < order.length; i++) {
+      for (int j = i + 1; j < order.length; j++) {
+        if (order[i] != order[j]) {
+          double change = scale * (1 - expectedScore(order[i], order[j]));
+          deltas[order[i]] += change;
+          deltas[order[j]] -= change;
+        }
+      }
+    }
+    for (int i = 0; i < order.length; i++) {
+      if (!playedBefore(order, i)) {
+        ratings[order[i]] += deltas[order[i]];
+        deltas[order[i]] = 0;
+        matches[order[i]]++;
+      }
+    }
+  }
+
+  /**
+   * Tells whether the entrant of a place also took a higher place on the same match.
+   */
+  private static boolean playedBefore(int[] order, int place) {
+    for (int i = 0; i < place; i++) {
+      if (order[i] == order[place]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return ratings.length;
+  }
+
+  public double getRating(int entrant) {
+    return ratings[entrant];
+  }
+
+  /**
+   * Returns the amount of matches an entrant has played, once per match even if it played
+   * more than one seat.
+   */
+  public int getMatches(int entrant) {
+    return matches[entrant];
+  }
+
+  /**
+   * Returns the entrants from the highest rating to the lowest, ties by index.
+   */
+  public int[] ranking() {
+    return IntStream.range(0, ratings.length).boxed()
+        .sorted(Comparator.comparingDouble((Integer entrant) -> -ratings[entrant])
+            .thenComparingInt(entrant -> entrant))
+        .mapToInt(Integer::intValue).toArray();
+  }
+}
@@ -0,0 +1,130 @@
+package com.github.cc3002.citricliquid.controller.tournament;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a single tournament match.
+ */
+public class MatchResult {
+  private final int id;
+  private final long seed;
+  private final boolean ended;
+  private final int[] seats;
+  private final int[] order;
+
+  /**
+   * Creates a result.
+   * @param id
+   *  position of the match on the tournament's schedule
+   * @param seed
+   *  seed the match was played with
+   * @param ended
+   *  false if the match was cut before anybody won
+   * @param seats
+   *  entrant that played each seat
+   * @param order
+   *  entrants from the first place to the last
+   */
+  public MatchResult(int id, long seed, boolean ended, int[] seats, int[] order) {
+    this.id = id;
+    this.seed = seed;
+    this.ended = ended;
+    this.seats = seats.clone();
+    this.order = order.clone();
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Tells whether somebody won the match, otherwise the order is the standings it was cut at.
+   */
+  public boolean hasEnded() {
+    return ended;
+  }
+
+  /**
+   * Returns the entrant that played each seat.
+   */
+  public int[] getSeats() {
+    return seats.clone();
+  }
+
+  /**
+   * Returns the entrants from the first place to the last.
+   */
+  public int[] getOrder() {
+    return order.clone();
+  }
+
+  /**
+   * Returns the entrant that finished first.
+   */
+  public int getWinner() {
+    return order[0];
+  }
+
+  /**
+   * Writes the result as a line of the progress file.
+   */
+  String toLine() {
+    StringBuilder line = new StringBuilder("match " + id + " " + seed + " " + (ended ? 1 : 0));
+    for (int entrant : seats) {
+      line.append(' ').append(entrant);
+    }
+    for (int entrant : order) {
+      line.append(' ').append(entrant);
+    }
+    return line.toString();
+  }
+
+  /**
+   * Reads a result written with toLine.
+   * @throws IllegalArgumentException
+   *  if the line doesn't have the fields of a result.
+   */
+  static MatchResult fromLine(String line) {
+    String[] parts = line.split(" ");
+    if (parts.length < 6 || parts.length % 2 != 0 || !parts[0].equals("match")
+        || !(parts[3].equals("0") || parts[3].equals("1"))) {
+      throw new IllegalArgumentException("Not a match result: " + line);
+    }
+    int players = (parts.length - 4) / 2;
+    int[] seats = new int[players];
+    int[] order = new int[players];
+    for (int i = 0; i < players; i++) {
+      seats[i] = Integer.parseInt(parts[4 + i]);
+      order[i] = Integer.parseInt(parts[4 + players + i]);
+    }
+    return new MatchResult(Integer.parseInt(parts[1]), Long.parseLong(parts[2]),
+                           parts[3].equals("1"), seats, order);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MatchResult)) {
+      return false;
+    }
+    MatchResult that = (MatchResult) o;
+    return id == that.id && seed == that.seed && ended == that.ended
+        && Arrays.equals(seats, that.seats) && Arrays.equals(order, that.order);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * id + Arrays.hashCode(order);
+  }
+
+  @Override
+  public String toString() {
+    return toLine();
+  }
+}
@@ -0,0 +1,15 @@
+package com.github.cc3002.citricliquid.controller.tournament;
+
+/**
+ * Ways a {@link Tournament} groups its entrants into matches of four.
+ */
+public enum Pairing {
+  /**
+   * Every group of four entrants plays on every round.
+   */
+  ROUND_ROBIN,
+  /**
+   * Entrants are sorted by rating before each round and neighbours play together.
+   */
+  SWISS
+}
@@ -0,0 +1,413 @@
+package com.github.cc3002.citricliquid.controller.tournament;
+
+import com.github.cc3002.citricjuice.model.MatchStandings;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.IBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Runs matches between bot policies on the practice board and rates them.
+ * <p>
+ * Entrants are grouped four at a time by the {@link Pairing}. Each group plays four matches,
+ * with the seats rotated by one every time and the same seed on all four, so every entrant
+ * plays every character and starting position against the same dice (common random numbers)
+ * and luck cancels out between them. Matches run in parallel, and their results are taken in
+ * schedule order as they come in: the Elo ratings are updated, the result is appended to the
+ * progress file if there's one, and the listener is told. The results don't depend on the
+ * amount of threads, and a tournament run again on the same progress file skips the matches
+ * already played. Saved matches must be the ones the tournament schedules, with the same seats
+ * and seeds, and a last line cut short by a crash is dropped.
+ */
+public class Tournament {
+  public static final int SEATS = 4;
+  public static final int DEFAULT_MAX_CHAPTERS = 200;
+
+  private static final String HEADER = "# 99.7% Citric Liquid tournament progress";
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final long seed;
+  private final List<String> names = new ArrayList<>();
+  private final List<LongFunction<IBotPolicy>> policies = new ArrayList<>();
+  private final List<MatchResult> results = new ArrayList<>();
+  private Pairing pairing = Pairing.ROUND_ROBIN;
+  private int rounds = 1;
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int maxChapters = DEFAULT_MAX_CHAPTERS;
+  private Path progressFile;
+  private Consumer<MatchResult> listener = result -> { };
+  private EloRatings ratings;
+
+  /**
+   * Creates an empty tournament.
+   * @param seed
+   *  seed every match seed is drawn from, the same seed and entrants play the same tournament
+   */
+  public Tournament(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Adds a policy to the tournament.
+   * @param name
+   *  name shown on the standings
+   * @param policy
+   *  creates the policy of a seat for a match, given a seed for its own random choices
+   * @return
+   *  the entrant's index.
+   */
+  public int addEntrant(String name, LongFunction<IBotPolicy> policy) {
+    names.add(name);
+    policies.add(policy);
+    return names.size() - 1;
+  }
+
+  public void setPairing(Pairing value) {
+    pairing = value;
+  }
+
+  /**
+   * Sets the amount of rounds. A round robin round plays every group of four, a Swiss round
+   * splits the entrants into groups once.
+   */
+  public void setRounds(int value) {
+    rounds = value;
+  }
+
+  /**
+   * Sets the amount of matches played at the same time.
+   */
+  public void setThreads(int value) {
+    threads = value;
+  }
+
+  /**
+   * Sets the amount of chapters after which a match that didn't end is scored as it stands.
+   */
+  public void setMaxChapters(int value) {
+    maxChapters = value;
+  }
+
+  /**
+   * Sets the file where results are saved as they come in, and read back from on the next run.
+   */
+  public void setProgressFile(Path path) {
+    progressFile = path;
+  }
+
+  /**
+   * Sets what's told of every result, after the ratings take it into account.
+   */
+  public void setListener(Consumer<MatchResult> value) {
+    listener = value;
+  }
+
+  public String getName(int entrant) {
+    return names.get(entrant);
+  }
+
+  /**
+   * Returns the ratings, null until the tournament runs.
+   */
+  public EloRatings getRatings() {
+    return ratings;
+  }
+
+  /**
+   * Returns the results taken so far, in schedule order.
+   */
+  public List<MatchResult> getResults() {
+    return List.copyOf(results);
+  }
+
+  /**
+   * Plays the whole tournament, after the matches saved on the progress file.
+   * @return
+   *  the final ratings.
+   * @throws IOException
+   *  if the progress file can't be read or written, is damaged, or belongs to another
+   *  tournament or to one with other pairing or rounds.
+   * @throws IllegalStateException
+   *  if there are less than two entrants.
+   */
+  public EloRatings run() throws IOException {
+    if (names.size() < 2) {
+      throw new IllegalStateException("A tournament needs at least two entrants.");
+    }
+    ratings = new EloRatings(names.size());
+    results.clear();
+    List<MatchResult> saved = loadProgress();
+    boolean identified = saved != null;
+    if (saved == null) {
+      saved = List.of();
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    try (BufferedWriter writer = openProgress(identified)) {
+      int scheduled = 0;
+      int round = 0;
+      while (round < rounds) {
+        // Swiss groups depend on the ratings, so each round waits for the previous one.
+        int batch = pairing == Pairing.SWISS ? 1 : rounds - round;
+        List<int[]> matches = new ArrayList<>();
+        for (int i = 0; i < batch; i++) {
+          for (int[] group : groups()) {
+            for (int rotation = 0; rotation < SEATS; rotation++) {
+              matches.add(rotate(group, rotation));
+            }
+          }
+        }
+        round += batch;
+        List<Future<MatchResult>> pending = new ArrayList<>();
+        for (int[] seats : matches) {
+          int id = scheduled++;
+          long matchSeed = mix(seed + (id / SEATS + 1) * GOLDEN_GAMMA);
+          if (id < saved.size()) {
+            MatchResult result = saved.get(id);
+            if (result.getSeed() != matchSeed || !Arrays.equals(result.getSeats(), seats)) {
+              throw new IOException("Progress file doesn't match the schedule at match " + id
+                                    + ", it was played with another pairing or rounds.");
+            }
+            pending.add(null);
+          } else {
+            pending.add(executor.submit(() -> play(id, matchSeed, seats)));
+          }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+          int id = scheduled - pending.size() + i;
+          MatchResult result = pending.get(i) == null ? saved.get(id) : await(pending.get(i));
+          if (pending.get(i) != null && writer != null) {
+            writer.write(result.toLine());
+            writer.newLine();
+            writer.flush();
+          }
+          take(result);
+        }
+      }
+      if (scheduled < saved.size()) {
+        throw new IOException("Progress file has " + saved.size() + " matches, the tournament "
+                              + "only plays " + scheduled + ".");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return ratings;
+  }
+
+  private static MatchResult await(Future<MatchResult> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a match.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A match failed.", e.getCause());
+    }
+  }
+
+  private void take(MatchResult result) {
+    results.add(result);
+    ratings.update(result.getOrder());
+    listener.accept(result);
+  }
+
+  /**
+   * Returns the groups of the next round, one entrant per seat.
+   */
+  private List<int[]> groups() {
+    int n = names.size();
+    List<int[]> groups = new ArrayList<>();
+    if (n <= SEATS) {
+      // Fewer entrants than seats: they take the seats in turns.
+      int[] group = new int[SEATS];
+      for (int seat = 0; seat < SEATS; seat++) {
+        group[seat] = seat % n;
+      }
+      groups.add(group);
+    } else if (pairing == Pairing.ROUND_ROBIN) {
+      for (int a = 0; a < n; a++) {
+        for (int b = a + 1; b < n; b++) {
+          for (int c = b + 1; c < n; c++) {
+            for (int d = c + 1; d < n; d++) {
+              groups.add(new int[] {a, b, c, d});
+            }
+          }
+        }
+      }
+    } else {
+      int[] ranking = ratings.ranking();
+      for (int first = 0; first < n; first += SEATS) {
+        // The last group takes the lowest four when the entrants don't split evenly.
+        int start = Math.min(first, n - SEATS);
+        int[] group = new int[SEATS];
+        System.arraycopy(ranking, start, group, 0, SEATS);
+        groups.add(group);
+      }
+    }
+    return groups;
+  }
+
+  private static int[] rotate(int[] group, int rotation) {
+    int[] seats = new int[SEATS];
+    for (int seat = 0; seat < SEATS; seat++) {
+      seats[seat] = group[(seat + rotation) % SEATS];
+    }
+    return seats;
+  }
+
+  /**
+   * Plays a match headlessly and ranks the entrants by the final standings.
+   * @param seats
+   *  entrant playing each seat
+   */
+  MatchResult play(int id, long matchSeed, int[] seats) {
+    GameController controller = new GameController();
+    controller.setHeadless(true);
+    controller.newGame();
+    controller.setSeed(matchSeed);
+    for (int seat = 0; seat < SEATS; seat++) {
+      // Seeded by entrant, so an entrant decides alike on every rotation of its group.
+      long policySeed = mix(matchSeed ^ (seats[seat] + 1) * GOLDEN_GAMMA);
+      controller.setBotPolicy(controller.getPlayer(seat),
+                              policies.get(seats[seat]).apply(policySeed));
+    }
+    BotDriver driver = new BotDriver(controller);
+    while (!controller.getGameEnded() && controller.getChapter() <= maxChapters) {
+      if (driver.runUntil(TurboBoundary.CHAPTER) == 0) {
+        break;
+      }
+    }
+    MatchStandings standings = controller.getStandings();
+    Player winner = controller.getWinner();
+    int[] order = new int[SEATS];
+    int place = 0;
+    if (winner != null) {
+      order[place++] = seats[controller.getPlayerIndex(winner)];
+    }
+    for (int rank = 0; rank < standings.size(); rank++) {
+      Player player = standings.getPlayerAt(rank);
+      if (player != winner) {
+        order[place++] = seats[controller.getPlayerIndex(player)];
+      }
+    }
+    return new MatchResult(id, matchSeed, controller.getGameEnded(), seats, order);
+  }
+
+  /**
+   * Reads the results saved on the progress file, checking it belongs to this tournament. A
+   * last line without its line end was cut short while being written, so it's dropped from the
+   * file.
+   * @return
+   *  the results, or null if the file doesn't tell which tournament it belongs to yet.
+   */
+  private List<MatchResult> loadProgress() throws IOException {
+    if (progressFile == null || !Files.exists(progressFile)) {
+      return null;
+    }
+    String text = new String(Files.readAllBytes(progressFile), StandardCharsets.UTF_8);
+    int end = text.lastIndexOf('\n') + 1;
+    if (end < text.length()) {
+      text = text.substring(0, end);
+      try (FileChannel channel = FileChannel.open(progressFile, StandardOpenOption.WRITE)) {
+        channel.truncate(text.getBytes(StandardCharsets.UTF_8).length);
+      }
+    }
+    boolean identified = false;
+    List<MatchResult> saved = new ArrayList<>();
+    for (String line : text.split("\n")) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] parts = line.split(" ");
+      try {
+        if (parts[0].equals("seed") && parts.length == 3) {
+          if (Long.parseLong(parts[1]) != seed || Integer.parseInt(parts[2]) != names.size()) {
+            throw new IOException("Progress file belongs to another tournament.");
+          }
+          identified = true;
+        } else if (parts[0].equals("match") && identified) {
+          MatchResult result = MatchResult.fromLine(line);
+          if (result.getId() != saved.size()) {
+            throw new IOException("Progress file skips match " + saved.size() + ".");
+          }
+          saved.add(result);
+        } else {
+          throw new IOException("Progress file has an unexpected line: " + line);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Progress file has a damaged line: " + line, e);
+      }
+    }
+    return identified ? saved : null;
+  }
+
+  /**
+   * Opens the progress file to append results, writing its header if it's empty and which
+   * tournament it belongs to if it doesn't tell yet.
+   */
+  private BufferedWriter openProgress(boolean identified) throws IOException {
+    if (progressFile == null) {
+      return null;
+    }
+    boolean empty = !Files.exists(progressFile) || Files.size(progressFile) == 0;
+    BufferedWriter writer = Files.newBufferedWriter(progressFile, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    if (empty) {
+      writer.write(HEADER);
+      writer.newLine();
+    }
+    if (!identified) {
+      writer.write("seed " + seed + " " + names.size());
+      writer.newLine();
+    }
+    writer.flush();
+    return writer;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Runs a round robin between random policies and prints the ratings.
+   * @param args
+   *  amount of entrants, 5 if not given, and rounds, 10 if not given
+   */
+  public static void main(String[] args) throws IOException {
+    int entrants = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+    Tournament tournament = new Tournament(System.nanoTime());
+    tournament.setRounds(args.length > 1 ? Integer.parseInt(args[1]) : 10);
+    for (int i = 0; i < entrants; i++) {
+      tournament.addEntrant("Random " + (i + 1), RandomBotPolicy::new);
+    }
+    long start = System.nanoTime();
+    EloRatings ratings = tournament.run();
+    long elapsed = System.nanoTime() - start;
+    for (int entrant : ratings.ranking()) {
+      System.out.printf("%-12s %7.1f %5d%n", tournament.getName(entrant),
+          ratings.getRating(entrant), ratings.getMatches(entrant));
+    }
+    System.out.printf("%d matches in %d ms%n", tournament.getResults().size(), elapsed / 1000000);
+  }
+}
@@ -2,21 +2,38 @@ package com.github.cc3002.citricliquid.gui;
 
 import com.github.cc3002.citricjuice.model.board.IPanel;
 import com.github.cc3002.citricjuice.model.board.NullPanel;
-import com.github.cc3002.citricjuice.model.norma.NormaFactory;
 import com.github.cc3002.citricjuice.model.unit.BossUnit;
 import com.github.cc3002.citricjuice.model.unit.IUnit;
 import com.github.cc3002.citricjuice.model.unit.Player;
 import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
 import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.balance.LandingAnalyzer;
+import com.github.cc3002.citricliquid.controller.balance.LandingDistribution;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
 import com.github.cc3002.citricliquid.controller.gameflowstates.TurnState;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+import com.github.cc3002.citricliquid.controller.replay.MatchLog;
+import com.github.cc3002.citricliquid.controller.replay.ReplayPlayer;
+import com.github.cc3002.citricliquid.controller.server.GameServer;
+import com.github.cc3002.citricliquid.controller.sync.StateMirror;
+import com.github.cc3002.citricliquid.controller.sync.SyncClient;
 import com.github.cc3002.citricliquid.gui.nodes.BoardPanel;
 import com.github.cc3002.citricliquid.gui.nodes.BoardPlayer;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Slider;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
@@ -29,7 +46,13 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * @author Ignacio Slater Muñoz.
@@ -39,7 +62,31 @@ import java.util.List;
 public class CitricLiquid extends Application implements PropertyChangeListener {
   public static final String RESOURCE_PATH = "src/main/resources/";
   public static final int TILE_SIZE = 64;
+  // Nanoseconds between two bot decisions when turbo mode is off.
+  public static final long BOT_STEP_DELAY = 400_000_000L;
   private GameController gameController;
+  private BotDriver botDriver;
+  private boolean turboMode = false;
+  private TurboBoundary turboBoundary = TurboBoundary.TURN;
+  private long lastBotStep = 0;
+  // Commands applied per second by the replay at 1x speed.
+  public static final double REPLAY_COMMANDS_PER_SECOND = 2;
+  public static final String REPLAY_DIRECTORY = "replays/";
+  private MatchLog matchLog;
+  private ReplayPlayer replayPlayer;
+  private boolean replayPaused = false;
+  private double replaySpeed = 1;
+  private double pendingReplayCommands = 0;
+  private long lastReplayFrame = 0;
+  // Milliseconds between two state requests when watching a match on a server.
+  public static final long SYNC_INTERVAL_MILLIS = 200;
+  private StateMirror mirror;
+  private int watchedMatch;
+  // Panels drawn on the board, to overlay the landing heatmap on.
+  private final List<BoardPanel> boardPanels = new ArrayList<>();
+  // Landing share and star income of each panel averaged over the players, null until shown.
+  private double[] landingShares;
+  private double[] starIncomes;
 
   // Resources
   public static Image connectedUp;
@@ -110,16 +157,24 @@ public class CitricLiquid extends Application implements PropertyChangeListener
   }
 
   @Override
-  public void start(@NotNull Stage stage) throws FileNotFoundException {
+  public void start(@NotNull Stage stage) throws IOException {
     stage.setTitle("99.7% Citric Liquid");
 
     loadPanelResources();
     loadIconResources();
 
 
-    gameController = new GameController();
-    gameController.newGame();
+    if (!readReplayParameter() && !readWatchParameter()) {
+      gameController = new GameController();
+      gameController.newGame();
+      long seed = new Random().nextLong();
+      gameController.setSeed(seed);
+      matchLog = new MatchLog(seed);
+      gameController.startRecording(matchLog);
+    }
     gameController.addObserver(this);
+    botDriver = new BotDriver(gameController);
+    readBotParameters();
 
     player1 = new BoardPlayer(gameController.getPlayers().get(0), "player1.png");
     player2 = new BoardPlayer(gameController.getPlayers().get(1), "player2.png");
@@ -167,6 +222,13 @@ public class CitricLiquid extends Application implements PropertyChangeListener
     bottomText = new Text("Welcome to 100% Citric Liquid!");
 
     topBar.setAlignment(Pos.CENTER_LEFT);
+    if (replayPlayer != null) {
+      topBar.getChildren().addAll(makeReplayControls());
+    } else if (mirror == null) {
+      topBar.getChildren().addAll(makeBotControls());
+      topBar.getChildren().add(makeSaveLogButton());
+    }
+    topBar.getChildren().add(makeHeatmapButton());
 
     bottomBar.getChildren().add(bottomText);
     bottomBar.setAlignment(Pos.CENTER);
@@ -185,11 +247,307 @@ public class CitricLiquid extends Application implements PropertyChangeListener
     updateControls();
     updateInfoSidebar();
 
+    // Plays the computer controlled seats, one boundary per frame on turbo mode,
+    // or the recorded commands when watching a replay.
+    AnimationTimer botTimer = new AnimationTimer() {
+      @Override
+      public void handle(final long now) {
+        if (replayPlayer != null) {
+          runReplay(now);
+        } else if (mirror == null) {
+          runBots(now);
+        }
+      }
+    };
+    botTimer.start();
+
     stage.setScene(scene);
     stage.setResizable(false);
     stage.show();
   }
 
+  /**
+   * Reads the --replay launch parameter and, when present, loads the match log on it
+   * and sets the window to watch it instead of playing a new game.
+   * @return
+   *  true if a replay was loaded.
+   */
+  boolean readReplayParameter() throws IOException {
+    Map<String, String> named = getParameters().getNamed();
+    if (!named.containsKey("replay")) {
+      return false;
+    }
+    replayPlayer = new ReplayPlayer(MatchLog.load(Path.of(named.get("replay"))));
+    gameController = replayPlayer.getController();
+    return true;
+  }
+
+  /**
+   * Reads the --watch launch parameter and, when present, follows that match of the server
+   * given by --server (localhost by default) instead of playing a new game.
+   * @return
+   *  true if a match is being watched.
+   */
+  boolean readWatchParameter() throws IOException {
+    Map<String, String> named = getParameters().getNamed();
+    if (!named.containsKey("watch")) {
+      return false;
+    }
+    String[] address = named.getOrDefault("server", "localhost:" + GameServer.DEFAULT_PORT).split(":");
+    watchedMatch = Integer.parseInt(named.get("watch"));
+    SyncClient client = new SyncClient(address[0], Integer.parseInt(address[1]), watchedMatch);
+    mirror = new StateMirror();
+    mirror.addObserver(this);
+    gameController = mirror.getController();
+
+    Thread syncThread = new Thread(() -> followMatch(client));
+    syncThread.setDaemon(true);
+    syncThread.start();
+    return true;
+  }
+
+  /**
+   * Keeps asking the server for the state of the watched match and applies it on the
+   * JavaFX thread. Runs on its own thread until the connection is lost.
+   */
+  void followMatch(SyncClient client) {
+    try (client) {
+      while (true) {
+        byte[] frame = client.nextFrame(mirror.needsResync());
+        Platform.runLater(() -> applyFrame(frame));
+        Thread.sleep(SYNC_INTERVAL_MILLIS);
+      }
+    } catch (IOException | InterruptedException e) {
+      Platform.runLater(() -> setBottomText("Lost the connection to the server: " + e.getMessage()));
+    }
+  }
+
+  private void applyFrame(byte[] frame) {
+    try {
+      mirror.apply(frame);
+    } catch (IOException e) {
+      setBottomText("Received a broken state frame: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the launch parameters that set up the bots.
+   * --bots takes a comma separated list of seats (1 to 4) to be computer controlled and
+   * --turbo takes the boundary to redraw the board at (TURN, CHAPTER or NORMA_OR_KO).
+   */
+  void readBotParameters() {
+    Map<String, String> named = getParameters().getNamed();
+    List<Player> players = gameController.getPlayers();
+    if (named.containsKey("bots")) {
+      for (String seat : named.get("bots").split(",")) {
+        int index = Integer.parseInt(seat.trim()) - 1;
+        gameController.setBotPolicy(players.get(index), new RandomBotPolicy());
+      }
+    }
+    if (named.containsKey("turbo")) {
+      turboBoundary = TurboBoundary.valueOf(named.get("turbo").toUpperCase());
+      turboMode = true;
+    }
+  }
+
+  /**
+   * Creates the top bar controls to pick which seats are computer controlled
+   * and to toggle the turbo mode.
+   * @return
+   */
+  List<Node> makeBotControls() {
+    HBox seatsBox = new HBox();
+    seatsBox.setSpacing(8);
+    for (Player p : gameController.getPlayers()) {
+      CheckBox botCheckBox = new CheckBox("Bot: " + p.getName());
+      botCheckBox.setSelected(gameController.isBotControlled(p));
+      botCheckBox.setOnAction(event -> {
+        gameController.setBotPolicy(p, botCheckBox.isSelected() ? new RandomBotPolicy() : null);
+        updateControls();
+      });
+      seatsBox.getChildren().add(botCheckBox);
+    }
+
+    ToggleButton turboButton = new ToggleButton("Turbo");
+    turboButton.setSelected(turboMode);
+    turboButton.setOnAction(event -> turboMode = turboButton.isSelected());
+
+    ComboBox<TurboBoundary> boundaryBox = new ComboBox<>();
+    boundaryBox.getItems().addAll(TurboBoundary.values());
+    boundaryBox.setValue(turboBoundary);
+    boundaryBox.setOnAction(event -> turboBoundary = boundaryBox.getValue());
+
+    return List.of(seatsBox, turboButton, boundaryBox);
+  }
+
+  /**
+   * Creates a button that saves the log of the current match on the replays folder.
+   * @return
+   */
+  Button makeSaveLogButton() {
+    Button saveButton = new Button("Save log");
+    saveButton.setOnAction(event -> {
+      Path path = Path.of(REPLAY_DIRECTORY, "match-" + System.currentTimeMillis() + ".log");
+      try {
+        Files.createDirectories(path.getParent());
+        matchLog.save(path);
+        setBottomText("Match log saved on " + path);
+      } catch (IOException e) {
+        setBottomText("Couldn't save the match log: " + e.getMessage());
+      }
+    });
+    return saveButton;
+  }
+
+  /**
+   * Creates a button that overlays on the board how often the players land on each panel,
+   * worked out by a {@link LandingAnalyzer} for each player's home and averaged. It's disabled
+   * if the controller doesn't play on a shared board.
+   * @return
+   */
+  ToggleButton makeHeatmapButton() {
+    ToggleButton heatmapButton = new ToggleButton("Heatmap");
+    heatmapButton.setDisable(gameController.getBoard() == null);
+    heatmapButton.setOnAction(event -> {
+      if (heatmapButton.isSelected()) {
+        showHeatmap();
+      } else {
+        boardPanels.forEach(BoardPanel::hideHeat);
+      }
+    });
+    return heatmapButton;
+  }
+
+  /**
+   * Tints every panel of the board by its landing share, analyzing the board the first time.
+   */
+  void showHeatmap() {
+    BoardTopology board = gameController.getBoard();
+    if (landingShares == null) {
+      LandingAnalyzer analyzer = new LandingAnalyzer(board);
+      landingShares = new double[board.size()];
+      starIncomes = new double[board.size()];
+      List<Player> players = gameController.getPlayers();
+      for (Player player : players) {
+        LandingDistribution distribution = analyzer.analyze(player.getHomePanel().getEntityId());
+        for (int id = 0; id < board.size(); id++) {
+          landingShares[id] += distribution.getLanding(id) / players.size();
+          starIncomes[id] += distribution.getStarIncome(id, 1) / players.size();
+        }
+      }
+    }
+    double least = Double.MAX_VALUE;
+    double most = 0;
+    for (double share : landingShares) {
+      least = Math.min(least, share);
+      most = Math.max(most, share);
+    }
+    for (BoardPanel boardPanel : boardPanels) {
+      int id = boardPanel.getPanel().getEntityId();
+      double heat = most > least ? (landingShares[id] - least) / (most - least) : 0;
+      boardPanel.showHeat(heat, String.format("Landed on %.1f%% of the turns, %+.3f stars per turn at norma 1.",
+        landingShares[id] * 100, starIncomes[id]));
+    }
+    setBottomText("Heatmap: blue panels are landed on the least, red ones the most.");
+  }
+
+  /**
+   * Creates the top bar controls of the replay: play/pause, speed and seeking
+   * by turn or by chapter.
+   * @return
+   */
+  List<Node> makeReplayControls() {
+    ToggleButton pauseButton = new ToggleButton("Pause");
+    pauseButton.setOnAction(event -> replayPaused = pauseButton.isSelected());
+
+    Slider speedSlider = new Slider(1, 100, replaySpeed);
+    speedSlider.setShowTickLabels(true);
+    speedSlider.setMajorTickUnit(33);
+    speedSlider.valueProperty().addListener(
+      (observable, oldValue, newValue) -> replaySpeed = newValue.doubleValue());
+
+    Button previousChapterButton = new Button("<< Chapter");
+    previousChapterButton.setOnAction(
+      event -> seekReplay(() -> replayPlayer.seek(Math.max(1, gameController.getChapter() - 1), 0)));
+    Button previousTurnButton = new Button("< Turn");
+    previousTurnButton.setOnAction(
+      event -> seekReplay(() -> replayPlayer.seekTurn(replayPlayer.getTurnIndex() - 1)));
+    Button nextTurnButton = new Button("Turn >");
+    nextTurnButton.setOnAction(
+      event -> seekReplay(() -> replayPlayer.seekTurn(replayPlayer.getTurnIndex() + 1)));
+    Button nextChapterButton = new Button("Chapter >>");
+    nextChapterButton.setOnAction(
+      event -> seekReplay(() -> replayPlayer.seek(gameController.getChapter() + 1, 0)));
+
+    return List.of(pauseButton, speedSlider, previousChapterButton, previousTurnButton,
+      nextTurnButton, nextChapterButton);
+  }
+
+  /**
+   * Moves the replay and redraws the window.
+   * @param seek
+   *  seeking action to take on the replay
+   */
+  void seekReplay(Runnable seek) {
+    seek.run();
+    pendingReplayCommands = 0;
+    redrawAll();
+  }
+
+  /**
+   * Applies the replay commands due since the last frame, according to the replay speed.
+   * @param now
+   *  timestamp of the current frame in nanoseconds
+   */
+  void runReplay(long now) {
+    if (replayPaused || replayPlayer.isFinished()) {
+      lastReplayFrame = now;
+      return;
+    }
+    if (lastReplayFrame != 0) {
+      pendingReplayCommands += (now - lastReplayFrame) / 1e9 * REPLAY_COMMANDS_PER_SECOND * replaySpeed;
+    }
+    lastReplayFrame = now;
+    int due = (int) pendingReplayCommands;
+    if (due > 0) {
+      pendingReplayCommands -= due;
+      replayPlayer.advance(due);
+      redrawAll();
+    }
+  }
+
+  /**
+   * Takes the pending bot decisions.
+   * On turbo mode the controller resolves everything up to the next boundary without
+   * notifying the GUI, and then the whole window is redrawn once.
+   * @param now
+   *  timestamp of the current frame in nanoseconds
+   */
+  void runBots(long now) {
+    if (!botDriver.isBotTurn()) {
+      return;
+    }
+    if (turboMode) {
+      botDriver.runUntil(turboBoundary);
+      redrawAll();
+    } else if (now - lastBotStep >= BOT_STEP_DELAY) {
+      lastBotStep = now;
+      botDriver.step();
+    }
+  }
+
+  /**
+   * Redraws every part of the window, used after the controller ran headlessly.
+   */
+  public void redrawAll() {
+    updatePlayers();
+    updateControls();
+    updateInfoSidebar();
+    if (gameController.getGameEnded()) {
+      border.setRight(makeGameResultsControls());
+    }
+  }
+
   /**
    * Creates a gridPane that shows the board of the game of a controller.
    *
@@ -205,9 +563,10 @@ public class CitricLiquid extends Application implements PropertyChangeListener
       for (int y = 0; y < matrix[x].length; y++) {
         if (!matrix[x][y].equals(NullPanel.getNullPanel())) {
 
-          matrix[x][y].setMatrixPos(x, y);
+          // Panels of a shared board got their position when the board was built.
           BoardPanel thisPanel = new BoardPanel(matrix[x][y]);
           thisPanel.setGui(this);
+          boardPanels.add(thisPanel);
           Group thisGroup = thisPanel.getGroup();
 
           boardGrid.add(thisGroup, x, y);
@@ -331,6 +690,24 @@ public class CitricLiquid extends Application implements PropertyChangeListener
       border.setRight(optionsBar);
     }
 
+    // Bots take their own decisions, so the buttons are hidden meanwhile.
+    if (botDriver.isBotTurn()) {
+      optionsBar = makeBotTurnControls();
+      border.setRight(optionsBar);
+    }
+
+    // The replay follows its log, no decisions are taken from the window.
+    if (replayPlayer != null) {
+      optionsBar = makeReplayInfoControls();
+      border.setRight(optionsBar);
+    }
+
+    // Same when watching a match, the decisions are taken by the server's clients.
+    if (mirror != null) {
+      optionsBar = makeWatchInfoControls();
+      border.setRight(optionsBar);
+    }
+
     optionsBar.setMinWidth(256);
     optionsBar.setMaxWidth(256);
 
@@ -383,7 +760,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     Button button = new Button("Start turn!");
     newVBox.getChildren().add(button);
-    button.setOnAction(event -> gameController.beginTurn());
+    button.setOnAction(event -> gameController.perform(GameCommand.BEGIN_TURN));
 
     return newVBox;
   }
@@ -411,7 +788,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     Button button = new Button("Roll dice!");
     newVBox.getChildren().add(button);
-    button.setOnAction(event -> gameController.doMove());
+    button.setOnAction(event -> gameController.perform(GameCommand.DO_MOVE));
 
     return newVBox;
   }
@@ -439,10 +816,10 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     Button button = new Button("Yes");
     newVBox.getChildren().add(button);
-    button.setOnAction(event -> gameController.stopAtHome());
+    button.setOnAction(event -> gameController.perform(GameCommand.STOP_AT_HOME));
     Button button2 = new Button("No");
     newVBox.getChildren().add(button2);
-    button2.setOnAction(event -> gameController.continueMoving());
+    button2.setOnAction(event -> gameController.perform(GameCommand.CONTINUE_MOVING));
 
     return newVBox;
   }
@@ -473,7 +850,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     Button button = new Button("Finish turn");
     newVBox.getChildren().add(button);
-    button.setOnAction(event -> gameController.finishTurn());
+    button.setOnAction(event -> gameController.perform(GameCommand.FINISH_TURN));
 
     return newVBox;
   }
@@ -500,17 +877,16 @@ public class CitricLiquid extends Application implements PropertyChangeListener
     // To do this we'll iterate through the current panel
     // and generate a button to trigger the fight against it
     // only if that player is not the turn owner.
-    IPanel panel = owner.getCurrentPanel();
-    for (Player p : panel.getPlayers()) {
-      if (!p.equals(owner) && !p.isKOd()) {
+    for (Player p : owner.getPanelOccupancy()) {
+      if (p != owner && !p.isKOd()) {
         var fightPlayerButton = new Button("Fight against " + p.getName());
         newVBox.getChildren().add(fightPlayerButton);
-        fightPlayerButton.setOnAction(event -> gameController.startCombat(p));
+        fightPlayerButton.setOnAction(event -> gameController.perform(GameCommand.START_COMBAT, gameController.getPlayerIndex(p)));
       }
     }
     var dontFightButton = new Button("Don't fight anyone");
     newVBox.getChildren().add(dontFightButton);
-    dontFightButton.setOnAction(event -> gameController.continueMoving());
+    dontFightButton.setOnAction(event -> gameController.perform(GameCommand.CONTINUE_MOVING));
 
     return newVBox;
   }
@@ -537,11 +913,11 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     var defendButton = new Button("Defend");
     newVBox.getChildren().add(defendButton);
-    defendButton.setOnAction(event -> gameController.defendAgainstCombat());
+    defendButton.setOnAction(event -> gameController.perform(GameCommand.DEFEND_AGAINST_COMBAT));
 
     var evadeButton = new Button("Evade");
     newVBox.getChildren().add(evadeButton);
-    evadeButton.setOnAction(event -> gameController.evadeAgainstCombat());
+    evadeButton.setOnAction(event -> gameController.perform(GameCommand.EVADE_AGAINST_COMBAT));
 
     return newVBox;
   }
@@ -567,7 +943,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     var counterattackButton = new Button("Counterattack!");
     newVBox.getChildren().add(counterattackButton);
-    counterattackButton.setOnAction(event -> gameController.startCounterAttack());
+    counterattackButton.setOnAction(event -> gameController.perform(GameCommand.START_COUNTERATTACK));
 
     return newVBox;
   }
@@ -594,11 +970,11 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     var defendButton = new Button("Defend");
     newVBox.getChildren().add(defendButton);
-    defendButton.setOnAction(event -> gameController.defendAgainstCounterattack());
+    defendButton.setOnAction(event -> gameController.perform(GameCommand.DEFEND_AGAINST_COUNTERATTACK));
 
     var evadeButton = new Button("Evade");
     newVBox.getChildren().add(evadeButton);
-    evadeButton.setOnAction(event -> gameController.evadeAgainstCounterattack());
+    evadeButton.setOnAction(event -> gameController.perform(GameCommand.EVADE_AGAINST_COUNTERATTACK));
 
     return newVBox;
   }
@@ -628,7 +1004,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
     for(IPanel o : panel.getNextPanels()) {
       Button button = new Button(o.toString());
       newVBox.getChildren().add(button);
-      button.setOnAction(event -> gameController.continueMovingThrough(o));
+      button.setOnAction(event -> gameController.perform(GameCommand.CONTINUE_MOVING_THROUGH, gameController.getPanelIndex(o)));
     } */
 
 
@@ -654,7 +1030,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
 
     Button button = new Button("Roll recovery trial!");
     newVBox.getChildren().add(button);
-    button.setOnAction(event -> gameController.recoveryTrial());
+    button.setOnAction(event -> gameController.perform(GameCommand.RECOVERY_TRIAL));
 
 
 
@@ -680,17 +1056,81 @@ public class CitricLiquid extends Application implements PropertyChangeListener
     newVBox.getChildren().add(normaClearText);
     newVBox.getChildren().add(normaPickHintText);
 
-    int wins = NormaFactory.getWinsNorma(level).getRequirement();
-    int stars = NormaFactory.getStarsNorma(level).getRequirement();
+    int wins = gameController.getNormaLadder().getWinsNorma(level).getRequirement();
+    int stars = gameController.getNormaLadder().getStarsNorma(level).getRequirement();
     Button pickWinsNormaButton = new Button("Reach "+wins+" wins!");
     newVBox.getChildren().add(pickWinsNormaButton);
-    pickWinsNormaButton.setOnAction(event -> gameController.selectWinsNorma());
+    pickWinsNormaButton.setOnAction(event -> gameController.perform(GameCommand.SELECT_WINS_NORMA));
 
     Button pickStarsNormaButton = new Button("Reach "+stars+" stars!");
     newVBox.getChildren().add(pickStarsNormaButton);
-    pickStarsNormaButton.setOnAction(event -> gameController.selectStarsNorma());
+    pickStarsNormaButton.setOnAction(event -> gameController.perform(GameCommand.SELECT_STARS_NORMA));
+
+
+
+    return newVBox;
+  }
+
+  /**
+   * Creates a VBox shown while a computer controlled unit is deciding.
+   * @return
+   */
+  VBox makeBotTurnControls() {
+    IUnit decider = gameController.getCurrentDecider();
+    int chapter = gameController.getChapter();
+    Text chapterText = new Text("Chapter: " + chapter);
+    Text text = new Text(decider.getName() + " (bot) is playing...");
+
+    VBox newVBox = new VBox();
+    newVBox.setAlignment(Pos.CENTER);
 
+    newVBox.getChildren().add(chapterText);
+    newVBox.getChildren().add(text);
 
+    return newVBox;
+  }
+
+  /**
+   * Creates a VBox with the progress of the replay being watched.
+   * @return
+   */
+  VBox makeReplayInfoControls() {
+    int chapter = gameController.getChapter();
+    Text chapterText = new Text("Chapter: " + chapter);
+    Text text = new Text("It's " + gameController.getTurnOwner().getName() + "'s turn!");
+    Text turnText = new Text("Turn " + (replayPlayer.getTurnIndex() + 1) + " of "
+      + replayPlayer.getTurnCount());
+    Text commandText = new Text("Command " + replayPlayer.getPosition() + " of "
+      + replayPlayer.size());
+
+    VBox newVBox = new VBox();
+    newVBox.setAlignment(Pos.CENTER);
+
+    newVBox.getChildren().add(new Text("Replay"));
+    newVBox.getChildren().add(chapterText);
+    newVBox.getChildren().add(text);
+    newVBox.getChildren().add(turnText);
+    newVBox.getChildren().add(commandText);
+
+    return newVBox;
+  }
+
+  /**
+   * Creates a VBox with the state of the match being watched.
+   * @return
+   */
+  VBox makeWatchInfoControls() {
+    int chapter = gameController.getChapter();
+    Text chapterText = new Text("Chapter: " + chapter);
+    Text text = new Text("It's " + gameController.getTurnOwner().getName() + "'s turn!");
+    String status = mirror.needsResync() ? "Waiting for the server..." : "Watching match " + watchedMatch;
+
+    VBox newVBox = new VBox();
+    newVBox.setAlignment(Pos.CENTER);
+
+    newVBox.getChildren().add(new Text(status));
+    newVBox.getChildren().add(chapterText);
+    newVBox.getChildren().add(text);
 
     return newVBox;
   }
@@ -857,7 +1297,7 @@ public class CitricLiquid extends Application implements PropertyChangeListener
       // from the current turn's owner panel.
       IPanel actualPanel = gameController.getTurnOwner().getCurrentPanel();
       if (actualPanel.getNextPanels().contains(panel)) {
-        gameController.continueMovingThrough(panel);
+        gameController.perform(GameCommand.CONTINUE_MOVING_THROUGH, gameController.getPanelIndex(panel));
       } else {
         setBottomText("This panel cannot be selected, you have to choose from the adjacent ones to "+gameController.getTurnOwner().getName()+"'s current panel.");
       }
@@ -5,6 +5,8 @@ import com.github.cc3002.citricliquid.gui.CitricLiquid;
 import javafx.scene.Group;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 
 import java.io.FileNotFoundException;
 import java.util.List;
@@ -17,6 +19,7 @@ public class BoardPanel {
   CitricLiquid gui;
   String descText;
   IPanel panel;
+  Rectangle heatOverlay;
 
   public BoardPanel(IPanel panel) throws FileNotFoundException {
     group = new Group();
@@ -55,6 +58,38 @@ public class BoardPanel {
 
   }
 
+  /**
+   * Tints the panel by how often it's landed on and adds the figures to its description.
+   * @param heat
+   *  from 0, for the panels landed on the least, to 1, for the most landed one
+   * @param text
+   *  figures shown after the description
+   */
+  public void showHeat(double heat, String text) {
+    if (heatOverlay == null) {
+      heatOverlay = new Rectangle(TILE_SIZE, TILE_SIZE);
+      heatOverlay.setMouseTransparent(true);
+      group.getChildren().add(heatOverlay);
+    }
+    heatOverlay.setFill(Color.hsb(240 * (1 - heat), 1, 1, 0.55));
+    heatOverlay.setVisible(true);
+    descText = panel.getPanelDescription() + "\n" + text;
+  }
+
+  /**
+   * Removes the tint set by showHeat.
+   */
+  public void hideHeat() {
+    if (heatOverlay != null) {
+      heatOverlay.setVisible(false);
+    }
+    descText = panel.getPanelDescription();
+  }
+
+  public IPanel getPanel() {
+    return panel;
+  }
+
   public void setGui(CitricLiquid gui) {
     this.gui = gui;
   }
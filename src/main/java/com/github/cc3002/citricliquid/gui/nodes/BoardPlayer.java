@@ -16,6 +16,7 @@ public class BoardPlayer {
 
   ImageView imageView;
   Player player;
+  AnimationTimer timer;
 
   public Player getPlayer() {
     return player;
@@ -35,8 +36,12 @@ public class BoardPlayer {
   }
 
   public void updatePosition() {
+    // The timer follows the player on every frame, so it only has to be started once.
+    if (timer != null) {
+      return;
+    }
 
-    AnimationTimer timer = new AnimationTimer() {
+    timer = new AnimationTimer() {
       @Override
       public void handle(final long now) {
         IPanel panel = player.getCurrentPanel();
@@ -47,7 +52,7 @@ public class BoardPlayer {
           imageView.setOpacity(1);
         }
 
-        if (panel.getPlayers().size() == 1) {
+        if (player.getPanelOccupancy().size() == 1) {
 
           double originOffset = (TILE_SIZE - TILE_SIZE*0.75)/2;
 
@@ -59,7 +64,7 @@ public class BoardPlayer {
           imageView.setFitWidth(TILE_SIZE/2);
           imageView.setFitHeight(TILE_SIZE/2);
 
-          int index = panel.getPlayers().indexOf(player);
+          int index = player.getPanelOccupancy().indexOf(player);
           double xOffset = 0;
           double yOffset = 0;
 
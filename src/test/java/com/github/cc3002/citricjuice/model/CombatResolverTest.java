@@ -0,0 +1,93 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.unit.AbstractUnit;
+import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.CombatResolver;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricjuice.model.unit.UnitTable;
+import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CombatResolverTest {
+
+  @Test
+  public void resultTest() {
+    // Suguri (atk 1) attacks a Chicken with 5 stars for 7, it defends with a 2: 7 - (2 - 1) = 6.
+    long result = CombatResolver.resolve(UnitTable.PLAYER, 7, UnitTable.WILD, 3, -1, -1, 5,
+        CombatResolver.DEFEND, 2);
+    assertEquals(7, CombatResolver.getAttackValue(result));
+    assertEquals(2, CombatResolver.getResponseRoll(result));
+    assertEquals(6, CombatResolver.getDamage(result));
+    assertFalse(CombatResolver.isEvaded(result));
+    assertTrue(CombatResolver.isKO(result));
+    assertEquals(1, CombatResolver.getWins(result));
+    assertEquals(5, CombatResolver.getStars(result));
+
+    // A boss evading a player with a 6 and evasion -3 doesn't beat an attack of 4.
+    result = CombatResolver.resolve(UnitTable.BOSS, 4, UnitTable.PLAYER, 5, 0, -3, 9,
+        CombatResolver.EVADE, 6);
+    assertFalse(CombatResolver.isEvaded(result));
+    assertEquals(4, CombatResolver.getDamage(result));
+    assertFalse(CombatResolver.isKO(result));
+    assertEquals(0, CombatResolver.getStars(result));
+
+    result = CombatResolver.resolve(UnitTable.WILD, -1, UnitTable.PLAYER, 1, 0, 0, 9,
+        CombatResolver.EVADE, 1);
+    assertTrue(CombatResolver.isEvaded(result));
+    assertEquals(-1, CombatResolver.getAttackValue(result));
+    assertEquals(0, CombatResolver.getDamage(result));
+  }
+
+  @RepeatedTest(20)
+  public void matchesUnitRulesTest() {
+    long seed = new Random().nextLong();
+    Random random = new Random(seed);
+    AbstractUnit[] units = {
+        new Player("Suguri", 4, 1, -1, 2),
+        new Player("Kai", 5, 1, 0, 0),
+        new WildUnit("Chicken", 3, -1, -1, 1),
+        new BossUnit("Store Manager", 8, 3, 2, -1)
+    };
+    AbstractUnit[] copies = new AbstractUnit[units.length];
+    for (int i = 0; i < units.length; i++) {
+      units[i].setSeed(seed + i);
+      units[i].increaseStarsBy(random.nextInt(20));
+      copies[i] = (AbstractUnit) units[i].copy();
+      copies[i].setRandomState(units[i].getRandomState());
+      copies[i].setStars(units[i].getStars());
+    }
+    for (int round = 0; round < 200; round++) {
+      int attacker = random.nextInt(units.length);
+      int target = random.nextInt(units.length);
+      int attackValue = units[attacker].getAttackRoll();
+      copies[attacker].getAttackRoll();
+      int response = random.nextInt(2);
+      if (response == CombatResolver.DEFEND) {
+        units[target].defendAttack(units[attacker], attackValue);
+      } else {
+        units[target].evadeAttack(units[attacker], attackValue);
+      }
+      int hp = copies[target].getCurrentHP();
+      int stars = copies[target].getStars();
+      int attackerStars = copies[attacker].getStars();
+      long result = CombatResolver.resolve(copies[attacker], attackValue, copies[target], response);
+      // Resolving doesn't change the units.
+      assertEquals(hp, copies[target].getCurrentHP());
+      assertEquals(stars, copies[target].getStars());
+      CombatResolver.apply(result, copies[attacker], copies[target]);
+      if (attacker != target) {
+        assertEquals(attackerStars + CombatResolver.getStars(result), copies[attacker].getStars());
+      }
+      for (int i = 0; i < units.length; i++) {
+        assertEquals(units[i].getCurrentHP(), copies[i].getCurrentHP());
+        assertEquals(units[i].getStars(), copies[i].getStars());
+        assertEquals(units[i].getWins(), copies[i].getWins());
+      }
+    }
+  }
+}
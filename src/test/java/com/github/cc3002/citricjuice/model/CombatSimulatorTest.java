@@ -0,0 +1,72 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.unit.CombatMatrix;
+import com.github.cc3002.citricjuice.model.unit.CombatResolver;
+import com.github.cc3002.citricjuice.model.unit.CombatSimulator;
+import com.github.cc3002.citricjuice.model.unit.UnitTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CombatSimulatorTest {
+  private UnitTable table;
+
+  @BeforeEach
+  public void setUp() {
+    table = new UnitTable(4);
+    table.add(UnitTable.PLAYER, "Suguri", 4, 1, -1, 2);
+    table.add(UnitTable.WILD, "Chicken", 3, -1, -1, 1);
+    table.add(UnitTable.BOSS, "Store Manager", 8, 3, 2, -1);
+    table.add(UnitTable.PLAYER, "Giant", 20, 30, 0, 0);
+    table.increaseStarsBy(1, 6);
+    table.increaseStarsBy(0, 10);
+  }
+
+  @Test
+  public void vectorizedMatchesScalarTest() {
+    long seed = new Random().nextLong();
+    CombatSimulator vectorized = new CombatSimulator(table, seed);
+    CombatSimulator scalar = new CombatSimulator(table, seed);
+    scalar.setVectorized(false);
+    // An amount of fights that doesn't fill the last block.
+    CombatMatrix expected = scalar.run(5000);
+    CombatMatrix actual = vectorized.run(5000);
+    for (int row = 0; row < expected.getRows(); row++) {
+      for (int col = 0; col < expected.getColumns(); col++) {
+        assertEquals(expected.getDefenderKORate(row, col), actual.getDefenderKORate(row, col));
+        assertEquals(expected.getAttackerKORate(row, col), actual.getAttackerKORate(row, col));
+        assertEquals(expected.getDefenderDamage(row, col), actual.getDefenderDamage(row, col));
+        assertEquals(expected.getAttackerDamage(row, col), actual.getAttackerDamage(row, col));
+        assertEquals(expected.getExpectedStars(row, col), actual.getExpectedStars(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void ratesTest() {
+    CombatSimulator simulator = new CombatSimulator(table, 3002);
+    CombatMatrix matrix = simulator.run(new int[] {3, 0}, new int[] {1, 0}, 20000);
+    // The giant always KOs, and takes every star of wild units and half of players'.
+    assertEquals(1.0, matrix.getDefenderKORate(0, 0));
+    assertEquals(3.0, matrix.getDefenderDamage(0, 0));
+    assertEquals(6.0, matrix.getExpectedStars(0, 0));
+    assertEquals(5.0, matrix.getExpectedStars(0, 1));
+    assertEquals(0.0, matrix.getAttackerKORate(0, 1));
+
+    // Suguri attacking a chicken that always evades: the attack (2 to 7) is evaded when the
+    // chicken rolls above it minus one, and KOs it if it isn't evaded and it's at least 3.
+    simulator.setResponses(CombatResolver.DEFEND, CombatResolver.EVADE);
+    matrix = simulator.run(new int[] {0}, new int[] {1}, 200000);
+    double koRate = 0;
+    for (int attack = 3; attack <= 7; attack++) {
+      for (int roll = 1; roll <= 6; roll++) {
+        koRate += roll + 1 > attack ? 0 : 1;
+      }
+    }
+    assertEquals(koRate / 36, matrix.getDefenderKORate(0, 0), 0.01);
+    assertTrue(matrix.toString().contains("Chicken"));
+  }
+}
@@ -0,0 +1,101 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchStandingsTest {
+  private MatchStandings standings;
+  private Player[] players;
+
+  @BeforeEach
+  public void setUp() {
+    standings = new MatchStandings();
+    players = new Player[] {
+        new Player("Suguri", 4, 1, -1, 2),
+        new Player("Kai", 5, 1, 0, 0),
+        new Player("Marc", 5, 2, -1, -1),
+        new Player("Peat", 3, 1, 1, 1),
+        new Player("Sora", 4, 1, 0, 1)
+    };
+    for (int i = 0; i < players.length; i++) {
+      players[i].setSeat(i);
+      players[i].setStandings(standings);
+    }
+  }
+
+  @Test
+  public void conditionsTest() {
+    assertEquals(5, standings.size());
+    assertEquals(1, standings.getMaxNormaLevel());
+    assertSame(players[0], standings.getLeader());
+    assertNull(standings.getWinner());
+    assertFalse(standings.isBossEligible());
+
+    players[3].increaseStarsBy(5);
+    assertSame(players[3], standings.getLeader());
+    assertEquals(1, standings.getRank(players[0]));
+    players[2].setNormaLevel(4);
+    assertTrue(standings.isBossEligible());
+    assertSame(players[2], standings.getLeader());
+    assertEquals(1, standings.getRank(players[3]));
+
+    players[4].setNormaLevel(6);
+    players[1].setNormaLevel(6);
+    assertSame(players[1], standings.getWinner());
+    players[1].setNormaLevel(5);
+    assertSame(players[4], standings.getWinner());
+    assertEquals(6, standings.getMaxNormaLevel());
+    players[4].setStandings(null);
+    assertNull(standings.getWinner());
+    assertEquals(5, standings.getMaxNormaLevel());
+    assertEquals(-1, standings.getRank(players[4]));
+    assertEquals(4, standings.size());
+  }
+
+  @RepeatedTest(20)
+  public void matchesScanTest() {
+    Random random = new Random();
+    for (int round = 0; round < 500; round++) {
+      Player player = players[random.nextInt(players.length)];
+      switch (random.nextInt(4)) {
+        case 0:
+          player.setNormaLevel(1 + random.nextInt(6));
+          break;
+        case 1:
+          player.increaseStarsBy(random.nextInt(10));
+          break;
+        case 2:
+          player.reduceStarsBy(random.nextInt(10));
+          break;
+        default:
+          player.increaseWinsBy(random.nextInt(3));
+          break;
+      }
+      int maxNorma = 0;
+      Player winner = null;
+      for (Player p : players) {
+        maxNorma = Math.max(maxNorma, p.getNormaLevel());
+        if (winner == null && p.getNormaLevel() >= 6) {
+          winner = p;
+        }
+      }
+      assertEquals(maxNorma, standings.getMaxNormaLevel());
+      assertSame(winner, standings.getWinner());
+      for (int rank = 0; rank + 1 < players.length; rank++) {
+        Player ahead = standings.getPlayerAt(rank);
+        Player behind = standings.getPlayerAt(rank + 1);
+        assertEquals(rank, standings.getRank(ahead));
+        assertTrue(ahead.getNormaLevel() > behind.getNormaLevel()
+            || ahead.getNormaLevel() == behind.getNormaLevel()
+            && (ahead.getStars() > behind.getStars() || ahead.getStars() == behind.getStars()
+            && ahead.getWins() >= behind.getWins()));
+      }
+    }
+  }
+}
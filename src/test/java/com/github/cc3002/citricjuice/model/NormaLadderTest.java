@@ -0,0 +1,106 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.board.HomePanel;
+import com.github.cc3002.citricjuice.model.norma.NormaFactory;
+import com.github.cc3002.citricjuice.model.norma.NormaLadder;
+import com.github.cc3002.citricjuice.model.norma.StarsNorma;
+import com.github.cc3002.citricjuice.model.norma.WinsNorma;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NormaLadderTest {
+
+  @Test
+  public void practiceLadderTest() {
+    NormaLadder ladder = NormaLadder.PRACTICE;
+    assertEquals(5, ladder.getLevels());
+    int[] stars = {10, 30, 70, 120, 200};
+    int[] wins = {NormaLadder.UNREACHABLE, 2, 5, 9, 14};
+    for (int level = 1; level <= 5; level++) {
+      assertEquals(stars[level - 1], ladder.getStarsNorma(level).getRequirement());
+      assertEquals(wins[level - 1], ladder.getWinsNorma(level).getRequirement());
+      // Goals are handed out, never created on each call.
+      assertSame(ladder.getStarsNorma(level), NormaFactory.getStarsNorma(level));
+      assertSame(ladder.getWinsNorma(level), NormaFactory.getWinsNorma(level));
+    }
+    assertEquals(NormaLadder.UNREACHABLE, ladder.getStarsNorma(6).getRequirement());
+    assertEquals(NormaLadder.UNREACHABLE, ladder.getWinsNorma(0).getRequirement());
+    assertSame(ladder.getWinsNorma(1), ladder.getWinsNorma(6));
+    assertSame(ladder.getStarsNorma(3), ladder.getGoal(false, 70));
+    assertSame(ladder.getWinsNorma(4), ladder.getGoal(true, 9));
+    assertEquals(new WinsNorma(3), ladder.getGoal(true, 3));
+  }
+
+  @Test
+  public void parseTest() throws IOException {
+    NormaLadder ladder = NormaLadder.parse("# level stars wins\n1 5 -\n\n2 5 1\n3 8 1\n"
+                                           + "4 12 3\n5 20 6\n");
+    assertEquals(MatchStandings.WINNING_NORMA_LEVEL - 1, ladder.getLevels());
+    assertEquals(5, ladder.getStarsNorma(2).getRequirement());
+    assertEquals(1, ladder.getWinsNorma(3).getRequirement());
+    // Equal goals of a ladder are the same instance.
+    assertSame(ladder.getStarsNorma(1), ladder.getStarsNorma(2));
+    assertSame(ladder.getWinsNorma(2), ladder.getWinsNorma(3));
+    assertEquals(NormaLadder.UNREACHABLE, ladder.getWinsNorma(1).getRequirement());
+
+    NormaLadder copy = NormaLadder.parse(NormaLadder.PRACTICE.toString());
+    for (int level = 0; level <= 6; level++) {
+      assertEquals(NormaLadder.PRACTICE.getStarsNorma(level), copy.getStarsNorma(level));
+      assertEquals(NormaLadder.PRACTICE.getWinsNorma(level), copy.getWinsNorma(level));
+    }
+
+    assertThrows(IOException.class, () -> NormaLadder.parse("2 10 -"));
+    assertThrows(IOException.class, () -> NormaLadder.parse("1 10"));
+    assertThrows(IOException.class, () -> NormaLadder.parse("1 ten -"));
+    assertThrows(IOException.class, () -> NormaLadder.parse("1 0 -\n2 5 1\n3 8 1\n4 12 3\n5 20 6"));
+    // Shorter ladders couldn't be won and longer ones would have levels nobody plays.
+    assertThrows(IOException.class, () -> NormaLadder.parse("1 5 -\n2 5 1\n3 8 1"));
+    assertThrows(IOException.class,
+                 () -> NormaLadder.parse(NormaLadder.PRACTICE + "6 300 20\n"));
+    assertThrows(IllegalArgumentException.class,
+                 () -> new NormaLadder(new int[] {1, 2}, new int[] {1}));
+  }
+
+  @Test
+  public void normaCheckTest() {
+    Player player = new Player("Suguri", 4, 1, -1, 2);
+    HomePanel home = new HomePanel(0);
+    player.setNormaGoal(new StarsNorma(3));
+    player.setStars(2);
+    home.activatedBy(player);
+    assertEquals(1, player.getNormaLevel());
+    player.setStars(3);
+    home.activatedBy(player);
+    assertEquals(2, player.getNormaLevel());
+
+    player.setNormaGoal(new WinsNorma(1));
+    assertFalse(player.normaCheck());
+    player.setWins(1);
+    assertTrue(player.normaCheck());
+    assertEquals(3, player.getNormaLevel());
+  }
+
+  @Test
+  public void controllerLadderTest() throws IOException {
+    GameController controller = new GameController();
+    NormaLadder ladder = NormaLadder.parse("1 3 -\n2 6 1\n3 9 2\n4 12 3\n5 15 4");
+    controller.setNormaLadder(ladder);
+    controller.newGame();
+    Player player = controller.getPlayer(0);
+    assertSame(ladder.getStarsNorma(1), player.getNormaGoal());
+    player.setNormaLevel(2);
+    controller.setWinsNorma(player);
+    assertSame(ladder.getWinsNorma(2), player.getNormaGoal());
+
+    GameSnapshot snapshot = GameSnapshot.capture(controller);
+    controller.setStarsNorma(player);
+    snapshot.restore(controller);
+    assertSame(ladder.getWinsNorma(2), player.getNormaGoal());
+  }
+}
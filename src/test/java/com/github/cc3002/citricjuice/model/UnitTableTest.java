@@ -0,0 +1,147 @@
+package com.github.cc3002.citricjuice.model;
+
+import com.github.cc3002.citricjuice.model.unit.AbstractUnit;
+import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.IUnit;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricjuice.model.unit.UnitTable;
+import com.github.cc3002.citricjuice.model.unit.UnitView;
+import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitTableTest {
+  private AbstractUnit[] units;
+  private UnitTable table;
+  private Random random;
+
+  @BeforeEach
+  public void setUp() {
+    long seed = new Random().nextLong();
+    random = new Random(seed);
+    units = new AbstractUnit[] {
+        new Player("Suguri", 4, 1, -1, 2),
+        new Player("Kai", 5, 1, 0, 0),
+        new WildUnit("Chicken", 3, -1, -1, 1),
+        new BossUnit("Store Manager", 8, 3, 2, -1)
+    };
+    table = new UnitTable(1);
+    for (AbstractUnit unit : units) {
+      unit.setSeed(seed++);
+      unit.increaseStarsBy(random.nextInt(20));
+      table.add(unit, -1);
+    }
+  }
+
+  private void assertSameValues() {
+    for (int i = 0; i < units.length; i++) {
+      AbstractUnit unit = units[i];
+      assertEquals(unit.getCurrentHP(), table.getHp(i));
+      assertEquals(unit.getStars(), table.getStars(i));
+      assertEquals(unit.getWins(), table.getWins(i));
+      assertEquals(unit.getRandomState(), table.getRandomState(i));
+      if (unit instanceof Player) {
+        assertEquals(((Player) unit).getRecoveryLeft(), table.getRecoveryLeft(i));
+      }
+    }
+  }
+
+  @Test
+  public void addTest() {
+    assertEquals(4, table.size());
+    assertEquals(UnitTable.PLAYER, table.getKind(1));
+    assertEquals(UnitTable.WILD, table.getKind(2));
+    assertEquals(UnitTable.BOSS, table.getKind(3));
+    assertEquals("Store Manager", table.getName(3));
+    assertEquals(1, table.getNormaLevel(0));
+    assertSameValues();
+  }
+
+  @RepeatedTest(20)
+  public void rulesMatchUnitObjectsTest() {
+    for (int round = 0; round < 200; round++) {
+      int attacker = random.nextInt(units.length);
+      int target = random.nextInt(units.length);
+      int action = random.nextInt(3);
+      if (action == 2) {
+        if (units[target] instanceof Player) {
+          assertEquals(((Player) units[target]).recoveryTrial(), table.recoveryTrial(target));
+        }
+      } else {
+        int damage = units[attacker].getAttackRoll();
+        assertEquals(damage, table.getAttackRoll(attacker));
+        if (action == 0) {
+          units[target].defendAttack(units[attacker], damage);
+          table.defendAttack(target, attacker, damage);
+        } else {
+          units[target].evadeAttack(units[attacker], damage);
+          table.evadeAttack(target, attacker, damage);
+        }
+      }
+      assertSameValues();
+    }
+  }
+
+  @RepeatedTest(20)
+  public void viewsWorkWithUnitObjectsTest() {
+    UnitTable other = new UnitTable(4);
+    for (AbstractUnit unit : units) {
+      other.add(unit, -1);
+    }
+    AbstractUnit[] copies = new AbstractUnit[units.length];
+    for (int i = 0; i < units.length; i++) {
+      copies[i] = (AbstractUnit) units[i].copy();
+      copies[i].setRandomState(units[i].getRandomState());
+      copies[i].setStars(units[i].getStars());
+    }
+    // The first two units are views on one side and objects on the other, the rest the
+    // opposite, so every fight mixes both.
+    IUnit[] mixed = {other.view(0), other.view(1), copies[2], copies[3]};
+    IUnit[] reference = {units[0], units[1], units[2], units[3]};
+    IUnit[] opposite = {copies[0], copies[1], other.view(2), other.view(3)};
+    for (int round = 0; round < 200; round++) {
+      int attacker = random.nextInt(units.length);
+      int target = random.nextInt(units.length);
+      int damage = reference[attacker].getAttackRoll();
+      mixed[attacker].getAttackRoll();
+      opposite[attacker].getAttackRoll();
+      if (random.nextBoolean()) {
+        reference[target].defendAttack(reference[attacker], damage);
+        mixed[target].defendAttack(mixed[attacker], damage);
+        opposite[target].defendAttack(opposite[attacker], damage);
+      } else {
+        reference[target].evadeAttack(reference[attacker], damage);
+        mixed[target].evadeAttack(mixed[attacker], damage);
+        opposite[target].evadeAttack(opposite[attacker], damage);
+      }
+      for (int i = 0; i < units.length; i++) {
+        assertEquals(reference[i].getCurrentHP(), mixed[i].getCurrentHP());
+        assertEquals(reference[i].getStars(), mixed[i].getStars());
+        assertEquals(reference[i].getCurrentHP(), opposite[i].getCurrentHP());
+        assertEquals(reference[i].getStars(), opposite[i].getStars());
+      }
+    }
+  }
+
+  @Test
+  public void viewTest() {
+    UnitView view = table.view(2);
+    assertSame(view, table.view(2));
+    assertEquals("Chicken", view.getName());
+    view.setCurrentHP(10);
+    assertEquals(3, table.getHp(2));
+    view.reduceStarsBy(1000);
+    assertEquals(0, table.getStars(2));
+
+    UnitView copy = view.copy();
+    assertEquals(5, table.size());
+    assertEquals(4, copy.getIndex());
+    assertEquals(UnitTable.WILD, copy.getKind());
+    assertEquals(3, copy.getCurrentHP());
+  }
+}
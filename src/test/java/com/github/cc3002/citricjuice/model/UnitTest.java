@@ -1,12 +1,17 @@
 package com.github.cc3002.citricjuice.model;
 
+import com.github.cc3002.citricjuice.model.board.NeutralPanel;
 import com.github.cc3002.citricjuice.model.unit.BossUnit;
 import com.github.cc3002.citricjuice.model.unit.Player;
 import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import com.github.cc3002.citricliquid.controller.GameController;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -340,4 +345,35 @@ public class UnitTest {
 
   }
 
+  @Test
+  public void samePanelIdMoveTest() {
+    List<String> events = new ArrayList<>();
+    GameController observer = new GameController() {
+      @Override
+      public void propertyChange(PropertyChangeEvent event) {
+        events.add(event.getPropertyName());
+      }
+    };
+    // Equal panels, since they share an ID, but different places.
+    NeutralPanel first = new NeutralPanel(7);
+    NeutralPanel second = new NeutralPanel(7);
+    second.addNextPanel(new NeutralPanel(8));
+    second.addNextPanel(new NeutralPanel(9));
+    assertEquals(first, second);
+    suguri.setCurrentPanel(first);
+    kai.setCurrentPanel(second);
+    suguri.addObserver(observer);
+
+    suguri.setCurrentPanel(second);
+    assertSame(second, suguri.getCurrentPanel());
+    assertEquals(List.of("stumbledUponPlayer", "reachedPathFork", "currentPanel"), events);
+    events.clear();
+    suguri.moveTo(first);
+    assertEquals(List.of("currentPanel"), events);
+    assertFalse(suguri.occupancyOf(second).contains(suguri));
+    events.clear();
+    suguri.setCurrentPanel(first);
+    assertTrue(events.isEmpty());
+  }
+
 }
@@ -0,0 +1,126 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDistancesTest {
+
+  private static BoardTopology ring(int panels) {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(panels);
+    generator.setForkDensity(0);
+    return generator.generate(3);
+  }
+
+  @Test
+  public void ringTest() {
+    for (int panels : new int[] {10, 300}) {
+      BoardTopology board = ring(panels);
+      BoardDistances distances = board.getDistances();
+      assertSame(distances, board.getDistances());
+      assertEquals(panels, distances.size());
+      for (int from = 0; from < panels; from += 7) {
+        for (int to = 0; to < panels; to++) {
+          assertEquals(Math.floorMod(to - from, panels), distances.getDistance(from, to));
+        }
+      }
+    }
+    // Homes are at 0, 2, 5 and 7 on a main loop of 10.
+    BoardDistances distances = ring(10).getDistances();
+    assertEquals(0, distances.getDistanceToNearest(5, BoardGenerator.HOME));
+    assertEquals(5, distances.getNearest(5, BoardGenerator.HOME));
+    assertEquals(2, distances.getDistanceToNearest(8, BoardGenerator.HOME));
+    assertEquals(0, distances.getNearest(8, BoardGenerator.HOME));
+  }
+
+  @Test
+  public void largeBoardTest() {
+    assertTrue(ring(BoardDistances.TABLE_LIMIT).getDistances().hasTable());
+    // Past the limit each distance asked for searches from its panel.
+    for (int panels : new int[] {BoardDistances.TABLE_LIMIT + 1, 50000}) {
+      BoardDistances distances = ring(panels).getDistances();
+      assertFalse(distances.hasTable());
+      for (int from = 0; from < panels; from += panels / 5) {
+        for (int to = 0; to < panels; to += 997) {
+          assertEquals(Math.floorMod(to - from, panels), distances.getDistance(from, to));
+        }
+        assertEquals(panels - 1, distances.getDistance(from, Math.floorMod(from - 1, panels)));
+      }
+      int home = distances.getNearest(1, BoardGenerator.HOME);
+      assertEquals(distances.getDistance(1, home), distances.getDistanceToNearest(1, BoardGenerator.HOME));
+      assertEquals(0, distances.getDistanceToNearest(home, BoardGenerator.HOME));
+    }
+  }
+
+  @Test
+  public void unreachableTest() {
+    List<IPanel> panels = new ArrayList<>();
+    panels.add(new NeutralPanel(0));
+    panels.add(new BonusPanel(1));
+    panels.add(new BossPanel(2));
+    panels.get(0).addNextPanel(panels.get(1));
+    BoardDistances distances = BoardTopology.of(panels, null).getDistances();
+    assertEquals(1, distances.getDistance(0, 1));
+    assertEquals(-1, distances.getDistance(1, 0));
+    assertEquals(-1, distances.getDistance(0, 2));
+    assertEquals(1, distances.getDistanceToNearest(0, BoardGenerator.BONUS));
+    assertEquals(-1, distances.getDistanceToNearest(0, BoardGenerator.BOSS));
+    assertEquals(-1, distances.getNearest(0, BoardGenerator.BOSS));
+    assertEquals(-1, distances.getDistanceToNearest(2, BoardGenerator.DROP));
+  }
+
+  @Test
+  public void nearestTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(400);
+    generator.setForkDensity(0.2);
+    for (BoardTopology board : List.of(GameController.getPracticeBoard(), generator.generate(9))) {
+      BoardDistances distances = board.getDistances();
+      for (int from = 0; from < board.size(); from++) {
+        for (int kind = 0; kind <= BoardGenerator.HOME; kind++) {
+          int nearest = -1;
+          for (int to = 0; to < board.size(); to++) {
+            int distance = distances.getDistance(from, to);
+            if (BoardGenerator.kindOf(board.getPanel(to)) == kind && distance >= 0
+                && (nearest < 0 || distance < nearest)) {
+              nearest = distance;
+            }
+          }
+          assertEquals(nearest, distances.getDistanceToNearest(from, kind));
+          int panel = distances.getNearest(from, kind);
+          if (nearest >= 0) {
+            assertEquals(kind, BoardGenerator.kindOf(board.getPanel(panel)));
+            assertEquals(nearest, distances.getDistance(from, panel));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void controllerTest() {
+    GameController controller = new GameController();
+    controller.newGame();
+    Player first = controller.getPlayer(0);
+    Player second = controller.getPlayer(1);
+    assertEquals(0, controller.getDistanceToHome(first.getCurrentPanel(), first));
+    int distance = controller.getDistanceToHome(first.getCurrentPanel(), second);
+    assertTrue(distance > 0);
+    assertEquals(GameController.getPracticeBoard().getDistances()
+                     .getDistance(first.getHomePanel().getEntityId(),
+                                  second.getHomePanel().getEntityId()), distance);
+    assertEquals(0, controller.getDistanceToNearest(first.getCurrentPanel(), BoardGenerator.HOME));
+    assertTrue(controller.getDistanceToNearest(first.getCurrentPanel(), BoardGenerator.BOSS) > 0);
+
+    GameController ownPanels = new GameController();
+    IPanel panel = ownPanels.createNeutralPanel(0);
+    Player player = ownPanels.createPlayer("Suguri", 4, 1, -1, 2, panel);
+    assertThrows(IllegalStateException.class, () -> ownPanels.getDistanceToHome(panel, player));
+  }
+}
@@ -0,0 +1,188 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardGeneratorTest {
+
+  /**
+   * Tells whether every panel reaches the given one, walking the connections backwards.
+   */
+  private static boolean everyPanelReaches(BoardTopology board, int target) {
+    int[] previousStart = new int[board.size() + 1];
+    for (int id = 0; id < board.size(); id++) {
+      for (int k = 0; k < board.getNextCount(id); k++) {
+        previousStart[board.getNext(id, k) + 1]++;
+      }
+    }
+    for (int id = 0; id < board.size(); id++) {
+      previousStart[id + 1] += previousStart[id];
+    }
+    int[] previous = new int[previousStart[board.size()]];
+    int[] filled = previousStart.clone();
+    for (int id = 0; id < board.size(); id++) {
+      for (int k = 0; k < board.getNextCount(id); k++) {
+        previous[filled[board.getNext(id, k)]++] = id;
+      }
+    }
+    boolean[] seen = new boolean[board.size()];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    seen[target] = true;
+    queue.add(target);
+    int reached = 1;
+    while (!queue.isEmpty()) {
+      int id = queue.poll();
+      for (int i = previousStart[id]; i < previousStart[id + 1]; i++) {
+        if (!seen[previous[i]]) {
+          seen[previous[i]] = true;
+          reached++;
+          queue.add(previous[i]);
+        }
+      }
+    }
+    return reached == board.size();
+  }
+
+  @Test
+  void structureTest() {
+    for (long seed = 0; seed < 20; seed++) {
+      checkStructure(seed);
+    }
+  }
+
+  /**
+   * Generates a board with settings picked from a seed and checks every panel is well formed.
+   */
+  private static void checkStructure(long seed) {
+    String failed = "Test failed with seed: " + seed;
+    Random random = new Random(seed);
+    BoardGenerator generator = new BoardGenerator();
+    int panels = 10 + random.nextInt(2000);
+    generator.setPanels(panels);
+    generator.setHomes(1 + random.nextInt(8));
+    generator.setForkDensity(random.nextDouble() * 0.3);
+    int minLoop = 1 + random.nextInt(5);
+    generator.setLoopLength(minLoop, minLoop + random.nextInt(10));
+    BoardTopology board = generator.generate(random.nextLong());
+    assertEquals(panels, board.size(), failed);
+    assertNull(board.getMatrix(), failed);
+    for (int id = 0; id < board.size(); id++) {
+      assertEquals(id, board.getPanel(id).getEntityId(), failed);
+      int next = board.getNextCount(id);
+      assertTrue(next == 1 || next == 2,
+                 "Panel " + id + " leads to " + next + " panels. " + failed);
+      if (board.getPanel(id) instanceof HomePanel) {
+        assertTrue(everyPanelReaches(board, id), failed);
+      }
+    }
+  }
+
+  @Test
+  void mixTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(1004);
+    generator.setHomes(4);
+    generator.setPanelMix(1, 1, 0, 0, 3);
+    BoardTopology board = generator.generate(1);
+    int[] counts = new int[6];
+    for (IPanel panel : board.getPanels()) {
+      if (panel instanceof BonusPanel) {
+        counts[BoardGenerator.BONUS]++;
+      } else if (panel instanceof DropPanel) {
+        counts[BoardGenerator.DROP]++;
+      } else if (panel instanceof EncounterPanel) {
+        counts[BoardGenerator.ENCOUNTER]++;
+      } else if (panel instanceof BossPanel) {
+        counts[BoardGenerator.BOSS]++;
+      } else if (panel instanceof HomePanel) {
+        counts[BoardGenerator.HOME]++;
+      } else {
+        counts[BoardGenerator.NEUTRAL]++;
+      }
+    }
+    assertArrayEquals(new int[] {200, 200, 0, 0, 600, 4}, counts);
+  }
+
+  @Test
+  void forkTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(1000);
+    generator.setForkDensity(0.05);
+    generator.setLoopLength(4, 4);
+    BoardTopology board = generator.generate(2);
+    int forks = 0;
+    for (int id = 0; id < board.size(); id++) {
+      forks += board.getNextCount(id) - 1;
+    }
+    assertEquals(50, forks);
+
+    // Detours that don't fit are left out.
+    generator.setPanels(20);
+    generator.setForkDensity(1);
+    board = generator.generate(2);
+    forks = 0;
+    for (int id = 0; id < board.size(); id++) {
+      forks += board.getNextCount(id) - 1;
+    }
+    assertEquals(4, forks);
+    assertTrue(everyPanelReaches(board, 0));
+
+    assertThrows(IllegalArgumentException.class, () -> generator.setLoopLength(0, 3));
+    generator.setHomes(30);
+    assertThrows(IllegalArgumentException.class, () -> generator.generate(2));
+  }
+
+  @Test
+  void seedTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(500);
+    BoardTopology first = generator.generate(7);
+    BoardTopology second = generator.generate(7);
+    for (int id = 0; id < first.size(); id++) {
+      assertSame(first.getPanel(id).getClass(), second.getPanel(id).getClass());
+      assertEquals(first.getNextCount(id), second.getNextCount(id));
+      for (int k = 0; k < first.getNextCount(id); k++) {
+        assertEquals(first.getNext(id, k), second.getNext(id, k));
+      }
+    }
+  }
+
+  @Test
+  void largeBoardTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(100000);
+    generator.setForkDensity(0.1);
+    BoardTopology board = generator.generate(3);
+    assertEquals(100000, board.size());
+    assertTrue(everyPanelReaches(board, 0));
+  }
+
+  @Test
+  void matchTest() {
+    GameController controller = new GameController();
+    controller.newGame(new BoardGenerator().generate(4));
+    assertEquals(4, controller.getPlayerCount());
+    for (int seat = 0; seat < 4; seat++) {
+      assertTrue(controller.getPlayer(seat).getCurrentPanel() instanceof HomePanel);
+      controller.setBotPolicy(controller.getPlayer(seat), new RandomBotPolicy(seat));
+    }
+    BotDriver driver = new BotDriver(controller);
+    for (int chapter = 0; chapter < 20 && !controller.getGameEnded(); chapter++) {
+      driver.runUntil(TurboBoundary.CHAPTER);
+    }
+    assertTrue(controller.getChapter() > 1);
+
+    BoardGenerator twoHomes = new BoardGenerator();
+    twoHomes.setHomes(2);
+    assertThrows(IllegalArgumentException.class,
+                 () -> new GameController().newGame(twoHomes.generate(4)));
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.cc3002.citricjuice.model.board;
+
+import com.github.cc3002.citricliquid.controller.GameController;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardValidatorTest {
+
+  /**
+   * Creates neutral panels with the given panel IDs, homes where the ID is negative (using the
+   * opposite ID), and connects them.
+   * @param edges
+   *  pairs of list positions, from and to
+   */
+  private static BoardTopology board(int[] ids, int... edges) {
+    List<IPanel> panels = new ArrayList<>();
+    for (int id : ids) {
+      panels.add(id < 0 ? new HomePanel(-id) : new NeutralPanel(id));
+    }
+    for (int i = 0; i < edges.length; i += 2) {
+      panels.get(edges[i]).addNextPanel(panels.get(edges[i + 1]));
+    }
+    return BoardTopology.of(panels, null);
+  }
+
+  private static List<BoardReport.Problem> problemsOf(BoardReport report) {
+    List<BoardReport.Problem> problems = new ArrayList<>();
+    for (BoardReport.Issue issue : report.getIssues()) {
+      problems.add(issue.getProblem());
+    }
+    return problems;
+  }
+
+  @Test
+  public void practiceBoardTest() {
+    BoardReport report = GameController.getPracticeBoard().getReport();
+    assertTrue(report.isValid());
+    assertTrue(report.getIssues().isEmpty(), report.toString());
+    assertEquals(1, report.getComponentCount());
+    assertSame(report, GameController.getPracticeBoard().getReport());
+
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(100000);
+    BoardReport large = BoardValidator.validate(generator.generate(4));
+    assertTrue(large.getIssues().isEmpty());
+    assertEquals(1, large.getComponentCount());
+  }
+
+  @Test
+  public void duplicateIdTest() {
+    BoardReport report = BoardValidator.validate(board(new int[] {-5, 1, 2, 1}, 0, 1, 1, 2, 2, 3, 3, 0));
+    assertFalse(report.isValid());
+    assertEquals(List.of(BoardReport.Problem.DUPLICATE_ID), problemsOf(report));
+    assertEquals(3, report.getIssues().get(0).getPanel());
+  }
+
+  @Test
+  public void reachabilityTest() {
+    BoardReport deadEnd = BoardValidator.validate(board(new int[] {-5, 1}, 0, 1));
+    assertEquals(List.of(BoardReport.Problem.DEAD_END, BoardReport.Problem.UNREACHABLE_HOME),
+                 problemsOf(deadEnd));
+    assertEquals(1, deadEnd.getIssues().get(0).getPanel());
+    assertEquals(0, deadEnd.getIssues().get(1).getPanel());
+
+    // Two loops with a home each, the first one leads to the second one but not back.
+    BoardReport oneWay = BoardValidator.validate(board(new int[] {-5, 1, -6, 3},
+                                                       0, 1, 1, 0, 1, 2, 2, 3, 3, 2));
+    assertFalse(oneWay.isValid());
+    assertEquals(List.of(BoardReport.Problem.UNREACHABLE_HOME), problemsOf(oneWay));
+    assertEquals(0, oneWay.getIssues().get(0).getPanel());
+    assertEquals(2, oneWay.getComponentCount());
+    assertEquals(oneWay.getComponent(0), oneWay.getComponent(1));
+    assertTrue(oneWay.getComponent(0) > oneWay.getComponent(2));
+
+    // A panel leading into a loop, that no home leads to.
+    BoardReport entrance = BoardValidator.validate(board(new int[] {-5, 1, 2, 3},
+                                                         0, 1, 1, 2, 2, 0, 3, 1));
+    assertTrue(entrance.isValid());
+    assertEquals(List.of(BoardReport.Problem.UNREACHABLE_PANEL), problemsOf(entrance));
+    assertEquals(3, entrance.getIssues().get(0).getPanel());
+
+    BoardReport noHome = BoardValidator.validate(board(new int[] {0, 1}, 0, 1, 1, 0));
+    assertEquals(List.of(BoardReport.Problem.NO_HOME), problemsOf(noHome));
+    assertFalse(noHome.isValid());
+  }
+
+  @Test
+  public void loadTest() {
+    GameController controller = new GameController();
+    BoardTopology board = board(new int[] {-5, 1}, 0, 1);
+    assertThrows(IllegalArgumentException.class, () -> controller.loadBoard(board));
+    assertTrue(controller.getPanels().isEmpty());
+    controller.loadBoard(GameController.getPracticeBoard());
+    assertEquals(GameController.getPracticeBoard().size(), controller.getPanels().size());
+  }
+}
@@ -79,7 +79,7 @@ class PanelTest {
 
     // Shouldn't have players
     List<Player> expectedPlayers = List.of();
-    assertEquals(expectedPlayers, panel1.getPlayers());
+    assertEquals(expectedPlayers, suguri.occupancyOf(panel1).toList());
 
     assertEquals(panel1.getPanelID(), -1);
 
@@ -246,4 +246,54 @@ class PanelTest {
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void occupancyTest() {
+    // Same stats, so they are equal, but they are different players.
+    Player first = new Player(PLAYER_NAME, BASE_HP, BASE_ATK, BASE_DEF, BASE_EVD);
+    Player second = new Player(PLAYER_NAME, BASE_HP, BASE_ATK, BASE_DEF, BASE_EVD);
+    Player far = new Player("Kai", 5, 1, 0, 0);
+    Player unseated = new Player("Peat", 3, 1, 1, 1);
+    first.setSeat(3);
+    second.setSeat(1);
+    far.setSeat(70);
+    assertEquals(first, second);
+
+    first.setCurrentPanel(testNeutralPanel);
+    PanelOccupancy occupancy = first.occupancyOf(testNeutralPanel);
+    assertEquals(1, occupancy.size());
+    assertFalse(occupancy.hasOthers(first));
+    assertFalse(occupancy.contains(second));
+
+    second.setCurrentPanel(testNeutralPanel);
+    far.setCurrentPanel(testNeutralPanel);
+    unseated.setCurrentPanel(testNeutralPanel);
+    assertEquals(4, occupancy.size());
+    assertTrue(occupancy.hasOthers(first));
+    assertEquals(List.of(second, first, far, unseated), first.occupancyOf(testNeutralPanel).toList());
+    assertEquals(0, occupancy.indexOf(second));
+    assertEquals(1, occupancy.indexOf(first));
+    assertEquals(2, occupancy.indexOf(far));
+    assertEquals(3, occupancy.indexOf(unseated));
+
+    second.setCurrentPanel(testBonusPanel);
+    far.setCurrentPanel(testBonusPanel);
+    unseated.setCurrentPanel(testBonusPanel);
+    assertEquals(1, occupancy.size());
+    assertSame(first, first.occupancyOf(testNeutralPanel).toList().get(0));
+    assertEquals(-1, occupancy.indexOf(second));
+    assertEquals(List.of(second, far, unseated), far.occupancyOf(testBonusPanel).toList());
+
+    // Changing the seat keeps the player on its panel.
+    far.setSeat(0);
+    assertEquals(List.of(far, second, unseated), far.occupancyOf(testBonusPanel).toList());
+    assertTrue(far.occupancyOf(testBonusPanel).hasOthers(far));
+
+    // Two players can't share a seat.
+    Player sameSeat = new Player(PLAYER_NAME, BASE_HP, BASE_ATK, BASE_DEF, BASE_EVD);
+    sameSeat.setSeat(0);
+    assertThrows(IllegalStateException.class, () -> far.occupancyOf(testBonusPanel).add(sameSeat));
+    assertEquals(3, far.occupancyOf(testBonusPanel).size());
+    assertFalse(far.occupancyOf(testBonusPanel).contains(sameSeat));
+  }
+
+}
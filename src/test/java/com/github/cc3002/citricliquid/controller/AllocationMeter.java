@@ -0,0 +1,41 @@
+package com.github.cc3002.citricliquid.controller;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Counts the bytes allocated by the thread running a test, for the tests that check a hot path
+ * doesn't allocate. Those tests are skipped on JVMs that can't count them.
+ * <p>
+ * What gets allocated depends on the JIT (escape analysis removes short lived objects), so the
+ * tests using it are tagged "perf" and left out of the regular test run.
+ */
+final class AllocationMeter {
+  private final com.sun.management.ThreadMXBean threads;
+  private final long thread;
+
+  private AllocationMeter(com.sun.management.ThreadMXBean threads, long thread) {
+    this.threads = threads;
+    this.thread = thread;
+  }
+
+  /**
+   * Returns a meter of the current thread, skipping the test if the JVM can't count its
+   * allocations.
+   */
+  static AllocationMeter ofCurrentThread() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+        "The JVM doesn't count the bytes allocated by a thread.");
+    return new AllocationMeter((com.sun.management.ThreadMXBean) bean,
+                               Thread.currentThread().getId());
+  }
+
+  /**
+   * Returns the bytes the thread allocated so far.
+   */
+  long allocated() {
+    return threads.getThreadAllocatedBytes(thread);
+  }
+}
@@ -1,5 +1,6 @@
 package com.github.cc3002.citricliquid.controller;
 
+import com.github.cc3002.citricjuice.model.EntityRegistry;
 import com.github.cc3002.citricjuice.model.board.*;
 import com.github.cc3002.citricjuice.model.norma.INormaGoal;
 import com.github.cc3002.citricjuice.model.norma.NormaFactory;
@@ -8,6 +9,7 @@ import com.github.cc3002.citricjuice.model.norma.WinsNorma;
 import com.github.cc3002.citricjuice.model.unit.BossUnit;
 import com.github.cc3002.citricjuice.model.unit.Player;
 import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import com.github.cc3002.citricliquid.controller.replay.MatchLog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
@@ -392,7 +394,7 @@ public class ControllerTest {
     for (IPanel c: testPanels) {
       expected = c;
       controller.placePlayer(c);
-      assertTrue(expected.getPlayers().contains(player1));
+      assertTrue(player1.occupancyOf(expected).contains(player1));
       assertEquals(player1.getCurrentPanel(), expected);
     }
 
@@ -421,11 +423,14 @@ public class ControllerTest {
     controller.clearCurrentBossUnit();
     BossUnit boss3 = controller.getCurrentBossUnit();
     boss3.setCurrentHP(0);
+    assertTrue(boss3.isKOd());
     BossUnit boss4 = controller.getCurrentBossUnit();
-    // Checking for hashCode to know they're different instances
-    // equal could actually say they're the same because of their properties.
-    assertNotEquals(boss1.hashCode(), boss3.hashCode());
-    assertNotEquals(boss4.hashCode(), boss3.hashCode());
+    // A match has a single boss character, and the unit pool hands the same instance back on
+    // every respawn, reset to full HP.
+    assertSame(boss1, boss3);
+    assertSame(boss3, boss4);
+    assertFalse(boss3.isKOd());
+    assertEquals(boss4.getMaxHP(), boss4.getCurrentHP());
   }
 
   @RepeatedTest(50)
@@ -434,9 +439,16 @@ public class ControllerTest {
     WildUnit wild2 = controller.getCurrentWildUnit();
     assertEquals(wild1,wild2);
     wild1.setCurrentHP(0);
+    assertTrue(wild1.isKOd());
     WildUnit wild3 = controller.getCurrentWildUnit();
-    assertNotEquals(wild2,wild3);
-
+    // A respawn of the same kind is the pooled instance of the defeated unit, reset.
+    if (wild3.getName().equals(wild1.getName())) {
+      assertSame(wild1, wild3);
+    } else {
+      assertNotSame(wild1, wild3);
+    }
+    assertFalse(wild3.isKOd());
+    assertEquals(wild3.getMaxHP(), wild3.getCurrentHP());
   }
 
   @RepeatedTest(50)
@@ -475,6 +487,146 @@ public class ControllerTest {
 
   }
 
+  @Test
+  void registryTest() {
+    controller.newGame();
+    EntityRegistry registry = controller.getRegistry();
+    assertEquals(controller.getPanels().size(), registry.getPanelCount());
+    for (int i = 0; i < registry.getPanelCount(); i++) {
+      IPanel panel = controller.getPanels().get(i);
+      assertSame(panel, registry.getPanel(i));
+      assertEquals(i, registry.getPanelId(panel));
+      assertEquals(i, registry.getPanelAt(panel.getX(), panel.getY()));
+    }
+    assertEquals(-1, registry.getPanelAt(0, 0));
+    assertEquals(-1, registry.getPanelAt(40, 2));
+    // Every panel of the practice board has its own panel ID, the registry tells them apart too.
+    IPanel[][] matrix = controller.getBoardMatrix();
+    assertNotEquals(matrix[8][5], matrix[6][5]);
+    assertNotEquals(registry.getPanelId(matrix[8][5]), registry.getPanelId(matrix[6][5]));
+    assertEquals(-1, registry.getPanelId(new NeutralPanel(3)));
+
+    for (Player p : controller.getPlayers()) {
+      assertSame(p, registry.getUnit(registry.getUnitId(p)));
+      assertEquals(p.getSeat(), controller.getPlayerIndex(p));
+    }
+    assertEquals(-1, controller.getPlayerIndex(suguri));
+
+    WildUnit first = controller.getCurrentWildUnit();
+    int slot = registry.getUnitId(first);
+    assertTrue(slot >= controller.getPlayers().size());
+    first.setCurrentHP(0);
+    assertTrue(first.isKOd());
+    WildUnit second = controller.getCurrentWildUnit();
+    assertEquals(second.getMaxHP(), second.getCurrentHP());
+    assertEquals(slot, registry.getUnitId(second));
+    if (second.getName().equals(first.getName())) {
+      // The pool hands the defeated unit back, reset, on the same slot.
+      assertSame(first, second);
+    } else {
+      assertNotSame(first, second);
+      assertEquals(-1, registry.getUnitId(first));
+    }
+  }
+
+  @Test
+  void sharedBoardTest() {
+    controller.newGame();
+    GameController other = new GameController();
+    other.newGame();
+    assertSame(GameController.getPracticeBoard().getMatrix(), controller.getBoardMatrix());
+    assertSame(controller.getPanels(), other.getPanels());
+
+    Player player = controller.getPlayers().get(0);
+    Player otherPlayer = other.getPlayers().get(0);
+    IPanel panel = controller.getPanels().get(3);
+    player.setCurrentPanel(panel);
+    assertTrue(player.getPanelOccupancy().contains(player));
+    assertEquals(1, player.getPanelOccupancy().size());
+    assertNotSame(panel, otherPlayer.getCurrentPanel());
+    // The panel doesn't keep the players of any match.
+    Player outsider = new Player("Suguri", 4, 1, -1, 2);
+    assertThrows(IllegalStateException.class, () -> outsider.occupancyOf(panel));
+
+    otherPlayer.setCurrentPanel(panel);
+    assertEquals(1, player.getPanelOccupancy().size());
+    assertEquals(1, otherPlayer.getPanelOccupancy().size());
+    other.getPlayers().get(1).setCurrentPanel(panel);
+    assertFalse(player.getPanelOccupancy().hasOthers(player));
+    assertTrue(otherPlayer.getPanelOccupancy().hasOthers(otherPlayer));
+
+    // Shared panels can't be changed.
+    int next = panel.getNextPanels().size();
+    IPanel first = controller.getPanels().get(0);
+    assertThrows(IllegalStateException.class, () -> panel.addNextPanel(first));
+    assertThrows(IllegalStateException.class, () -> controller.setNextPanel(panel, first));
+    assertEquals(next, panel.getNextPanels().size());
+    int x = panel.getX();
+    assertThrows(IllegalStateException.class, () -> panel.setMatrixPos(x + 1, 0));
+    assertEquals(x, panel.getX());
+    int entityId = panel.getEntityId();
+    assertThrows(IllegalStateException.class, () -> panel.setEntityId(entityId + 1));
+    assertEquals(entityId, panel.getEntityId());
+    assertThrows(IllegalStateException.class,
+        () -> controller.loadBoard(GameController.getPracticeBoard()));
+    assertThrows(IllegalStateException.class, () -> controller.createNeutralPanel(99));
+    assertEquals(GameController.getPracticeBoard().size(), controller.getPanels().size());
+
+    // A new game drops the old one.
+    controller.startRecording(new MatchLog(0));
+    controller.newGame();
+    assertEquals(4, controller.getPlayers().size());
+    assertNull(controller.getMatchLog());
+    GameController fresh = new GameController();
+    fresh.newGame();
+    assertEquals(fresh.getStateHash(), controller.getStateHash());
+    controller.getPlayers().get(0).setCurrentPanel(panel);
+    assertNotSame(player, controller.getPlayers().get(0));
+    assertTrue(controller.getPlayers().get(0).getPanelOccupancy().contains(controller.getPlayers().get(0)));
+
+    BoardTopology board = GameController.getPracticeBoard();
+    for (int id = 0; id < board.size(); id++) {
+      IPanel boardPanel = board.getPanel(id);
+      assertEquals(boardPanel.getNextPanels().size(), board.getNextCount(id));
+      for (int k = 0; k < board.getNextCount(id); k++) {
+        assertSame(boardPanel.getNextPanels().get(k), board.getPanel(board.getNext(id, k)));
+      }
+      assertEquals(boardPanel.getX(), board.getX(id));
+      assertEquals(boardPanel.getY(), board.getY(id));
+    }
+  }
 
+  @RepeatedTest(50)
+  void encounterTest() {
+    NeutralPanel panel1 = controller.createNeutralPanel(0);
+    EncounterPanel panel2 = controller.createEncounterPanel(1);
+    controller.setNextPanel(panel1, panel2);
+    controller.setNextPanel(panel2, panel1);
+    Player player = controller.createPlayer("Suguri", 4, 1, -1, 2, panel1);
+    WildUnit enemy = controller.getCurrentWildUnit();
+    int enemyHP = enemy.getCurrentHP();
 
+    controller.beginTurn();
+    controller.doMove(1);
+    assertSame(panel2, player.getCurrentPanel());
+    if (controller.getTurnState().isEndPhase()) {
+      // The enemy was defeated and left its spot to a new one.
+      assertTrue(enemy.isKOd());
+      assertEquals(1, player.getWins());
+      WildUnit next = controller.getCurrentWildUnit();
+      if (next.getName().equals(enemy.getName())) {
+        assertSame(enemy, next);
+      } else {
+        assertNotSame(enemy, next);
+      }
+      assertFalse(next.isKOd());
+    } else {
+      assertTrue(controller.getTurnState().isCounterattackResponseChoosePhase());
+      assertSame(enemy, controller.getTurnState().getAttacker());
+      assertSame(player, controller.getTurnState().getTarget());
+      assertTrue(enemy.getCurrentHP() <= enemyHP);
+      controller.defendAgainstCounterattack();
+      assertTrue(controller.getTurnState().isEndPhase());
+    }
+  }
 }
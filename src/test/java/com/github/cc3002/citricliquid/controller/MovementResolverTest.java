@@ -0,0 +1,132 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.board.HomePanel;
+import com.github.cc3002.citricjuice.model.board.NeutralPanel;
+import com.github.cc3002.citricjuice.model.unit.Player;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovementResolverTest {
+  private GameController controller;
+  private HomePanel home;
+  private NeutralPanel fork;
+  private NeutralPanel left;
+  private NeutralPanel right;
+  private CountingPanel joint;
+  private Player suguri;
+
+  /**
+   * Neutral panel that counts how many times it's activated.
+   */
+  private static class CountingPanel extends NeutralPanel {
+    int activations = 0;
+
+    CountingPanel(int id) {
+      super(id);
+    }
+
+    @Override
+    public void activatedBy(@NotNull Player player) {
+      activations++;
+      super.activatedBy(player);
+    }
+  }
+
+  @BeforeEach
+  public void setUp() {
+    // home -> fork -> (left | right) -> joint -> home
+    controller = new GameController();
+    home = controller.createHomePanel(0);
+    fork = controller.createNeutralPanel(1);
+    left = controller.createNeutralPanel(2);
+    right = controller.createNeutralPanel(3);
+    joint = new CountingPanel(4);
+    controller.getPanels().add(joint);
+    controller.getRegistry().addPanel(joint);
+    controller.setNextPanel(home, fork);
+    controller.setNextPanel(fork, left);
+    controller.setNextPanel(fork, right);
+    controller.setNextPanel(left, joint);
+    controller.setNextPanel(right, joint);
+    controller.setNextPanel(joint, home);
+    suguri = controller.createPlayer("Suguri", 4, 1, -1, 2, left);
+    controller.setPlayerHome(suguri, home);
+  }
+
+  @Test
+  public void stopsTest() {
+    MoveResult landed = MovementResolver.resolve(suguri, 1);
+    assertEquals(MoveResult.Stop.LANDED, landed.getStop());
+    assertEquals(List.of(joint), landed.getPath());
+    assertEquals(0, landed.getRemainingSteps());
+
+    MoveResult atHome = MovementResolver.resolve(suguri, 4);
+    assertEquals(MoveResult.Stop.HOME, atHome.getStop());
+    assertSame(home, atHome.getFinalPanel());
+    assertEquals(2, atHome.getRemainingSteps());
+
+    MoveResult atFork = MovementResolver.resolve(suguri, home, 3);
+    assertEquals(MoveResult.Stop.FORK, atFork.getStop());
+    assertSame(fork, atFork.getFinalPanel());
+    assertEquals(2, atFork.getRemainingSteps());
+
+    MoveResult onFork = MovementResolver.resolve(suguri, fork, 3);
+    assertEquals(MoveResult.Stop.FORK, onFork.getStop());
+    assertTrue(onFork.getPath().isEmpty());
+    assertSame(fork, onFork.getFinalPanel());
+
+    MoveResult through = MovementResolver.resolveThrough(suguri, fork, right, 3);
+    assertEquals(List.of(right, joint, home), through.getPath());
+    assertEquals(MoveResult.Stop.LANDED, through.getStop());
+
+    controller.createPlayer("Kai", 5, 1, 0, 0, home);
+    MoveResult withPlayers = MovementResolver.resolve(suguri, 6);
+    assertEquals(MoveResult.Stop.PLAYERS, withPlayers.getStop());
+    assertSame(home, withPlayers.getFinalPanel());
+    assertEquals(4, withPlayers.getRemainingSteps());
+    // Other players stop the movement even without steps left.
+    assertEquals(MoveResult.Stop.PLAYERS, MovementResolver.resolve(suguri, joint, 1).getStop());
+  }
+
+  @Test
+  public void noSideEffectsTest() {
+    controller.beginTurn();
+    long turnHash = controller.getStateHash();
+    MovementResolver.resolve(suguri, 6);
+    assertSame(left, suguri.getCurrentPanel());
+    assertTrue(controller.getTurnState().isMovingPhase());
+    assertEquals(turnHash, controller.getStateHash());
+    assertEquals(0, joint.activations);
+  }
+
+  @Test
+  public void landingActivatesOnceTest() {
+    controller.beginTurn();
+    assertEquals(0, controller.doMove(1));
+    assertSame(joint, suguri.getCurrentPanel());
+    assertEquals(1, joint.activations);
+    assertTrue(controller.getTurnState().isEndPhase());
+  }
+
+  @Test
+  public void applyMoveStopsTest() {
+    controller.beginTurn();
+    assertEquals(2, controller.doMove(4));
+    assertSame(home, suguri.getCurrentPanel());
+    assertTrue(controller.getTurnState().isHomeStopChoosePhase());
+
+    controller.continueMoving();
+    assertSame(fork, suguri.getCurrentPanel());
+    assertTrue(controller.getTurnState().isPathChoosePhase());
+    assertEquals(1, controller.getTurnState().getSteps());
+
+    assertEquals(0, controller.continueMovingThrough(right));
+    assertSame(right, suguri.getCurrentPanel());
+    assertTrue(controller.getTurnState().isEndPhase());
+  }
+}
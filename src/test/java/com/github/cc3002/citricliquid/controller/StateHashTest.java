@@ -0,0 +1,76 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateHashTest {
+  GameController controller;
+  long seed;
+
+  @BeforeEach
+  void setUp() {
+    seed = new Random().nextLong();
+    controller = newController(seed);
+  }
+
+  private static GameController newController(long seed) {
+    GameController controller = new GameController();
+    controller.newGame();
+    controller.setSeed(seed);
+    return controller;
+  }
+
+  @Test
+  void equalStatesTest() {
+    GameController other = newController(seed);
+    assertEquals(controller.getStateHash(), other.getStateHash());
+
+    Player player = controller.getPlayers().get(2);
+    long initial = controller.getStateHash();
+    player.increaseStarsBy(3);
+    assertNotEquals(initial, controller.getStateHash());
+    player.reduceStarsBy(3);
+    assertEquals(initial, controller.getStateHash());
+
+    player.setCurrentPanel(controller.getPanels().get(0));
+    assertNotEquals(initial, controller.getStateHash());
+    other.getPlayers().get(2).setCurrentPanel(other.getPanels().get(0));
+    assertEquals(controller.getStateHash(), other.getStateHash());
+
+    controller.endTurn();
+    assertNotEquals(other.getStateHash(), controller.getStateHash());
+  }
+
+  @Test
+  void sameValuesOnOtherPlayerTest() {
+    GameController other = newController(seed);
+    controller.getPlayers().get(0).setCurrentHP(1);
+    other.getPlayers().get(1).setCurrentHP(1);
+    assertNotEquals(controller.getStateHash(), other.getStateHash());
+  }
+
+  @RepeatedTest(10)
+  void incrementalHashMatchesRestoredStateTest() {
+    long botSeed = seed;
+    for (Player p : controller.getPlayers()) {
+      controller.setBotPolicy(p, new RandomBotPolicy(botSeed++));
+    }
+    BotDriver driver = new BotDriver(controller);
+    int steps = 0;
+    while (!controller.getGameEnded() && steps < 5000) {
+      driver.step();
+      GameController restored = newController(0);
+      GameSnapshot.capture(controller).restore(restored);
+      assertEquals(controller.getStateHash(), restored.getStateHash());
+      steps++;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+import com.github.cc3002.citricliquid.controller.store.MatchStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that headless turns on the practice board don't allocate once the match is running,
+ * whether or not it is being stored.
+ * It relies on the JIT, so it's a "perf" test, run apart with {@code gradle perfTest}.
+ */
+@Tag("perf")
+public class TurnAllocationTest {
+  // Bytes a single turn may allocate.
+  private static final long TURN_BUDGET = 64;
+  // Average bytes per turn allowed, across every measured turn.
+  private static final double AVERAGE_BUDGET = 1;
+
+  private GameController controller;
+  private BotDriver driver;
+  private GameSnapshot start;
+
+  @BeforeEach
+  public void setUp() {
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(42);
+    for (int seat = 0; seat < controller.getPlayerCount(); seat++) {
+      controller.setBotPolicy(controller.getPlayer(seat), new RandomBotPolicy(seat));
+    }
+    driver = new BotDriver(controller);
+    // The boss is picked once per match, the first time it shows up.
+    while (controller.getBossUnitCharacter() == null && !controller.getGameEnded()) {
+      driver.runUntil(TurboBoundary.TURN);
+    }
+    start = GameSnapshot.capture(controller);
+  }
+
+  /**
+   * Plays a turn, putting the match back where the snapshot was taken first if it ended. The
+   * bots keep their own dice, so the match goes differently each time.
+   */
+  private void prepareTurn() {
+    if (controller.getGameEnded()) {
+      start.restore(controller);
+    }
+  }
+
+  @Test
+  public void turnBudgetTest() {
+    AllocationMeter meter = AllocationMeter.ofCurrentThread();
+    // Warms up the JIT on every kind of turn.
+    for (int i = 0; i < 50000; i++) {
+      prepareTurn();
+      driver.runUntil(TurboBoundary.TURN);
+    }
+    int turns = 5000;
+    long total = 0;
+    long worst = 0;
+    for (int i = 0; i < turns; i++) {
+      prepareTurn();
+      long before = meter.allocated();
+      driver.runUntil(TurboBoundary.TURN);
+      long allocated = meter.allocated() - before;
+      total += allocated;
+      worst = Math.max(worst, allocated);
+    }
+    assertTrue(worst <= TURN_BUDGET, "A turn allocated " + worst + " bytes");
+    assertTrue(total <= AVERAGE_BUDGET * turns, total + " bytes allocated by " + turns + " turns");
+  }
+
+  @Test
+  public void storedTurnTest() throws IOException {
+    Path directory = Files.createTempDirectory("match-store");
+    // Snapshots are left out, they allocate on purpose every few events.
+    try (MatchStore store = new MatchStore(directory, Integer.MAX_VALUE,
+                                           MatchStore.DEFAULT_SEGMENT_BYTES,
+                                           MatchStore.DEFAULT_COMMIT_MILLIS)) {
+      AllocationMeter meter = AllocationMeter.ofCurrentThread();
+      controller.startStoring(store);
+      for (int i = 0; i < 50000; i++) {
+        prepareTurn();
+        driver.runUntil(TurboBoundary.TURN);
+      }
+      int turns = 5000;
+      // The buffers handed to the writer grow now and then, when the disk is slow, but storing
+      // a command doesn't allocate.
+      int allocating = 0;
+      for (int i = 0; i < turns; i++) {
+        prepareTurn();
+        long before = meter.allocated();
+        driver.runUntil(TurboBoundary.TURN);
+        if (meter.allocated() - before > TURN_BUDGET) {
+          allocating++;
+        }
+      }
+      assertTrue(allocating <= turns / 100, allocating + " of " + turns + " stored turns allocated");
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : files.collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.cc3002.citricliquid.controller;
+
+import com.github.cc3002.citricjuice.model.board.NullPanel;
+import com.github.cc3002.citricjuice.model.unit.BossUnit;
+import com.github.cc3002.citricjuice.model.unit.WildUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitPoolTest {
+  private GameController controller;
+
+  @BeforeEach
+  public void setUp() {
+    controller = new GameController();
+    controller.createPlayer("Suguri", 4, 1, -1, 2, NullPanel.getNullPanel());
+  }
+
+  /**
+   * Defeats the current wild unit, so the next call to getCurrentWildUnit spawns another one.
+   */
+  private WildUnit respawnWildUnit() {
+    controller.getCurrentWildUnit().setCurrentHP(0);
+    return controller.getCurrentWildUnit();
+  }
+
+  @Test
+  public void reuseTest() {
+    Map<WildUnit, Boolean> seen = new IdentityHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      WildUnit unit = respawnWildUnit();
+      assertEquals(unit.getMaxHP(), unit.getCurrentHP());
+      assertEquals(0, unit.getStars());
+      assertEquals(0, unit.getWins());
+      seen.put(unit, true);
+      unit.increaseStarsBy(3);
+      unit.increaseWinsBy(1);
+    }
+    // One unit per stat line.
+    assertEquals(3, seen.size());
+
+    BossUnit boss = controller.getCurrentBossUnit();
+    boss.setCurrentHP(0);
+    assertSame(boss, controller.getCurrentBossUnit());
+    assertEquals(boss.getMaxHP(), boss.getCurrentHP());
+    assertNotSame(controller.getBossUnitCharacter(), boss);
+    assertEquals(4, controller.getUnitPool().size());
+  }
+
+  @Test
+  public void snapshotTest() {
+    WildUnit unit = controller.getCurrentWildUnit();
+    unit.setCurrentHP(1);
+    long hash = controller.getStateHash();
+    GameSnapshot snapshot = GameSnapshot.capture(controller);
+    for (int i = 0; i < 10; i++) {
+      respawnWildUnit();
+    }
+    snapshot.restore(controller);
+    assertEquals(1, controller.getCurrentWildUnit().getCurrentHP());
+    assertEquals(unit.getName(), controller.getCurrentWildUnit().getName());
+    assertEquals(hash, controller.getStateHash());
+  }
+
+  @Test
+  @Tag("perf")
+  public void noAllocationOnRespawnTest() {
+    AllocationMeter meter = AllocationMeter.ofCurrentThread();
+    // Warms up the pool and the JIT.
+    for (int i = 0; i < 20000; i++) {
+      respawnWildUnit();
+    }
+    int respawns = 100000;
+    long before = meter.allocated();
+    for (int i = 0; i < respawns; i++) {
+      respawnWildUnit();
+    }
+    long allocated = meter.allocated() - before;
+    assertTrue(allocated < respawns, allocated + " bytes allocated by " + respawns + " respawns");
+  }
+}
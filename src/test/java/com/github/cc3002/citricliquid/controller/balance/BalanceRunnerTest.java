@@ -0,0 +1,131 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceRunnerTest {
+
+  @Test
+  public void runningStatTest() {
+    RunningStat stat = new RunningStat();
+    assertEquals(Double.POSITIVE_INFINITY, stat.getHalfWidth(RunningStat.Z_95));
+    Random random = new Random(4);
+    double[] samples = new double[1000];
+    double sum = 0;
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = random.nextGaussian() * 3 + 10;
+      sum += samples[i];
+      stat.add(samples[i]);
+    }
+    double mean = sum / samples.length;
+    double squares = 0;
+    for (double sample : samples) {
+      squares += (sample - mean) * (sample - mean);
+    }
+    double variance = squares / (samples.length - 1);
+    assertEquals(samples.length, stat.getCount());
+    assertEquals(mean, stat.getMean(), 1e-9);
+    assertEquals(variance, stat.getVariance(), 1e-9);
+    assertEquals(RunningStat.Z_95 * Math.sqrt(variance / samples.length),
+                 stat.getHalfWidth(RunningStat.Z_95), 1e-9);
+  }
+
+  @Test
+  public void proportionTest() {
+    RunningStat never = new RunningStat();
+    assertEquals(Double.POSITIVE_INFINITY, never.getProportionHalfWidth(RunningStat.Z_95));
+    for (int i = 0; i < 100; i++) {
+      never.add(0);
+    }
+    // Nothing varies, but 100 misses don't prove the rate is 0.
+    assertEquals(0.0, never.getHalfWidth(RunningStat.Z_95));
+    double z2 = RunningStat.Z_95 * RunningStat.Z_95;
+    assertEquals(z2 / 200 / (1 + z2 / 100), never.getProportionHalfWidth(RunningStat.Z_95), 1e-12);
+
+    ConfigurationStats stats = new ConfigurationStats("Cut");
+    int[] levels = {2, 2, 2, 2};
+    stats.record(-1, 200, levels);
+    stats.record(-1, 200, levels);
+    // A seat that never won isn't known after a couple of matches.
+    assertFalse(stats.isPrecise(0.1, 1, 0.1, RunningStat.Z_95));
+    for (int i = 2; i < 1000; i++) {
+      stats.record(-1, 200, levels);
+    }
+    // Every match was cut: there's nothing to time, but the rates are known.
+    assertEquals(0L, stats.getChaptersToVictory().getCount());
+    assertTrue(stats.isPrecise(0.01, 1, 0.1, RunningStat.Z_95));
+    assertFalse(stats.isPrecise(0.001, 1, 0.1, RunningStat.Z_95));
+    // The report shows the same intervals the stopping rule uses.
+    String wilson = String.format("%.3f", stats.getWinRate(0).getProportionHalfWidth(RunningStat.Z_95));
+    assertTrue(stats.toString().contains("win rate by seat: 0.000 +/- " + wilson), stats.toString());
+  }
+
+  @Test
+  public void minimumTest() {
+    BalanceRunner runner = new BalanceRunner(1);
+    runner.setThreads(1);
+    runner.setMinMatches(12);
+    runner.setPrecision(1, 100, 6);
+    ConfigurationStats plain = runner.addConfiguration("Plain", controller -> { });
+    ConfigurationStats tough = runner.addConfiguration("Tough", controller ->
+        controller.getPlayer(0).setDef(3));
+    List<ConfigurationStats> results = runner.run();
+    assertEquals(List.of(plain, tough), results);
+    // Loose targets are met right away, so only the minimum is played.
+    assertEquals(12, plain.getMatches());
+    assertEquals(12, tough.getMatches());
+    // One norma level sample per match, the mean of its seats.
+    assertEquals(12L, plain.getNormaLevel().getCount());
+    ConfigurationStats spread = new ConfigurationStats("Spread");
+    spread.record(3, 20, new int[] {1, 2, 3, 6});
+    assertEquals(3.0, spread.getNormaLevel().getMean());
+    // Stats are handed out as copies.
+    spread.getNormaLevel().add(100);
+    spread.getWinRate(3).add(0);
+    assertEquals(1L, spread.getNormaLevel().getCount());
+    assertEquals(1.0, spread.getWinRate(3).getMean());
+    long players = 0;
+    for (int level = 1; level <= 6; level++) {
+      players += plain.getPlayersOnLevel(level);
+    }
+    assertEquals(4 * 12, players);
+    long wins = plain.getCutMatches();
+    for (int seat = 0; seat < ConfigurationStats.SEATS; seat++) {
+      wins += Math.round(plain.getWinRate(seat).getMean() * plain.getMatches());
+    }
+    assertEquals(plain.getMatches(), wins);
+  }
+
+  @Test
+  public void maximumTest() {
+    BalanceRunner runner = new BalanceRunner(2);
+    runner.setThreads(3);
+    runner.setMaxChapters(10);
+    runner.setMinMatches(5);
+    runner.setMaxMatches(20);
+    runner.setPrecision(0, 0, 0);
+    ConfigurationStats stats = runner.addConfiguration("Plain", controller -> { });
+    runner.run();
+    assertEquals(20, stats.getMatches());
+  }
+
+  @Test
+  public void precisionTest() {
+    BalanceRunner runner = new BalanceRunner(3);
+    runner.setThreads(4);
+    runner.setMinMatches(10);
+    runner.setPrecision(0.15, 1000, 1000);
+    ConfigurationStats stats = runner.addConfiguration("Plain", controller -> { });
+    runner.run();
+    long matches = stats.getMatches();
+    // Stops soon after the target, other workers may still be finishing a match.
+    assertTrue(matches >= 10 && matches < 1000, matches + " matches");
+    for (int seat = 0; seat < ConfigurationStats.SEATS; seat++) {
+      assertTrue(stats.getWinRate(seat).getProportionHalfWidth(RunningStat.Z_95) <= 0.15);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardGenerator;
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardOptimizerTest {
+
+  private static BoardDesign ring(int panels) {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(panels);
+    generator.setForkDensity(0);
+    return BoardDesign.of(generator.generate(1));
+  }
+
+  @Test
+  public void designTest() {
+    BoardTopology practice = GameController.getPracticeBoard();
+    BoardDesign design = BoardDesign.of(practice);
+    assertEquals(practice.size(), design.size());
+    assertEquals(4, design.count(BoardGenerator.HOME));
+    assertTrue(design.isStronglyConnected());
+    BoardDesign copy = BoardDesign.of(design.toTopology());
+    assertEquals(design, copy);
+    assertEquals(design.hashCode(), copy.hashCode());
+
+    int kind = design.getKind(0);
+    BoardDesign changed = design.withKind(0, BoardGenerator.NEUTRAL);
+    assertEquals(kind, design.getKind(0));
+    assertEquals(BoardGenerator.NEUTRAL, changed.getKind(0));
+    assertEquals(changed, design.withKind(0, BoardGenerator.NEUTRAL));
+    BoardDesign swapped = design.withSwappedKinds(0, 1);
+    assertEquals(design.getKind(1), swapped.getKind(0));
+    assertEquals(design.getKind(0), swapped.getKind(1));
+  }
+
+  @Test
+  public void connectionTest() {
+    BoardDesign ring = ring(10);
+    assertTrue(ring.isStronglyConnected());
+    assertNull(ring.withNext(3, 0, 3));
+    assertNull(ring.withNext(3, 0, 4));
+    // Skipping a panel of the only loop leaves it out.
+    BoardDesign skipping = ring.withNext(3, 0, 5);
+    assertEquals(5, skipping.getNext(3, 0));
+    assertEquals(4, ring.getNext(3, 0));
+    assertFalse(skipping.isStronglyConnected());
+    assertNull(ring.withNext(9, 0, 0));
+
+    Random random = new Random(2);
+    BoardOptimizer optimizer = new BoardOptimizer(2);
+    BoardDesign design = BoardDesign.of(GameController.getPracticeBoard());
+    for (int i = 0; i < 500; i++) {
+      BoardDesign mutated = optimizer.mutate(design, random);
+      if (mutated != null) {
+        assertNotEquals(design, mutated);
+        assertTrue(mutated.isStronglyConnected());
+        assertEquals(4, mutated.count(BoardGenerator.HOME));
+        design = mutated;
+      }
+    }
+  }
+
+  @Test
+  public void evaluationTest() {
+    BoardOptimizer optimizer = new BoardOptimizer(3);
+    optimizer.setMatches(12);
+    optimizer.setThreads(2);
+    BoardDesign design = BoardDesign.of(GameController.getPracticeBoard());
+    BoardEvaluation evaluation = optimizer.evaluate(design);
+    assertEquals(12, evaluation.getMatches());
+    assertTrue(evaluation.getMeanChapters() > 1);
+    double shares = 0;
+    for (int seat = 0; seat < 4; seat++) {
+      shares += evaluation.getWinShare(seat);
+    }
+    assertEquals(1, shares, 1e-9);
+    assertTrue(evaluation.getImbalance() >= 0 && evaluation.getImbalance() <= 1);
+
+    assertSame(evaluation, optimizer.evaluate(BoardDesign.of(design.toTopology())));
+    assertEquals(1, optimizer.getCacheHits());
+    assertEquals(1, optimizer.getEvaluatedBoards());
+
+    // The same seed plays the same matches.
+    BoardOptimizer other = new BoardOptimizer(3);
+    other.setMatches(12);
+    other.setThreads(1);
+    assertEquals(evaluation.getScore(), other.evaluate(design).getScore());
+
+    // Settings that change how boards are played or scored forget the evaluations.
+    optimizer.setMatches(6);
+    assertEquals(0, optimizer.getEvaluatedBoards());
+    BoardEvaluation fewer = optimizer.evaluate(design);
+    assertEquals(6, fewer.getMatches());
+    optimizer.setWeights(0, 0, 0);
+    assertEquals(0.0, optimizer.evaluate(design).getScore());
+    optimizer.setTargetChapters(10);
+    optimizer.setMaxChapters(20);
+    optimizer.setPolicy(RandomBotPolicy::new);
+    assertNotSame(fewer, optimizer.evaluate(design));
+    assertEquals(1, optimizer.getEvaluatedBoards());
+    assertEquals(1, optimizer.getCacheHits());
+  }
+
+  @Test
+  public void optimizeTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(24);
+    BoardDesign start = BoardDesign.of(generator.generate(5));
+    BoardOptimizer optimizer = new BoardOptimizer(5);
+    optimizer.setMatches(8);
+    optimizer.setMaxChapters(30);
+    BoardDesign best = optimizer.optimize(start, 15);
+    assertTrue(best.isStronglyConnected());
+    assertEquals(4, best.count(BoardGenerator.HOME));
+    assertTrue(optimizer.evaluate(best).getScore() >= optimizer.evaluate(start).getScore());
+
+    assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(ring(10).withNext(3, 0, 5), 1));
+  }
+}
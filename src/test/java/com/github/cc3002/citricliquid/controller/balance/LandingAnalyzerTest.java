@@ -0,0 +1,130 @@
+package com.github.cc3002.citricliquid.controller.balance;
+
+import com.github.cc3002.citricjuice.model.board.BoardGenerator;
+import com.github.cc3002.citricjuice.model.board.BoardTopology;
+import com.github.cc3002.citricjuice.model.board.BonusPanel;
+import com.github.cc3002.citricjuice.model.board.DropPanel;
+import com.github.cc3002.citricjuice.model.board.HomePanel;
+import com.github.cc3002.citricjuice.model.board.IPanel;
+import com.github.cc3002.citricjuice.model.board.NeutralPanel;
+import com.github.cc3002.citricliquid.controller.GameController;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LandingAnalyzerTest {
+
+  /**
+   * A loop 0 to 3 with a detour from 0 through 4 and 5 back to 2.
+   */
+  private static BoardTopology forkedLoop() {
+    List<IPanel> panels = new ArrayList<>();
+    for (int id = 0; id < 6; id++) {
+      panels.add(new NeutralPanel(id));
+    }
+    panels.get(0).addNextPanel(panels.get(1));
+    panels.get(1).addNextPanel(panels.get(2));
+    panels.get(2).addNextPanel(panels.get(3));
+    panels.get(3).addNextPanel(panels.get(0));
+    panels.get(0).addNextPanel(panels.get(4));
+    panels.get(4).addNextPanel(panels.get(5));
+    panels.get(5).addNextPanel(panels.get(2));
+    return BoardTopology.of(panels, null);
+  }
+
+  @Test
+  public void loopTest() {
+    BoardGenerator generator = new BoardGenerator();
+    generator.setPanels(10);
+    generator.setForkDensity(0);
+    BoardTopology ring = generator.generate(1);
+    LandingAnalyzer analyzer = new LandingAnalyzer(ring);
+    analyzer.setHomeStopChance(0);
+    LandingDistribution distribution = analyzer.analyze(0);
+    for (int id = 0; id < ring.size(); id++) {
+      assertEquals(0.1, distribution.getLanding(id), 1e-9);
+    }
+
+    analyzer.setHomeStopChance(1);
+    distribution = analyzer.analyze(0);
+    assertEquals(0, distribution.getMostLanded());
+    assertTrue(distribution.getLanding(0) > 0.1);
+    double total = 0;
+    for (int id = 0; id < ring.size(); id++) {
+      total += distribution.getLanding(id);
+    }
+    assertEquals(1, total, 1e-9);
+  }
+
+  @Test
+  public void pathWeightsTest() {
+    LandingAnalyzer analyzer = new LandingAnalyzer(forkedLoop());
+    analyzer.setPathWeights((panel, next) -> next == 4 ? 0 : 1);
+    LandingDistribution distribution = analyzer.analyze(1);
+    assertEquals(0, distribution.getLanding(4), 1e-9);
+    assertEquals(0, distribution.getLanding(5), 1e-9);
+    assertTrue(distribution.getIterations() > 1);
+
+    analyzer.setPathWeights((panel, next) -> 1);
+    distribution = analyzer.analyze(1);
+    assertTrue(distribution.getLanding(4) > 0);
+    assertTrue(distribution.getLanding(5) > 0);
+    assertThrows(IllegalArgumentException.class, () -> analyzer.analyze(6));
+  }
+
+  @Test
+  public void simulationTest() {
+    BoardTopology board = GameController.getPracticeBoard();
+    int home = -1;
+    for (int id = 0; id < board.size() && home < 0; id++) {
+      if (board.getPanel(id) instanceof HomePanel) {
+        home = id;
+      }
+    }
+    LandingDistribution distribution = new LandingAnalyzer(board).analyze(home);
+
+    // Plays the same movement rules turn by turn.
+    Random random = new Random(7);
+    int turns = 400000;
+    int[] landed = new int[board.size()];
+    int panel = home;
+    for (int turn = 0; turn < turns; turn++) {
+      int steps = 1 + random.nextInt(LandingAnalyzer.DICE_FACES);
+      while (steps > 0 && board.getNextCount(panel) > 0) {
+        panel = board.getNext(panel, random.nextInt(board.getNextCount(panel)));
+        steps--;
+        if (steps > 0 && panel == home && random.nextBoolean()) {
+          break;
+        }
+      }
+      landed[panel]++;
+    }
+    for (int id = 0; id < board.size(); id++) {
+      assertEquals((double) landed[id] / turns, distribution.getLanding(id), 0.005);
+    }
+  }
+
+  @Test
+  public void starIncomeTest() {
+    assertEquals(3.5, LandingAnalyzer.expectedStars(new BonusPanel(0), 1), 1e-12);
+    assertEquals(10.5, LandingAnalyzer.expectedStars(new BonusPanel(0), 5), 1e-12);
+    assertEquals(-7, LandingAnalyzer.expectedStars(new DropPanel(0), 2), 1e-12);
+    assertEquals(0, LandingAnalyzer.expectedStars(new HomePanel(0), 2), 1e-12);
+
+    BoardTopology board = GameController.getPracticeBoard();
+    LandingDistribution distribution = new LandingAnalyzer(board).analyze(0);
+    double income = 0;
+    for (int id = 0; id < board.size(); id++) {
+      income += distribution.getLanding(id)
+          * LandingAnalyzer.expectedStars(board.getPanel(id), 2);
+      assertEquals(distribution.getLanding(id)
+                       * LandingAnalyzer.expectedStars(board.getPanel(id), 2),
+                   distribution.getStarIncome(id, 2), 1e-12);
+    }
+    assertEquals(income, distribution.getExpectedStarIncome(2), 1e-12);
+  }
+}
@@ -0,0 +1,74 @@
+package com.github.cc3002.citricliquid.controller.bots;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotDriverTest {
+  GameController controller;
+  BotDriver driver;
+
+  @BeforeEach
+  void setUp() {
+    controller = new GameController();
+    controller.newGame();
+    driver = new BotDriver(controller);
+  }
+
+  private void makeEveryoneBot(long seed) {
+    for (Player p : controller.getPlayers()) {
+      controller.setBotPolicy(p, new RandomBotPolicy(seed++));
+    }
+  }
+
+  @Test
+  void humanSeatsAreNotPlayedTest() {
+    assertFalse(driver.isBotTurn());
+    assertFalse(driver.step());
+    assertEquals(0, driver.runUntil(TurboBoundary.CHAPTER));
+    assertTrue(controller.getTurnState().isStartPhase());
+
+    controller.setBotPolicy(controller.getTurnOwner(), new RandomBotPolicy(1));
+    assertTrue(driver.isBotTurn());
+    controller.setBotPolicy(controller.getTurnOwner(), null);
+    assertFalse(driver.isBotTurn());
+  }
+
+  @RepeatedTest(20)
+  void turnBoundaryTest() {
+    makeEveryoneBot(new Random().nextLong());
+    Player firstOwner = controller.getTurnOwner();
+    driver.runUntil(TurboBoundary.TURN);
+    if (!controller.getGameEnded()) {
+      assertTrue(controller.getTurnState().isStartPhase());
+      assertNotSame(firstOwner, controller.getTurnOwner());
+      assertFalse(controller.isHeadless());
+    }
+  }
+
+  @RepeatedTest(20)
+  void chapterBoundaryTest() {
+    makeEveryoneBot(new Random().nextLong());
+    driver.runUntil(TurboBoundary.CHAPTER);
+    assertEquals(2, controller.getChapter());
+    assertSame(controller.getPlayers().get(0), controller.getTurnOwner());
+  }
+
+  @RepeatedTest(20)
+  void fullMatchTest() {
+    makeEveryoneBot(new Random().nextLong());
+    int runs = 0;
+    while (!controller.getGameEnded() && runs < 200) {
+      driver.runUntil(TurboBoundary.NORMA_OR_KO);
+      runs++;
+    }
+    assertTrue(controller.getGameEnded());
+    assertNotNull(controller.getWinner());
+  }
+}
@@ -0,0 +1,144 @@
+package com.github.cc3002.citricliquid.controller.env;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEnvTest {
+  private GameEnv env;
+
+  @BeforeEach
+  public void setUp() {
+    env = new GameEnv();
+    env.setMaxChapters(30);
+  }
+
+  private static int pickLegal(boolean[] mask, int offset, Random random) {
+    int legal = 0;
+    for (int action = 0; action < GameEnv.ACTIONS; action++) {
+      legal += mask[offset + action] ? 1 : 0;
+    }
+    assertTrue(legal > 0, "A decision without legal actions");
+    int pick = random.nextInt(legal);
+    for (int action = 0; ; action++) {
+      if (mask[offset + action] && pick-- == 0) {
+        return action;
+      }
+    }
+  }
+
+  /**
+   * Plays a whole match with random legal actions, returning the observations and rewards.
+   */
+  private float[] playEpisode(long seed) {
+    Random random = new Random(seed);
+    float[] trace = new float[0];
+    env.reset(seed);
+    while (!env.isDone()) {
+      int action = pickLegal(env.getActionMask(), 0, random);
+      float reward = env.step(action);
+      float[] observation = env.getObservation();
+      int length = trace.length;
+      trace = Arrays.copyOf(trace, length + observation.length + 1);
+      System.arraycopy(observation, 0, trace, length, observation.length);
+      trace[trace.length - 1] = reward;
+    }
+    return trace;
+  }
+
+  @Test
+  public void determinismTest() {
+    float[] first = playEpisode(7);
+    float[] second = playEpisode(7);
+    assertTrue(first.length > 0);
+    assertTrue(Arrays.equals(first, second));
+    assertFalse(Arrays.equals(first, playEpisode(8)));
+  }
+
+  @Test
+  public void decisionTest() {
+    Random random = new Random(3);
+    env.reset(3);
+    int decisions = 0;
+    while (!env.isDone()) {
+      float[] observation = env.getObservation();
+      float phases = 0;
+      for (int i = 0; i < 6; i++) {
+        phases += observation[GameEnv.OBS_DECISION + i];
+      }
+      assertEquals(1f, phases);
+      assertFalse(env.isLegal(-1));
+      assertFalse(env.isLegal(GameEnv.ACTIONS));
+      int action = pickLegal(env.getActionMask(), 0, random);
+      assertTrue(env.isLegal(action));
+      env.step(action);
+      decisions++;
+    }
+    assertTrue(decisions > 0);
+    for (boolean legal : env.getActionMask()) {
+      assertFalse(legal);
+    }
+    assertThrows(IllegalStateException.class, () -> env.step(GameEnv.CONTINUE));
+  }
+
+  @Test
+  public void illegalActionTest() {
+    env.reset(5);
+    int illegal = 0;
+    while (env.getActionMask()[illegal]) {
+      illegal++;
+    }
+    int action = illegal;
+    assertThrows(IllegalArgumentException.class, () -> env.step(action));
+  }
+
+  @Test
+  public void rewardTest() {
+    env.setMaxChapters(1000);
+    Random random = new Random(11);
+    env.reset(11);
+    float total = 0;
+    float last = 0;
+    while (!env.isDone()) {
+      last = env.step(pickLegal(env.getActionMask(), 0, random));
+      total += last;
+    }
+    boolean won = env.getController().getWinner() == env.getController().getPlayer(0);
+    assertTrue(env.getController().getGameEnded());
+    assertEquals(won ? 1f : -1f, Math.signum(last));
+    int levels = env.getController().getPlayer(0).getNormaLevel() - 1;
+    assertEquals(levels * GameEnv.NORMA_REWARD + (won ? 1 : -1), total, 1e-4);
+  }
+
+  @Test
+  public void vectorTest() {
+    VectorGameEnv vector = new VectorGameEnv(100);
+    for (int i = 0; i < vector.size(); i++) {
+      vector.get(i).setMaxChapters(5);
+    }
+    vector.reset(1);
+    Random random = new Random(1);
+    int[] actions = new int[vector.size()];
+    int finished = 0;
+    for (int step = 0; step < 200; step++) {
+      for (int i = 0; i < vector.size(); i++) {
+        actions[i] = pickLegal(vector.getActionMasks(), i * GameEnv.ACTIONS, random);
+      }
+      vector.step(actions);
+      for (int i = 0; i < vector.size(); i++) {
+        finished += vector.getDones()[i] ? 1 : 0;
+        assertFalse(vector.get(i).isDone());
+      }
+    }
+    assertTrue(finished > 0);
+
+    GameEnv single = vector.get(0);
+    assertSame(vector.getObservations(), single.getObservation());
+    assertEquals(0, single.getObservationOffset());
+    assertEquals(GameEnv.OBSERVATION_SIZE, vector.get(1).getObservationOffset());
+  }
+}
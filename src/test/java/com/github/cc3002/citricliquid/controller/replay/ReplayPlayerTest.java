@@ -0,0 +1,129 @@
+package com.github.cc3002.citricliquid.controller.replay;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayPlayerTest {
+  GameController controller;
+  MatchLog log;
+
+  @BeforeEach
+  void setUp() {
+    long seed = new Random().nextLong();
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(seed);
+    log = new MatchLog(seed);
+    controller.startRecording(log);
+    for (Player p : controller.getPlayers()) {
+      controller.setBotPolicy(p, new RandomBotPolicy(seed++));
+    }
+  }
+
+  private void playMatch() {
+    BotDriver driver = new BotDriver(controller);
+    int runs = 0;
+    while (!controller.getGameEnded() && runs < 200) {
+      driver.runUntil(TurboBoundary.NORMA_OR_KO);
+      runs++;
+    }
+  }
+
+  private static byte[] bytesOf(GameController controller) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GameSnapshot.capture(controller).writeTo(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  @RepeatedTest(10)
+  void replayReproducesMatchTest() throws IOException {
+    playMatch();
+    ReplayPlayer replay = new ReplayPlayer(log);
+    assertEquals(0, replay.getPosition());
+    assertEquals(log.size(), replay.advance(log.size()));
+    assertTrue(replay.isFinished());
+    assertFalse(replay.step());
+    assertTrue(replay.getController().getGameEnded());
+    assertArrayEquals(bytesOf(controller), bytesOf(replay.getController()));
+  }
+
+  @RepeatedTest(10)
+  void seekMatchesFullSimulationTest() throws IOException {
+    playMatch();
+    ReplayPlayer replay = new ReplayPlayer(log, 4);
+    ReplayPlayer reference = new ReplayPlayer(log, Integer.MAX_VALUE);
+    assertEquals(1, reference.getKeyframeCount());
+    assertEquals(1 + (replay.getTurnCount() - 1) / 4, replay.getKeyframeCount());
+
+    Random random = new Random();
+    for (int i = 0; i < 5; i++) {
+      int turn = random.nextInt(replay.getTurnCount());
+      replay.seekTurn(turn);
+      reference.seekTurn(turn);
+      assertEquals(turn, replay.getTurnIndex());
+      assertEquals(reference.getPosition(), replay.getPosition());
+      assertTrue(replay.getController().getTurnState().isStartPhase());
+      assertArrayEquals(bytesOf(reference.getController()), bytesOf(replay.getController()));
+    }
+
+    replay.seek(2, 1);
+    assertEquals(2, replay.getController().getChapter());
+    assertSame(replay.getController().getPlayers().get(1), replay.getController().getTurnOwner());
+  }
+
+  @Test
+  void saveAndLoadTest() throws IOException {
+    playMatch();
+    Path file = Files.createTempFile("match", ".log");
+    try {
+      log.save(file);
+      MatchLog loaded = MatchLog.load(file);
+      assertEquals(log.getSeed(), loaded.getSeed());
+      assertEquals(log.size(), loaded.size());
+      for (int i = 0; i < log.size(); i++) {
+        assertEquals(log.getCommand(i), loaded.getCommand(i));
+        assertEquals(log.getArgument(i), loaded.getArgument(i));
+      }
+      assertTrue(log.getStateHashCount() > 0);
+      assertEquals(log.getStateHashCount(), loaded.getStateHashCount());
+      for (int i = 0; i <= log.size(); i++) {
+        assertEquals(log.getStateHash(i), loaded.getStateHash(i));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void divergenceDetectedTest() {
+    playMatch();
+    int finishedTurn = -1;
+    for (int i = log.size() / 2; i < log.size(); i++) {
+      if (log.getCommand(i) == GameCommand.FINISH_TURN) {
+        finishedTurn = i + 1;
+        break;
+      }
+    }
+    assertTrue(finishedTurn > 0);
+    log.addStateHash(finishedTurn, log.getStateHash(finishedTurn) + 1);
+    ReplayPlayer replay = new ReplayPlayer(log, Integer.MAX_VALUE);
+    assertEquals(finishedTurn - 1, replay.advance(finishedTurn - 1));
+    assertThrows(IllegalStateException.class, replay::step);
+  }
+}
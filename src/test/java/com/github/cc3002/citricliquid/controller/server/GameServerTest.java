@@ -0,0 +1,204 @@
+package com.github.cc3002.citricliquid.controller.server;
+
+import com.github.cc3002.citricliquid.controller.sync.StateMirror;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+  GameServer server;
+  Socket socket;
+  BufferedReader in;
+  PrintWriter out;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new GameServer();
+    int port = server.start(0);
+    socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    socket.close();
+    server.stop();
+  }
+
+  private String request(String line) throws IOException {
+    out.println(line);
+    return in.readLine();
+  }
+
+  private static String field(String reply, String name) {
+    for (String word : reply.split(" ")) {
+      if (word.startsWith(name + "=")) {
+        return word.substring(name.length() + 1);
+      }
+    }
+    return null;
+  }
+
+  @Test
+  void errorsTest() throws IOException {
+    assertTrue(request("HELLO").startsWith("ERR"));
+    assertTrue(request("STATE 99").startsWith("ERR"));
+    assertTrue(request("CMD").startsWith("ERR"));
+
+    String match = request("NEW 7").substring(3);
+    // Nobody is sitting on the turn owner's seat yet.
+    assertTrue(request("CMD " + match + " BEGIN_TURN").startsWith("ERR"));
+    assertEquals("OK Pikachu", request("JOIN " + match + " 0"));
+    assertTrue(request("JOIN " + match + " 4").startsWith("ERR"));
+    assertTrue(request("CMD " + match + " DO_MOVE").startsWith("ERR illegal"));
+    assertTrue(request("CMD " + match + " NOT_A_COMMAND").startsWith("ERR"));
+    assertEquals("StartPhase", field(request("STATE " + match), "phase"));
+    assertEquals("OK", request("CLOSE " + match));
+    assertTrue(request("CLOSE " + match).startsWith("ERR"));
+  }
+
+  @Test
+  void seatsTest() throws IOException {
+    String match = request("NEW").substring(3);
+    assertTrue(request("JOIN " + match + " 1").startsWith("OK"));
+    try (Socket other = new Socket(InetAddress.getLoopbackAddress(), socket.getPort())) {
+      PrintWriter otherOut = new PrintWriter(other.getOutputStream(), true, StandardCharsets.UTF_8);
+      BufferedReader otherIn = new BufferedReader(
+        new InputStreamReader(other.getInputStream(), StandardCharsets.UTF_8));
+      otherOut.println("JOIN " + match + " 1");
+      assertTrue(otherIn.readLine().startsWith("ERR"));
+      otherOut.println("JOIN " + match + " 0");
+      assertTrue(otherIn.readLine().startsWith("OK"));
+      // Seat 0 plays first and belongs to the other connection.
+      assertTrue(request("CMD " + match + " BEGIN_TURN").startsWith("ERR seat 0"));
+      otherOut.println("CMD " + match + " BEGIN_TURN");
+      assertTrue(otherIn.readLine().startsWith("OK"));
+    }
+  }
+
+  @RepeatedTest(5)
+  void fullMatchTest() throws IOException {
+    Random random = new Random();
+    String match = request("NEW " + random.nextLong()).substring(3);
+    for (int seat = 0; seat < 4; seat++) {
+      assertTrue(request("JOIN " + match + " " + seat).startsWith("OK"));
+    }
+    String state = request("STATE " + match);
+    int commands = 0;
+    while (field(state, "ended").equals("false") && commands < 5000) {
+      String[] legal = field(state, "legal").split(",");
+      assertTrue(legal.length > 0 && !legal[0].isEmpty(), state);
+      String[] choice = legal[random.nextInt(legal.length)].split(":");
+      state = request("CMD " + match + " " + choice[0] + " " + choice[1]);
+      assertTrue(state.startsWith("OK"), state);
+      commands++;
+    }
+    assertEquals("true", field(state, "ended"));
+    assertNotNull(field(state, "winner"));
+    assertTrue(field(state, "legal").isEmpty());
+
+    String stats = request("STATS");
+    assertEquals(String.valueOf(commands), field(stats, "commands"));
+    assertEquals("0", field(stats, "matchBytes"));
+  }
+
+  @Test
+  void syncForgetsClosedMatchesTest() {
+    GameServer.Session session = new GameServer.Session();
+    GameServer.Session other = new GameServer.Session();
+    String first = server.respond("NEW 1", session).substring(3);
+    String second = server.respond("NEW 2", session).substring(3);
+    assertTrue(server.respond("SYNC " + first, session).startsWith("OK"));
+    assertTrue(server.respond("SYNC " + second, session).startsWith("OK"));
+    assertEquals(2, session.encoders.size());
+
+    assertEquals("OK", server.respond("CLOSE " + first, session));
+    assertEquals(1, session.encoders.size());
+    assertEquals("OK", server.respond("CLOSE " + second, other));
+    String third = server.respond("NEW 3", session).substring(3);
+    assertTrue(server.respond("SYNC " + third, session).startsWith("OK"));
+    assertEquals(1, session.encoders.size());
+  }
+
+  @Test
+  void failedMessageTest() {
+    MatchActor match = new MatchActor(1, 1, Runnable::run);
+    CompletableFuture<Object> failed = match.ask(m -> {
+      throw new StackOverflowError();
+    });
+    CompletionException thrown = assertThrows(CompletionException.class, failed::join);
+    assertTrue(thrown.getCause() instanceof StackOverflowError);
+    // The match keeps answering.
+    assertEquals(1, (int) match.ask(MatchActor::getId).join());
+  }
+
+  @Test
+  void footprintTest() {
+    long footprint = GameServer.measureMatchFootprint(1000);
+    assertTrue(footprint > 0);
+    assertEquals(footprint, new GameServer(footprint).getMatchFootprint());
+  }
+
+  @Test
+  void syncTest() throws IOException {
+    String match = request("NEW").substring(3);
+    request("JOIN " + match + " 0");
+    StateMirror mirror = new StateMirror();
+    assertTrue(mirror.apply(Base64.getDecoder().decode(request("SYNC " + match).substring(3))));
+    assertEquals("StartPhase", mirror.getController().getTurnState().getTurnPhase().getClass().getSimpleName());
+
+    request("CMD " + match + " BEGIN_TURN");
+    byte[] delta = Base64.getDecoder().decode(request("SYNC " + match).substring(3));
+    assertTrue(mirror.apply(delta));
+    assertFalse(mirror.getController().getTurnState().isStartPhase());
+    byte[] full = Base64.getDecoder().decode(request("SYNC " + match + " FULL").substring(3));
+    assertTrue(delta.length < full.length);
+    assertTrue(mirror.apply(full));
+  }
+
+  @Test
+  void idleMatchesTest() throws IOException {
+    for (int i = 0; i < 5000; i++) {
+      server.createMatch(i);
+    }
+    String match = request("NEW").substring(3);
+    assertEquals("OK matches=5001", request("STATS").substring(0, 15));
+    assertTrue(request("JOIN " + match + " 0").startsWith("OK"));
+    assertTrue(request("CMD " + match + " BEGIN_TURN").startsWith("OK"));
+  }
+
+  @Test
+  void latencyPercentilesTest() {
+    LatencyRecorder recorder = new LatencyRecorder(100);
+    assertEquals(0, recorder.percentile(50));
+    for (int i = 1; i <= 100; i++) {
+      recorder.record(i);
+    }
+    assertEquals(50, recorder.percentile(50));
+    assertEquals(99, recorder.percentile(99));
+    assertEquals(100, recorder.percentile(100));
+    assertEquals(1, recorder.percentile(0));
+    // Older samples are overwritten once the ring is full.
+    for (int i = 0; i < 100; i++) {
+      recorder.record(1000);
+    }
+    assertEquals(200, recorder.getCount());
+    assertEquals(1000, recorder.percentile(1));
+  }
+}
@@ -0,0 +1,208 @@
+package com.github.cc3002.citricliquid.controller.store;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import com.github.cc3002.citricliquid.controller.bots.TurboBoundary;
+import com.github.cc3002.citricliquid.controller.replay.GameCommand;
+import com.github.cc3002.citricliquid.controller.replay.MatchLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchStoreTest {
+  GameController controller;
+  MatchLog log;
+  Path directory;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    long seed = new Random().nextLong();
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(seed);
+    log = new MatchLog(seed);
+    controller.startRecording(log);
+    for (Player p : controller.getPlayers()) {
+      controller.setBotPolicy(p, new RandomBotPolicy(seed++));
+    }
+    directory = Files.createTempDirectory("match-store");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  private void playChapters(int chapters) {
+    BotDriver driver = new BotDriver(controller);
+    while (!controller.getGameEnded() && controller.getChapter() <= chapters) {
+      if (driver.runUntil(TurboBoundary.CHAPTER) == 0) {
+        break;
+      }
+    }
+  }
+
+  private static byte[] bytesOf(GameController controller) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GameSnapshot.capture(controller).writeTo(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  void reconstructTest() throws IOException {
+    byte[] start = bytesOf(controller);
+    MatchStore store = new MatchStore(directory, 64, 4096, 1);
+    controller.startStoring(store);
+    playChapters(12);
+    store.close();
+
+    StoredMatch match = StoredMatch.load(directory);
+    assertFalse(match.isTruncated());
+    assertTrue(match.getSegmentCount() > 1);
+    assertEquals(segments().size(), match.getSegmentCount());
+    assertEquals(log.size(), match.getCommandCount());
+    assertEquals(store.getCommandCount(), match.getCommandCount());
+    assertEquals(store.getEventCount(), match.getEvents().size());
+    assertEquals(store.getSnapshotCount(), match.getSnapshotCount());
+    assertTrue(match.getSnapshotCount() > 2);
+
+    assertArrayEquals(start, bytesOf(match.reconstruct(0)));
+    assertArrayEquals(bytesOf(controller), bytesOf(match.reconstruct(match.getCommandCount())));
+    for (int commands = 1; commands <= log.size(); commands++) {
+      Long hash = log.getStateHash(commands);
+      if (hash != null) {
+        assertEquals(hash.longValue(), match.reconstruct(commands).getStateHash());
+        // Snapshots every 64 events leave less than 64 commands to replay.
+        assertTrue(match.getTailLength(commands) < 64);
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> match.reconstruct(match.getCommandCount() + 1));
+  }
+
+  @Test
+  void eventsTest() throws IOException {
+    int[] fields = GameSnapshot.capture(controller).toFields();
+    try (MatchStore store = new MatchStore(directory)) {
+      controller.startStoring(store);
+      playChapters(6);
+      store.flush();
+      // Everything handed over is readable once flushed, even with the store open.
+      assertEquals(store.getEventCount(), StoredMatch.load(directory).getEvents().size());
+    }
+    StoredMatch match = StoredMatch.load(directory);
+    assertEquals(1, match.getSegmentCount());
+
+    // Applying every change to the starting values gives the final values.
+    int commands = 0;
+    boolean starsChanged = false;
+    int players = controller.getPlayers().size();
+    for (MatchEvent event : match.getEvents()) {
+      if (event.getKind() == MatchEvent.Kind.COMMAND) {
+        assertEquals(commands, event.getCommandIndex());
+        assertEquals(log.getCommand(commands), event.getCommand());
+        assertEquals(log.getArgument(commands), event.getArgument());
+        commands++;
+      } else {
+        assertEquals(commands - 1, event.getCommandIndex());
+        assertEquals(fields[event.getField()], event.getOldValue());
+        fields[event.getField()] = event.getNewValue();
+        String name = MatchEvent.fieldName(event.getField(), players);
+        if (name.endsWith(".stars") && event.getPlayer(players) >= 0) {
+          starsChanged = true;
+        }
+      }
+    }
+    assertTrue(starsChanged);
+    assertArrayEquals(GameSnapshot.capture(controller).toFields(), fields);
+    assertEquals("turn", MatchEvent.fieldName(0, players));
+    assertEquals("player2.stars", MatchEvent.fieldName(GameSnapshot.MATCH_FIELDS + GameSnapshot.PLAYER_FIELDS + 5, players));
+  }
+
+  @Test
+  void crashTest() throws IOException {
+    MatchStore store = new MatchStore(directory, 64, 1 << 20, 1);
+    controller.startStoring(store);
+    playChapters(3);
+    store.close();
+    StoredMatch whole = StoredMatch.load(directory);
+
+    // A crash in the middle of a write leaves the last record cut short.
+    Path segment = segments().get(segments().size() - 1);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+    StoredMatch crashed = StoredMatch.load(directory);
+    assertTrue(crashed.isTruncated());
+    assertEquals(whole.getEvents().size() + whole.getSnapshotCount() - 1,
+                 crashed.getEvents().size() + crashed.getSnapshotCount());
+    int commands = crashed.getCommandCount();
+    assertArrayEquals(bytesOf(whole.reconstruct(commands)), bytesOf(crashed.reconstruct(commands)));
+
+    assertThrows(IOException.class, () -> new MatchStore(directory));
+    assertThrows(IllegalStateException.class, () -> controller.startStoring(store));
+  }
+
+  @Test
+  void fieldsTest() {
+    // The values the store diffs are read from the match as a snapshot would give them.
+    int[] fields = new int[GameSnapshot.fieldCount(controller)];
+    BotDriver driver = new BotDriver(controller);
+    for (int step = 0; step < 3000 && !controller.getGameEnded(); step++) {
+      GameSnapshot.captureFields(controller, fields);
+      assertArrayEquals(GameSnapshot.capture(controller).toFields(), fields, "Step " + step);
+      driver.step();
+    }
+  }
+
+  @Test
+  void storingTest() throws IOException {
+    try (MatchStore store = new MatchStore(directory)) {
+      assertThrows(IllegalStateException.class, () -> store.record(controller, GameCommand.BEGIN_TURN, 0));
+      controller.startStoring(store);
+      assertSame(store, controller.getMatchStore());
+      assertEquals(1, store.getSnapshotCount());
+      controller.perform(GameCommand.BEGIN_TURN);
+      assertEquals(1, store.getCommandCount());
+      assertTrue(store.getEventCount() > 1);
+      controller.startStoring(null);
+      assertTrue(new BotDriver(controller).step());
+      assertEquals(1, store.getCommandCount());
+    }
+    List<GameCommand> stored = new ArrayList<>();
+    for (MatchEvent event : StoredMatch.load(directory).getEvents()) {
+      if (event.getKind() == MatchEvent.Kind.COMMAND) {
+        stored.add(event.getCommand());
+      }
+    }
+    assertEquals(List.of(GameCommand.BEGIN_TURN), stored);
+  }
+}
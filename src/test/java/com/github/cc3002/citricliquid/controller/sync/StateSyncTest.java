@@ -0,0 +1,139 @@
+package com.github.cc3002.citricliquid.controller.sync;
+
+import com.github.cc3002.citricjuice.model.unit.Player;
+import com.github.cc3002.citricliquid.controller.GameController;
+import com.github.cc3002.citricliquid.controller.GameSnapshot;
+import com.github.cc3002.citricliquid.controller.bots.BotDriver;
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSyncTest {
+  GameController controller;
+  BotDriver driver;
+  StateDeltaEncoder encoder;
+  StateMirror mirror;
+
+  @BeforeEach
+  void setUp() {
+    long seed = new Random().nextLong();
+    controller = new GameController();
+    controller.newGame();
+    controller.setSeed(seed);
+    for (Player p : controller.getPlayers()) {
+      controller.setBotPolicy(p, new RandomBotPolicy(seed++));
+    }
+    driver = new BotDriver(controller);
+    encoder = new StateDeltaEncoder();
+    mirror = new StateMirror();
+  }
+
+  private void assertInSync() {
+    assertArrayEquals(GameSnapshot.capture(controller).toFields(),
+                      GameSnapshot.capture(mirror.getController()).toFields());
+    assertArrayEquals(GameSnapshot.capture(controller).getUnitNames(),
+                      GameSnapshot.capture(mirror.getController()).getUnitNames());
+    assertEquals(controller.getStateHash(), mirror.getController().getStateHash());
+  }
+
+  @RepeatedTest(10)
+  void mirrorFollowsMatchTest() throws IOException {
+    assertTrue(mirror.needsResync());
+    int fullSize = new StateDeltaEncoder().encode(controller).length;
+    mirror.apply(encoder.encode(controller));
+    long deltaBytes = 0;
+    int deltas = 0;
+    while (!controller.getGameEnded() && deltas < 5000) {
+      driver.step();
+      byte[] frame = encoder.encode(controller);
+      assertTrue(mirror.apply(frame));
+      assertFalse(mirror.needsResync());
+      assertInSync();
+      deltaBytes += frame.length;
+      deltas++;
+    }
+    assertTrue(mirror.getController().getGameEnded());
+    assertTrue(deltaBytes / deltas < fullSize / 4);
+  }
+
+  @Test
+  void lostFrameTest() throws IOException {
+    assertTrue(mirror.apply(encoder.encode(controller)));
+    for (int i = 0; i < 10; i++) {
+      driver.step();
+    }
+    // This frame never reaches the mirror.
+    encoder.encode(controller);
+    driver.step();
+    assertFalse(mirror.apply(encoder.encode(controller)));
+    assertTrue(mirror.needsResync());
+    driver.step();
+    assertFalse(mirror.apply(encoder.encode(controller)));
+
+    encoder.requestFullFrame();
+    assertTrue(mirror.apply(encoder.encode(controller)));
+    assertFalse(mirror.needsResync());
+    assertInSync();
+  }
+
+  @Test
+  void periodicFullFrameTest() throws IOException {
+    encoder = new StateDeltaEncoder(4);
+    assertTrue(mirror.apply(encoder.encode(controller)));
+    driver.step();
+    encoder.encode(controller);
+    for (int i = 0; i < 2; i++) {
+      driver.step();
+      assertFalse(mirror.apply(encoder.encode(controller)));
+    }
+    // Frames 0, 4, 8... are full ones.
+    driver.step();
+    assertTrue(mirror.apply(encoder.encode(controller)));
+    assertInSync();
+  }
+
+  @Test
+  void observersTest() throws IOException {
+    List<String> events = new ArrayList<>();
+    mirror.addObserver(event -> events.add(event.getPropertyName()));
+    mirror.apply(encoder.encode(controller));
+    assertTrue(events.contains("stateChanged"));
+    assertTrue(events.contains("playerMoved"));
+
+    events.clear();
+    mirror.apply(encoder.encode(controller));
+    assertTrue(events.isEmpty());
+
+    controller.getPlayers().get(2).setStars(15);
+    mirror.apply(encoder.encode(controller));
+    assertEquals(List.of("playerAttributeChanged"), events);
+  }
+
+  @Test
+  void varIntTest() throws IOException {
+    int[] values = {0, 1, -1, 63, -64, 64, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    for (int value : values) {
+      SyncFrames.writeVarInt(out, value);
+    }
+    // Small values take a single byte.
+    assertEquals(1 + 1 + 1 + 1 + 1 + 2 + 2 + 2 + 5 + 5, bytes.size());
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    for (int value : values) {
+      assertEquals(value, SyncFrames.readVarInt(in));
+    }
+  }
+}
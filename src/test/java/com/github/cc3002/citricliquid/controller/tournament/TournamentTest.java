@@ -0,0 +1,200 @@
+package com.github.cc3002.citricliquid.controller.tournament;
+
+import com.github.cc3002.citricliquid.controller.bots.RandomBotPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+  private Path progress;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    progress = Files.createTempFile("tournament", ".txt");
+    Files.delete(progress);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(progress);
+  }
+
+  private static Tournament tournament(long seed, int entrants) {
+    Tournament tournament = new Tournament(seed);
+    tournament.setMaxChapters(15);
+    for (int i = 0; i < entrants; i++) {
+      tournament.addEntrant("Random " + i, RandomBotPolicy::new);
+    }
+    return tournament;
+  }
+
+  @Test
+  public void eloTest() {
+    EloRatings ratings = new EloRatings(4);
+    assertEquals(0.5, ratings.expectedScore(0, 1), 1e-9);
+    ratings.update(new int[] {2, 0, 3, 1});
+    assertTrue(ratings.getRating(2) > ratings.getRating(0));
+    assertTrue(ratings.getRating(0) > ratings.getRating(3));
+    assertTrue(ratings.getRating(3) > ratings.getRating(1));
+    double sum = 0;
+    for (int entrant = 0; entrant < 4; entrant++) {
+      sum += ratings.getRating(entrant);
+      assertEquals(1, ratings.getMatches(entrant));
+    }
+    assertEquals(4 * EloRatings.INITIAL_RATING, sum, 1e-9);
+    assertEquals(EloRatings.INITIAL_RATING + EloRatings.DEFAULT_K / 2, ratings.getRating(2), 1e-9);
+    assertArrayEquals(new int[] {2, 0, 3, 1}, ratings.ranking());
+    assertTrue(ratings.expectedScore(2, 1) > 0.5);
+
+    // An entrant on two seats doesn't duel itself.
+    EloRatings pair = new EloRatings(2);
+    pair.update(new int[] {0, 0, 1, 1});
+    assertEquals(2 * EloRatings.INITIAL_RATING, pair.getRating(0) + pair.getRating(1), 1e-9);
+    assertTrue(pair.getRating(0) > pair.getRating(1));
+  }
+
+  @Test
+  public void roundRobinTest() throws IOException {
+    Tournament tournament = tournament(3, 5);
+    tournament.setThreads(1);
+    List<MatchResult> streamed = new ArrayList<>();
+    tournament.setListener(streamed::add);
+    EloRatings ratings = tournament.run();
+    // Five groups of four, each played with four rotations of the seats.
+    List<MatchResult> results = tournament.getResults();
+    assertEquals(20, results.size());
+    assertEquals(results, streamed);
+    for (int i = 0; i < results.size(); i++) {
+      MatchResult result = results.get(i);
+      assertEquals(i, result.getId());
+      int[] seats = result.getSeats();
+      int[] order = result.getOrder();
+      Arrays.sort(seats);
+      Arrays.sort(order);
+      assertArrayEquals(seats, order);
+      // The rotations of a group share their seed.
+      assertEquals(results.get(i - i % Tournament.SEATS).getSeed(), result.getSeed());
+    }
+    for (int entrant = 0; entrant < 5; entrant++) {
+      assertEquals(16, ratings.getMatches(entrant));
+    }
+  }
+
+  @Test
+  public void parallelTest() throws IOException {
+    Tournament serial = tournament(8, 5);
+    serial.setThreads(1);
+    serial.run();
+    Tournament parallel = tournament(8, 5);
+    parallel.setThreads(4);
+    parallel.run();
+    assertEquals(serial.getResults(), parallel.getResults());
+    for (int entrant = 0; entrant < 5; entrant++) {
+      assertEquals(serial.getRatings().getRating(entrant), parallel.getRatings().getRating(entrant));
+    }
+  }
+
+  @Test
+  public void resumeTest() throws IOException {
+    Tournament full = tournament(5, 6);
+    full.setPairing(Pairing.SWISS);
+    full.setRounds(3);
+    full.run();
+
+    Tournament first = tournament(5, 6);
+    first.setPairing(Pairing.SWISS);
+    first.setRounds(2);
+    first.setProgressFile(progress);
+    first.run();
+    assertEquals(16, first.getResults().size());
+
+    Tournament resumed = tournament(5, 6);
+    resumed.setPairing(Pairing.SWISS);
+    resumed.setRounds(3);
+    resumed.setProgressFile(progress);
+    List<MatchResult> streamed = new ArrayList<>();
+    resumed.setListener(streamed::add);
+    resumed.run();
+    assertEquals(full.getResults(), resumed.getResults());
+    assertEquals(24, streamed.size());
+    for (int entrant = 0; entrant < 6; entrant++) {
+      assertEquals(full.getRatings().getRating(entrant), resumed.getRatings().getRating(entrant));
+    }
+
+    Tournament other = tournament(6, 6);
+    other.setProgressFile(progress);
+    assertThrows(IOException.class, other::run);
+  }
+
+  @Test
+  public void fewEntrantsTest() throws IOException {
+    assertThrows(IllegalStateException.class, () -> tournament(1, 1).run());
+    Tournament tournament = tournament(2, 2);
+    tournament.run();
+    assertEquals(4, tournament.getResults().size());
+    // Each entrant plays two seats of every match, but that's still one match.
+    assertEquals(4, tournament.getRatings().getMatches(0));
+  }
+
+  @Test
+  public void crashedProgressTest() throws IOException {
+    Tournament full = tournament(4, 5);
+    full.run();
+
+    Tournament first = tournament(4, 5);
+    first.setProgressFile(progress);
+    first.run();
+    // A crash while writing the last result leaves it cut short.
+    List<String> lines = Files.readAllLines(progress);
+    String last = lines.get(lines.size() - 1);
+    lines.set(lines.size() - 1, last.substring(0, last.length() / 2));
+    Files.write(progress, String.join(System.lineSeparator(), lines).getBytes());
+
+    Tournament resumed = tournament(4, 5);
+    resumed.setProgressFile(progress);
+    List<MatchResult> streamed = new ArrayList<>();
+    resumed.setListener(streamed::add);
+    resumed.run();
+    assertEquals(full.getResults(), resumed.getResults());
+    assertEquals(20, streamed.size());
+    List<String> rewritten = Files.readAllLines(progress);
+    assertEquals(full.getResults().get(19).toLine(), rewritten.get(rewritten.size() - 1));
+
+    // The saved matches must be the ones scheduled.
+    Tournament swiss = tournament(4, 5);
+    swiss.setPairing(Pairing.SWISS);
+    swiss.setProgressFile(progress);
+    assertThrows(IOException.class, swiss::run);
+    Path copy = Files.createTempFile("tournament", ".txt");
+    try {
+      // Saved matches past the end of the schedule belong to a longer tournament.
+      List<String> longer = new ArrayList<>(rewritten);
+      MatchResult extra = full.getResults().get(0);
+      longer.add(new MatchResult(20, extra.getSeed(), extra.hasEnded(), extra.getSeats(),
+                                 extra.getOrder()).toLine());
+      Files.write(copy, longer);
+      Tournament shorter = tournament(4, 5);
+      shorter.setProgressFile(copy);
+      assertThrows(IOException.class, shorter::run);
+
+      // A damaged line before the last one can't be skipped.
+      List<String> damaged = new ArrayList<>(rewritten);
+      damaged.set(4, "match 2 x");
+      Files.write(copy, damaged);
+      Tournament again = tournament(4, 5);
+      again.setProgressFile(copy);
+      assertThrows(IOException.class, again::run);
+    } finally {
+      Files.deleteIfExists(copy);
+    }
+  }
+}